@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solutechconsulting.media.model.JsonCodecModule;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Registers the JSON codecs generated for the media model with the application's object mapper,
+ * making them the default serializers and deserializers of the model for the REST resources, the
+ * server-sent event streams and the REST media service client. The generated codecs replace
+ * Jackson's introspection of the immutable model classes.
+ */
+@ApplicationScoped
+public class JsonCodecCustomizer implements ObjectMapperCustomizer {
+
+  @Override
+  public void customize(ObjectMapper objectMapper) {
+    objectMapper.registerModule(new JsonCodecModule());
+  }
+}
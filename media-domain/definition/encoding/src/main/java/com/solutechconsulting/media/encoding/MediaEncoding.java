@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.encoding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.JsonCodecModule;
+import com.solutechconsulting.media.model.Media;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.model.protobuf.AudioProto.GrpcAudio;
+import com.solutechconsulting.media.model.protobuf.MediaMessages;
+import com.solutechconsulting.media.model.protobuf.MoviesProto.GrpcMovie;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto.GrpcTelevisionShow;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * The representations of a list of media items exchanged with the media resources. Besides JSON,
+ * lists may be sent as length-delimited protobuf messages, the {@code GrpcMovie}, {@code GrpcAudio}
+ * and {@code GrpcTelevisionShow} messages of the gRPC services, or as Smile or CBOR encodings of
+ * the model. Lists are read an item at a time, so a client can consume a response as it arrives.
+ */
+public enum MediaEncoding {
+
+  JSON(MediaType.APPLICATION_JSON) {
+    private final ObjectMapper objectMapper = objectMapper(new JsonFactory());
+
+    @Override
+    public <T extends Media> void write(Iterable<? extends T> media, Class<T> type,
+        OutputStream out) throws IOException {
+      writeJackson(objectMapper, media, type, out);
+    }
+
+    @Override
+    public <T extends Media> Iterator<T> read(InputStream in, Class<T> type) throws IOException {
+      return objectMapper.readerFor(type).readValues(in);
+    }
+  },
+
+  PROTOBUF(MediaEncoding.APPLICATION_PROTOBUF) {
+    @Override
+    public <T extends Media> void write(Iterable<? extends T> media, Class<T> type,
+        OutputStream out) throws IOException {
+      for (Media item : media) {
+        toMessage(item).writeDelimitedTo(out);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Media> Iterator<T> read(InputStream in, Class<T> type) {
+      Iterator<? extends Media> iterator;
+      if (type == Movie.class) {
+        iterator = readDelimited(in, GrpcMovie.parser(), MediaMessages::toMovie);
+      } else if (type == Audio.class) {
+        iterator = readDelimited(in, GrpcAudio.parser(), MediaMessages::toAudio);
+      } else if (type == TelevisionShow.class) {
+        iterator = readDelimited(in, GrpcTelevisionShow.parser(), MediaMessages::toTelevisionShow);
+      } else {
+        throw new IllegalArgumentException("Unsupported media type: " + type.getName());
+      }
+      return (Iterator<T>) iterator;
+    }
+  },
+
+  SMILE(MediaEncoding.APPLICATION_SMILE) {
+    private final ObjectMapper objectMapper = objectMapper(new SmileFactory());
+
+    @Override
+    public <T extends Media> void write(Iterable<? extends T> media, Class<T> type,
+        OutputStream out) throws IOException {
+      writeJackson(objectMapper, media, type, out);
+    }
+
+    @Override
+    public <T extends Media> Iterator<T> read(InputStream in, Class<T> type) throws IOException {
+      return objectMapper.readerFor(type).readValues(in);
+    }
+  },
+
+  CBOR(MediaEncoding.APPLICATION_CBOR) {
+    private final ObjectMapper objectMapper = objectMapper(new CBORFactory());
+
+    @Override
+    public <T extends Media> void write(Iterable<? extends T> media, Class<T> type,
+        OutputStream out) throws IOException {
+      writeJackson(objectMapper, media, type, out);
+    }
+
+    @Override
+    public <T extends Media> Iterator<T> read(InputStream in, Class<T> type) throws IOException {
+      return objectMapper.readerFor(type).readValues(in);
+    }
+  };
+
+  public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+  public static final String APPLICATION_CBOR = "application/cbor";
+
+  private final MediaType mediaType;
+
+  MediaEncoding(String mediaType) {
+    this.mediaType = MediaType.valueOf(mediaType);
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Return the encoding of a media type, ignoring any parameters.
+   *
+   * @param mediaType the media type
+   * @return the encoding or empty if the media type is not one of the encodings
+   */
+  public static Optional<MediaEncoding> of(MediaType mediaType) {
+    return Arrays.stream(values())
+        .filter(encoding -> encoding.mediaType.getType().equalsIgnoreCase(mediaType.getType())
+            && encoding.mediaType.getSubtype().equalsIgnoreCase(mediaType.getSubtype()))
+        .findFirst();
+  }
+
+  /**
+   * Write a list of media items, encoding each item as the iteration reaches it. The stream is not
+   * closed. If the iteration fails, a JSON, Smile or CBOR array is left unterminated so that the
+   * reader cannot mistake it for a complete one.
+   *
+   * @param media the media items
+   * @param type  the model type of the media items, {@link Movie}, {@link Audio} or {@link
+   *              TelevisionShow}
+   * @param out   the stream written to
+   * @param <T>   the model type of the media items
+   * @throws IOException if the stream cannot be written
+   */
+  public abstract <T extends Media> void write(Iterable<? extends T> media, Class<T> type,
+      OutputStream out) throws IOException;
+
+  /**
+   * Read a list of media items, decoding each item as the iterator reaches it. The caller closes
+   * the stream. An item that cannot be read is thrown from the iterator as an {@link
+   * UncheckedIOException} or a Jackson runtime exception.
+   *
+   * @param in   the stream read from
+   * @param type the model type of the media items, {@link Movie}, {@link Audio} or {@link
+   *             TelevisionShow}
+   * @param <T>  the model type of the media items
+   * @return the media items
+   * @throws IOException if the stream cannot be read
+   */
+  public abstract <T extends Media> Iterator<T> read(InputStream in, Class<T> type)
+      throws IOException;
+
+  private static ObjectMapper objectMapper(JsonFactory factory) {
+    return new ObjectMapper(factory).findAndRegisterModules()
+        .registerModule(new JsonCodecModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  private static <T extends Media> void writeJackson(ObjectMapper objectMapper,
+      Iterable<? extends T> media, Class<T> type, OutputStream out) throws IOException {
+    SequenceWriter writer = objectMapper.writerFor(type)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValuesAsArray(out);
+    for (T item : media) {
+      writer.write(item);
+    }
+    writer.close();
+  }
+
+  private static MessageLite toMessage(Media media) {
+    if (media instanceof Movie) {
+      return MediaMessages.toMessage((Movie) media);
+    } else if (media instanceof Audio) {
+      return MediaMessages.toMessage((Audio) media);
+    } else if (media instanceof TelevisionShow) {
+      return MediaMessages.toMessage((TelevisionShow) media);
+    }
+    throw new IllegalArgumentException("Unsupported media: " + media.getClass().getName());
+  }
+
+  private static <M, T> Iterator<T> readDelimited(InputStream in, Parser<M> parser,
+      Function<M, T> mapper) {
+    return new Iterator<>() {
+      private M next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            next = parser.parseDelimitedFrom(in);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        M message = next;
+        next = null;
+        return mapper.apply(message);
+      }
+    };
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.json;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@code @Value.Immutable} interface for which {@link JsonCodecProcessor} generates a
+ * reflection-free JSON codec at build time. For an interface {@code Movie}, the processor writes
+ * {@code MovieJsonCodec}, which streams the interface's properties straight to and from a Jackson
+ * {@code JsonGenerator} and {@code JsonParser} and builds instances through {@code
+ * ImmutableMovie.builder()}. The codecs of a package are registered with Jackson by the generated
+ * {@code JsonCodecModule} of that package.
+ * <p>
+ * The supported property types are {@code String}, the primitive numbers and {@code boolean} (and
+ * their wrappers), enums, {@code LocalDate} and {@code Duration}, each of them optionally wrapped
+ * in an {@code Optional}. The JSON written is the same as Jackson's with the JDK 8 and JSR 310
+ * modules and dates written as text, and either representation of a date or duration is read.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateJsonCodec {
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the JSON codecs of the interfaces annotated with {@link GenerateJsonCodec}. Each codec
+ * writes and reads the properties of its interface with straight-line calls on a Jackson {@code
+ * JsonGenerator} and {@code JsonParser}, with the property names pre-encoded, so no reflection or
+ * introspection happens at run time, and a GraalVM native image needs no reflection configuration
+ * for them. Properties follow the Immutables naming: a {@code get} or {@code is} prefix is dropped
+ * from the accessor name.
+ * <p>
+ * For every package holding annotated interfaces, a {@code JsonCodecModule} is generated that
+ * registers the codecs as the serializers and deserializers of both the interfaces and their
+ * immutable implementations.
+ */
+@SupportedAnnotationTypes("com.solutechconsulting.media.json.GenerateJsonCodec")
+public class JsonCodecProcessor extends AbstractProcessor {
+
+  private static final String IMMUTABLE = "org.immutables.value.Value.Immutable";
+  private static final String MODULE = "JsonCodecModule";
+
+  private enum Kind {
+    STRING, INT, LONG, DOUBLE, BOOLEAN, ENUM, LOCAL_DATE, DURATION
+  }
+
+  private static final class Property {
+    final String name;
+    final String accessor;
+    final Kind kind;
+    final boolean optional;
+    final String enumType;
+
+    Property(String name, String accessor, Kind kind, boolean optional, String enumType) {
+      this.name = name;
+      this.accessor = accessor;
+      this.kind = kind;
+      this.optional = optional;
+      this.enumType = enumType;
+    }
+
+    String constant() {
+      return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Map<String, List<TypeElement>> packages = new TreeMap<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateJsonCodec.class)) {
+      if (element.getKind() != ElementKind.INTERFACE
+          || element.getEnclosingElement().getKind() != ElementKind.PACKAGE
+          || !isImmutable(element)) {
+        error(element, "@GenerateJsonCodec requires a top level @Value.Immutable interface");
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      packages.computeIfAbsent(processingEnv.getElementUtils().getPackageOf(type)
+          .getQualifiedName().toString(), p -> new ArrayList<>()).add(type);
+    }
+
+    packages.forEach((packageName, types) -> {
+      for (TypeElement type : types) {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        if (collect(type, properties)) {
+          write(packageName, type.getSimpleName() + "JsonCodec",
+              codec(packageName, type, properties.values()));
+        }
+      }
+      write(packageName, MODULE, module(packageName, types));
+    });
+    return true;
+  }
+
+  private boolean isImmutable(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+          .contentEquals(IMMUTABLE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Collect the properties of an interface, those of its super interfaces first, in declaration
+   * order.
+   */
+  private boolean collect(TypeElement type, Map<String, Property> properties) {
+    boolean valid = true;
+    for (TypeMirror superInterface : type.getInterfaces()) {
+      valid &= collect((TypeElement) ((DeclaredType) superInterface).asElement(), properties);
+    }
+    for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      if (!method.getModifiers().contains(Modifier.ABSTRACT) || !method.getParameters().isEmpty()
+          || method.getReturnType().getKind() == TypeKind.VOID) {
+        continue;
+      }
+      String accessor = method.getSimpleName().toString();
+      TypeMirror valueType = method.getReturnType();
+      boolean optional = false;
+      if (valueType.getKind() == TypeKind.DECLARED
+          && qualifiedName(valueType).equals("java.util.Optional")) {
+        optional = true;
+        valueType = ((DeclaredType) valueType).getTypeArguments().get(0);
+      }
+      Kind kind = kind(valueType);
+      if (kind == null) {
+        error(method, "Unsupported JSON codec property type " + method.getReturnType());
+        valid = false;
+        continue;
+      }
+      String name = propertyName(accessor);
+      properties.put(name, new Property(name, accessor, kind, optional,
+          kind == Kind.ENUM ? qualifiedName(valueType) : null));
+    }
+    return valid;
+  }
+
+  private static Kind kind(TypeMirror type) {
+    switch (type.getKind()) {
+      case INT:
+        return Kind.INT;
+      case LONG:
+        return Kind.LONG;
+      case DOUBLE:
+        return Kind.DOUBLE;
+      case BOOLEAN:
+        return Kind.BOOLEAN;
+      case DECLARED:
+        if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+          return Kind.ENUM;
+        }
+        switch (qualifiedName(type)) {
+          case "java.lang.String":
+            return Kind.STRING;
+          case "java.lang.Integer":
+            return Kind.INT;
+          case "java.lang.Long":
+            return Kind.LONG;
+          case "java.lang.Double":
+            return Kind.DOUBLE;
+          case "java.lang.Boolean":
+            return Kind.BOOLEAN;
+          case "java.time.LocalDate":
+            return Kind.LOCAL_DATE;
+          case "java.time.Duration":
+            return Kind.DURATION;
+          default:
+            return null;
+        }
+      default:
+        return null;
+    }
+  }
+
+  private static String qualifiedName(TypeMirror type) {
+    return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+  }
+
+  private static String propertyName(String accessor) {
+    for (String prefix : new String[]{"get", "is"}) {
+      if (accessor.length() > prefix.length() && accessor.startsWith(prefix)
+          && Character.isUpperCase(accessor.charAt(prefix.length()))) {
+        return Character.toLowerCase(accessor.charAt(prefix.length()))
+            + accessor.substring(prefix.length() + 1);
+      }
+    }
+    return accessor;
+  }
+
+  private String codec(String packageName, TypeElement type, Iterable<Property> properties) {
+    String name = type.getSimpleName().toString();
+    String immutable = "Immutable" + name;
+    StringBuilder source = header(packageName,
+        "com.fasterxml.jackson.core.JsonGenerator",
+        "com.fasterxml.jackson.core.JsonParseException",
+        "com.fasterxml.jackson.core.JsonParser",
+        "com.fasterxml.jackson.core.JsonToken",
+        "com.fasterxml.jackson.core.io.SerializedString",
+        "com.fasterxml.jackson.databind.DeserializationContext",
+        "com.fasterxml.jackson.databind.SerializerProvider",
+        "com.fasterxml.jackson.databind.deser.std.StdDeserializer",
+        "com.fasterxml.jackson.databind.ser.std.StdSerializer",
+        "com.solutechconsulting.media.json.JsonCodecSupport",
+        "java.io.IOException")
+        .append("/**\n")
+        .append(" * Reflection-free JSON codec of {@link ").append(name).append("}.\n")
+        .append(" */\n")
+        .append(generated())
+        .append("public final class ").append(name).append("JsonCodec {\n\n");
+    for (Property property : properties) {
+      source.append("  private static final SerializedString ").append(property.constant())
+          .append(" = new SerializedString(\"").append(property.name).append("\");\n");
+    }
+
+    source.append("\n  private ").append(name).append("JsonCodec() {\n  }\n\n")
+        .append("  public static void write(").append(name)
+        .append(" value, JsonGenerator generator) throws IOException {\n")
+        .append("    generator.writeStartObject();\n");
+    for (Property property : properties) {
+      String value = "value." + property.accessor + "()";
+      source.append("    generator.writeFieldName(").append(property.constant()).append(");\n");
+      if (property.optional) {
+        source.append("    if (").append(value).append(".isPresent()) {\n  ")
+            .append(writeValue(property, value + ".get()"))
+            .append("    } else {\n      generator.writeNull();\n    }\n");
+      } else {
+        source.append(writeValue(property, value));
+      }
+    }
+    source.append("    generator.writeEndObject();\n  }\n\n");
+
+    source.append("  public static ").append(immutable)
+        .append(" read(JsonParser parser) throws IOException {\n")
+        .append("    JsonToken token = JsonCodecSupport.startObject(parser, \"").append(name)
+        .append("\");\n")
+        .append("    ").append(immutable).append(".Builder builder = ").append(immutable)
+        .append(".builder();\n")
+        .append("    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {\n")
+        .append("      String name = parser.getCurrentName();\n")
+        .append("      if (parser.nextToken() == JsonToken.VALUE_NULL) {\n")
+        .append("        continue;\n      }\n")
+        .append("      switch (name) {\n");
+    for (Property property : properties) {
+      source.append("        case \"").append(property.name).append("\":\n")
+          .append("          builder.").append(property.name).append("(")
+          .append(readValue(property)).append(");\n")
+          .append("          break;\n");
+    }
+    source.append("        default:\n          parser.skipChildren();\n          break;\n")
+        .append("      }\n    }\n")
+        .append("    JsonCodecSupport.endObject(parser, token, \"").append(name).append("\");\n")
+        .append("    try {\n      return builder.build();\n")
+        .append("    } catch (IllegalStateException e) {\n")
+        .append("      throw new JsonParseException(parser, e.getMessage());\n    }\n  }\n\n");
+
+    return source
+        .append("  static final class Serializer extends StdSerializer<").append(name)
+        .append("> {\n\n")
+        .append("    private static final long serialVersionUID = 1L;\n\n")
+        .append("    Serializer() {\n      super(").append(name).append(".class);\n    }\n\n")
+        .append("    @Override\n")
+        .append("    public void serialize(").append(name)
+        .append(" value, JsonGenerator generator, SerializerProvider provider)\n")
+        .append("        throws IOException {\n      write(value, generator);\n    }\n  }\n\n")
+        .append("  static final class Deserializer extends StdDeserializer<").append(immutable)
+        .append("> {\n\n")
+        .append("    private static final long serialVersionUID = 1L;\n\n")
+        .append("    Deserializer() {\n      super(").append(immutable)
+        .append(".class);\n    }\n\n")
+        .append("    @Override\n")
+        .append("    public ").append(immutable)
+        .append(" deserialize(JsonParser parser, DeserializationContext context)\n")
+        .append("        throws IOException {\n      return read(parser);\n    }\n  }\n}\n")
+        .toString();
+  }
+
+  private static String writeValue(Property property, String value) {
+    switch (property.kind) {
+      case STRING:
+        return "    generator.writeString(" + value + ");\n";
+      case ENUM:
+        return "    generator.writeString(" + value + ".name());\n";
+      case BOOLEAN:
+        return "    generator.writeBoolean(" + value + ");\n";
+      case LOCAL_DATE:
+        return "    JsonCodecSupport.writeLocalDate(generator, " + value + ");\n";
+      case DURATION:
+        return "    JsonCodecSupport.writeDuration(generator, " + value + ");\n";
+      default:
+        return "    generator.writeNumber(" + value + ");\n";
+    }
+  }
+
+  private static String readValue(Property property) {
+    switch (property.kind) {
+      case STRING:
+        return "JsonCodecSupport.readString(parser)";
+      case ENUM:
+        return "JsonCodecSupport.readEnum(parser, " + property.enumType + ".class)";
+      case INT:
+        return "JsonCodecSupport.readInt(parser)";
+      case LONG:
+        return "JsonCodecSupport.readLong(parser)";
+      case DOUBLE:
+        return "JsonCodecSupport.readDouble(parser)";
+      case BOOLEAN:
+        return "JsonCodecSupport.readBoolean(parser)";
+      case LOCAL_DATE:
+        return "JsonCodecSupport.readLocalDate(parser)";
+      default:
+        return "JsonCodecSupport.readDuration(parser)";
+    }
+  }
+
+  private String module(String packageName, List<TypeElement> types) {
+    StringBuilder source = header(packageName,
+        "com.fasterxml.jackson.databind.module.SimpleModule")
+        .append("/**\n")
+        .append(" * Registers the generated JSON codecs of this package with Jackson.\n")
+        .append(" */\n")
+        .append(generated())
+        .append("public final class ").append(MODULE).append(" extends SimpleModule {\n\n")
+        .append("  private static final long serialVersionUID = 1L;\n\n")
+        .append("  public ").append(MODULE).append("() {\n")
+        .append("    super(").append(MODULE).append(".class.getName());\n");
+    for (TypeElement type : types) {
+      String name = type.getSimpleName().toString();
+      String codec = name + "JsonCodec";
+      source.append("    ").append(codec).append(".Serializer ").append(decapitalize(name))
+          .append("Serializer = new ").append(codec).append(".Serializer();\n")
+          .append("    ").append(codec).append(".Deserializer ").append(decapitalize(name))
+          .append("Deserializer = new ").append(codec).append(".Deserializer();\n")
+          .append("    addSerializer(").append(name).append(".class, ")
+          .append(decapitalize(name)).append("Serializer);\n")
+          .append("    addSerializer(Immutable").append(name).append(".class, ")
+          .append(decapitalize(name)).append("Serializer);\n")
+          .append("    addDeserializer(").append(name).append(".class, ")
+          .append(decapitalize(name)).append("Deserializer);\n")
+          .append("    addDeserializer(Immutable").append(name).append(".class, ")
+          .append(decapitalize(name)).append("Deserializer);\n");
+    }
+    return source.append("  }\n}\n").toString();
+  }
+
+  private static StringBuilder header(String packageName, String... imports) {
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    for (String name : imports) {
+      source.append("import ").append(name).append(";\n");
+    }
+    return source.append("import javax.annotation.processing.Generated;\n\n");
+  }
+
+  private static String generated() {
+    return "@Generated(\"" + JsonCodecProcessor.class.getName() + "\")\n";
+  }
+
+  private static String decapitalize(String name) {
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private void write(String packageName, String simpleName, String source) {
+    String name = packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
+    try (Writer writer = processingEnv.getFiler().createSourceFile(name).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Unable to write " + name + ": " + e.getMessage());
+    }
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * The readers and writers shared by the codecs that {@link JsonCodecProcessor} generates. Values
+ * are read from the parser's current token, and a null or mistyped value is reported as a {@link
+ * JsonParseException}. Dates are written as ISO-8601 text and durations as decimal seconds, which
+ * is what Jackson's JSR 310 module writes with {@code WRITE_DATES_AS_TIMESTAMPS} disabled. Both
+ * the text and the timestamp representations are read.
+ */
+public final class JsonCodecSupport {
+
+  private JsonCodecSupport() {
+  }
+
+  /**
+   * Position the parser on the first field of an object, reading the start of the object if the
+   * parser is not already past it.
+   *
+   * @param parser the parser
+   * @param type   the name of the type read, for error messages
+   * @return the current token, either the first field name or the end of the object
+   * @throws IOException if the parser is not positioned at an object
+   */
+  public static JsonToken startObject(JsonParser parser, String type) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == null) {
+      token = parser.nextToken();
+    }
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    }
+    if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+      throw new JsonParseException(parser, "Expected an object for " + type + ", found " + token);
+    }
+    return token;
+  }
+
+  /**
+   * Verify that the fields of an object ended at the end of the object.
+   *
+   * @param parser the parser
+   * @param token  the token following the last field
+   * @param type   the name of the type read, for error messages
+   * @throws IOException if the object is malformed
+   */
+  public static void endObject(JsonParser parser, JsonToken token, String type)
+      throws IOException {
+    if (token != JsonToken.END_OBJECT) {
+      throw new JsonParseException(parser, "Unterminated object for " + type);
+    }
+  }
+
+  public static String readString(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token != null && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+      return parser.getText();
+    }
+    throw unexpected(parser, "a string");
+  }
+
+  public static int readInt(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getIntValue();
+    } else if (token == JsonToken.VALUE_STRING) {
+      try {
+        return Integer.parseInt(parser.getText().trim());
+      } catch (NumberFormatException e) {
+        throw unexpected(parser, "an integer");
+      }
+    }
+    throw unexpected(parser, "an integer");
+  }
+
+  public static long readLong(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getLongValue();
+    } else if (token == JsonToken.VALUE_STRING) {
+      try {
+        return Long.parseLong(parser.getText().trim());
+      } catch (NumberFormatException e) {
+        throw unexpected(parser, "an integer");
+      }
+    }
+    throw unexpected(parser, "an integer");
+  }
+
+  public static double readDouble(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token != null && token.isNumeric()) {
+      return parser.getDoubleValue();
+    } else if (token == JsonToken.VALUE_STRING) {
+      try {
+        return Double.parseDouble(parser.getText().trim());
+      } catch (NumberFormatException e) {
+        throw unexpected(parser, "a number");
+      }
+    }
+    throw unexpected(parser, "a number");
+  }
+
+  public static boolean readBoolean(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+      return token == JsonToken.VALUE_TRUE;
+    }
+    throw unexpected(parser, "a boolean");
+  }
+
+  public static <E extends Enum<E>> E readEnum(JsonParser parser, Class<E> type)
+      throws IOException {
+    String name = readString(parser);
+    try {
+      return Enum.valueOf(type, name);
+    } catch (IllegalArgumentException e) {
+      throw unexpected(parser, "one of " + type.getSimpleName());
+    }
+  }
+
+  /**
+   * Read a date written either as ISO-8601 text or as a {@code [year, month, day]} array.
+   *
+   * @param parser the parser
+   * @return the date
+   * @throws IOException if the value is not a date
+   */
+  public static LocalDate readLocalDate(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    try {
+      if (token == JsonToken.VALUE_STRING) {
+        return LocalDate.parse(parser.getText().trim());
+      } else if (token == JsonToken.START_ARRAY) {
+        int year = nextInt(parser);
+        int month = nextInt(parser);
+        int day = nextInt(parser);
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+          return LocalDate.of(year, month, day);
+        }
+      }
+    } catch (DateTimeException e) {
+      throw unexpected(parser, "a date");
+    }
+    throw unexpected(parser, "a date");
+  }
+
+  /**
+   * Read a duration written either as decimal or whole seconds or as ISO-8601 text.
+   *
+   * @param parser the parser
+   * @return the duration
+   * @throws IOException if the value is not a duration
+   */
+  public static Duration readDuration(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    try {
+      if (token == JsonToken.VALUE_NUMBER_INT) {
+        return Duration.ofSeconds(parser.getLongValue());
+      } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+        BigDecimal seconds = parser.getDecimalValue();
+        long whole = seconds.longValue();
+        return Duration.ofSeconds(whole,
+            seconds.subtract(BigDecimal.valueOf(whole)).movePointRight(9).intValue());
+      } else if (token == JsonToken.VALUE_STRING) {
+        return Duration.parse(parser.getText().trim());
+      }
+    } catch (DateTimeException | ArithmeticException e) {
+      throw unexpected(parser, "a duration");
+    }
+    throw unexpected(parser, "a duration");
+  }
+
+  public static void writeLocalDate(JsonGenerator generator, LocalDate date) throws IOException {
+    generator.writeString(date.toString());
+  }
+
+  public static void writeDuration(JsonGenerator generator, Duration duration)
+      throws IOException {
+    generator.writeNumber(BigDecimal.valueOf(duration.getSeconds())
+        .add(BigDecimal.valueOf(duration.getNano(), 9)));
+  }
+
+  private static int nextInt(JsonParser parser) throws IOException {
+    parser.nextToken();
+    return readInt(parser);
+  }
+
+  private static JsonParseException unexpected(JsonParser parser, String expected) {
+    return new JsonParseException(parser,
+        "Expected " + expected + ", found " + parser.currentToken());
+  }
+}
@@ -24,6 +24,7 @@ package com.solutechconsulting.media.model;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.solutechconsulting.media.json.GenerateJsonCodec;
 import org.immutables.value.Value;
 
 import java.time.Duration;
@@ -33,6 +34,7 @@ import java.util.Optional;
  * The Audio interface represents a single audio item such as a track on a CD.
  */
 @Value.Immutable
+@GenerateJsonCodec
 @JsonSerialize(as = ImmutableAudio.class)
 @JsonDeserialize(as = ImmutableAudio.class)
 public interface Audio extends Media {
@@ -24,6 +24,7 @@ package com.solutechconsulting.media.model;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.solutechconsulting.media.json.GenerateJsonCodec;
 import org.immutables.value.Value;
 
 import java.time.Duration;
@@ -35,6 +36,7 @@ import java.util.Optional;
  */
 
 @Value.Immutable
+@GenerateJsonCodec
 @JsonSerialize(as = ImmutableMovie.class)
 @JsonDeserialize(as = ImmutableMovie.class)
 public interface Movie extends Media {
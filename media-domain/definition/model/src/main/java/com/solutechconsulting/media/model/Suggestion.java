@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.solutechconsulting.media.json.GenerateJsonCodec;
+import org.immutables.value.Value;
+
+/**
+ * The Suggestion interface represents a single completion of a search prefix, such as a movie
+ * title or an album artist, as returned while a user is typing.
+ */
+@Value.Immutable
+@GenerateJsonCodec
+@JsonSerialize(as = ImmutableSuggestion.class)
+@JsonDeserialize(as = ImmutableSuggestion.class)
+public interface Suggestion {
+
+  /**
+   * Return the suggested text as it appears in the media library.
+   *
+   * @return the suggested text
+   */
+  String getText();
+
+  /**
+   * Return the kind of value the suggestion completes to.
+   *
+   * @return the suggestion kind
+   */
+  Kind getKind();
+
+  /**
+   * Return the suggestion weight. Suggestions with a higher weight are more popular and are
+   * returned first. The weight is the number of media items having the suggested value.
+   *
+   * @return the suggestion weight
+   */
+  long getWeight();
+
+  /**
+   * The kinds of values a suggestion completes to.
+   */
+  enum Kind {
+    /**
+     * The title of a movie, television show or audio track.
+     */
+    TITLE,
+    /**
+     * The title of a television series.
+     */
+    SERIES_TITLE,
+    /**
+     * The title of an album.
+     */
+    ALBUM,
+    /**
+     * An album artist or track artist.
+     */
+    ARTIST
+  }
+}
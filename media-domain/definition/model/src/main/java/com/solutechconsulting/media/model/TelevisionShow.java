@@ -24,6 +24,7 @@ package com.solutechconsulting.media.model;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.solutechconsulting.media.json.GenerateJsonCodec;
 import org.immutables.value.Value;
 
 import java.time.Duration;
@@ -35,6 +36,7 @@ import java.util.Optional;
  * a series.
  */
 @Value.Immutable
+@GenerateJsonCodec
 @JsonSerialize(as = ImmutableTelevisionShow.class)
 @JsonDeserialize(as = ImmutableTelevisionShow.class)
 public interface TelevisionShow extends Media {
@@ -23,9 +23,17 @@
 package com.solutechconsulting.media.service;
 
 import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Media;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.schedulers.Schedulers;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.microprofile.metrics.*;
 import org.eclipse.microprofile.metrics.annotation.RegistryType;
 import org.slf4j.Logger;
@@ -47,82 +55,214 @@ import javax.inject.Inject;
  * defined in this class rather than the interface-defined methods. This allows this abstract class
  * to perform any additional cross-cutting functionality on behalf of the runtime and actual
  * implementations.
+ * <p>
+ * Album track, series and episode lookups are first checked against the service's {@link
+ * LookupFilters}, if it has any. A title the filters report as definitely absent is answered with
+ * an empty stream without invoking the implementation. Implementations holding the whole library
+ * in memory install filters with {@link #setLookupFilters(LookupFilters)} whenever the library
+ * changes. Implementations backed by a store override {@link #loadLookupFilters()}; the filters are
+ * then loaded in the background on first use and reloaded once older than {@link
+ * #getLookupFiltersMaxAge()}. Lookups are passed to the implementation unfiltered until filters
+ * are loaded. Implementations call {@link #invalidateLookupFilters()} when the store is written;
+ * lookups are then unfiltered until filters loaded after the write are in place. A write that is
+ * not announced this way may be reported as absent until the filters are next reloaded.
  */
 public abstract class AbstractMediaService implements MediaService {
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
   private Timer getMoviesTimer;
+  private Timer getMoviesAfterTimer;
   private Timer searchMoviesTimer;
+  private Timer rankedSearchMoviesTimer;
 
   private Timer getAudioTimer;
+  private Timer getAudioAfterTimer;
   private Timer searchAudioTimer;
+  private Timer rankedSearchAudioTimer;
   private Timer getAudioTracksTimer;
 
   private Timer getTelevisionShowsTimer;
+  private Timer getTelevisionShowsAfterTimer;
   private Timer searchTelevisionShowsTimer;
+  private Timer rankedSearchTelevisionShowsTimer;
   private Timer getEpisodesTimer;
   private Timer getSeriesTimer;
 
+  private Timer suggestTimer;
+
+  private LatencyHistogram getMoviesLatency;
+  private LatencyHistogram getMoviesAfterLatency;
+  private LatencyHistogram searchMoviesLatency;
+  private LatencyHistogram rankedSearchMoviesLatency;
+
+  private LatencyHistogram getAudioLatency;
+  private LatencyHistogram getAudioAfterLatency;
+  private LatencyHistogram searchAudioLatency;
+  private LatencyHistogram rankedSearchAudioLatency;
+  private LatencyHistogram getAudioTracksLatency;
+
+  private LatencyHistogram getTelevisionShowsLatency;
+  private LatencyHistogram getTelevisionShowsAfterLatency;
+  private LatencyHistogram searchTelevisionShowsLatency;
+  private LatencyHistogram rankedSearchTelevisionShowsLatency;
+  private LatencyHistogram getEpisodesLatency;
+  private LatencyHistogram getSeriesLatency;
+
+  private LatencyHistogram suggestLatency;
+
+  private ConcurrencyLimiter getMoviesLimiter;
+  private ConcurrencyLimiter getMoviesAfterLimiter;
+  private ConcurrencyLimiter searchMoviesLimiter;
+  private ConcurrencyLimiter rankedSearchMoviesLimiter;
+
+  private ConcurrencyLimiter getAudioLimiter;
+  private ConcurrencyLimiter getAudioAfterLimiter;
+  private ConcurrencyLimiter searchAudioLimiter;
+  private ConcurrencyLimiter rankedSearchAudioLimiter;
+  private ConcurrencyLimiter getAudioTracksLimiter;
+
+  private ConcurrencyLimiter getTelevisionShowsLimiter;
+  private ConcurrencyLimiter getTelevisionShowsAfterLimiter;
+  private ConcurrencyLimiter searchTelevisionShowsLimiter;
+  private ConcurrencyLimiter rankedSearchTelevisionShowsLimiter;
+  private ConcurrencyLimiter getEpisodesLimiter;
+  private ConcurrencyLimiter getSeriesLimiter;
+
+  private ConcurrencyLimiter suggestLimiter;
+
+  private Counter lookupShortCircuits;
+  private Counter lookupFalsePositives;
+
+  private Counter abandonedStreams;
+
+  private volatile LookupFilters lookupFilters;
+  private volatile Instant lookupFiltersLoaded;
+  private volatile Instant libraryChanged;
+  private final AtomicBoolean lookupFiltersLoading = new AtomicBoolean();
+
   @Override
   public Flowable<Movie> getMovies() {
     try {
       logger.debug("Invoking getMovies...");
       Flowable<Movie> flowable = getMoviesTimer.time(this::doGetMovies);
       logger.debug("getMovies complete.");
-      return flowable;
+      return measure(getMoviesLatency, getMoviesLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getMovies.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<Movie> getMoviesAfter(String movieId) {
+    try {
+      logger.debug("Invoking getMoviesAfter... Id: {}", movieId);
+      Flowable<Movie> flowable = getMoviesAfterTimer.time(() -> doGetMoviesAfter(movieId));
+      logger.debug("getMoviesAfter complete.");
+      return measure(getMoviesAfterLatency, getMoviesAfterLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in getMoviesAfter.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<Movie> searchMovies(String movieText) {
     try {
       logger.debug("Invoking searchMovies... Movie text: {}", movieText);
       Flowable<Movie> flowable = searchMoviesTimer.time(() -> doSearchMovies(movieText));
       logger.debug("searchMovies complete.");
-      return flowable;
+      return measure(searchMoviesLatency, searchMoviesLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in searchMovies.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<Movie> rankedSearchMovies(String movieText, int limit) {
+    try {
+      logger.debug("Invoking rankedSearchMovies... Movie text: {}, Limit: {}", movieText, limit);
+      Flowable<Movie> flowable =
+          rankedSearchMoviesTimer.time(() -> doRankedSearchMovies(movieText, limit));
+      logger.debug("rankedSearchMovies complete.");
+      return measure(rankedSearchMoviesLatency, rankedSearchMoviesLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in rankedSearchMovies.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<Audio> getAudio() {
     try {
       logger.debug("Invoking getAudio...");
       Flowable<Audio> flowable = getAudioTimer.time(this::doGetAudio);
       logger.debug("getAudio complete.");
-      return flowable;
+      return measure(getAudioLatency, getAudioLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getAudio.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<Audio> getAudioAfter(String audioId) {
+    try {
+      logger.debug("Invoking getAudioAfter... Id: {}", audioId);
+      Flowable<Audio> flowable = getAudioAfterTimer.time(() -> doGetAudioAfter(audioId));
+      logger.debug("getAudioAfter complete.");
+      return measure(getAudioAfterLatency, getAudioAfterLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in getAudioAfter.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<Audio> searchAudio(String audioText) {
     try {
       logger.debug("Invoking searchAudio... Audio text: {}", audioText);
       Flowable<Audio> flowable = searchAudioTimer.time(() -> doSearchAudio(audioText));
       logger.debug("searchAudio complete.");
-      return flowable;
+      return measure(searchAudioLatency, searchAudioLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in searchAudio.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<Audio> rankedSearchAudio(String audioText, int limit) {
+    try {
+      logger.debug("Invoking rankedSearchAudio... Audio text: {}, Limit: {}", audioText, limit);
+      Flowable<Audio> flowable =
+          rankedSearchAudioTimer.time(() -> doRankedSearchAudio(audioText, limit));
+      logger.debug("rankedSearchAudio complete.");
+      return measure(rankedSearchAudioLatency, rankedSearchAudioLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in rankedSearchAudio.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<Audio> getAudioTracks(String albumTitle) {
     try {
       logger.debug("Invoking getAudioTracks... Album title: {}", albumTitle);
-      Flowable<Audio> flowable = getAudioTracksTimer.time(() -> doGetAudioTracks(albumTitle));
+      Flowable<Audio> flowable = getAudioTracksTimer.time(() -> {
+        LookupFilters filters = currentLookupFilters();
+        if (filters == null) {
+          return doGetAudioTracks(albumTitle);
+        }
+        if (!filters.mightContainAlbum(albumTitle)) {
+          return shortCircuit();
+        }
+        return countFalsePositives(doGetAudioTracks(albumTitle));
+      });
       logger.debug("getAudioTracks complete.");
-      return flowable;
+      return measure(getAudioTracksLatency, getAudioTracksLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getAudioTracks.", e);
       return Flowable.error(e);
@@ -135,7 +275,7 @@ public abstract class AbstractMediaService implements MediaService {
       logger.debug("Invoking getTelevisionShows...");
       Flowable<TelevisionShow> flowable = getTelevisionShowsTimer.time(this::doGetTelevisionShows);
       logger.debug("getTelevisionShows complete.");
-      return flowable;
+      return measure(getTelevisionShowsLatency, getTelevisionShowsLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getTelevisionShows.", e);
       return Flowable.error(e);
@@ -143,6 +283,20 @@ public abstract class AbstractMediaService implements MediaService {
 
   }
 
+  @Override
+  public Flowable<TelevisionShow> getTelevisionShowsAfter(String showId) {
+    try {
+      logger.debug("Invoking getTelevisionShowsAfter... Id: {}", showId);
+      Flowable<TelevisionShow> flowable =
+          getTelevisionShowsAfterTimer.time(() -> doGetTelevisionShowsAfter(showId));
+      logger.debug("getTelevisionShowsAfter complete.");
+      return measure(getTelevisionShowsAfterLatency, getTelevisionShowsAfterLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in getTelevisionShowsAfter.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<TelevisionShow> searchTelevisionShows(String showText) {
     try {
@@ -150,21 +304,43 @@ public abstract class AbstractMediaService implements MediaService {
       Flowable<TelevisionShow> flowable =
           searchTelevisionShowsTimer.time(() -> doSearchTelevisionShows(showText));
       logger.debug("searchTelevisionShows complete.");
-      return flowable;
+      return measure(searchTelevisionShowsLatency, searchTelevisionShowsLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in searchTelevisionShows.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<TelevisionShow> rankedSearchTelevisionShows(String showText, int limit) {
+    try {
+      logger.debug("Invoking rankedSearchTelevisionShows... Show text: {}, Limit: {}", showText,
+          limit);
+      Flowable<TelevisionShow> flowable = rankedSearchTelevisionShowsTimer
+          .time(() -> doRankedSearchTelevisionShows(showText, limit));
+      logger.debug("rankedSearchTelevisionShows complete.");
+      return measure(rankedSearchTelevisionShowsLatency, rankedSearchTelevisionShowsLimiter,
+          flowable);
+    } catch (Exception e) {
+      logger.error("Error in rankedSearchTelevisionShows.", e);
+      return Flowable.error(e);
+    }
+  }
+
   @Override
   public Flowable<TelevisionShow> getEpisodes(String seriesTitle, int season) {
     try {
       logger.debug("Invoking getEpisodes... Series title: {}, Season: {}", seriesTitle, season);
-      Flowable<TelevisionShow> flowable = getEpisodesTimer
-          .time(() -> doGetEpisodes(seriesTitle, season));
+      Flowable<TelevisionShow> flowable = getEpisodesTimer.time(() -> {
+        // An empty season of an existing series is not a false positive, so none are counted.
+        LookupFilters filters = currentLookupFilters();
+        if (filters != null && !filters.mightContainSeries(seriesTitle)) {
+          return shortCircuit();
+        }
+        return doGetEpisodes(seriesTitle, season);
+      });
       logger.debug("getEpisodes complete.");
-      return flowable;
+      return measure(getEpisodesLatency, getEpisodesLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getEpisodes.", e);
       return Flowable.error(e);
@@ -175,15 +351,37 @@ public abstract class AbstractMediaService implements MediaService {
   public Flowable<TelevisionShow> getSeries(String seriesTitle) {
     try {
       logger.debug("Invoking getSeries... Series title: {}", seriesTitle);
-      Flowable<TelevisionShow> flowable = getSeriesTimer.time(() -> doGetSeries(seriesTitle));
+      Flowable<TelevisionShow> flowable = getSeriesTimer.time(() -> {
+        LookupFilters filters = currentLookupFilters();
+        if (filters == null) {
+          return doGetSeries(seriesTitle);
+        }
+        if (!filters.mightContainSeries(seriesTitle)) {
+          return shortCircuit();
+        }
+        return countFalsePositives(doGetSeries(seriesTitle));
+      });
       logger.debug("getSeries complete.");
-      return flowable;
+      return measure(getSeriesLatency, getSeriesLimiter, flowable);
     } catch (Exception e) {
       logger.error("Error in getSeries.", e);
       return Flowable.error(e);
     }
   }
 
+  @Override
+  public Flowable<Suggestion> suggest(String prefix, int limit) {
+    try {
+      logger.debug("Invoking suggest... Prefix: {}, Limit: {}", prefix, limit);
+      Flowable<Suggestion> flowable = suggestTimer.time(() -> doSuggest(prefix, limit));
+      logger.debug("suggest complete.");
+      return measure(suggestLatency, suggestLimiter, flowable);
+    } catch (Exception e) {
+      logger.error("Error in suggest.", e);
+      return Flowable.error(e);
+    }
+  }
+
   protected abstract Flowable<Movie> doGetMovies();
 
   protected abstract Flowable<Movie> doSearchMovies(String movieText);
@@ -202,6 +400,186 @@ public abstract class AbstractMediaService implements MediaService {
 
   protected abstract Flowable<TelevisionShow> doGetSeries(String seriesTitle);
 
+  protected abstract Flowable<Suggestion> doSuggest(String prefix, int limit);
+
+  /**
+   * Install the lookup filters used to answer lookups of absent titles without invoking the
+   * implementation. The filters must cover every album and series title the implementation can
+   * return, otherwise existing media will not be found.
+   *
+   * @param lookupFilters the lookup filters, or null to pass every lookup to the implementation
+   */
+  protected void setLookupFilters(LookupFilters lookupFilters) {
+    this.lookupFilters = lookupFilters;
+    lookupFiltersLoaded = Instant.now();
+  }
+
+  /**
+   * Load lookup filters covering the album and series titles in the backing store. By default
+   * nothing is loaded and lookups are only filtered if {@link #setLookupFilters(LookupFilters)} is
+   * called.
+   *
+   * @return a Maybe emitting the lookup filters, or completing empty if none could be built
+   */
+  protected Maybe<LookupFilters> loadLookupFilters() {
+    return Maybe.empty();
+  }
+
+  /**
+   * Return how long loaded lookup filters are used before they are reloaded. A title added to the
+   * backing store without a call to {@link #invalidateLookupFilters()} may not be found for up to
+   * this long.
+   *
+   * @return the maximum age of loaded lookup filters
+   */
+  protected Duration getLookupFiltersMaxAge() {
+    return Duration.ofMinutes(5);
+  }
+
+  /**
+   * Mark the loaded lookup filters as outdated after the backing store was written. Lookups are
+   * passed to the implementation unfiltered until filters loaded after this call are in place.
+   */
+  protected void invalidateLookupFilters() {
+    libraryChanged = Instant.now();
+  }
+
+  private LookupFilters currentLookupFilters() {
+    Instant loaded = lookupFiltersLoaded;
+    Instant changed = libraryChanged;
+    boolean outdated = loaded == null || changed != null && !loaded.isAfter(changed);
+    boolean expired = outdated
+        || Duration.between(loaded, Instant.now()).compareTo(getLookupFiltersMaxAge()) > 0;
+
+    if (expired && lookupFiltersLoading.compareAndSet(false, true)) {
+      Instant started = Instant.now();
+      loadLookupFilters().subscribeOn(Schedulers.io())
+          .doFinally(() -> lookupFiltersLoading.set(false))
+          .subscribe(filters -> {
+                lookupFilters = filters;
+                lookupFiltersLoaded = started;
+              },
+              throwable -> logger.error("Error loading lookup filters.", throwable),
+              () -> lookupFiltersLoaded = started);
+    }
+
+    return outdated ? null : lookupFilters;
+  }
+
+  private <T> Flowable<T> shortCircuit() {
+    logger.debug("Title is not in the lookup filters. Returning an empty result.");
+    lookupShortCircuits.inc();
+    return Flowable.empty();
+  }
+
+  private <T> Flowable<T> countFalsePositives(Flowable<T> flowable) {
+    return flowable.switchIfEmpty(Flowable.defer(() -> {
+      lookupFalsePositives.inc();
+      return Flowable.empty();
+    }));
+  }
+
+  /**
+   * Record the latency of each subscription to a result stream in the operation's histogram, and
+   * count the subscriptions cancelled before the end of the stream as abandoned. Each subscription
+   * first takes a place under the operation's concurrency limit; a subscription rejected by the
+   * limit is neither measured nor passed on to the implementation.
+   */
+  private <T> Flowable<T> measure(LatencyHistogram histogram, ConcurrencyLimiter limiter,
+      Flowable<T> flowable) {
+    Flowable<T> measured = histogram == null ? flowable : histogram.measure(flowable);
+    Flowable<T> counted = Flowable.defer(() -> {
+      AtomicBoolean terminated = new AtomicBoolean();
+      return measured.doOnTerminate(() -> terminated.set(true)).doOnCancel(() -> {
+        if (!terminated.get()) {
+          abandonedStreams.inc();
+        }
+      });
+    });
+    return limiter == null ? counted : limiter.limit(counted);
+  }
+
+  /**
+   * Perform a relevance ranked search of movies. Implementations capable of ranking results
+   * override this method. By default, the first {@code limit} results of {@link
+   * #doSearchMovies(String)} are returned.
+   *
+   * @param movieText the text value used in searching movies
+   * @param limit     the maximum number of movies to return
+   * @return the matching movies
+   */
+  protected Flowable<Movie> doRankedSearchMovies(String movieText, int limit) {
+    return doSearchMovies(movieText).take(limit);
+  }
+
+  /**
+   * Perform a relevance ranked search of audio items. Implementations capable of ranking results
+   * override this method. By default, the first {@code limit} results of {@link
+   * #doSearchAudio(String)} are returned.
+   *
+   * @param audioText the text value used in searching audio
+   * @param limit     the maximum number of audio items to return
+   * @return the matching audio items
+   */
+  protected Flowable<Audio> doRankedSearchAudio(String audioText, int limit) {
+    return doSearchAudio(audioText).take(limit);
+  }
+
+  /**
+   * Perform a relevance ranked search of television shows. Implementations capable of ranking
+   * results override this method. By default, the first {@code limit} results of {@link
+   * #doSearchTelevisionShows(String)} are returned.
+   *
+   * @param showText the text value used in searching television shows
+   * @param limit    the maximum number of television shows to return
+   * @return the matching television shows
+   */
+  protected Flowable<TelevisionShow> doRankedSearchTelevisionShows(String showText, int limit) {
+    return doSearchTelevisionShows(showText).take(limit);
+  }
+
+  /**
+   * Emit movies in order of their identifiers, starting after the given identifier.
+   * Implementations able to seek by identifier override this method. By default, all of {@link
+   * #doGetMovies()} is sorted and the movies up to and including the identifier are dropped.
+   *
+   * @param movieId the identifier to start after or {@code null} to start with the first movie
+   * @return the movies following the identifier
+   */
+  protected Flowable<Movie> doGetMoviesAfter(String movieId) {
+    return after(doGetMovies(), movieId);
+  }
+
+  /**
+   * Emit audio items in order of their identifiers, starting after the given identifier.
+   * Implementations able to seek by identifier override this method. By default, all of {@link
+   * #doGetAudio()} is sorted and the items up to and including the identifier are dropped.
+   *
+   * @param audioId the identifier to start after or {@code null} to start with the first item
+   * @return the audio items following the identifier
+   */
+  protected Flowable<Audio> doGetAudioAfter(String audioId) {
+    return after(doGetAudio(), audioId);
+  }
+
+  /**
+   * Emit television shows in order of their identifiers, starting after the given identifier.
+   * Implementations able to seek by identifier override this method. By default, all of {@link
+   * #doGetTelevisionShows()} is sorted and the shows up to and including the identifier are
+   * dropped.
+   *
+   * @param showId the identifier to start after or {@code null} to start with the first show
+   * @return the television shows following the identifier
+   */
+  protected Flowable<TelevisionShow> doGetTelevisionShowsAfter(String showId) {
+    return after(doGetTelevisionShows(), showId);
+  }
+
+  private static <T extends Media> Flowable<T> after(Flowable<T> flowable, String id) {
+    Flowable<T> sorted = flowable.sorted(Comparator.comparing(Media::getId));
+    return id == null ? sorted : sorted.filter(media -> media.getId().compareTo(id) > 0);
+  }
+
   protected abstract String getMetricsPrefix();
 
   /**
@@ -209,12 +587,15 @@ public abstract class AbstractMediaService implements MediaService {
    * across any implementation of MediaService choosing to extend from this abstract class. It
    * provides consistency in metrics naming and documentation.
    *
-   * @param metricRegistry the application metrics registry
+   * @param metricRegistry      the application metrics registry
+   * @param latencyHistograms   the latency histograms of the service operations
+   * @param concurrencyLimiters the concurrency limiters of the service operations
    */
   @PostConstruct
   @Inject
   public void initialize(
-      @RegistryType(type = MetricRegistry.Type.APPLICATION) MetricRegistry metricRegistry) {
+      @RegistryType(type = MetricRegistry.Type.APPLICATION) MetricRegistry metricRegistry,
+      LatencyHistograms latencyHistograms, ConcurrencyLimiters concurrencyLimiters) {
     logger.debug("Initializing service metrics...");
 
     String metricsPrefix = getMetricsPrefix();
@@ -226,6 +607,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     getMoviesTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.GetMoviesAfter.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(MetricsDefinitions.GetMoviesAfter.TIMER_DESCRIPTION)
+            .build();
+
+    getMoviesAfterTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.SearchMovies.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -234,6 +623,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     searchMoviesTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.RankedSearchMovies.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(
+            MetricsDefinitions.RankedSearchMovies.TIMER_DESCRIPTION).build();
+
+    rankedSearchMoviesTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.GetAudio.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -242,6 +639,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     getAudioTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.GetAudioAfter.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(MetricsDefinitions.GetAudioAfter.TIMER_DESCRIPTION)
+            .build();
+
+    getAudioAfterTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.SearchAudio.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -250,6 +655,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     searchAudioTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.RankedSearchAudio.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(
+            MetricsDefinitions.RankedSearchAudio.TIMER_DESCRIPTION).build();
+
+    rankedSearchAudioTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.GetAudioTracks.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -266,6 +679,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     getTelevisionShowsTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.GetTelevisionShowsAfter.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(
+            MetricsDefinitions.GetTelevisionShowsAfter.TIMER_DESCRIPTION).build();
+
+    getTelevisionShowsAfterTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.SearchTelevisionShows.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -274,6 +695,14 @@ public abstract class AbstractMediaService implements MediaService {
 
     searchTelevisionShowsTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.RankedSearchTelevisionShows.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(
+            MetricsDefinitions.RankedSearchTelevisionShows.TIMER_DESCRIPTION).build();
+
+    rankedSearchTelevisionShowsTimer = metricRegistry.timer(metadata);
+
     name = metricsPrefix + '.' + MetricsDefinitions.GetEpisodes.TIMER_NAME;
     metadata =
         new MetadataBuilder().withName(name).withDisplayName(name).withType(
@@ -290,6 +719,78 @@ public abstract class AbstractMediaService implements MediaService {
 
     getSeriesTimer = metricRegistry.timer(metadata);
 
+    name = metricsPrefix + '.' + MetricsDefinitions.Suggest.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(MetricsDefinitions.Suggest.TIMER_DESCRIPTION)
+            .build();
+
+    suggestTimer = metricRegistry.timer(metadata);
+
+    name = metricsPrefix + '.' + MetricsDefinitions.LookupFilter.SHORT_CIRCUITS_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.COUNTER)
+            .withDescription(MetricsDefinitions.LookupFilter.SHORT_CIRCUITS_DESCRIPTION).build();
+
+    lookupShortCircuits = metricRegistry.counter(metadata);
+
+    name = metricsPrefix + '.' + MetricsDefinitions.LookupFilter.FALSE_POSITIVES_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.COUNTER)
+            .withDescription(MetricsDefinitions.LookupFilter.FALSE_POSITIVES_DESCRIPTION).build();
+
+    lookupFalsePositives = metricRegistry.counter(metadata);
+
+    name = metricsPrefix + '.' + MetricsDefinitions.AbandonedStream.COUNTER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.COUNTER)
+            .withDescription(MetricsDefinitions.AbandonedStream.COUNTER_DESCRIPTION).build();
+
+    abandonedStreams = metricRegistry.counter(metadata);
+
+    getMoviesLatency = latencyHistograms.histogram(metricsPrefix, "getMovies");
+    getMoviesAfterLatency = latencyHistograms.histogram(metricsPrefix, "getMoviesAfter");
+    searchMoviesLatency = latencyHistograms.histogram(metricsPrefix, "searchMovies");
+    rankedSearchMoviesLatency = latencyHistograms.histogram(metricsPrefix, "rankedSearchMovies");
+    getAudioLatency = latencyHistograms.histogram(metricsPrefix, "getAudio");
+    getAudioAfterLatency = latencyHistograms.histogram(metricsPrefix, "getAudioAfter");
+    searchAudioLatency = latencyHistograms.histogram(metricsPrefix, "searchAudio");
+    rankedSearchAudioLatency = latencyHistograms.histogram(metricsPrefix, "rankedSearchAudio");
+    getAudioTracksLatency = latencyHistograms.histogram(metricsPrefix, "getAudioTracks");
+    getTelevisionShowsLatency = latencyHistograms.histogram(metricsPrefix, "getTelevisionShows");
+    getTelevisionShowsAfterLatency =
+        latencyHistograms.histogram(metricsPrefix, "getTelevisionShowsAfter");
+    searchTelevisionShowsLatency =
+        latencyHistograms.histogram(metricsPrefix, "searchTelevisionShows");
+    rankedSearchTelevisionShowsLatency =
+        latencyHistograms.histogram(metricsPrefix, "rankedSearchTelevisionShows");
+    getEpisodesLatency = latencyHistograms.histogram(metricsPrefix, "getEpisodes");
+    getSeriesLatency = latencyHistograms.histogram(metricsPrefix, "getSeries");
+    suggestLatency = latencyHistograms.histogram(metricsPrefix, "suggest");
+
+    getMoviesLimiter = concurrencyLimiters.limiter(metricsPrefix, "getMovies");
+    getMoviesAfterLimiter = concurrencyLimiters.limiter(metricsPrefix, "getMoviesAfter");
+    searchMoviesLimiter = concurrencyLimiters.limiter(metricsPrefix, "searchMovies");
+    rankedSearchMoviesLimiter = concurrencyLimiters.limiter(metricsPrefix, "rankedSearchMovies");
+    getAudioLimiter = concurrencyLimiters.limiter(metricsPrefix, "getAudio");
+    getAudioAfterLimiter = concurrencyLimiters.limiter(metricsPrefix, "getAudioAfter");
+    searchAudioLimiter = concurrencyLimiters.limiter(metricsPrefix, "searchAudio");
+    rankedSearchAudioLimiter = concurrencyLimiters.limiter(metricsPrefix, "rankedSearchAudio");
+    getAudioTracksLimiter = concurrencyLimiters.limiter(metricsPrefix, "getAudioTracks");
+    getTelevisionShowsLimiter = concurrencyLimiters.limiter(metricsPrefix, "getTelevisionShows");
+    getTelevisionShowsAfterLimiter =
+        concurrencyLimiters.limiter(metricsPrefix, "getTelevisionShowsAfter");
+    searchTelevisionShowsLimiter =
+        concurrencyLimiters.limiter(metricsPrefix, "searchTelevisionShows");
+    rankedSearchTelevisionShowsLimiter =
+        concurrencyLimiters.limiter(metricsPrefix, "rankedSearchTelevisionShows");
+    getEpisodesLimiter = concurrencyLimiters.limiter(metricsPrefix, "getEpisodes");
+    getSeriesLimiter = concurrencyLimiters.limiter(metricsPrefix, "getSeries");
+    suggestLimiter = concurrencyLimiters.limiter(metricsPrefix, "suggest");
+
     logger.debug("Service metrics initialized.");
   }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * An immutable Bloom filter over strings. A Bloom filter answers whether a key might be in the set
+ * it was built from. A negative answer is always correct; a positive answer is wrong with roughly
+ * the false positive probability the filter was sized for.
+ * <p>
+ * Keys are hashed once with a 128-bit MurmurHash3 and the probe positions are derived from the two
+ * 64-bit halves by double hashing.
+ */
+public final class BloomFilter {
+
+  private final long[] bits;
+  private final int bitCount;
+  private final int hashCount;
+
+  private BloomFilter(int bitCount, int hashCount) {
+    this.bits = new long[(bitCount + 63) >>> 6];
+    this.bitCount = bitCount;
+    this.hashCount = hashCount;
+  }
+
+  /**
+   * Create a filter containing the given keys, sized so that lookups of keys outside the set are
+   * reported as present with at most the given probability.
+   *
+   * @param keys                     the keys
+   * @param falsePositiveProbability the target false positive probability, between 0 and 1
+   * @return the filter
+   */
+  public static BloomFilter of(Collection<String> keys, double falsePositiveProbability) {
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException(
+          "The false positive probability must be between 0 and 1.");
+    }
+
+    int expected = Math.max(1, keys.size());
+    double ln2 = Math.log(2);
+    long optimalBits =
+        (long) Math.ceil(-expected * Math.log(falsePositiveProbability) / (ln2 * ln2));
+    int bitCount = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, optimalBits));
+    int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * ln2));
+
+    BloomFilter filter = new BloomFilter(bitCount, hashCount);
+    for (String key : keys) {
+      filter.add(key);
+    }
+
+    return filter;
+  }
+
+  /**
+   * Return whether the key might be in the set the filter was built from. If false, the key is
+   * definitely not in the set.
+   *
+   * @param key the key
+   * @return false if the key is definitely absent, true if it might be present
+   */
+  public boolean mightContain(String key) {
+    long[] hash = hash(key);
+    long combined = hash[0];
+    for (int i = 0; i < hashCount; i++) {
+      int index = (int) ((combined & Long.MAX_VALUE) % bitCount);
+      if ((bits[index >>> 6] & (1L << index)) == 0) {
+        return false;
+      }
+      combined += hash[1];
+    }
+
+    return true;
+  }
+
+  /**
+   * Return the number of bits in the filter.
+   *
+   * @return the number of bits
+   */
+  public int getBitCount() {
+    return bitCount;
+  }
+
+  /**
+   * Return the number of bits set or tested per key.
+   *
+   * @return the number of hash functions
+   */
+  public int getHashCount() {
+    return hashCount;
+  }
+
+  private void add(String key) {
+    long[] hash = hash(key);
+    long combined = hash[0];
+    for (int i = 0; i < hashCount; i++) {
+      int index = (int) ((combined & Long.MAX_VALUE) % bitCount);
+      bits[index >>> 6] |= 1L << index;
+      combined += hash[1];
+    }
+  }
+
+  /**
+   * The x64 128-bit variant of MurmurHash3 over the UTF-8 bytes of the key, with a seed of zero.
+   */
+  private static long[] hash(String key) {
+    byte[] data = key.getBytes(StandardCharsets.UTF_8);
+    long c1 = 0x87c37b91114253d5L;
+    long c2 = 0x4cf5ad432745937fL;
+    long h1 = 0;
+    long h2 = 0;
+
+    int blocks = data.length >>> 4;
+    for (int i = 0; i < blocks; i++) {
+      long k1 = getLong(data, i << 4);
+      long k2 = getLong(data, (i << 4) + 8);
+
+      k1 *= c1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= c2;
+      h1 ^= k1;
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      k2 *= c2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= c1;
+      h2 ^= k2;
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    long k1 = 0;
+    long k2 = 0;
+    int tail = blocks << 4;
+    for (int i = data.length - 1; i >= tail + 8; i--) {
+      k2 ^= (data[i] & 0xffL) << ((i - tail - 8) << 3);
+    }
+    for (int i = Math.min(data.length, tail + 8) - 1; i >= tail; i--) {
+      k1 ^= (data[i] & 0xffL) << ((i - tail) << 3);
+    }
+    if (k2 != 0) {
+      k2 *= c2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= c1;
+      h2 ^= k2;
+    }
+    if (k1 != 0) {
+      k1 *= c1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= c2;
+      h1 ^= k1;
+    }
+
+    h1 ^= data.length;
+    h2 ^= data.length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix(h1);
+    h2 = fmix(h2);
+    h1 += h2;
+    h2 += h1;
+
+    return new long[]{h1, h2};
+  }
+
+  private static long getLong(byte[] data, int offset) {
+    long value = 0;
+    for (int i = 7; i >= 0; i--) {
+      value = (value << 8) | (data[offset + i] & 0xffL);
+    }
+    return value;
+  }
+
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
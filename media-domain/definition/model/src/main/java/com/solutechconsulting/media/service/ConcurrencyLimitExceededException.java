@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+/**
+ * Thrown to the subscriber of a result stream when the operation's {@link ConcurrencyLimiter} has
+ * no free place. The operation was not started, so the request can be retried, preferably after a
+ * short delay.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String service;
+  private final String operation;
+  private final int limit;
+
+  public ConcurrencyLimitExceededException(String service, String operation, int limit) {
+    super("The concurrency limit of " + limit + " streams for " + operation
+        + " has been reached.");
+    this.service = service;
+    this.operation = operation;
+    this.limit = limit;
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Action;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.metrics.Counter;
+
+/**
+ * The adaptive concurrency limit of one media service operation. A subscription to a result stream
+ * holds one of the limited places until the stream completes, fails or is cancelled; a
+ * subscription made while every place is taken fails at once with a {@link
+ * ConcurrencyLimitExceededException} rather than queueing behind the others.
+ * <p>
+ * The limit follows the gradient between the long-term and the short-term latency of the
+ * operation. The latency of a stream is the time from its subscription to its first element, or
+ * to its completion if it is empty: the time the backend takes to answer, leaving out the time the
+ * client takes to consume the stream. The latencies are collected over a sample window, and their
+ * average is the short-term latency; the long-term latency is an exponentially weighted average
+ * of the short-term ones over a much longer window. The limit is updated once per sample window:
+ * while the short-term latency stays within the tolerance of the long-term one, the limit grows by
+ * about its square root, allowing a small queue; once the short-term latency rises, as it does
+ * when the backend saturates, the limit shrinks in proportion, to at most half of its value. The
+ * new limit is blended into the old one by the smoothing factor. The limit only grows while at
+ * least half of it is in use, so an idle operation does not build up a limit it has never tested.
+ * Streams failing or cancelled before their first element free their place without adjusting the
+ * limit.
+ */
+public final class ConcurrencyLimiter {
+
+  private static final int MIN_WINDOW_SAMPLES = 10;
+
+  private final String service;
+  private final String operation;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private final long sampleWindowNanos;
+  private final double longWindowNanos;
+  private final Counter rejections;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+
+  // Guarded by this
+  private long windowStart = System.nanoTime();
+  private long windowSamples;
+  private double windowLatencySum;
+  private int windowMaxInUse;
+  private double longLatency;
+  private long updated;
+
+  ConcurrencyLimiter(String service, String operation,
+      ConcurrencyLimitersConfiguration configuration, Counter rejections) {
+    this.service = service;
+    this.operation = operation;
+    this.minLimit = configuration.getMinLimit();
+    this.maxLimit = Math.max(minLimit, configuration.getMaxLimit());
+    this.tolerance = configuration.getTolerance();
+    this.smoothing = configuration.getSmoothing();
+    this.sampleWindowNanos = configuration.getSampleWindow().toNanos();
+    this.longWindowNanos = configuration.getLongWindow().toNanos();
+    this.rejections = rejections;
+    this.limit = Math.min(maxLimit, Math.max(minLimit, configuration.getInitialLimit()));
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Return the current concurrency limit.
+   *
+   * @return the number of result streams allowed at once
+   */
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Return the number of result streams holding a place.
+   *
+   * @return the number of streams in flight
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Take a place if one is free. A place taken must be given back with {@link #release()}.
+   *
+   * @return true if a place was taken, false if the limit has been reached
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Adjust the limit to the latency of a stream holding a place.
+   *
+   * @param latencyNanos the time the stream took to answer in nanoseconds
+   */
+  public void record(long latencyNanos) {
+    sample(Math.max(1, latencyNanos), inFlight.get());
+  }
+
+  /**
+   * Give back a place.
+   */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * Return a stream taking a place for each subscription to the given one. A subscription failing
+   * to take a place is not passed on to the given stream, it receives a {@link
+   * ConcurrencyLimitExceededException} and is counted as a rejection. The place is held until the
+   * stream ends, and the limit is adjusted to the time to its first element.
+   *
+   * @param flowable the result stream of the operation
+   * @param <T>      the type of the results
+   * @return the limited stream
+   */
+  public <T> Flowable<T> limit(Flowable<T> flowable) {
+    return Flowable.defer(() -> {
+      if (!tryAcquire()) {
+        rejections.inc();
+        return Flowable.error(new ConcurrencyLimitExceededException(service, operation,
+            getLimit()));
+      }
+
+      long start = System.nanoTime();
+      AtomicBoolean answered = new AtomicBoolean();
+      Action recordLatency = () -> {
+        if (answered.compareAndSet(false, true)) {
+          record(System.nanoTime() - start);
+        }
+      };
+      return flowable.doOnNext(result -> recordLatency.run()).doOnComplete(recordLatency)
+          .doFinally(this::release);
+    });
+  }
+
+  private synchronized void sample(long latency, int inUse) {
+    windowSamples++;
+    windowLatencySum += latency;
+    windowMaxInUse = Math.max(windowMaxInUse, inUse);
+
+    long now = System.nanoTime();
+    if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStart < sampleWindowNanos) {
+      return;
+    }
+
+    double shortLatency = windowLatencySum / windowSamples;
+    int maxInUse = windowMaxInUse;
+    windowStart = now;
+    windowSamples = 0;
+    windowLatencySum = 0;
+    windowMaxInUse = 0;
+    update(shortLatency, maxInUse, now);
+  }
+
+  private void update(double shortLatency, int maxInUse, long now) {
+    if (longLatency == 0) {
+      longLatency = shortLatency;
+      updated = now;
+      return;
+    }
+
+    // The long-term latency is weighted by time, so it drifts as slowly under heavy load as light
+    longLatency += (shortLatency - longLatency) * -Math.expm1((updated - now) / longWindowNanos);
+    updated = now;
+    // Let the long-term latency follow a lasting drop in latency sooner
+    if (longLatency > 2 * shortLatency) {
+      longLatency *= 0.95;
+    }
+
+    double current = limit;
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+    double target = current * gradient + Math.sqrt(current);
+    if (target > current && maxInUse * 2 < current) {
+      return;
+    }
+
+    double next = current * (1 - smoothing) + target * smoothing;
+    limit = Math.min(maxLimit, Math.max(minLimit, next));
+  }
+
+  @Override
+  public String toString() {
+    return service + '.' + operation;
+  }
+}
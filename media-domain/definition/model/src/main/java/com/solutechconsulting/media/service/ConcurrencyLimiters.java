@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the {@link ConcurrencyLimiter}s of the media service operations and publishes them. Each
+ * operation has its own limiter, since a point lookup and a full listing have latencies far apart
+ * and a limit learned from one would not fit the other. The current limit, the streams in flight
+ * and the rejections of each limiter are published in the application metrics registry, tagged
+ * with the operation.
+ */
+@ApplicationScoped
+public class ConcurrencyLimiters {
+
+  private final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiters.class.getName());
+
+  private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+  @Inject
+  ConcurrencyLimitersConfiguration configuration;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  /**
+   * Return the limiter of an operation of a media service, creating it and registering its metrics
+   * on first use.
+   *
+   * @param service   the metrics prefix of the media service implementation
+   * @param operation the name of the media service method
+   * @return the limiter, or null if concurrency limits are disabled
+   */
+  public ConcurrencyLimiter limiter(String service, String operation) {
+    if (!configuration.isEnabled()) {
+      return null;
+    }
+    return limiters.computeIfAbsent(service + '.' + operation, key -> {
+      logger.debug("Registering concurrency limit metrics for {}.", key);
+      Tag operationTag =
+          new Tag(MediaService.MetricsDefinitions.ConcurrencyLimit.OPERATION_TAG, operation);
+
+      String name =
+          service + '.' + MediaService.MetricsDefinitions.ConcurrencyLimit.REJECTIONS_COUNTER_NAME;
+      Metadata metadata =
+          new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.COUNTER)
+              .withDescription(
+                  MediaService.MetricsDefinitions.ConcurrencyLimit.REJECTIONS_COUNTER_DESCRIPTION)
+              .build();
+      Counter rejections = metricRegistry.counter(metadata, operationTag);
+
+      ConcurrencyLimiter limiter =
+          new ConcurrencyLimiter(service, operation, configuration, rejections);
+
+      name = service + '.' + MediaService.MetricsDefinitions.ConcurrencyLimit.LIMIT_GAUGE_NAME;
+      metadata = new MetadataBuilder().withName(name).withDisplayName(name)
+          .withType(MetricType.GAUGE)
+          .withDescription(MediaService.MetricsDefinitions.ConcurrencyLimit.LIMIT_GAUGE_DESCRIPTION)
+          .build();
+      metricRegistry.register(metadata, (Gauge<Integer>) limiter::getLimit, operationTag);
+
+      name = service + '.' + MediaService.MetricsDefinitions.ConcurrencyLimit.IN_FLIGHT_GAUGE_NAME;
+      metadata = new MetadataBuilder().withName(name).withDisplayName(name)
+          .withType(MetricType.GAUGE).withDescription(
+              MediaService.MetricsDefinitions.ConcurrencyLimit.IN_FLIGHT_GAUGE_DESCRIPTION)
+          .build();
+      metricRegistry.register(metadata, (Gauge<Integer>) limiter::getInFlight, operationTag);
+
+      return limiter;
+    });
+  }
+
+  /**
+   * Return the limiters of all the operations of the services created so far.
+   *
+   * @return the limiters
+   */
+  public Collection<ConcurrencyLimiter> getLimiters() {
+    return Collections.unmodifiableCollection(limiters.values());
+  }
+}
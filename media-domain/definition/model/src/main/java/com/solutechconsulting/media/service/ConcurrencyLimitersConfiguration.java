@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.concurrency-limit")
+public interface ConcurrencyLimitersConfiguration {
+
+  /**
+   * Whether the number of concurrent result streams of each media service operation is limited.
+   *
+   * @return true if concurrency limits are enabled
+   */
+  @ConfigProperty(defaultValue = "true")
+  boolean isEnabled();
+
+  /**
+   * The limit each operation starts with, before any latency has been measured.
+   *
+   * @return the initial limit
+   */
+  @ConfigProperty(defaultValue = "50")
+  int getInitialLimit();
+
+  /**
+   * The lowest the limit of an operation can fall, however much its latency rises.
+   *
+   * @return the minimum limit
+   */
+  @ConfigProperty(defaultValue = "10")
+  int getMinLimit();
+
+  /**
+   * The highest the limit of an operation can grow.
+   *
+   * @return the maximum limit
+   */
+  @ConfigProperty(defaultValue = "1000")
+  int getMaxLimit();
+
+  /**
+   * How much the short-term latency may exceed the long-term latency, as a ratio, before the limit
+   * is reduced.
+   *
+   * @return the latency tolerance, at least 1
+   */
+  @ConfigProperty(defaultValue = "1.5")
+  double getTolerance();
+
+  /**
+   * The weight of each new limit against the current one, from 0 (never change) to 1 (replace).
+   *
+   * @return the smoothing factor
+   */
+  @ConfigProperty(defaultValue = "0.2")
+  double getSmoothing();
+
+  /**
+   * The time over which the latencies of completed streams are averaged before the limit is
+   * updated. The limit is not updated before at least ten streams have completed in the window.
+   *
+   * @return the sample window
+   */
+  @ConfigProperty(defaultValue = "PT1S")
+  Duration getSampleWindow();
+
+  /**
+   * The time over which the long-term latency of an operation is averaged. An operation overloaded
+   * for longer than this comes to accept its overloaded latency as normal.
+   *
+   * @return the long-term latency window
+   */
+  @ConfigProperty(defaultValue = "PT5M")
+  Duration getLongWindow();
+}
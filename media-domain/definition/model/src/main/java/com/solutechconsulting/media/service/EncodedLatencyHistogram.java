@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/**
+ * A latency histogram of one media service operation in the compressed HdrHistogram encoding, as
+ * exported for collectors. Histograms exported by several replicas can be decoded with {@link
+ * LatencyHistograms#decode(byte[])} and added together, and the difference between two exports
+ * of the same replica gives the latencies recorded in between.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableEncodedLatencyHistogram.class)
+@JsonDeserialize(as = ImmutableEncodedLatencyHistogram.class)
+public interface EncodedLatencyHistogram {
+
+  /**
+   * Return the metrics prefix of the media service implementation that recorded the histogram.
+   *
+   * @return the service
+   */
+  String getService();
+
+  /**
+   * Return the name of the media service method, for example {@code searchMovies}.
+   *
+   * @return the operation
+   */
+  String getOperation();
+
+  /**
+   * Return the time recording started, in milliseconds since the epoch.
+   *
+   * @return the start time stamp
+   */
+  long getStartTimeStamp();
+
+  /**
+   * Return the time of the export, in milliseconds since the epoch.
+   *
+   * @return the end time stamp
+   */
+  long getEndTimeStamp();
+
+  /**
+   * Return the histogram of all the latencies recorded since start-up, in microseconds, in the
+   * compressed HdrHistogram encoding. JSON carries it as a Base64 string.
+   *
+   * @return the encoded histogram
+   */
+  byte[] getHistogram();
+}
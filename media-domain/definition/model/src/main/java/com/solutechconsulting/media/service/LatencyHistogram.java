@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import io.reactivex.Flowable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The latency histogram of one media service operation. A latency runs from the subscription to a
+ * result stream until the stream completes or fails, so it covers the work done while the results
+ * are emitted, not only the call assembling the stream. Latencies are recorded in microseconds
+ * into an HdrHistogram {@link Recorder}, which never blocks the recording threads; readers move
+ * the recorded values into a cumulative histogram and into the windows the recent percentiles are
+ * computed from.
+ */
+public final class LatencyHistogram {
+
+  private final String service;
+  private final String operation;
+  private final int significantDigits;
+  private final long windowNanos;
+  private final long startTimeStamp = System.currentTimeMillis();
+  private final Recorder recorder;
+
+  private final Histogram cumulative;
+  private final Histogram recent;
+  private Histogram previousWindow;
+  private Histogram currentWindow;
+  private long currentWindowStart = System.nanoTime();
+  private Histogram interval;
+
+  LatencyHistogram(String service, String operation, int significantDigits, Duration window) {
+    this.service = service;
+    this.operation = operation;
+    this.significantDigits = significantDigits;
+    this.windowNanos = window.toNanos();
+    this.recorder = new Recorder(significantDigits);
+    this.cumulative = new Histogram(significantDigits);
+    this.recent = new Histogram(significantDigits);
+    this.previousWindow = new Histogram(significantDigits);
+    this.currentWindow = new Histogram(significantDigits);
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+  }
+
+  /**
+   * Return a stream recording the latency of each subscription to the given one.
+   *
+   * @param flowable the result stream of the operation
+   * @param <T>      the type of the results
+   * @return the measured stream
+   */
+  public <T> Flowable<T> measure(Flowable<T> flowable) {
+    return Flowable.defer(() -> {
+      long start = System.nanoTime();
+      return flowable.doOnTerminate(() -> record(System.nanoTime() - start));
+    });
+  }
+
+  /**
+   * Return a copy of the histogram of all the latencies recorded since start-up, with its start
+   * and end time stamps set.
+   *
+   * @return the cumulative histogram
+   */
+  public synchronized Histogram getCumulative() {
+    update();
+    Histogram copy = cumulative.copy();
+    copy.setStartTimeStamp(startTimeStamp);
+    copy.setEndTimeStamp(System.currentTimeMillis());
+    copy.setTag(service + '.' + operation);
+    return copy;
+  }
+
+  /**
+   * Return the latency at the given percentile over the current and previous windows.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the latency in milliseconds
+   */
+  public synchronized double getRecentValueAtPercentile(double percentile) {
+    update();
+    return recent.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  /**
+   * Return the longest latency over the current and previous windows.
+   *
+   * @return the latency in milliseconds
+   */
+  public synchronized double getRecentMax() {
+    update();
+    return recent.getMaxValue() / 1000.0;
+  }
+
+  /**
+   * Return the number of latencies recorded since start-up that were at most the given bound.
+   *
+   * @param boundMillis the bucket upper bound in milliseconds
+   * @return the count
+   */
+  public synchronized long getCumulativeCountAtMost(double boundMillis) {
+    update();
+    return cumulative.getCountBetweenValues(0, (long) (boundMillis * 1000));
+  }
+
+  public synchronized long getCumulativeCount() {
+    update();
+    return cumulative.getTotalCount();
+  }
+
+  private void update() {
+    interval = recorder.getIntervalHistogram(interval);
+    cumulative.add(interval);
+
+    long now = System.nanoTime();
+    long elapsed = now - currentWindowStart;
+    if (elapsed >= windowNanos) {
+      Histogram expired = previousWindow;
+      previousWindow = currentWindow;
+      currentWindow = expired;
+      currentWindow.reset();
+      if (elapsed >= 2 * windowNanos) {
+        previousWindow.reset();
+      }
+      currentWindowStart = now;
+    }
+    currentWindow.add(interval);
+
+    recent.reset();
+    recent.add(previousWindow);
+    recent.add(currentWindow);
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{service=" + service + ", operation=" + operation
+        + ", significantDigits=" + significantDigits + '}';
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.HdrHistogram.Histogram;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the {@link LatencyHistogram}s of the media service operations and publishes them. The
+ * reservoir-sampled MicroProfile timers can't give reliable high percentiles and can't be merged
+ * across replicas; these histograms record every latency with a bounded relative error instead.
+ * <p>
+ * Each histogram is published in the application metrics registry as gauges tagged with the
+ * operation: the configured percentiles over the recent windows, the cumulative counts of the
+ * configured latency buckets, the total count and the recent maximum. For aggregation across
+ * replicas, {@link #export()} returns the cumulative histograms in the compressed HdrHistogram
+ * encoding, which a collector decodes with {@link #decode(byte[])} and adds together.
+ */
+@ApplicationScoped
+public class LatencyHistograms {
+
+  private final Logger logger = LoggerFactory.getLogger(LatencyHistograms.class.getName());
+
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  @Inject
+  LatencyHistogramsConfiguration configuration;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  /**
+   * Return the histogram of an operation of a media service, creating it and registering its
+   * gauges on first use.
+   *
+   * @param service   the metrics prefix of the media service implementation
+   * @param operation the name of the media service method
+   * @return the histogram, or null if latency histograms are disabled
+   */
+  public LatencyHistogram histogram(String service, String operation) {
+    if (!configuration.isEnabled()) {
+      return null;
+    }
+    return histograms.computeIfAbsent(service + '.' + operation, key -> {
+      LatencyHistogram histogram = new LatencyHistogram(service, operation,
+          configuration.getSignificantDigits(), configuration.getWindow());
+      registerGauges(histogram);
+      return histogram;
+    });
+  }
+
+  /**
+   * Return the histograms of all the operations called so far.
+   *
+   * @return the histograms
+   */
+  public Collection<LatencyHistogram> getHistograms() {
+    return Collections.unmodifiableCollection(histograms.values());
+  }
+
+  /**
+   * Return the cumulative histograms of all the operations called so far, encoded for export.
+   *
+   * @return the encoded histograms
+   */
+  public List<EncodedLatencyHistogram> export() {
+    List<EncodedLatencyHistogram> encoded = new ArrayList<>();
+    for (LatencyHistogram histogram : histograms.values()) {
+      Histogram cumulative = histogram.getCumulative();
+      encoded.add(ImmutableEncodedLatencyHistogram.builder().service(histogram.getService())
+          .operation(histogram.getOperation())
+          .startTimeStamp(cumulative.getStartTimeStamp())
+          .endTimeStamp(cumulative.getEndTimeStamp()).histogram(encode(cumulative)).build());
+    }
+    return encoded;
+  }
+
+  /**
+   * Encode a histogram in the compressed HdrHistogram encoding.
+   *
+   * @param histogram the histogram
+   * @return the encoded histogram
+   */
+  public static byte[] encode(Histogram histogram) {
+    ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+    int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+    return Arrays.copyOf(buffer.array(), length);
+  }
+
+  /**
+   * Decode a histogram encoded by {@link #encode(Histogram)}.
+   *
+   * @param encoded the encoded histogram
+   * @return the histogram
+   * @throws DataFormatException if the bytes are not a compressed histogram
+   */
+  public static Histogram decode(byte[] encoded) throws DataFormatException {
+    return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+  }
+
+  private void registerGauges(LatencyHistogram histogram) {
+    logger.debug("Registering latency histogram gauges for {}.", histogram);
+    String service = histogram.getService();
+    Tag operationTag = new Tag(MediaService.MetricsDefinitions.LatencyHistogram.OPERATION_TAG,
+        histogram.getOperation());
+
+    Metadata metadata = metadata(
+        service + '.' + MediaService.MetricsDefinitions.LatencyHistogram.PERCENTILE_GAUGE_NAME,
+        MediaService.MetricsDefinitions.LatencyHistogram.PERCENTILE_GAUGE_DESCRIPTION,
+        MetricUnits.MILLISECONDS);
+    for (String percentile : split(configuration.getPercentiles())) {
+      double value = Double.parseDouble(percentile);
+      metricRegistry.register(metadata,
+          (Gauge<Double>) () -> histogram.getRecentValueAtPercentile(value), operationTag,
+          new Tag(MediaService.MetricsDefinitions.LatencyHistogram.PERCENTILE_TAG, percentile));
+    }
+
+    metadata = metadata(
+        service + '.' + MediaService.MetricsDefinitions.LatencyHistogram.BUCKET_GAUGE_NAME,
+        MediaService.MetricsDefinitions.LatencyHistogram.BUCKET_GAUGE_DESCRIPTION,
+        MetricUnits.NONE);
+    for (String bucket : split(configuration.getBuckets())) {
+      double boundMillis = Double.parseDouble(bucket);
+      metricRegistry.register(metadata,
+          (Gauge<Long>) () -> histogram.getCumulativeCountAtMost(boundMillis), operationTag,
+          new Tag(MediaService.MetricsDefinitions.LatencyHistogram.BUCKET_TAG, bucket));
+    }
+
+    metadata = metadata(
+        service + '.' + MediaService.MetricsDefinitions.LatencyHistogram.COUNT_GAUGE_NAME,
+        MediaService.MetricsDefinitions.LatencyHistogram.COUNT_GAUGE_DESCRIPTION,
+        MetricUnits.NONE);
+    metricRegistry.register(metadata, (Gauge<Long>) histogram::getCumulativeCount, operationTag);
+
+    metadata = metadata(
+        service + '.' + MediaService.MetricsDefinitions.LatencyHistogram.MAX_GAUGE_NAME,
+        MediaService.MetricsDefinitions.LatencyHistogram.MAX_GAUGE_DESCRIPTION,
+        MetricUnits.MILLISECONDS);
+    metricRegistry.register(metadata, (Gauge<Double>) histogram::getRecentMax, operationTag);
+  }
+
+  private static Metadata metadata(String name, String description, String unit) {
+    return new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.GAUGE)
+        .withUnit(unit).withDescription(description).build();
+  }
+
+  private static List<String> split(String values) {
+    List<String> split = new ArrayList<>();
+    for (String value : values.split(",")) {
+      if (!value.isBlank()) {
+        split.add(value.trim());
+      }
+    }
+    return split;
+  }
+}
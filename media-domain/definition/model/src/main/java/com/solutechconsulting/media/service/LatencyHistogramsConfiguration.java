@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.latency-histograms")
+public interface LatencyHistogramsConfiguration {
+
+  /**
+   * Whether the latencies of the media service operations are recorded in histograms.
+   *
+   * @return true if latency histograms are enabled
+   */
+  @ConfigProperty(defaultValue = "true")
+  boolean isEnabled();
+
+  /**
+   * The comma-separated percentiles published as gauges for each operation, for example {@code
+   * 50,99,99.9}.
+   *
+   * @return the percentiles
+   */
+  @ConfigProperty(defaultValue = "50,90,99,99.9")
+  String getPercentiles();
+
+  /**
+   * The comma-separated upper bounds, in milliseconds, of the cumulative latency buckets published
+   * as gauges for each operation.
+   *
+   * @return the bucket upper bounds
+   */
+  @ConfigProperty(defaultValue = "1,5,10,25,50,100,250,500,1000,2500,5000,10000")
+  String getBuckets();
+
+  /**
+   * The length of the windows the percentile gauges are computed over. The gauges cover the
+   * current window and the one before it, so they reflect between one and two windows of requests.
+   *
+   * @return the window length
+   */
+  @ConfigProperty(defaultValue = "PT1M")
+  Duration getWindow();
+
+  /**
+   * The number of significant decimal digits the histograms keep; each recorded latency is
+   * accurate to within one part in ten to this power.
+   *
+   * @return the number of significant digits, from 1 to 5
+   */
+  @ConfigProperty(defaultValue = "3")
+  int getSignificantDigits();
+}
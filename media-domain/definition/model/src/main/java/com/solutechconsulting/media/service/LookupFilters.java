@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bloom filters over the album titles and series titles in a media library. They let a {@link
+ * MediaService} answer album track, series and episode lookups for titles that are definitely not
+ * in the library without querying its backing store. Titles are compared case-insensitively and
+ * ignoring leading and trailing whitespace, the same way those lookups compare them.
+ */
+public final class LookupFilters {
+
+  /**
+   * The false positive probability the filters are sized for.
+   */
+  public static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private final BloomFilter albumTitles;
+  private final BloomFilter seriesTitles;
+
+  private LookupFilters(BloomFilter albumTitles, BloomFilter seriesTitles) {
+    this.albumTitles = albumTitles;
+    this.seriesTitles = seriesTitles;
+  }
+
+  /**
+   * Create filters over the given titles. Titles may be given in any case and may repeat.
+   *
+   * @param albumTitles  the album titles in the library
+   * @param seriesTitles the television series titles in the library
+   * @return the filters
+   */
+  public static LookupFilters of(Collection<String> albumTitles,
+      Collection<String> seriesTitles) {
+    return new LookupFilters(filter(albumTitles), filter(seriesTitles));
+  }
+
+  /**
+   * Return whether an album with the given title might be in the library.
+   *
+   * @param albumTitle the album title
+   * @return false if the album is definitely not in the library
+   */
+  public boolean mightContainAlbum(String albumTitle) {
+    return albumTitles.mightContain(normalize(albumTitle));
+  }
+
+  /**
+   * Return whether a series with the given title might be in the library.
+   *
+   * @param seriesTitle the series title
+   * @return false if the series is definitely not in the library
+   */
+  public boolean mightContainSeries(String seriesTitle) {
+    return seriesTitles.mightContain(normalize(seriesTitle));
+  }
+
+  private static BloomFilter filter(Collection<String> titles) {
+    Set<String> keys = titles.stream().filter(title -> title != null)
+        .map(LookupFilters::normalize).collect(Collectors.toSet());
+    return BloomFilter.of(keys, FALSE_POSITIVE_PROBABILITY);
+  }
+
+  /**
+   * Return the form in which titles are compared by lookups: lower case, without leading and
+   * trailing whitespace. Every {@link MediaService} implementation compares album and series titles
+   * this way.
+   *
+   * @param title the title
+   * @return the normalized title
+   */
+  public static String normalize(String title) {
+    return title.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -24,6 +24,7 @@ package com.solutechconsulting.media.service;
 
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import io.reactivex.Flowable;
 
@@ -47,6 +48,16 @@ public interface MediaService {
       }
     }
 
+    public static final class GetMoviesAfter {
+
+      public static final String TIMER_NAME = "GetMoviesAfterTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Emits the movies stored in the media library after a given movie, resuming a stream.";
+
+      private GetMoviesAfter() {
+      }
+    }
+
     public static final class SearchMovies {
 
       public static final String TIMER_NAME = "SearchMoviesTimer";
@@ -67,6 +78,17 @@ public interface MediaService {
       }
     }
 
+    public static final class GetAudioAfter {
+
+      public static final String TIMER_NAME = "GetAudioAfterTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Emits the audio items stored in the media library after a given item, resuming a "
+              + "stream.";
+
+      private GetAudioAfter() {
+      }
+    }
+
     public static final class SearchAudio {
 
       public static final String TIMER_NAME = "SearchAudioTimer";
@@ -98,6 +120,17 @@ public interface MediaService {
       }
     }
 
+    public static final class GetTelevisionShowsAfter {
+
+      public static final String TIMER_NAME = "GetTelevisionShowsAfterTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Emits the television shows stored in the media library after a given show, resuming a "
+              + "stream.";
+
+      private GetTelevisionShowsAfter() {
+      }
+    }
+
     public static final class SearchTelevisionShows {
 
       public static final String TIMER_NAME = "SearchTelevisionShowsTimer";
@@ -131,6 +164,160 @@ public interface MediaService {
       }
     }
 
+    public static final class RankedSearchMovies {
+
+      public static final String TIMER_NAME = "RankedSearchMoviesTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Perform a relevance ranked text search of movies in the media library.";
+
+      private RankedSearchMovies() {
+      }
+    }
+
+    public static final class RankedSearchAudio {
+
+      public static final String TIMER_NAME = "RankedSearchAudioTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Perform a relevance ranked text search of audio items in the media library.";
+
+      private RankedSearchAudio() {
+      }
+    }
+
+    public static final class RankedSearchTelevisionShows {
+
+      public static final String TIMER_NAME = "RankedSearchTelevisionShowsTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Perform a relevance ranked text search of television shows in the media library.";
+
+      private RankedSearchTelevisionShows() {
+      }
+    }
+
+    public static final class Suggest {
+
+      public static final String TIMER_NAME = "SuggestTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Return the most popular completions of a search prefix from the media library.";
+
+      private Suggest() {
+      }
+    }
+
+    public static final class LookupFilter {
+
+      public static final String SHORT_CIRCUITS_NAME = "LookupShortCircuits";
+      public static final String SHORT_CIRCUITS_DESCRIPTION =
+          "Count of album track, series and episode lookups answered as empty because the lookup "
+              + "filters reported the title as absent.";
+      public static final String FALSE_POSITIVES_NAME = "LookupFalsePositives";
+      public static final String FALSE_POSITIVES_DESCRIPTION =
+          "Count of album track and series lookups the lookup filters passed on that returned no "
+              + "results.";
+
+      private LookupFilter() {
+      }
+    }
+
+    public static final class AbandonedStream {
+
+      public static final String COUNTER_NAME = "AbandonedStreams";
+      public static final String COUNTER_DESCRIPTION =
+          "Count of the operation result streams cancelled by their subscriber before the end of "
+              + "the stream, as when a client disconnects or cancels its call.";
+
+      private AbandonedStream() {
+      }
+    }
+
+    public static final class ConcurrencyLimit {
+
+      public static final String LIMIT_GAUGE_NAME = "ConcurrencyLimit";
+      public static final String LIMIT_GAUGE_DESCRIPTION =
+          "Current adaptive limit of the result streams of each operation allowed at once.";
+      public static final String IN_FLIGHT_GAUGE_NAME = "ConcurrencyInFlight";
+      public static final String IN_FLIGHT_GAUGE_DESCRIPTION =
+          "Count of the result streams of each operation currently holding a place under its "
+              + "concurrency limit.";
+      public static final String REJECTIONS_COUNTER_NAME = "ConcurrencyLimitRejections";
+      public static final String REJECTIONS_COUNTER_DESCRIPTION =
+          "Count of the subscriptions to a result stream rejected because the operation's "
+              + "concurrency limit had been reached.";
+
+      public static final String OPERATION_TAG = "operation";
+
+      private ConcurrencyLimit() {
+      }
+    }
+
+    public static final class LatencyHistogram {
+
+      public static final String PERCENTILE_GAUGE_NAME = "LatencyPercentile";
+      public static final String PERCENTILE_GAUGE_DESCRIPTION =
+          "Latency percentiles of each operation over the last one to two histogram windows, from "
+              + "subscription to the end of the result stream.";
+      public static final String BUCKET_GAUGE_NAME = "LatencyBucket";
+      public static final String BUCKET_GAUGE_DESCRIPTION =
+          "Count of the completed operation result streams that took at most the bucket's upper "
+              + "bound since start-up.";
+      public static final String COUNT_GAUGE_NAME = "LatencyCount";
+      public static final String COUNT_GAUGE_DESCRIPTION =
+          "Count of the completed operation result streams since start-up.";
+      public static final String MAX_GAUGE_NAME = "LatencyMax";
+      public static final String MAX_GAUGE_DESCRIPTION =
+          "Longest operation latency over the last one to two histogram windows.";
+
+      public static final String OPERATION_TAG = "operation";
+      public static final String PERCENTILE_TAG = "percentile";
+      public static final String BUCKET_TAG = "le";
+
+      private LatencyHistogram() {
+      }
+    }
+
+    public static final class Stream {
+
+      public static final String ELEMENTS_METER_NAME = "StreamElements";
+      public static final String ELEMENTS_METER_DESCRIPTION =
+          "Rate of the result elements sent to clients over streaming transports.";
+      public static final String BYTES_METER_NAME = "StreamBytes";
+      public static final String BYTES_METER_DESCRIPTION =
+          "Rate of the serialized result bytes sent to clients over streaming transports.";
+      public static final String ELEMENTS_HISTOGRAM_NAME = "StreamElementsPerStream";
+      public static final String ELEMENTS_HISTOGRAM_DESCRIPTION =
+          "Distribution of the number of elements sent in each result stream.";
+      public static final String BYTES_HISTOGRAM_NAME = "StreamBytesPerStream";
+      public static final String BYTES_HISTOGRAM_DESCRIPTION =
+          "Distribution of the number of serialized bytes sent in each result stream.";
+      public static final String GAP_TIMER_NAME = "StreamElementGap";
+      public static final String GAP_TIMER_DESCRIPTION =
+          "Time between consecutive elements of a result stream.";
+      public static final String BACKPRESSURE_TIMER_NAME = "StreamBackpressure";
+      public static final String BACKPRESSURE_TIMER_DESCRIPTION =
+          "Time a result stream waited on a slow client: for server-sent events, the time for the "
+              + "sink to accept an event; for gRPC, the time spent without outstanding demand.";
+      public static final String BUFFERED_GAUGE_NAME = "StreamBufferedEvents";
+      public static final String BUFFERED_GAUGE_DESCRIPTION =
+          "Count of the server-sent events handed to the sinks and not yet sent, across the "
+              + "streams of the operation.";
+      public static final String BUFFER_DEPTH_HISTOGRAM_NAME = "StreamBufferDepth";
+      public static final String BUFFER_DEPTH_HISTOGRAM_DESCRIPTION =
+          "Distribution of the number of events of a stream awaiting the sink, sampled as each "
+              + "server-sent event is handed to the sink.";
+      public static final String DISCONNECT_COUNTER_NAME = "StreamDisconnects";
+      public static final String DISCONNECT_COUNTER_DESCRIPTION =
+          "Count of the result streams abandoned by the client before the end of the stream.";
+
+      public static final String OPERATION_TAG = "operation";
+      public static final String TRANSPORT_TAG = "transport";
+
+      public static final String SSE_TRANSPORT = "sse";
+      public static final String GRPC_TRANSPORT = "grpc";
+
+      private Stream() {
+      }
+    }
+
     private MetricsDefinitions() {
     }
   }
@@ -142,6 +329,17 @@ public interface MediaService {
    */
   Flowable<Movie> getMovies();
 
+  /**
+   * Emits the movies stored in the media library in order of their identifiers, starting with the
+   * first movie after the given identifier. A stream interrupted part way through is resumed by
+   * passing the identifier of the last movie received.
+   *
+   * @param movieId the identifier of the last movie received or {@code null} to start with the
+   *                first movie
+   * @return a back-pressure capable stream of the movies following the identifier
+   */
+  Flowable<Movie> getMoviesAfter(String movieId);
+
   /**
    * Perform a case insensitive text search of movies in the media library. The service will include
    * the title, summary and tag line attributes of movies in its search.
@@ -151,6 +349,19 @@ public interface MediaService {
    */
   Flowable<Movie> searchMovies(String movieText);
 
+  /**
+   * Perform a relevance ranked text search of movies in the media library, returning at most
+   * {@code limit} movies with the most relevant first. Matches in the title rank above matches in
+   * the tag line, which rank above matches in the summary. Implementations without a relevance
+   * ranking return the first {@code limit} results of {@link #searchMovies(String)}.
+   *
+   * @param movieText the text value used in searching movies
+   * @param limit     the maximum number of movies to return
+   * @return a back-pressure capable stream of movies matching the search criteria, in order of
+   * relevance
+   */
+  Flowable<Movie> rankedSearchMovies(String movieText, int limit);
+
   /**
    * Emits all audio items stored in the media library.
    *
@@ -158,6 +369,17 @@ public interface MediaService {
    */
   Flowable<Audio> getAudio();
 
+  /**
+   * Emits the audio items stored in the media library in order of their identifiers, starting with
+   * the first item after the given identifier. A stream interrupted part way through is resumed by
+   * passing the identifier of the last item received.
+   *
+   * @param audioId the identifier of the last audio item received or {@code null} to start with
+   *                the first item
+   * @return a back-pressure capable stream of the audio items following the identifier
+   */
+  Flowable<Audio> getAudioAfter(String audioId);
+
   /**
    * Perform a case insensitive text search of audio items in the media library. The service will
    * include the song and album titles and the album artist(s) in its search.
@@ -167,6 +389,19 @@ public interface MediaService {
    */
   Flowable<Audio> searchAudio(String audioText);
 
+  /**
+   * Perform a relevance ranked text search of audio items in the media library, returning at most
+   * {@code limit} items with the most relevant first. Matches in the song title rank above matches
+   * in the album title and artists. Implementations without a relevance ranking return the first
+   * {@code limit} results of {@link #searchAudio(String)}.
+   *
+   * @param audioText the text value used in searching audio
+   * @param limit     the maximum number of audio items to return
+   * @return a back-pressure capable stream of audio items matching the search criteria, in order
+   * of relevance
+   */
+  Flowable<Audio> rankedSearchAudio(String audioText, int limit);
+
   /**
    * Given a case insensitive album title, return the associated album tracks.
    *
@@ -182,6 +417,17 @@ public interface MediaService {
    */
   Flowable<TelevisionShow> getTelevisionShows();
 
+  /**
+   * Emits the television shows stored in the media library in order of their identifiers, starting
+   * with the first show after the given identifier. A stream interrupted part way through is
+   * resumed by passing the identifier of the last show received.
+   *
+   * @param showId the identifier of the last television show received or {@code null} to start
+   *               with the first show
+   * @return a back-pressure capable stream of the television shows following the identifier
+   */
+  Flowable<TelevisionShow> getTelevisionShowsAfter(String showId);
+
   /**
    * Perform a case insensitive text search of television shows in the media library. The service
    * will include the series and shows titles and show summary in its search.
@@ -191,6 +437,19 @@ public interface MediaService {
    */
   Flowable<TelevisionShow> searchTelevisionShows(String showText);
 
+  /**
+   * Perform a relevance ranked text search of television shows in the media library, returning at
+   * most {@code limit} shows with the most relevant first. Matches in the show and series titles
+   * rank above matches in the summary. Implementations without a relevance ranking return the first
+   * {@code limit} results of {@link #searchTelevisionShows(String)}.
+   *
+   * @param showText the text value used in searching television shows
+   * @param limit    the maximum number of television shows to return
+   * @return a back-pressure capable stream of television shows matching the search criteria, in
+   * order of relevance
+   */
+  Flowable<TelevisionShow> rankedSearchTelevisionShows(String showText, int limit);
+
   /**
    * Given a series title and season, return the television show episodes from the media library.
    * Series title will be a case insensitive search.
@@ -209,4 +468,15 @@ public interface MediaService {
    * @return a back-pressure capable stream of television shows matching the search criteria
    */
   Flowable<TelevisionShow> getSeries(String seriesTitle);
+
+  /**
+   * Given the beginning of a search, return the most popular completions from the media library.
+   * Completions are drawn from movie, television show and track titles, series titles, album titles
+   * and artists. The prefix is matched case insensitively against the start of each value.
+   *
+   * @param prefix the text entered so far
+   * @param limit  the maximum number of suggestions to return
+   * @return a back-pressure capable stream of suggestions, most popular first
+   */
+  Flowable<Suggestion> suggest(String prefix, int limit);
 }
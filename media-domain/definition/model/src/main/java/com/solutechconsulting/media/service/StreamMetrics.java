@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.Meter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the metrics of the result streams the servers send to their clients. The operation
+ * timers only tell how long a stream took; these metrics tell what was sent and how the client
+ * kept up: the element and byte rates, the elements and bytes of each stream, the gaps between
+ * elements, the time spent waiting on the client and the streams the client abandoned. For
+ * server-sent events, the events handed to the sinks and not yet sent are also published. The
+ * metrics are registered in the application metrics registry and tagged with the operation and
+ * the transport, one of {@link MediaService.MetricsDefinitions.Stream#SSE_TRANSPORT} or {@link
+ * MediaService.MetricsDefinitions.Stream#GRPC_TRANSPORT}.
+ */
+@ApplicationScoped
+public class StreamMetrics {
+
+  private static final String METRICS_PREFIX = StreamMetrics.class.getName();
+
+  private final Logger logger = LoggerFactory.getLogger(StreamMetrics.class.getName());
+
+  private final Map<String, Instruments> instruments = new ConcurrentHashMap<>();
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  /**
+   * Return a recorder for a new result stream, registering the metrics of the operation and
+   * transport on first use.
+   *
+   * @param operation the name of the media service method
+   * @param transport the transport the stream is sent over
+   * @return the recorder of the stream
+   */
+  public StreamRecorder stream(String operation, String transport) {
+    return new StreamRecorder(instruments.computeIfAbsent(operation + '.' + transport,
+        key -> new Instruments(operation, transport)));
+  }
+
+  private static Metadata metadata(String name, MetricType type, String description,
+      String unit) {
+    String fullName = METRICS_PREFIX + '.' + name;
+    return new MetadataBuilder().withName(fullName).withDisplayName(fullName).withType(type)
+        .withUnit(unit).withDescription(description).build();
+  }
+
+  /**
+   * The metrics of one operation over one transport.
+   */
+  final class Instruments {
+
+    final Meter elements;
+    final Meter bytes;
+    final Histogram elementsPerStream;
+    final Histogram bytesPerStream;
+    final Timer gaps;
+    final Timer backpressure;
+    final Counter disconnects;
+    final AtomicLong buffered = new AtomicLong();
+    final Histogram bufferDepth;
+
+    private Instruments(String operation, String transport) {
+      logger.debug("Registering stream metrics for {} over {}.", operation, transport);
+      Tag[] tags = {new Tag(MediaService.MetricsDefinitions.Stream.OPERATION_TAG, operation),
+          new Tag(MediaService.MetricsDefinitions.Stream.TRANSPORT_TAG, transport)};
+
+      elements = metricRegistry.meter(
+          metadata(MediaService.MetricsDefinitions.Stream.ELEMENTS_METER_NAME, MetricType.METERED,
+              MediaService.MetricsDefinitions.Stream.ELEMENTS_METER_DESCRIPTION,
+              MetricUnits.PER_SECOND), tags);
+      bytes = metricRegistry.meter(
+          metadata(MediaService.MetricsDefinitions.Stream.BYTES_METER_NAME, MetricType.METERED,
+              MediaService.MetricsDefinitions.Stream.BYTES_METER_DESCRIPTION,
+              MetricUnits.PER_SECOND), tags);
+      elementsPerStream = metricRegistry.histogram(
+          metadata(MediaService.MetricsDefinitions.Stream.ELEMENTS_HISTOGRAM_NAME,
+              MetricType.HISTOGRAM,
+              MediaService.MetricsDefinitions.Stream.ELEMENTS_HISTOGRAM_DESCRIPTION,
+              MetricUnits.NONE), tags);
+      bytesPerStream = metricRegistry.histogram(
+          metadata(MediaService.MetricsDefinitions.Stream.BYTES_HISTOGRAM_NAME,
+              MetricType.HISTOGRAM,
+              MediaService.MetricsDefinitions.Stream.BYTES_HISTOGRAM_DESCRIPTION,
+              MetricUnits.BYTES), tags);
+      gaps = metricRegistry.timer(
+          metadata(MediaService.MetricsDefinitions.Stream.GAP_TIMER_NAME, MetricType.TIMER,
+              MediaService.MetricsDefinitions.Stream.GAP_TIMER_DESCRIPTION,
+              MetricUnits.NANOSECONDS), tags);
+      backpressure = metricRegistry.timer(
+          metadata(MediaService.MetricsDefinitions.Stream.BACKPRESSURE_TIMER_NAME,
+              MetricType.TIMER,
+              MediaService.MetricsDefinitions.Stream.BACKPRESSURE_TIMER_DESCRIPTION,
+              MetricUnits.NANOSECONDS), tags);
+      if (MediaService.MetricsDefinitions.Stream.SSE_TRANSPORT.equals(transport)) {
+        metricRegistry.register(
+            metadata(MediaService.MetricsDefinitions.Stream.BUFFERED_GAUGE_NAME, MetricType.GAUGE,
+                MediaService.MetricsDefinitions.Stream.BUFFERED_GAUGE_DESCRIPTION,
+                MetricUnits.NONE), (Gauge<Long>) buffered::get, tags);
+        bufferDepth = metricRegistry.histogram(
+            metadata(MediaService.MetricsDefinitions.Stream.BUFFER_DEPTH_HISTOGRAM_NAME,
+                MetricType.HISTOGRAM,
+                MediaService.MetricsDefinitions.Stream.BUFFER_DEPTH_HISTOGRAM_DESCRIPTION,
+                MetricUnits.NONE), tags);
+      } else {
+        bufferDepth = null;
+      }
+      disconnects = metricRegistry.counter(
+          metadata(MediaService.MetricsDefinitions.Stream.DISCONNECT_COUNTER_NAME,
+              MetricType.COUNTER,
+              MediaService.MetricsDefinitions.Stream.DISCONNECT_COUNTER_DESCRIPTION,
+              MetricUnits.NONE), tags);
+    }
+  }
+}
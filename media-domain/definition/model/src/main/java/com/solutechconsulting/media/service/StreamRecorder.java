@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import io.reactivex.Flowable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records the metrics of one result stream in the {@link StreamMetrics} of its operation and
+ * transport. Elements are reported in order from the thread emitting the stream; the end of the
+ * stream is recorded once, whether the stream completed, failed or was abandoned by the client.
+ */
+public final class StreamRecorder {
+
+  private final StreamMetrics.Instruments instruments;
+  private final AtomicLong elements = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong inFlight = new AtomicLong();
+  private final AtomicBoolean ended = new AtomicBoolean();
+  private long lastElementNanos;
+
+  StreamRecorder(StreamMetrics.Instruments instruments) {
+    this.instruments = instruments;
+  }
+
+  /**
+   * Record an element sent to the client.
+   *
+   * @param size the serialized size of the element in bytes
+   */
+  public void element(long size) {
+    elements(1, size);
+  }
+
+  /**
+   * Record elements sent to the client together, as one batch.
+   *
+   * @param count the number of elements
+   * @param size  the serialized size of the batch in bytes
+   */
+  public void elements(int count, long size) {
+    long now = System.nanoTime();
+    if (elements.getAndAdd(count) > 0) {
+      instruments.gaps.update(now - lastElementNanos, TimeUnit.NANOSECONDS);
+    }
+    lastElementNanos = now;
+    bytes.addAndGet(size);
+    instruments.elements.mark(count);
+    instruments.bytes.mark(size);
+  }
+
+  /**
+   * Record time spent waiting for the client to accept more elements.
+   *
+   * @param nanos the time waited in nanoseconds
+   */
+  public void backpressure(long nanos) {
+    instruments.backpressure.update(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Record a server-sent event handed to the sink, before its send completes.
+   */
+  public void sending() {
+    long depth = inFlight.incrementAndGet();
+    instruments.buffered.incrementAndGet();
+    if (instruments.bufferDepth != null) {
+      instruments.bufferDepth.update(depth);
+    }
+  }
+
+  /**
+   * Record the completion of a send recorded by {@link #sending()}, successful or not.
+   *
+   * @param nanos the time the sink took to send the event in nanoseconds
+   */
+  public void sent(long nanos) {
+    inFlight.decrementAndGet();
+    instruments.buffered.decrementAndGet();
+    backpressure(nanos);
+  }
+
+  /**
+   * Record the end of the stream, completed or failed.
+   */
+  public void complete() {
+    end(false);
+  }
+
+  /**
+   * Record that the client abandoned the stream. Ignored once the stream has ended.
+   */
+  public void disconnect() {
+    end(true);
+  }
+
+  /**
+   * Record the elements of a flowable as they are requested and emitted. Backpressure is the time
+   * the flowable spends without outstanding demand after an element; a cancellation before the
+   * flowable terminates counts as a disconnect.
+   *
+   * @param flowable the elements sent to the client
+   * @param size     returns the serialized size of an element
+   * @param <T>      the type of the elements
+   * @return the recorded flowable
+   */
+  public <T> Flowable<T> measure(Flowable<T> flowable, ToLongFunction<? super T> size) {
+    AtomicLong demand = new AtomicLong();
+    AtomicLong stalledSince = new AtomicLong();
+    return flowable.doOnNext(item -> {
+      element(size.applyAsLong(item));
+      if (demand.get() != Long.MAX_VALUE && demand.decrementAndGet() == 0) {
+        stalledSince.set(System.nanoTime());
+      }
+    }).doOnRequest(requested -> {
+      long previous = demand.getAndUpdate(current -> current + requested < 0 ? Long.MAX_VALUE
+          : current + requested);
+      long since = previous == 0 ? stalledSince.getAndSet(0) : 0;
+      if (since != 0) {
+        backpressure(System.nanoTime() - since);
+      }
+    }).doOnComplete(this::complete).doOnError(throwable -> complete())
+        .doOnCancel(this::disconnect);
+  }
+
+  private void end(boolean disconnected) {
+    if (ended.compareAndSet(false, true)) {
+      if (disconnected) {
+        instruments.disconnects.inc();
+      }
+      instruments.elementsPerStream.update(elements.get());
+      instruments.bytesPerStream.update(bytes.get());
+    }
+  }
+}
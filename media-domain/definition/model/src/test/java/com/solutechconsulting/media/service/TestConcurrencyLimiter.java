@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.reactivex.Flowable;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class TestConcurrencyLimiter {
+
+  private static final int INITIAL_LIMIT = 20;
+
+  @Test
+  public void testSlowConsumptionKeepsLimit() throws InterruptedException {
+    ConcurrencyLimiter limiter = createLimiter();
+
+    for (int i = 0; i < 20; i++) {
+      limiter.limit(answer()).blockingSubscribe();
+    }
+    // The same answers, consumed slowly by the client
+    for (int i = 0; i < 20; i++) {
+      limiter.limit(answer().concatWith(Flowable.timer(100, TimeUnit.MILLISECONDS).map(tick -> 2)))
+          .blockingSubscribe();
+    }
+
+    assertEquals(INITIAL_LIMIT, limiter.getLimit());
+    awaitInFlight(limiter, 0);
+  }
+
+  @Test
+  public void testSlowAnswersShrinkLimit() throws InterruptedException {
+    ConcurrencyLimiter limiter = createLimiter();
+
+    for (int i = 0; i < 20; i++) {
+      limiter.limit(answer()).blockingSubscribe();
+    }
+    for (int i = 0; i < 20; i++) {
+      limiter.limit(answer().delaySubscription(100, TimeUnit.MILLISECONDS)).blockingSubscribe();
+    }
+
+    assertTrue(limiter.getLimit() < INITIAL_LIMIT, "Limit: " + limiter.getLimit());
+    awaitInFlight(limiter, 0);
+  }
+
+  @Test
+  public void testRejection() throws InterruptedException {
+    ConcurrencyLimiter limiter = createLimiter();
+    for (int i = 0; i < INITIAL_LIMIT; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+
+    limiter.limit(answer()).test().assertError(ConcurrencyLimitExceededException.class);
+
+    limiter.release();
+    limiter.limit(answer()).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+    awaitInFlight(limiter, INITIAL_LIMIT - 1);
+  }
+
+  /**
+   * A stream answering after about ten milliseconds.
+   */
+  private static Flowable<Integer> answer() {
+    return Flowable.timer(10, TimeUnit.MILLISECONDS).map(tick -> 1);
+  }
+
+  /**
+   * Wait for the places to be given back, which happens just after the subscriber has seen the
+   * end of the stream.
+   */
+  private static void awaitInFlight(ConcurrencyLimiter limiter, int expected)
+      throws InterruptedException {
+    for (int i = 0; i < 100 && limiter.getInFlight() != expected; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, limiter.getInFlight());
+  }
+
+  private static ConcurrencyLimiter createLimiter() {
+    ConcurrencyLimitersConfiguration configuration = new ConcurrencyLimitersConfiguration() {
+      @Override
+      public boolean isEnabled() {
+        return true;
+      }
+
+      @Override
+      public int getInitialLimit() {
+        return INITIAL_LIMIT;
+      }
+
+      @Override
+      public int getMinLimit() {
+        return 1;
+      }
+
+      @Override
+      public int getMaxLimit() {
+        return 100;
+      }
+
+      @Override
+      public double getTolerance() {
+        return 1.5;
+      }
+
+      @Override
+      public double getSmoothing() {
+        return 1.0;
+      }
+
+      @Override
+      public Duration getSampleWindow() {
+        return Duration.ZERO;
+      }
+
+      @Override
+      public Duration getLongWindow() {
+        return Duration.ofMinutes(5);
+      }
+    };
+    return new ConcurrencyLimiter("service", "operation", configuration,
+        new MetricsRegistryImpl().counter("rejections"));
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.model.TelevisionShow;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestLookupFilterLoading {
+
+  private StoreBackedMediaService service;
+
+  @BeforeEach
+  public void createService() {
+    LatencyHistograms latencyHistograms = new LatencyHistograms();
+    latencyHistograms.configuration = disabled(LatencyHistogramsConfiguration.class);
+    ConcurrencyLimiters concurrencyLimiters = new ConcurrencyLimiters();
+    concurrencyLimiters.configuration = disabled(ConcurrencyLimitersConfiguration.class);
+
+    service = new StoreBackedMediaService();
+    service.initialize(new MetricsRegistryImpl(), latencyHistograms, concurrencyLimiters);
+  }
+
+  @Test
+  public void testLookupNotBlockedByLoad() throws InterruptedException {
+    service.albums.add("Abbey Road");
+    service.blockLoad();
+
+    service.getAudioTracks("Let It Be").test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+    assertEquals(1, service.lookups.get(), "Lookups must pass through until filters are loaded.");
+
+    service.releaseLoad();
+    awaitShortCircuit("Let It Be");
+
+    int lookups = service.lookups.get();
+    service.getAudioTracks("Abbey Road").blockingSubscribe();
+    assertEquals(lookups + 1, service.lookups.get());
+  }
+
+  @Test
+  public void testLookupAfterLibraryChanged() throws InterruptedException {
+    service.albums.add("Abbey Road");
+    awaitShortCircuit("Let It Be");
+
+    service.albums.add("Let It Be");
+    service.invalidateLookupFilters();
+    service.blockLoad();
+
+    int lookups = service.lookups.get();
+    service.getAudioTracks("Let It Be").blockingSubscribe();
+    assertEquals(lookups + 1, service.lookups.get(),
+        "Outdated filters must not report a new title as absent.");
+
+    service.releaseLoad();
+    awaitShortCircuit("Revolver");
+
+    lookups = service.lookups.get();
+    service.getAudioTracks("Let It Be").blockingSubscribe();
+    assertEquals(lookups + 1, service.lookups.get());
+  }
+
+  private void awaitShortCircuit(String albumTitle) throws InterruptedException {
+    for (int attempt = 0; attempt < 100; attempt++) {
+      int lookups = service.lookups.get();
+      service.getAudioTracks(albumTitle).blockingSubscribe();
+      if (service.lookups.get() == lookups) {
+        return;
+      }
+      Thread.sleep(50);
+    }
+    fail("The lookup filters were not loaded.");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T disabled(Class<T> configuration) {
+    return (T) Proxy.newProxyInstance(configuration.getClassLoader(), new Class<?>[]{configuration},
+        (proxy, method, args) -> method.getName().equals("isEnabled") ? Boolean.FALSE : null);
+  }
+
+  /**
+   * A media service loading its lookup filters from a store holding only album titles.
+   */
+  private static class StoreBackedMediaService extends AbstractMediaService {
+
+    private final List<String> albums = new CopyOnWriteArrayList<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile CountDownLatch load = new CountDownLatch(0);
+
+    void blockLoad() {
+      load = new CountDownLatch(1);
+    }
+
+    void releaseLoad() {
+      load.countDown();
+    }
+
+    @Override
+    protected Maybe<LookupFilters> loadLookupFilters() {
+      return Maybe.fromCallable(() -> {
+        load.await();
+        return LookupFilters.of(albums, List.of("Batman"));
+      });
+    }
+
+    @Override
+    protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
+      return Flowable.defer(() -> {
+        lookups.incrementAndGet();
+        return Flowable.empty();
+      });
+    }
+
+    @Override
+    protected Flowable<Movie> doGetMovies() {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<Movie> doSearchMovies(String movieText) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<Audio> doGetAudio() {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<Audio> doSearchAudio(String audioText) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<TelevisionShow> doGetTelevisionShows() {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+      return Flowable.empty();
+    }
+
+    @Override
+    protected String getMetricsPrefix() {
+      return StoreBackedMediaService.class.getName();
+    }
+  }
+}
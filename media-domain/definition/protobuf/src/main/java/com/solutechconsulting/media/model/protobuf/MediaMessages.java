@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.model.protobuf;
+
+import com.google.protobuf.Duration;
+import com.google.protobuf.Timestamp;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableAudio;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.model.protobuf.AudioProto.GrpcAudio;
+import com.solutechconsulting.media.model.protobuf.MoviesProto.GrpcMovie;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto.GrpcTelevisionShow;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Maps the media model to and from its protobuf messages. Proto3 scalar fields carry no presence,
+ * so an absent optional value is written as the field's default, and a default is read back as
+ * absent.
+ */
+public final class MediaMessages {
+
+  private MediaMessages() {
+  }
+
+  public static GrpcMovie toMessage(Movie movie) {
+    GrpcMovie.Builder builder = GrpcMovie.newBuilder().setId(movie.getId())
+        .setTitle(movie.getTitle()).setStudio(movie.getStudio())
+        .setContentRating(movie.getContentRating()).setGenres(movie.getGenres())
+        .setTagline(movie.getTagline()).setSummary(movie.getSummary())
+        .setDirectors(movie.getDirectors()).setRoles(movie.getRoles())
+        .setDuration(toDuration(movie.getDuration()));
+    movie.getCriticsRating().ifPresent(builder::setCriticsRating);
+    movie.getAudienceRating().ifPresent(builder::setAudienceRating);
+    movie.getYear().ifPresent(builder::setYear);
+    movie.getReleaseDate().ifPresent(date -> builder.setReleaseDate(toTimestamp(date)));
+
+    return builder.build();
+  }
+
+  public static GrpcAudio toMessage(Audio audio) {
+    GrpcAudio.Builder builder = GrpcAudio.newBuilder().setId(audio.getId())
+        .setTitle(audio.getTitle()).setAlbumArtist(audio.getAlbumArtist())
+        .setAlbum(audio.getAlbum()).setTrackNumber(audio.getTrackNumber())
+        .setDuration(toDuration(audio.getDuration()));
+    audio.getArtist().ifPresent(builder::setArtist);
+    audio.getYear().ifPresent(builder::setYear);
+
+    return builder.build();
+  }
+
+  public static GrpcTelevisionShow toMessage(TelevisionShow show) {
+    GrpcTelevisionShow.Builder builder = GrpcTelevisionShow.newBuilder().setId(show.getId())
+        .setTitle(show.getTitle()).setSeriesTitle(show.getSeriesTitle())
+        .setSeason(show.getSeason()).setEpisode(show.getEpisode())
+        .setContentRating(show.getContentRating()).setSummary(show.getSummary())
+        .setStudio(show.getStudio()).setDirectors(show.getDirectors())
+        .setWriters(show.getWriters()).setDuration(toDuration(show.getDuration()));
+    show.getRating().ifPresent(builder::setRating);
+    show.getYear().ifPresent(builder::setYear);
+    show.getOriginallyAired().ifPresent(aired -> builder.setOriginallyAired(toTimestamp(aired)));
+
+    return builder.build();
+  }
+
+  public static Movie toMovie(GrpcMovie message) {
+    return ImmutableMovie.builder().id(message.getId()).title(message.getTitle())
+        .studio(message.getStudio()).contentRating(message.getContentRating())
+        .year(optional(message.getYear())).criticsRating(optional(message.getCriticsRating()))
+        .summary(message.getSummary())
+        .releaseDate(message.hasReleaseDate()
+            ? Optional.of(toLocalDate(message.getReleaseDate())) : Optional.empty())
+        .genres(message.getGenres()).tagline(message.getTagline())
+        .duration(toDuration(message.getDuration())).directors(message.getDirectors())
+        .roles(message.getRoles()).audienceRating(optional(message.getAudienceRating()))
+        .build();
+  }
+
+  public static Audio toAudio(GrpcAudio message) {
+    return ImmutableAudio.builder().id(message.getId()).title(message.getTitle())
+        .albumArtist(message.getAlbumArtist()).album(message.getAlbum())
+        .artist(message.getArtist().isEmpty() ? Optional.empty() : Optional.of(message.getArtist()))
+        .trackNumber(message.getTrackNumber()).duration(toDuration(message.getDuration()))
+        .year(optional(message.getYear())).build();
+  }
+
+  public static TelevisionShow toTelevisionShow(GrpcTelevisionShow message) {
+    return ImmutableTelevisionShow.builder().id(message.getId()).title(message.getTitle())
+        .seriesTitle(message.getSeriesTitle()).year(optional(message.getYear()))
+        .season(message.getSeason()).episode(message.getEpisode())
+        .contentRating(message.getContentRating()).summary(message.getSummary())
+        .rating(optional(message.getRating())).studio(message.getStudio())
+        .originallyAired(message.hasOriginallyAired()
+            ? Optional.of(toLocalDate(message.getOriginallyAired())) : Optional.empty())
+        .duration(toDuration(message.getDuration())).directors(message.getDirectors())
+        .writers(message.getWriters()).build();
+  }
+
+  private static Duration toDuration(java.time.Duration duration) {
+    return Duration.newBuilder().setSeconds(duration.getSeconds()).setNanos(duration.getNano())
+        .build();
+  }
+
+  private static java.time.Duration toDuration(Duration duration) {
+    return java.time.Duration.ofSeconds(duration.getSeconds(), duration.getNanos());
+  }
+
+  private static Timestamp toTimestamp(LocalDate date) {
+    Instant instant = date.atStartOfDay().toInstant(ZoneOffset.UTC);
+    return Timestamp.newBuilder().setSeconds(instant.getEpochSecond())
+        .setNanos(instant.getNano()).build();
+  }
+
+  private static LocalDate toLocalDate(Timestamp timestamp) {
+    return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos())
+        .atZone(ZoneOffset.UTC).toLocalDate();
+  }
+
+  private static Optional<Integer> optional(int value) {
+    return value == 0 ? Optional.empty() : Optional.of(value);
+  }
+
+  private static Optional<Double> optional(double value) {
+    return value == 0 ? Optional.empty() : Optional.of(value);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.model.protobuf;
+
+import com.solutechconsulting.media.service.ConcurrencyLimitExceededException;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Subscription;
+
+/**
+ * Sends the elements of a flowable to the response observer of a server streaming call. Elements
+ * are requested only while the call is ready to send, so a slow client holds back the flowable
+ * instead of the messages queuing in the transport. At most {@code prefetch} elements are requested
+ * ahead of those sent, and demand is topped up once half of them have been sent.
+ * <p>
+ * The subscriber calls the observer on the thread emitting the elements. Nothing is scheduled, so a
+ * non-blocking flowable is mapped and sent on the transport thread that requested it.
+ * <p>
+ * A stream rejected by the media service's concurrency limit fails the call with
+ * RESOURCE_EXHAUSTED, which clients may retry; other errors keep their status.
+ *
+ * @param <T> the type of the messages
+ */
+public final class StreamObserverSubscriber<T> implements FlowableSubscriber<T> {
+
+  private static final Subscription CANCELLED = new Subscription() {
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  };
+
+  private final ServerCallStreamObserver<T> observer;
+  private final int prefetch;
+  private final int limit;
+  private final AtomicReference<Subscription> subscription = new AtomicReference<>();
+  private final AtomicLong outstanding = new AtomicLong();
+  private final AtomicBoolean cancelled = new AtomicBoolean();
+
+  private StreamObserverSubscriber(ServerCallStreamObserver<T> observer, int prefetch) {
+    this.observer = observer;
+    this.prefetch = prefetch;
+    this.limit = prefetch - (prefetch >> 1);
+  }
+
+  /**
+   * Subscribe the response observer of a call to a flowable. It must be called from the service
+   * method, before it returns, so that the ready and cancel handlers of the call are registered.
+   *
+   * @param flowable         the messages of the response
+   * @param responseObserver the response observer passed to the service method
+   * @param prefetch         the maximum number of messages requested ahead of those sent
+   * @param <T>              the type of the messages
+   */
+  public static <T> void subscribe(Flowable<T> flowable, StreamObserver<T> responseObserver,
+      int prefetch) {
+    if (prefetch <= 0) {
+      throw new IllegalArgumentException("prefetch must be positive: " + prefetch);
+    }
+    ServerCallStreamObserver<T> observer = (ServerCallStreamObserver<T>) responseObserver;
+    StreamObserverSubscriber<T> subscriber = new StreamObserverSubscriber<>(observer, prefetch);
+    observer.setOnReadyHandler(subscriber::requestMore);
+    observer.setOnCancelHandler(subscriber::cancel);
+    flowable.subscribe(subscriber);
+  }
+
+  @Override
+  public void onSubscribe(Subscription s) {
+    if (subscription.compareAndSet(null, s)) {
+      requestMore();
+    } else {
+      s.cancel();
+    }
+  }
+
+  @Override
+  public void onNext(T message) {
+    outstanding.decrementAndGet();
+    if (!cancelled.get()) {
+      observer.onNext(message);
+      requestMore();
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    if (!cancelled.get()) {
+      observer.onError(toStatusException(throwable));
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    if (!cancelled.get()) {
+      observer.onCompleted();
+    }
+  }
+
+  private static Throwable toStatusException(Throwable throwable) {
+    if (throwable instanceof StatusException || throwable instanceof StatusRuntimeException) {
+      return throwable;
+    }
+    Status status = throwable instanceof ConcurrencyLimitExceededException
+        ? Status.RESOURCE_EXHAUSTED : Status.fromThrowable(throwable);
+    return status.withDescription(throwable.getMessage()).asException();
+  }
+
+  /**
+   * Top demand back up to the prefetch once no more than half of it is outstanding, provided the
+   * call is ready to send. Called after each message sent and whenever the call becomes ready.
+   */
+  private void requestMore() {
+    Subscription s = subscription.get();
+    if (s == null || s == CANCELLED) {
+      return;
+    }
+    while (observer.isReady()) {
+      long current = outstanding.get();
+      if (current >= limit) {
+        return;
+      }
+      if (outstanding.compareAndSet(current, prefetch)) {
+        s.request(prefetch - current);
+        return;
+      }
+    }
+  }
+
+  private void cancel() {
+    cancelled.set(true);
+    Subscription s = subscription.getAndSet(CANCELLED);
+    if (s != null && s != CANCELLED) {
+      s.cancel();
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.model.protobuf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.service.ConcurrencyLimitExceededException;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.reactivex.Flowable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class TestStreamObserverSubscriber {
+
+  private static final int PREFETCH = 4;
+
+  @Test
+  public void testNoRequestWhileNotReady() {
+    FakeObserver observer = new FakeObserver(0);
+    List<Long> requests = new ArrayList<>();
+
+    StreamObserverSubscriber.subscribe(Flowable.range(1, 10).doOnRequest(requests::add), observer,
+        PREFETCH);
+
+    assertTrue(requests.isEmpty());
+    assertTrue(observer.messages.isEmpty());
+    assertFalse(observer.completed);
+  }
+
+  @Test
+  public void testTopUpOnReady() {
+    // Ready for five messages, after which the transport stops accepting them
+    FakeObserver observer = new FakeObserver(5);
+    List<Long> requests = new ArrayList<>();
+    AtomicBoolean requestedWhileNotReady = new AtomicBoolean();
+
+    StreamObserverSubscriber.subscribe(Flowable.range(1, 100).doOnRequest(n -> {
+      requests.add(n);
+      requestedWhileNotReady.compareAndSet(false, !observer.isReady());
+    }), observer, PREFETCH);
+
+    long requested = requests.stream().mapToLong(Long::longValue).sum();
+    assertEquals(requested, observer.messages.size());
+    assertTrue(requested <= 5 + PREFETCH, "Requested: " + requested);
+    assertFalse(observer.completed);
+
+    int sent = observer.messages.size();
+    observer.readyFor(sent + 10);
+    observer.onReadyHandler.run();
+    assertTrue(observer.messages.size() > sent);
+    assertTrue(observer.messages.size() <= sent + 10 + PREFETCH);
+    assertFalse(observer.completed);
+
+    observer.readyFor(Integer.MAX_VALUE);
+    observer.onReadyHandler.run();
+    assertEquals(100, observer.messages.size());
+    assertTrue(observer.completed);
+    assertFalse(requestedWhileNotReady.get());
+    assertTrue(requests.stream().allMatch(n -> n <= PREFETCH), "Requests: " + requests);
+  }
+
+  @Test
+  public void testCancelBeforeSubscribe() {
+    FakeObserver observer = new FakeObserver(Integer.MAX_VALUE);
+    AtomicReference<Subscriber<? super Integer>> subscriber = new AtomicReference<>();
+
+    // The flowable calls onSubscribe only once the call has been cancelled
+    StreamObserverSubscriber.subscribe(Flowable.<Integer>unsafeCreate(subscriber::set), observer,
+        PREFETCH);
+    observer.onCancelHandler.run();
+
+    RecordingSubscription subscription = new RecordingSubscription();
+    subscriber.get().onSubscribe(subscription);
+    assertTrue(subscription.cancelled);
+    assertEquals(0, subscription.requested);
+
+    subscriber.get().onComplete();
+    assertFalse(observer.completed);
+  }
+
+  @Test
+  public void testCancelAfterSubscribe() {
+    FakeObserver observer = new FakeObserver(Integer.MAX_VALUE);
+    AtomicBoolean cancelled = new AtomicBoolean();
+
+    StreamObserverSubscriber.subscribe(Flowable.<Integer>never()
+        .doOnCancel(() -> cancelled.set(true)), observer, PREFETCH);
+    observer.onCancelHandler.run();
+
+    assertTrue(cancelled.get());
+  }
+
+  @Test
+  public void testResourceExhausted() {
+    FakeObserver observer = new FakeObserver(Integer.MAX_VALUE);
+    ConcurrencyLimitExceededException exception =
+        new ConcurrencyLimitExceededException("service", "operation", 10);
+
+    StreamObserverSubscriber.subscribe(Flowable.error(exception), observer, PREFETCH);
+
+    Status status = Status.fromThrowable(observer.error);
+    assertEquals(Status.Code.RESOURCE_EXHAUSTED, status.getCode());
+    assertEquals(exception.getMessage(), status.getDescription());
+  }
+
+  @Test
+  public void testErrorStatus() {
+    FakeObserver observer = new FakeObserver(Integer.MAX_VALUE);
+    Throwable notFound = Status.NOT_FOUND.withDescription("missing").asRuntimeException();
+
+    StreamObserverSubscriber.subscribe(Flowable.error(notFound), observer, PREFETCH);
+    assertSame(notFound, observer.error);
+
+    observer = new FakeObserver(Integer.MAX_VALUE);
+    StreamObserverSubscriber.subscribe(Flowable.error(new IllegalStateException("failed")),
+        observer, PREFETCH);
+    assertEquals(Status.Code.UNKNOWN, Status.fromThrowable(observer.error).getCode());
+  }
+
+  @Test
+  public void testInvalidPrefetch() {
+    FakeObserver observer = new FakeObserver(Integer.MAX_VALUE);
+    assertThrows(IllegalArgumentException.class,
+        () -> StreamObserverSubscriber.subscribe(Flowable.just(1), observer, 0));
+    assertNull(observer.onReadyHandler);
+  }
+
+  /**
+   * A response observer ready to send until a number of messages has been sent.
+   */
+  private static final class FakeObserver extends ServerCallStreamObserver<Integer> {
+
+    private final List<Integer> messages = new ArrayList<>();
+    private int readyFor;
+    private Throwable error;
+    private boolean completed;
+    private Runnable onReadyHandler;
+    private Runnable onCancelHandler;
+
+    private FakeObserver(int readyFor) {
+      this.readyFor = readyFor;
+    }
+
+    private void readyFor(int readyFor) {
+      this.readyFor = readyFor;
+    }
+
+    @Override
+    public boolean isReady() {
+      return messages.size() < readyFor;
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+      this.onReadyHandler = onReadyHandler;
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+      this.onCancelHandler = onCancelHandler;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public void setCompression(String compression) {
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+    }
+
+    @Override
+    public void request(int count) {
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+    }
+
+    @Override
+    public void onNext(Integer message) {
+      messages.add(message);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onCompleted() {
+      completed = true;
+    }
+  }
+
+  private static final class RecordingSubscription implements Subscription {
+
+    private long requested;
+    private boolean cancelled;
+
+    @Override
+    public void request(long n) {
+      requested += n;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+}
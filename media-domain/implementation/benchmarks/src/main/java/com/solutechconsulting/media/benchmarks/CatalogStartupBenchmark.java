@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import com.solutechconsulting.media.catalog.CatalogSnapshot;
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time taken to make a {@link MediaCatalog} ready from the sample CSV files with the
+ * time taken to open a {@link CatalogSnapshot} of the same data. Each measurement runs once in a
+ * fresh JVM, so the results include class loading and interpretation as they would at service
+ * start.
+ * <p>
+ * Run {@link #main(String[])} to write the snapshot before the benchmark JVMs start, or pass the
+ * path of an existing snapshot with {@code -p snapshotFile=<file>}. Otherwise each benchmark JVM
+ * writes its own snapshot from the CSV files first, which warms up the classes the CSV path uses.
+ * Run with {@code -bm avgt -f 1 -wi 5 -i 5} to compare the two paths once warmed up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class CatalogStartupBenchmark {
+
+  @Param("")
+  public String snapshotFile;
+
+  private Path snapshot;
+  private boolean temporary;
+
+  public static void main(String[] args) throws IOException, RunnerException {
+    Path snapshot = Files.createTempFile("catalog", ".snapshot");
+    try {
+      CatalogSnapshot.write(loadCsv(), snapshot);
+      new Runner(new OptionsBuilder().include(CatalogStartupBenchmark.class.getSimpleName())
+          .param("snapshotFile", snapshot.toString()).build()).run();
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Setup
+  public void prepareSnapshot() throws IOException {
+    temporary = snapshotFile.isEmpty();
+    if (temporary) {
+      snapshot = Files.createTempFile("catalog", ".snapshot");
+      CatalogSnapshot.write(loadCsv(), snapshot);
+    } else {
+      snapshot = Paths.get(snapshotFile);
+    }
+  }
+
+  @TearDown
+  public void deleteSnapshot() throws IOException {
+    if (temporary) {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Benchmark
+  public MediaCatalog csv() {
+    return loadCsv();
+  }
+
+  @Benchmark
+  public MediaCatalog snapshot() throws IOException {
+    return CatalogSnapshot.open(snapshot);
+  }
+
+  private static MediaCatalog loadCsv() {
+    return MediaCatalog.of(new MovieLoader().loadMovies().toList().blockingGet(),
+        new AudioLoader().loadAudio().toList().blockingGet(),
+        new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet());
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableAudio;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap footprint, full collection pauses and search times of a {@link MediaCatalog}
+ * kept as objects with one kept in off-heap columns. The sample data is copied {@code copies}
+ * times, each copy with distinct identifiers, titles and summaries, so that the catalogue is large
+ * enough for the collector's work to show.
+ * <p>
+ * Once the catalogue is built, each benchmark JVM prints the heap in use after a full collection
+ * and the bytes held off the heap. The {@code fullGc} benchmark measures an explicit full
+ * collection with the catalogue live. Add {@code -prof gc} to also report the allocation rate of
+ * the searches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-XX:+UseG1GC", "-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CatalogStorageBenchmark {
+
+  @Param({"OBJECTS", "COLUMNAR"})
+  public MediaCatalog.Storage storage;
+
+  @Param("40")
+  public int copies;
+
+  private MediaCatalog catalog;
+
+  @Setup
+  public void buildCatalog() {
+    List<Movie> movies = new ArrayList<>();
+    List<Audio> audio = new ArrayList<>();
+    List<TelevisionShow> shows = new ArrayList<>();
+    List<Movie> sampleMovies = new MovieLoader().loadMovies().toList().blockingGet();
+    List<Audio> sampleAudio = new AudioLoader().loadAudio().toList().blockingGet();
+    List<TelevisionShow> sampleShows =
+        new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet();
+
+    for (int copy = 0; copy < copies; copy++) {
+      String suffix = "-" + copy;
+      for (Movie movie : sampleMovies) {
+        movies.add(ImmutableMovie.copyOf(movie).withId(movie.getId() + suffix)
+            .withTitle(movie.getTitle() + suffix).withSummary(movie.getSummary() + suffix));
+      }
+      for (Audio track : sampleAudio) {
+        audio.add(ImmutableAudio.copyOf(track).withId(track.getId() + suffix)
+            .withTitle(track.getTitle() + suffix).withAlbum(track.getAlbum() + suffix));
+      }
+      for (TelevisionShow show : sampleShows) {
+        shows.add(ImmutableTelevisionShow.copyOf(show).withId(show.getId() + suffix)
+            .withTitle(show.getTitle() + suffix).withSummary(show.getSummary() + suffix)
+            .withSeriesTitle(show.getSeriesTitle() + suffix));
+      }
+    }
+    catalog = MediaCatalog.of(movies, audio, shows, storage);
+
+    System.gc();
+    long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    // Printed rather than logged so that it shows in the output of the forked benchmark
+    System.out.printf("%s catalogue of %d items: %.1f MB heap in use, %.1f MB off heap%n",
+        storage, catalog.size(), heapBytes / 1048576.0, catalog.getOffHeapBytes() / 1048576.0);
+  }
+
+  @Benchmark
+  public void fullGc() {
+    System.gc();
+  }
+
+  @Benchmark
+  public long searchMovies() {
+    return catalog.searchMovies("star trek").count().blockingGet();
+  }
+
+  @Benchmark
+  public long searchAudio() {
+    return catalog.searchAudio("pink floyd").count().blockingGet();
+  }
+
+  @Benchmark
+  public long searchTelevisionShows() {
+    return catalog.searchTelevisionShows("hawkeye").count().blockingGet();
+  }
+
+  @Benchmark
+  public long getSeries() {
+    return catalog.getSeries("batman-0").count().blockingGet();
+  }
+}
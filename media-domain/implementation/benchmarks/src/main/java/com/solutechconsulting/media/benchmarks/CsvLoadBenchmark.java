@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import static com.solutechconsulting.media.sample.SampleDefinitions.TelevisionShow.Columns.*;
+
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.SampleDefinitions;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares loading the television show sample data, {@code tv.csv}, with the {@link
+ * TelevisionShowLoader} against the Commons CSV based loading it replaced, which parsed each
+ * record into a {@link CSVRecord} and read each field through the header map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CsvLoadBenchmark {
+
+  private final TelevisionShowLoader loader = new TelevisionShowLoader();
+
+  @Benchmark
+  public List<TelevisionShow> csvReader() {
+    return loader.loadTelevisionShows().toList().blockingGet();
+  }
+
+  @Benchmark
+  public void commonsCsv(Blackhole blackhole) throws IOException {
+    try (Reader reader = new InputStreamReader(
+        SampleDefinitions.class.getResourceAsStream(
+            SampleDefinitions.TelevisionShow.SAMPLE_RESOURCE), StandardCharsets.UTF_8)) {
+      for (CSVRecord record : CSVFormat.EXCEL.withFirstRecordAsHeader().parse(reader)) {
+        blackhole.consume(toTelevisionShow(record));
+      }
+    }
+  }
+
+  private static TelevisionShow toTelevisionShow(CSVRecord record) {
+    ImmutableTelevisionShow.Builder showBuilder = ImmutableTelevisionShow.builder()
+        .id(record.get(MEDIA_ID)).title(record.get(EPISODE_TITLE))
+        .seriesTitle(record.get(SERIES_TITLE)).contentRating(record.get(CONTENT_RATING))
+        .summary(record.get(SUMMARY)).studio(record.get(STUDIO))
+        .directors(record.get(DIRECTORS)).writers(record.get(WRITERS))
+        .year(getIntValue(record.get(YEAR))).season(getIntValue(record.get(SEASON)))
+        .episode(getIntValue(record.get(EPISODE)))
+        .duration(SampleDefinitions.getDuration(record.get(DURATION)));
+
+    String rating = record.get(RATING);
+    if (isPresent(rating)) {
+      showBuilder.rating(Double.parseDouble(rating));
+    }
+    String originallyAired = record.get(ORIGINALLY_AIRED);
+    if (isPresent(originallyAired)) {
+      showBuilder.originallyAired(LocalDate.parse(originallyAired));
+    }
+    return showBuilder.build();
+  }
+
+  private static int getIntValue(String value) {
+    return isPresent(value) ? Integer.parseInt(value) : 0;
+  }
+
+  private static boolean isPresent(String value) {
+    return value != null && !value.isEmpty() && !value.equals("N/A");
+  }
+}
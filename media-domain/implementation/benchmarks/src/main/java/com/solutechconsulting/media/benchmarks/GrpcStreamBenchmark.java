@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import com.google.protobuf.Empty;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.model.protobuf.MediaMessages;
+import com.solutechconsulting.media.model.protobuf.StreamObserverSubscriber;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsGrpc;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto.GrpcTelevisionShow;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.grpc.BindableService;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.quarkus.grpc.runtime.ServerCalls;
+import io.reactivex.Flowable;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.converters.multi.MultiRxConverters;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the two ways of sending a media service flowable as a gRPC server stream: converting it
+ * to Mutiny and subscribing on an executor, as the generated Mutiny base classes require, and
+ * subscribing a {@link StreamObserverSubscriber} on the transport thread. Both stream the sample
+ * television shows from memory over an in-process channel.
+ * <p>
+ * {@code stream} reports the rate of whole streams along with the {@code messages} counter, the
+ * messages received per second. {@code firstMessage} samples the latency to the first message of a
+ * stream, which is then cancelled.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main GrpcStreamBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class GrpcStreamBenchmark {
+
+  private static final int PREFETCH = 128;
+
+  @Param({"mutiny", "bridge"})
+  public String path;
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+  private List<TelevisionShow> shows;
+  private Server server;
+  private ManagedChannel channel;
+  private TelevisionShowsGrpc.TelevisionShowsBlockingStub stub;
+
+  @Setup
+  public void startServer() throws IOException {
+    shows = new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet();
+
+    String name = GrpcStreamBenchmark.class.getSimpleName() + '-' + path;
+    BindableService service = "mutiny".equals(path) ? new MutinyShows() : new BridgeShows();
+    server = InProcessServerBuilder.forName(name).addService(service).build().start();
+    channel = InProcessChannelBuilder.forName(name).build();
+    stub = TelevisionShowsGrpc.newBlockingStub(channel);
+  }
+
+  @TearDown
+  public void stopServer() throws InterruptedException {
+    channel.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+    server.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+    executorService.shutdownNow();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public int stream(Messages messages) {
+    int count = 0;
+    for (Iterator<GrpcTelevisionShow> iterator = stub.get(Empty.getDefaultInstance());
+        iterator.hasNext(); iterator.next()) {
+      count++;
+    }
+    messages.messages += count;
+    return count;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public GrpcTelevisionShow firstMessage() {
+    try (Context.CancellableContext context = Context.current().withCancellation()) {
+      Context previous = context.attach();
+      try {
+        return stub.get(Empty.getDefaultInstance()).next();
+      } finally {
+        context.detach(previous);
+      }
+    }
+  }
+
+  private Flowable<GrpcTelevisionShow> messages() {
+    return Flowable.fromIterable(shows).map(MediaMessages::toMessage);
+  }
+
+  /**
+   * Reports the messages received with the {@link #stream(Messages)} results.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Messages {
+
+    public long messages;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      messages = 0;
+    }
+  }
+
+  /**
+   * Sends the shows as the generated Mutiny base class does, with the subscription moved to an
+   * executor as the services did.
+   */
+  private class MutinyShows extends TelevisionShowsGrpc.TelevisionShowsImplBase {
+
+    @Override
+    public void get(Empty request, StreamObserver<GrpcTelevisionShow> responseObserver) {
+      ServerCalls.oneToMany(request, responseObserver, empty -> Multi.createFrom()
+          .converter(MultiRxConverters.fromFlowable(), messages())
+          .runSubscriptionOn(executorService));
+    }
+  }
+
+  /**
+   * Sends the shows through a {@link StreamObserverSubscriber}, as the services do for a
+   * non-blocking media service.
+   */
+  private class BridgeShows extends TelevisionShowsGrpc.TelevisionShowsImplBase {
+
+    @Override
+    public void get(Empty request, StreamObserver<GrpcTelevisionShow> responseObserver) {
+      StreamObserverSubscriber.subscribe(messages(), responseObserver, PREFETCH);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.solutechconsulting.media.model.JsonCodecModule;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares Jackson's reflective serialization of the sample television shows with the codecs
+ * generated at build time and registered by {@link JsonCodecModule}. The shows are written and read
+ * as a single list, as the REST resources do, and read one event at a time, as {@code
+ * RestMediaService} parses the server-sent event stream.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main JsonCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class JsonCodecBenchmark {
+
+  private static final TypeReference<List<TelevisionShow>> SHOWS = new TypeReference<>() {
+  };
+
+  @Param({"reflective", "generated"})
+  public String codec;
+
+  private ObjectMapper objectMapper;
+  private List<TelevisionShow> shows;
+  private byte[] list;
+  private List<String> events;
+
+  @Setup
+  public void encodeShows() throws IOException {
+    objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    if (codec.equals("generated")) {
+      objectMapper.registerModule(new JsonCodecModule());
+    }
+    shows = new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet();
+    list = writeList();
+    events = new ArrayList<>(shows.size());
+    for (TelevisionShow show : shows) {
+      events.add(objectMapper.writeValueAsString(show));
+    }
+  }
+
+  @Benchmark
+  public byte[] writeList() throws IOException {
+    return objectMapper.writerFor(SHOWS).writeValueAsBytes(shows);
+  }
+
+  @Benchmark
+  public List<TelevisionShow> readList() throws IOException {
+    return objectMapper.readValue(list, SHOWS);
+  }
+
+  @Benchmark
+  public List<TelevisionShow> readEvents() throws IOException {
+    List<TelevisionShow> decoded = new ArrayList<>(events.size());
+    for (String event : events) {
+      decoded.add(objectMapper.readValue(event, TelevisionShow.class));
+    }
+    return decoded;
+  }
+}
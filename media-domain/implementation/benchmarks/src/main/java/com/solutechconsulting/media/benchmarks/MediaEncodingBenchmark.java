@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.benchmarks;
+
+import com.solutechconsulting.media.encoding.MediaEncoding;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of encoding and decoding the sample television shows, the largest of the media
+ * lists, in each {@link MediaEncoding} the REST resources produce. The size of each encoding is
+ * reported alongside the times as the {@code payloadBytes} counter.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main MediaEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MediaEncodingBenchmark {
+
+  @Param({"JSON", "PROTOBUF", "SMILE", "CBOR"})
+  public MediaEncoding encoding;
+
+  private List<TelevisionShow> shows;
+  private byte[] encoded;
+
+  @Setup
+  public void encodeShows() throws IOException {
+    shows = new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet();
+    encoded = encode();
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    encoding.write(shows, TelevisionShow.class, out);
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public List<TelevisionShow> decode() throws IOException {
+    List<TelevisionShow> decoded = new ArrayList<>(shows.size());
+    encoding.read(new ByteArrayInputStream(encoded), TelevisionShow.class)
+        .forEachRemaining(decoded::add);
+    return decoded;
+  }
+
+  @Benchmark
+  public byte[] payload(Payload payload) {
+    payload.payloadBytes = encoded.length;
+    return encoded;
+  }
+
+  /**
+   * Reports the encoded size of the shows with the {@link #payload(Payload)} results.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Payload {
+
+    public long payloadBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      payloadBytes = 0;
+    }
+  }
+}
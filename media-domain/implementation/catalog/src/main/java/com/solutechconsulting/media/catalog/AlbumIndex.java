@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.model.Audio;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable index of audio tracks by album. Each album title, normalized with {@link
+ * MediaKeys#normalize(String)}, maps to the tracks of every album sharing that title held in a
+ * single array ordered by normalized album artist and track number, the order in which the database
+ * backends return an album's tracks. The start of each album artist's tracks within the array is
+ * recorded so that an album can also be looked up by title and album artist.
+ * <p>
+ * The index holds the rows of the tracks in a {@link MediaTable} and is built once from a complete
+ * set of audio items. Lookups return views of the pre-sorted arrays that read each track from the
+ * table when it is accessed, so a request costs no more than the number of tracks returned.
+ */
+public final class AlbumIndex {
+
+  private final MediaTable<Audio> table;
+  private final Map<String, Album> albums;
+
+  private AlbumIndex(MediaTable<Audio> table, Map<String, Album> albums) {
+    this.table = table;
+    this.albums = albums;
+  }
+
+  /**
+   * Build an index over the given audio items.
+   *
+   * @param audio the audio items
+   * @return the index
+   */
+  public static AlbumIndex of(Collection<? extends Audio> audio) {
+    return of(MediaTable.of(new ArrayList<>(audio)));
+  }
+
+  /**
+   * Build an index over the audio items in the given table.
+   *
+   * @param table the audio table
+   * @return the index
+   */
+  public static AlbumIndex of(MediaTable<Audio> table) {
+    Audio[] audio = new Audio[table.size()];
+    Arrays.setAll(audio, table::get);
+
+    Map<String, List<Integer>> grouped = IntStream.range(0, audio.length).boxed()
+        .collect(Collectors.groupingBy(row -> MediaKeys.normalize(audio[row].getAlbum())));
+
+    Map<String, Album> albums = new HashMap<>(grouped.size() * 4 / 3 + 1);
+    grouped.forEach((title, rows) -> albums.put(title, Album.of(audio, rows)));
+
+    return new AlbumIndex(table, albums);
+  }
+
+  /**
+   * Create an index over the given table from album entries built earlier over the same table,
+   * such as entries read from a {@link CatalogSnapshot}.
+   */
+  static AlbumIndex of(MediaTable<Audio> table, Map<String, Album> albums) {
+    return new AlbumIndex(table, albums);
+  }
+
+  /**
+   * Return the tracks of every album with the given title, ordered by album artist and track
+   * number.
+   *
+   * @param albumTitle the album title
+   * @return the tracks, or an empty list if the album is unknown
+   */
+  public List<Audio> getTracks(String albumTitle) {
+    Album album = albums.get(MediaKeys.normalize(albumTitle));
+    return album == null ? Collections.emptyList() : new Tracks(album.rows, 0, album.rows.length);
+  }
+
+  /**
+   * Return the tracks of the album with the given title and album artist, ordered by track
+   * number.
+   *
+   * @param albumTitle  the album title
+   * @param albumArtist the album artist
+   * @return the tracks, or an empty list if the album is unknown
+   */
+  public List<Audio> getTracks(String albumTitle, String albumArtist) {
+    Album album = albums.get(MediaKeys.normalize(albumTitle));
+    if (album == null) {
+      return Collections.emptyList();
+    }
+
+    int position = Arrays.binarySearch(album.artists, MediaKeys.normalize(albumArtist));
+    if (position < 0) {
+      return Collections.emptyList();
+    }
+
+    return new Tracks(album.rows, album.artistStarts[position], album.artistStarts[position + 1]);
+  }
+
+  /**
+   * Return the album titles held by the index, normalized with {@link MediaKeys#normalize(String)}.
+   *
+   * @return the normalized album titles
+   */
+  public Set<String> getAlbumTitles() {
+    return Collections.unmodifiableSet(albums.keySet());
+  }
+
+  /**
+   * Return the number of distinct album titles held by the index.
+   *
+   * @return the number of album titles
+   */
+  public int size() {
+    return albums.size();
+  }
+
+  /**
+   * Return the entries of the index by normalized album title.
+   */
+  Map<String, Album> getEntries() {
+    return Collections.unmodifiableMap(albums);
+  }
+
+  private final class Tracks extends AbstractList<Audio> implements RandomAccess {
+
+    private final int[] rows;
+    private final int from;
+    private final int size;
+
+    private Tracks(int[] rows, int from, int to) {
+      this.rows = rows;
+      this.from = from;
+      this.size = to - from;
+    }
+
+    @Override
+    public Audio get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return table.get(rows[from + index]);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  static final class Album {
+
+    /**
+     * The table rows of the tracks, ordered by album artist and track number.
+     */
+    final int[] rows;
+
+    /**
+     * The distinct normalized album artists sharing the album title, in ascending order.
+     */
+    final String[] artists;
+
+    /**
+     * The index in {@link #rows} of the first track of each album artist, followed by the length
+     * of the array.
+     */
+    final int[] artistStarts;
+
+    Album(int[] rows, String[] artists, int[] artistStarts) {
+      this.rows = rows;
+      this.artists = artists;
+      this.artistStarts = artistStarts;
+    }
+
+    private static Album of(Audio[] audio, List<Integer> albumRows) {
+      String[] keys = new String[albumRows.size()];
+      Integer[] order = new Integer[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = MediaKeys.normalize(audio[albumRows.get(i)].getAlbumArtist());
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.<Integer, String>comparing(i -> keys[i])
+          .thenComparingInt(i -> audio[albumRows.get(i)].getTrackNumber()));
+
+      int[] rows = new int[keys.length];
+      String[] artistBuffer = new String[keys.length];
+      int[] startBuffer = new int[keys.length + 1];
+      int count = 0;
+      for (int i = 0; i < order.length; i++) {
+        rows[i] = albumRows.get(order[i]);
+        String artist = keys[order[i]];
+        if (count == 0 || !artistBuffer[count - 1].equals(artist)) {
+          artistBuffer[count] = artist;
+          startBuffer[count] = i;
+          count++;
+        }
+      }
+      startBuffer[count] = rows.length;
+
+      return new Album(rows, Arrays.copyOf(artistBuffer, count),
+          Arrays.copyOf(startBuffer, count + 1));
+    }
+  }
+}
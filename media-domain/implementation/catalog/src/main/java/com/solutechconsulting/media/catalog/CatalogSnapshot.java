@@ -0,0 +1,588 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.catalog.Columns.DoubleColumn;
+import com.solutechconsulting.media.catalog.Columns.IntColumn;
+import com.solutechconsulting.media.catalog.Columns.LongColumn;
+import com.solutechconsulting.media.catalog.Columns.StringColumn;
+import com.solutechconsulting.media.catalog.Columns.Utf8Blob;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A compact binary snapshot of a {@link MediaCatalog}, written to a file and opened again by
+ * memory-mapping it. Opening a snapshot parses nothing: the columns of the catalogue are read in
+ * place from the mapped file, and an item is materialized each time it is read, as with {@link
+ * MediaCatalog.Storage#COLUMNAR} storage.
+ * <p>
+ * All values are little-endian. A snapshot starts with a header:
+ * <pre>
+ *   int  magic           0x4D435348 ("MCSH")
+ *   int  version         {@link #VERSION}
+ *   long created         creation time of the catalogue in epoch milliseconds
+ *   int  section count
+ *   int  reserved
+ * </pre>
+ * followed by an offsets table holding an entry for each section:
+ * <pre>
+ *   int  section id
+ *   int  reserved
+ *   long offset          from the start of the file
+ *   long length          in bytes
+ * </pre>
+ * Sections start on eight byte boundaries. The string pool section holds each distinct string of
+ * the catalogue once: a count, a reserved int, count + 1 int offsets and the UTF-8 bytes of the
+ * strings back to back. Each table section holds a row count and a column count, the offset and
+ * length of each column relative to the section, and the columns themselves. A string column
+ * holds the index of each row's value in the string pool, or -1 if the value is missing. Numeric
+ * columns are encoded as for {@link MediaCatalog.Storage#COLUMNAR} storage. The search text
+ * sections hold the lowercase search text of each item in the same layout as the string pool,
+ * and the index sections hold the entries of the series and album indexes, so that opening a
+ * snapshot does not need to read every item to rebuild them.
+ * <p>
+ * A snapshot with a different version is rejected, so the version must be incremented whenever
+ * the layout or the columns of a table change. A snapshot is limited to 2 GB, the largest region a
+ * single mapping can address.
+ */
+public final class CatalogSnapshot {
+
+  /**
+   * The first four bytes of every snapshot.
+   */
+  public static final int MAGIC = 0x4D435348;
+
+  /**
+   * The version of the snapshot layout written by this class.
+   */
+  public static final int VERSION = 1;
+
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+  private static final int HEADER_BYTES = 24;
+  private static final int SECTION_ENTRY_BYTES = 24;
+  private static final int ALIGNMENT = Long.BYTES;
+
+  private CatalogSnapshot() {
+  }
+
+  /**
+   * Write a snapshot of the given catalogue. The snapshot is written to a temporary file that then
+   * replaces the given file, so a snapshot being opened concurrently is never seen half written.
+   *
+   * @param catalog the catalogue
+   * @param file    the snapshot file
+   * @throws IOException if the snapshot could not be written
+   */
+  public static void write(MediaCatalog catalog, Path file) throws IOException {
+    List<Movie> movies = catalog.getMovies().toList().blockingGet();
+    List<Audio> audio = catalog.getAudio().toList().blockingGet();
+    List<TelevisionShow> televisionShows = catalog.getTelevisionShows().toList().blockingGet();
+
+    Map<String, Integer> pool = new HashMap<>();
+    Map<Section, ByteBuffer> sections = new EnumMap<>(Section.class);
+    sections.put(Section.MOVIES,
+        new TableWriter<>(movies, pool).write(ColumnarMovieTable::new));
+    sections.put(Section.AUDIO, new TableWriter<>(audio, pool).write(ColumnarAudioTable::new));
+    sections.put(Section.TELEVISION_SHOWS,
+        new TableWriter<>(televisionShows, pool).write(ColumnarTelevisionShowTable::new));
+    sections.put(Section.MOVIE_TEXT, strings(movies, MediaCatalog::searchText));
+    sections.put(Section.AUDIO_TEXT, strings(audio, MediaCatalog::searchText));
+    sections.put(Section.TELEVISION_SHOW_TEXT,
+        strings(televisionShows, MediaCatalog::searchText));
+    sections.put(Section.SERIES_INDEX, series(catalog.getSeriesIndex().getEntries(), pool));
+    sections.put(Section.ALBUM_INDEX, albums(catalog.getAlbumIndex().getEntries(), pool));
+
+    String[] pooled = new String[pool.size()];
+    pool.forEach((value, index) -> pooled[index] = value);
+    sections.put(Section.STRING_POOL, strings(List.of(pooled), Function.identity()));
+
+    ByteBuffer header = ByteBuffer
+        .allocate(HEADER_BYTES + sections.size() * SECTION_ENTRY_BYTES).order(ORDER);
+    header.putInt(MAGIC).putInt(VERSION).putLong(catalog.getCreated().toEpochMilli())
+        .putInt(sections.size()).putInt(0);
+    long offset = align(header.capacity());
+    for (Map.Entry<Section, ByteBuffer> section : sections.entrySet()) {
+      int length = section.getValue().remaining();
+      header.putInt(section.getKey().id).putInt(0).putLong(offset).putLong(length);
+      offset = align(offset + length);
+    }
+    if (offset > Integer.MAX_VALUE) {
+      throw new IOException("Snapshot too large: " + offset + " bytes.");
+    }
+    header.flip();
+
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        writeFully(channel, header);
+        for (ByteBuffer section : sections.values()) {
+          channel.position(align(channel.position()));
+          writeFully(channel, section);
+        }
+        channel.force(false);
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Open a snapshot by memory-mapping it. The returned catalogue reads its items from the mapping,
+   * which remains valid until the catalogue is garbage collected, and reports the creation time
+   * of the catalogue the snapshot was written from.
+   *
+   * @param file the snapshot file
+   * @return the catalogue
+   * @throws IOException if the file could not be read or is not a snapshot of this version
+   */
+  public static MediaCatalog open(Path file) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot too large: " + file);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    ByteBuffer snapshot = mapped.order(ORDER);
+
+    try {
+      if (snapshot.capacity() < HEADER_BYTES || snapshot.getInt(0) != MAGIC) {
+        throw new IOException("Not a catalogue snapshot: " + file);
+      }
+      int version = snapshot.getInt(4);
+      if (version != VERSION) {
+        throw new IOException(
+            "Unsupported snapshot version " + version + ", expected " + VERSION + ": " + file);
+      }
+      Instant created = Instant.ofEpochMilli(snapshot.getLong(8));
+
+      Map<Section, ByteBuffer> sections = new EnumMap<>(Section.class);
+      int sectionCount = snapshot.getInt(16);
+      for (int i = 0; i < sectionCount; i++) {
+        int entry = HEADER_BYTES + i * SECTION_ENTRY_BYTES;
+        Section.of(snapshot.getInt(entry)).ifPresent(section -> sections.put(section,
+            slice(snapshot, snapshot.getLong(entry + 8), snapshot.getLong(entry + 16))));
+      }
+      for (Section section : Section.values()) {
+        if (!sections.containsKey(section)) {
+          throw new IOException("Snapshot has no " + section + " section: " + file);
+        }
+      }
+
+      Utf8Blob pool = blob(sections.get(Section.STRING_POOL));
+      return MediaCatalog.of(
+          new TableReader<Movie>(sections.get(Section.MOVIES), pool).read(ColumnarMovieTable::new),
+          new TableReader<Audio>(sections.get(Section.AUDIO), pool).read(ColumnarAudioTable::new),
+          new TableReader<TelevisionShow>(sections.get(Section.TELEVISION_SHOWS), pool)
+              .read(ColumnarTelevisionShowTable::new),
+          SearchText.offHeap(blob(sections.get(Section.MOVIE_TEXT))),
+          SearchText.offHeap(blob(sections.get(Section.AUDIO_TEXT))),
+          SearchText.offHeap(blob(sections.get(Section.TELEVISION_SHOW_TEXT))),
+          readSeries(sections.get(Section.SERIES_INDEX), pool),
+          readAlbums(sections.get(Section.ALBUM_INDEX), pool), created);
+    } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt catalogue snapshot: " + file, e);
+    }
+  }
+
+  private static long align(long offset) {
+    return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, long offset, long length) {
+    if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+      throw new IllegalArgumentException(
+          "Section out of bounds: offset " + offset + ", length " + length);
+    }
+    ByteBuffer view = buffer.duplicate();
+    view.position((int) offset).limit((int) (offset + length));
+    return view.slice().order(ORDER);
+  }
+
+  /**
+   * Encode one string per item in the layout of the string pool. Missing strings are stored as
+   * empty strings.
+   */
+  private static <T> ByteBuffer strings(List<T> items, Function<T, String> getter) {
+    byte[][] encoded = new byte[items.size()][];
+    long dataBytes = 0;
+    for (int i = 0; i < encoded.length; i++) {
+      String value = getter.apply(items.get(i));
+      encoded[i] = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+      dataBytes += encoded[i].length;
+    }
+
+    long size = 2L * Integer.BYTES + (encoded.length + 1L) * Integer.BYTES + dataBytes;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalStateException("String section too large: " + size + " bytes.");
+    }
+
+    ByteBuffer section = ByteBuffer.allocate((int) size).order(ORDER);
+    section.putInt(encoded.length).putInt(0);
+    int offset = 0;
+    for (byte[] bytes : encoded) {
+      section.putInt(offset);
+      offset += bytes.length;
+    }
+    section.putInt(offset);
+    for (byte[] bytes : encoded) {
+      section.put(bytes);
+    }
+    return section.flip();
+  }
+
+  /**
+   * Encode the entries of a series index: a count and a reserved int, followed for each series by
+   * the pool index of its normalized title, the number of rows and seasons, the rows, the seasons
+   * and the season starts.
+   */
+  private static ByteBuffer series(Map<String, SeriesIndex.Series> entries,
+      Map<String, Integer> pool) {
+    long ints = 2;
+    for (SeriesIndex.Series series : entries.values()) {
+      ints += 3 + series.rows.length + series.seasons.length + series.seasonStarts.length;
+    }
+
+    ByteBuffer section = allocateInts(ints);
+    section.putInt(entries.size()).putInt(0);
+    entries.forEach((title, series) -> {
+      section.putInt(intern(title, pool)).putInt(series.rows.length)
+          .putInt(series.seasons.length);
+      putInts(section, series.rows);
+      putInts(section, series.seasons);
+      putInts(section, series.seasonStarts);
+    });
+    return section.flip();
+  }
+
+  private static Map<String, SeriesIndex.Series> readSeries(ByteBuffer section, Utf8Blob pool) {
+    ByteBuffer in = section.duplicate().order(ORDER);
+    int count = in.getInt();
+    in.getInt();
+
+    Map<String, SeriesIndex.Series> entries = new HashMap<>(count * 4 / 3 + 1);
+    for (int i = 0; i < count; i++) {
+      String title = pool.getString(in.getInt());
+      int rows = in.getInt();
+      int seasons = in.getInt();
+      entries.put(title, new SeriesIndex.Series(getInts(in, rows), getInts(in, seasons),
+          getInts(in, seasons + 1)));
+    }
+    return entries;
+  }
+
+  /**
+   * Encode the entries of an album index: a count and a reserved int, followed for each album by
+   * the pool index of its normalized title, the number of rows and album artists, the rows, the
+   * pool indexes of the normalized album artists and the album artist starts.
+   */
+  private static ByteBuffer albums(Map<String, AlbumIndex.Album> entries,
+      Map<String, Integer> pool) {
+    long ints = 2;
+    for (AlbumIndex.Album album : entries.values()) {
+      ints += 3 + album.rows.length + album.artists.length + album.artistStarts.length;
+    }
+
+    ByteBuffer section = allocateInts(ints);
+    section.putInt(entries.size()).putInt(0);
+    entries.forEach((title, album) -> {
+      section.putInt(intern(title, pool)).putInt(album.rows.length)
+          .putInt(album.artists.length);
+      putInts(section, album.rows);
+      for (String artist : album.artists) {
+        section.putInt(intern(artist, pool));
+      }
+      putInts(section, album.artistStarts);
+    });
+    return section.flip();
+  }
+
+  private static Map<String, AlbumIndex.Album> readAlbums(ByteBuffer section, Utf8Blob pool) {
+    ByteBuffer in = section.duplicate().order(ORDER);
+    int count = in.getInt();
+    in.getInt();
+
+    Map<String, AlbumIndex.Album> entries = new HashMap<>(count * 4 / 3 + 1);
+    for (int i = 0; i < count; i++) {
+      String title = pool.getString(in.getInt());
+      int rows = in.getInt();
+      String[] artists = new String[in.getInt()];
+      int[] albumRows = getInts(in, rows);
+      for (int j = 0; j < artists.length; j++) {
+        artists[j] = pool.getString(in.getInt());
+      }
+      entries.put(title, new AlbumIndex.Album(albumRows, artists, getInts(in, artists.length + 1)));
+    }
+    return entries;
+  }
+
+  private static int intern(String value, Map<String, Integer> pool) {
+    return pool.computeIfAbsent(value, key -> pool.size());
+  }
+
+  private static ByteBuffer allocateInts(long ints) {
+    if (ints * Integer.BYTES > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Index too large: " + ints * Integer.BYTES + " bytes.");
+    }
+    return ByteBuffer.allocate((int) ints * Integer.BYTES).order(ORDER);
+  }
+
+  private static void putInts(ByteBuffer buffer, int[] values) {
+    buffer.asIntBuffer().put(values);
+    buffer.position(buffer.position() + values.length * Integer.BYTES);
+  }
+
+  private static int[] getInts(ByteBuffer buffer, int count) {
+    int[] values = new int[count];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + count * Integer.BYTES);
+    return values;
+  }
+
+  private static Utf8Blob blob(ByteBuffer section) {
+    int count = section.getInt(0);
+    int offsetsStart = 2 * Integer.BYTES;
+    int dataStart = offsetsStart + (count + 1) * Integer.BYTES;
+    return new Utf8Blob(slice(section, dataStart, section.capacity() - dataStart),
+        slice(section, offsetsStart, dataStart - offsetsStart));
+  }
+
+  private enum Section {
+    STRING_POOL(1),
+    MOVIES(2),
+    AUDIO(3),
+    TELEVISION_SHOWS(4),
+    MOVIE_TEXT(5),
+    AUDIO_TEXT(6),
+    TELEVISION_SHOW_TEXT(7),
+    SERIES_INDEX(8),
+    ALBUM_INDEX(9);
+
+    private final int id;
+
+    Section(int id) {
+      this.id = id;
+    }
+
+    /**
+     * Return the section with the given id. Sections unknown to this version are ignored.
+     */
+    static Optional<Section> of(int id) {
+      for (Section section : values()) {
+        if (section.id == id) {
+          return Optional.of(section);
+        }
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Encodes the columns of a table as the table asks for them. The columns are also built in
+   * memory as usual, since the table being constructed needs them, but that table is discarded.
+   */
+  private static final class TableWriter<T> implements Columns.Source<T> {
+
+    private final List<T> rows;
+    private final Map<String, Integer> pool;
+    private final Columns.Source<T> columns;
+    private final List<ByteBuffer> encoded = new ArrayList<>();
+
+    private TableWriter(List<T> rows, Map<String, Integer> pool) {
+      this.rows = rows;
+      this.pool = pool;
+      columns = Columns.Source.of(rows);
+    }
+
+    ByteBuffer write(Function<Columns.Source<T>, MediaTable<T>> table) {
+      table.apply(this);
+
+      int columnTable = 2 * Integer.BYTES;
+      long offset = align(columnTable + (long) encoded.size() * 2 * Long.BYTES);
+      long[] offsets = new long[encoded.size()];
+      for (int i = 0; i < offsets.length; i++) {
+        offsets[i] = offset;
+        offset = align(offset + encoded.get(i).capacity());
+      }
+      if (offset > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Table too large: " + offset + " bytes.");
+      }
+
+      ByteBuffer section = ByteBuffer.allocate((int) offset).order(ORDER);
+      section.putInt(rows.size()).putInt(encoded.size());
+      for (int i = 0; i < offsets.length; i++) {
+        section.putLong(offsets[i]).putLong(encoded.get(i).capacity());
+      }
+      for (int i = 0; i < offsets.length; i++) {
+        section.position((int) offsets[i]);
+        section.put(encoded.get(i).rewind());
+      }
+      return section.rewind();
+    }
+
+    @Override
+    public int size() {
+      return rows.size();
+    }
+
+    @Override
+    public StringColumn strings(Function<T, String> getter) {
+      ByteBuffer column = allocate(Integer.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        String value = getter.apply(rows.get(i));
+        column.putInt(i * Integer.BYTES, value == null ? -1 : intern(value, pool));
+      }
+      return columns.strings(getter);
+    }
+
+    @Override
+    public IntColumn ints(Function<T, Integer> getter) {
+      ByteBuffer column = allocate(Integer.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        Integer value = getter.apply(rows.get(i));
+        column.putInt(i * Integer.BYTES, value == null ? Columns.NO_INT : value);
+      }
+      return columns.ints(getter);
+    }
+
+    @Override
+    public LongColumn longs(Function<T, Long> getter) {
+      ByteBuffer column = allocate(Long.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        Long value = getter.apply(rows.get(i));
+        column.putLong(i * Long.BYTES, value == null ? Columns.NO_LONG : value);
+      }
+      return columns.longs(getter);
+    }
+
+    @Override
+    public DoubleColumn doubles(Function<T, Optional<Double>> getter) {
+      ByteBuffer column = allocate(Double.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        column.putDouble(i * Double.BYTES, getter.apply(rows.get(i)).orElse(Double.NaN));
+      }
+      return columns.doubles(getter);
+    }
+
+    private ByteBuffer allocate(int width) {
+      ByteBuffer column = ByteBuffer.allocate(rows.size() * width).order(ORDER);
+      encoded.add(column);
+      return column;
+    }
+  }
+
+  /**
+   * Returns the columns of a table section in the order they were written.
+   */
+  private static final class TableReader<T> implements Columns.Source<T> {
+
+    private final ByteBuffer section;
+    private final Utf8Blob pool;
+    private final int rows;
+    private final int columnCount;
+    private int column;
+
+    private TableReader(ByteBuffer section, Utf8Blob pool) {
+      this.section = section;
+      this.pool = pool;
+      rows = section.getInt(0);
+      columnCount = section.getInt(Integer.BYTES);
+    }
+
+    MediaTable<T> read(Function<Columns.Source<T>, MediaTable<T>> table) {
+      MediaTable<T> read = table.apply(this);
+      if (column != columnCount) {
+        throw new IllegalStateException(
+            "Table has " + columnCount + " columns, but " + column + " were read.");
+      }
+      return read;
+    }
+
+    @Override
+    public int size() {
+      return rows;
+    }
+
+    @Override
+    public StringColumn strings(Function<T, String> getter) {
+      return StringColumn.pooled(next(Integer.BYTES), pool);
+    }
+
+    @Override
+    public IntColumn ints(Function<T, Integer> getter) {
+      return new IntColumn(next(Integer.BYTES));
+    }
+
+    @Override
+    public LongColumn longs(Function<T, Long> getter) {
+      return new LongColumn(next(Long.BYTES));
+    }
+
+    @Override
+    public DoubleColumn doubles(Function<T, Optional<Double>> getter) {
+      return new DoubleColumn(next(Double.BYTES));
+    }
+
+    private ByteBuffer next(int width) {
+      if (column >= columnCount) {
+        throw new IllegalStateException("Table has only " + columnCount + " columns.");
+      }
+      int entry = 2 * Integer.BYTES + column++ * 2 * Long.BYTES;
+      long length = section.getLong(entry + Long.BYTES);
+      if (length != (long) rows * width) {
+        throw new IllegalStateException("Column " + (column - 1) + " has " + length
+            + " bytes, expected " + (long) rows * width + '.');
+      }
+      return slice(section, section.getLong(entry), length);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.catalog.Columns.IntColumn;
+import com.solutechconsulting.media.catalog.Columns.LongColumn;
+import com.solutechconsulting.media.catalog.Columns.StringColumn;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableAudio;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A table of audio items stored column by column off the heap. An audio item is materialized each
+ * time its row is read.
+ */
+final class ColumnarAudioTable implements MediaTable<Audio> {
+
+  private final int size;
+  private final StringColumn id;
+  private final StringColumn title;
+  private final StringColumn albumArtist;
+  private final StringColumn album;
+  private final StringColumn artist;
+  private final IntColumn trackNumber;
+  private final LongColumn duration;
+  private final IntColumn year;
+
+  ColumnarAudioTable(List<Audio> audio) {
+    this(Columns.Source.of(audio));
+  }
+
+  ColumnarAudioTable(Columns.Source<Audio> source) {
+    size = source.size();
+    id = source.strings(Audio::getId);
+    title = source.strings(Audio::getTitle);
+    albumArtist = source.strings(Audio::getAlbumArtist);
+    album = source.strings(Audio::getAlbum);
+    artist = source.strings(track -> track.getArtist().orElse(null));
+    trackNumber = source.ints(Audio::getTrackNumber);
+    duration = source.durations(Audio::getDuration);
+    year = source.ints(track -> track.getYear().orElse(null));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Audio get(int row) {
+    return ImmutableAudio.builder().id(id.get(row)).title(title.get(row))
+        .albumArtist(albumArtist.get(row)).album(album.get(row))
+        .artist(Optional.ofNullable(artist.get(row))).trackNumber(trackNumber.get(row))
+        .duration(duration.getDuration(row)).year(year.getOptional(row)).build();
+  }
+
+  @Override
+  public long getOffHeapBytes() {
+    return id.byteSize() + title.byteSize() + albumArtist.byteSize() + album.byteSize()
+        + artist.byteSize() + trackNumber.byteSize() + duration.byteSize() + year.byteSize();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.catalog.Columns.DoubleColumn;
+import com.solutechconsulting.media.catalog.Columns.IntColumn;
+import com.solutechconsulting.media.catalog.Columns.LongColumn;
+import com.solutechconsulting.media.catalog.Columns.StringColumn;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.Movie;
+import java.util.List;
+
+/**
+ * A table of movies stored column by column off the heap. A movie is materialized each time its
+ * row is read.
+ */
+final class ColumnarMovieTable implements MediaTable<Movie> {
+
+  private final int size;
+  private final StringColumn id;
+  private final StringColumn title;
+  private final StringColumn studio;
+  private final StringColumn contentRating;
+  private final IntColumn year;
+  private final DoubleColumn criticsRating;
+  private final StringColumn summary;
+  private final LongColumn releaseDate;
+  private final StringColumn genres;
+  private final StringColumn tagline;
+  private final LongColumn duration;
+  private final StringColumn directors;
+  private final StringColumn roles;
+  private final DoubleColumn audienceRating;
+
+  ColumnarMovieTable(List<Movie> movies) {
+    this(Columns.Source.of(movies));
+  }
+
+  ColumnarMovieTable(Columns.Source<Movie> source) {
+    size = source.size();
+    id = source.strings(Movie::getId);
+    title = source.strings(Movie::getTitle);
+    studio = source.strings(Movie::getStudio);
+    contentRating = source.strings(Movie::getContentRating);
+    year = source.ints(movie -> movie.getYear().orElse(null));
+    criticsRating = source.doubles(Movie::getCriticsRating);
+    summary = source.strings(Movie::getSummary);
+    releaseDate = source.dates(Movie::getReleaseDate);
+    genres = source.strings(Movie::getGenres);
+    tagline = source.strings(Movie::getTagline);
+    duration = source.durations(Movie::getDuration);
+    directors = source.strings(Movie::getDirectors);
+    roles = source.strings(Movie::getRoles);
+    audienceRating = source.doubles(Movie::getAudienceRating);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Movie get(int row) {
+    return ImmutableMovie.builder().id(id.get(row)).title(title.get(row))
+        .studio(studio.get(row)).contentRating(contentRating.get(row))
+        .year(year.getOptional(row)).criticsRating(criticsRating.getOptional(row))
+        .summary(summary.get(row)).releaseDate(releaseDate.getDate(row))
+        .genres(genres.get(row)).tagline(tagline.get(row))
+        .duration(duration.getDuration(row)).directors(directors.get(row))
+        .roles(roles.get(row)).audienceRating(audienceRating.getOptional(row)).build();
+  }
+
+  @Override
+  public long getOffHeapBytes() {
+    return id.byteSize() + title.byteSize() + studio.byteSize() + contentRating.byteSize()
+        + year.byteSize() + criticsRating.byteSize() + summary.byteSize()
+        + releaseDate.byteSize() + genres.byteSize() + tagline.byteSize() + duration.byteSize()
+        + directors.byteSize() + roles.byteSize() + audienceRating.byteSize();
+  }
+}
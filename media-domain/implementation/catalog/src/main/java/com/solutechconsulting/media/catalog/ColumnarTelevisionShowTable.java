@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.catalog.Columns.DoubleColumn;
+import com.solutechconsulting.media.catalog.Columns.IntColumn;
+import com.solutechconsulting.media.catalog.Columns.LongColumn;
+import com.solutechconsulting.media.catalog.Columns.StringColumn;
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.TelevisionShow;
+import java.util.List;
+
+/**
+ * A table of television shows stored column by column off the heap. A show is materialized each
+ * time its row is read.
+ */
+final class ColumnarTelevisionShowTable implements MediaTable<TelevisionShow> {
+
+  private final int size;
+  private final StringColumn id;
+  private final StringColumn title;
+  private final StringColumn seriesTitle;
+  private final IntColumn year;
+  private final IntColumn season;
+  private final IntColumn episode;
+  private final StringColumn contentRating;
+  private final StringColumn summary;
+  private final DoubleColumn rating;
+  private final StringColumn studio;
+  private final LongColumn originallyAired;
+  private final LongColumn duration;
+  private final StringColumn directors;
+  private final StringColumn writers;
+
+  ColumnarTelevisionShowTable(List<TelevisionShow> televisionShows) {
+    this(Columns.Source.of(televisionShows));
+  }
+
+  ColumnarTelevisionShowTable(Columns.Source<TelevisionShow> source) {
+    size = source.size();
+    id = source.strings(TelevisionShow::getId);
+    title = source.strings(TelevisionShow::getTitle);
+    seriesTitle = source.strings(TelevisionShow::getSeriesTitle);
+    year = source.ints(show -> show.getYear().orElse(null));
+    season = source.ints(TelevisionShow::getSeason);
+    episode = source.ints(TelevisionShow::getEpisode);
+    contentRating = source.strings(TelevisionShow::getContentRating);
+    summary = source.strings(TelevisionShow::getSummary);
+    rating = source.doubles(TelevisionShow::getRating);
+    studio = source.strings(TelevisionShow::getStudio);
+    originallyAired = source.dates(TelevisionShow::getOriginallyAired);
+    duration = source.durations(TelevisionShow::getDuration);
+    directors = source.strings(TelevisionShow::getDirectors);
+    writers = source.strings(TelevisionShow::getWriters);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public TelevisionShow get(int row) {
+    return ImmutableTelevisionShow.builder().id(id.get(row)).title(title.get(row))
+        .seriesTitle(seriesTitle.get(row)).year(year.getOptional(row)).season(season.get(row))
+        .episode(episode.get(row)).contentRating(contentRating.get(row))
+        .summary(summary.get(row)).rating(rating.getOptional(row)).studio(studio.get(row))
+        .originallyAired(originallyAired.getDate(row)).duration(duration.getDuration(row))
+        .directors(directors.get(row)).writers(writers.get(row)).build();
+  }
+
+  @Override
+  public long getOffHeapBytes() {
+    return id.byteSize() + title.byteSize() + seriesTitle.byteSize() + year.byteSize()
+        + season.byteSize() + episode.byteSize() + contentRating.byteSize() + summary.byteSize()
+        + rating.byteSize() + studio.byteSize() + originallyAired.byteSize()
+        + duration.byteSize() + directors.byteSize() + writers.byteSize();
+  }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Fixed-size columns held outside the Java heap in direct {@link ByteBuffer}s. Each column holds
+ * one value per row and is read with absolute gets, so columns may be read concurrently. The
+ * memory of a column is released when the column is garbage collected.
+ * <p>
+ * Columns are either built from items on the heap or wrap buffers mapped from a {@link
+ * CatalogSnapshot}. Tables declare their columns through a {@link Source}, so the same declaration
+ * serves both.
+ */
+final class Columns {
+
+  static final int NO_INT = Integer.MIN_VALUE;
+  static final long NO_LONG = Long.MIN_VALUE;
+
+  private Columns() {
+  }
+
+  private static ByteBuffer allocate(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Column too large: " + bytes + " bytes.");
+    }
+    return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * A column of ints. Missing optional values are stored as {@link Integer#MIN_VALUE}.
+   */
+  static final class IntColumn {
+
+    private final ByteBuffer values;
+
+    <T> IntColumn(List<T> rows, Function<T, Integer> getter) {
+      values = allocate((long) rows.size() * Integer.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        Integer value = getter.apply(rows.get(i));
+        values.putInt(i * Integer.BYTES, value == null ? NO_INT : value);
+      }
+    }
+
+    IntColumn(ByteBuffer values) {
+      this.values = values;
+    }
+
+    int get(int row) {
+      return values.getInt(row * Integer.BYTES);
+    }
+
+    Optional<Integer> getOptional(int row) {
+      int value = get(row);
+      return value == NO_INT ? Optional.empty() : Optional.of(value);
+    }
+
+    long byteSize() {
+      return values.capacity();
+    }
+  }
+
+  /**
+   * A column of longs, used for durations in nanoseconds and dates as epoch days. Missing optional
+   * values are stored as {@link Long#MIN_VALUE}.
+   */
+  static final class LongColumn {
+
+    private final ByteBuffer values;
+
+    <T> LongColumn(List<T> rows, Function<T, Long> getter) {
+      values = allocate((long) rows.size() * Long.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        Long value = getter.apply(rows.get(i));
+        values.putLong(i * Long.BYTES, value == null ? NO_LONG : value);
+      }
+    }
+
+    LongColumn(ByteBuffer values) {
+      this.values = values;
+    }
+
+    static <T> Function<T, Long> durations(Function<T, Duration> getter) {
+      return row -> getter.apply(row).toNanos();
+    }
+
+    static <T> Function<T, Long> dates(Function<T, Optional<LocalDate>> getter) {
+      return row -> getter.apply(row).map(LocalDate::toEpochDay).orElse(null);
+    }
+
+    long get(int row) {
+      return values.getLong(row * Long.BYTES);
+    }
+
+    Duration getDuration(int row) {
+      return Duration.ofNanos(get(row));
+    }
+
+    Optional<LocalDate> getDate(int row) {
+      long value = get(row);
+      return value == NO_LONG ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(value));
+    }
+
+    long byteSize() {
+      return values.capacity();
+    }
+  }
+
+  /**
+   * A column of optional doubles. Missing values are stored as NaN.
+   */
+  static final class DoubleColumn {
+
+    private final ByteBuffer values;
+
+    <T> DoubleColumn(List<T> rows, Function<T, Optional<Double>> getter) {
+      values = allocate((long) rows.size() * Double.BYTES);
+      for (int i = 0; i < rows.size(); i++) {
+        values.putDouble(i * Double.BYTES, getter.apply(rows.get(i)).orElse(Double.NaN));
+      }
+    }
+
+    DoubleColumn(ByteBuffer values) {
+      this.values = values;
+    }
+
+    Optional<Double> getOptional(int row) {
+      double value = values.getDouble(row * Double.BYTES);
+      return Double.isNaN(value) ? Optional.empty() : Optional.of(value);
+    }
+
+    long byteSize() {
+      return values.capacity();
+    }
+  }
+
+  /**
+   * A column of strings. Columns in which values repeat, such as series titles and content
+   * ratings, are dictionary encoded: each row holds the code of its value in a dictionary of the
+   * distinct values, stored in one, two or four bytes depending on the size of the dictionary.
+   * Other columns hold the UTF-8 bytes of every value in a single blob with the offset of each
+   * row's value.
+   */
+  abstract static class StringColumn {
+
+    static <T> StringColumn of(List<T> rows, Function<T, String> getter) {
+      Map<String, Integer> codes = new HashMap<>();
+      for (T row : rows) {
+        String value = getter.apply(row);
+        if (value != null) {
+          codes.putIfAbsent(value, codes.size());
+        }
+      }
+
+      return codes.size() * 2 <= rows.size() ? new DictionaryColumn<>(rows, getter, codes)
+          : new BlobColumn(rows, getter);
+    }
+
+    /**
+     * Create a column of references to the strings of a pool. Each row holds the index of its
+     * value in the pool, or -1 if the value is missing.
+     *
+     * @param references the references
+     * @param pool       the string pool
+     * @return the column
+     */
+    static StringColumn pooled(ByteBuffer references, Utf8Blob pool) {
+      return new PooledColumn(references, pool);
+    }
+
+    abstract String get(int row);
+
+    abstract long byteSize();
+  }
+
+  private static final class DictionaryColumn<T> extends StringColumn {
+
+    private final String[] dictionary;
+    private final ByteBuffer codes;
+    private final int width;
+
+    private DictionaryColumn(List<T> rows, Function<T, String> getter,
+        Map<String, Integer> codeMap) {
+      // Code 0 is reserved for missing values.
+      dictionary = new String[codeMap.size() + 1];
+      codeMap.forEach((value, code) -> dictionary[code + 1] = value);
+
+      width = dictionary.length <= 1 << Byte.SIZE ? Byte.BYTES
+          : dictionary.length <= 1 << Short.SIZE ? Short.BYTES : Integer.BYTES;
+      codes = allocate((long) rows.size() * width);
+      for (int i = 0; i < rows.size(); i++) {
+        String value = getter.apply(rows.get(i));
+        int code = value == null ? 0 : codeMap.get(value) + 1;
+        switch (width) {
+          case Byte.BYTES:
+            codes.put(i, (byte) code);
+            break;
+          case Short.BYTES:
+            codes.putShort(i * Short.BYTES, (short) code);
+            break;
+          default:
+            codes.putInt(i * Integer.BYTES, code);
+        }
+      }
+    }
+
+    @Override
+    String get(int row) {
+      int code;
+      switch (width) {
+        case Byte.BYTES:
+          code = Byte.toUnsignedInt(codes.get(row));
+          break;
+        case Short.BYTES:
+          code = Short.toUnsignedInt(codes.getShort(row * Short.BYTES));
+          break;
+        default:
+          code = codes.getInt(row * Integer.BYTES);
+      }
+      return dictionary[code];
+    }
+
+    @Override
+    long byteSize() {
+      return codes.capacity();
+    }
+  }
+
+  private static final class BlobColumn extends StringColumn {
+
+    private final Utf8Blob blob;
+    private final BitSet missing;
+
+    private <T> BlobColumn(List<T> rows, Function<T, String> getter) {
+      String[] values = new String[rows.size()];
+      missing = new BitSet(values.length);
+      for (int i = 0; i < values.length; i++) {
+        values[i] = getter.apply(rows.get(i));
+        if (values[i] == null) {
+          missing.set(i);
+        }
+      }
+      blob = new Utf8Blob(values);
+    }
+
+    @Override
+    String get(int row) {
+      return missing.get(row) ? null : blob.getString(row);
+    }
+
+    @Override
+    long byteSize() {
+      return blob.byteSize();
+    }
+  }
+
+  private static final class PooledColumn extends StringColumn {
+
+    private final ByteBuffer references;
+    private final Utf8Blob pool;
+
+    private PooledColumn(ByteBuffer references, Utf8Blob pool) {
+      this.references = references;
+      this.pool = pool;
+    }
+
+    @Override
+    String get(int row) {
+      int reference = references.getInt(row * Integer.BYTES);
+      return reference < 0 ? null : pool.getString(reference);
+    }
+
+    @Override
+    long byteSize() {
+      return references.capacity();
+    }
+  }
+
+  /**
+   * The UTF-8 bytes of one string per row, stored back to back, with the offset of each row's
+   * bytes. Missing values are stored as empty strings.
+   */
+  static final class Utf8Blob {
+
+    private final ByteBuffer data;
+    private final ByteBuffer offsets;
+
+    Utf8Blob(String[] values) {
+      byte[][] encoded = new byte[values.length][];
+      long total = 0;
+      for (int i = 0; i < values.length; i++) {
+        encoded[i] = values[i] == null ? new byte[0] : values[i].getBytes(StandardCharsets.UTF_8);
+        total += encoded[i].length;
+      }
+
+      data = allocate(total);
+      offsets = allocate((long) (values.length + 1) * Integer.BYTES);
+      int offset = 0;
+      for (int i = 0; i < encoded.length; i++) {
+        offsets.putInt(i * Integer.BYTES, offset);
+        for (byte b : encoded[i]) {
+          data.put(offset++, b);
+        }
+      }
+      offsets.putInt(encoded.length * Integer.BYTES, offset);
+    }
+
+    Utf8Blob(ByteBuffer data, ByteBuffer offsets) {
+      this.data = data;
+      this.offsets = offsets;
+    }
+
+    int size() {
+      return offsets.capacity() / Integer.BYTES - 1;
+    }
+
+    int start(int row) {
+      return offsets.getInt(row * Integer.BYTES);
+    }
+
+    int end(int row) {
+      return offsets.getInt((row + 1) * Integer.BYTES);
+    }
+
+    byte byteAt(int index) {
+      return data.get(index);
+    }
+
+    /**
+     * Copy a range of bytes to an array.
+     */
+    void copy(int from, byte[] destination, int length) {
+      ByteBuffer view = data.duplicate();
+      view.position(from);
+      view.get(destination, 0, length);
+    }
+
+    String getString(int row) {
+      int start = start(row);
+      byte[] bytes = new byte[end(row) - start];
+      ByteBuffer view = data.duplicate();
+      view.position(start);
+      view.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long byteSize() {
+      return (long) data.capacity() + offsets.capacity();
+    }
+  }
+
+  /**
+   * A source of the columns of a table. A table asks its source for each of its columns in turn,
+   * passing the attribute of an item held in the column. A source built from items on the heap
+   * reads the attribute of every item, while a source reading a snapshot ignores the attribute and
+   * returns the next column stored in the snapshot, so tables must always ask for their columns in
+   * the same order.
+   *
+   * @param <T> the type of item
+   */
+  interface Source<T> {
+
+    /**
+     * Create a source building columns from the given items.
+     *
+     * @param rows the items
+     * @param <T>  the type of item
+     * @return the source
+     */
+    static <T> Source<T> of(List<T> rows) {
+      return new Source<>() {
+        @Override
+        public int size() {
+          return rows.size();
+        }
+
+        @Override
+        public StringColumn strings(Function<T, String> getter) {
+          return StringColumn.of(rows, getter);
+        }
+
+        @Override
+        public IntColumn ints(Function<T, Integer> getter) {
+          return new IntColumn(rows, getter);
+        }
+
+        @Override
+        public LongColumn longs(Function<T, Long> getter) {
+          return new LongColumn(rows, getter);
+        }
+
+        @Override
+        public DoubleColumn doubles(Function<T, Optional<Double>> getter) {
+          return new DoubleColumn(rows, getter);
+        }
+      };
+    }
+
+    int size();
+
+    StringColumn strings(Function<T, String> getter);
+
+    IntColumn ints(Function<T, Integer> getter);
+
+    LongColumn longs(Function<T, Long> getter);
+
+    DoubleColumn doubles(Function<T, Optional<Double>> getter);
+
+    default LongColumn durations(Function<T, Duration> getter) {
+      return longs(LongColumn.durations(getter));
+    }
+
+    default LongColumn dates(Function<T, Optional<LocalDate>> getter) {
+      return longs(LongColumn.dates(getter));
+    }
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.service.LookupFilters;
+import com.solutechconsulting.media.service.MediaService;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable, in-memory copy of the complete media catalogue. A catalogue answers every {@link
+ * MediaService} query locally and is safe to share between threads; a newer copy of the data is
+ * represented by a new instance rather than by modifying an existing one.
+ * <p>
+ * The searchable fields of each item are lower-cased once when the catalogue is built so that text
+ * searches do not need to convert every field on every request. Matching follows the same rules as
+ * the mock implementation: a case-insensitive substring match against any of the searchable
+ * fields. Series and episode lookups are answered from a {@link SeriesIndex}, and album track
+ * lookups from an {@link AlbumIndex}. Both are built along with the catalogue, so their results are
+ * already ordered by season and episode, or by track number.
+ * <p>
+ * Items are held according to the catalogue's {@link Storage}. With {@link Storage#OBJECTS}, the
+ * items given to the catalogue are kept on the heap. With {@link Storage#COLUMNAR}, their
+ * attributes are copied into columns outside the heap, along with the search text, and an item is
+ * materialized each time it is read. This trades a small cost per item returned for a heap that
+ * holds only indexes, which keeps garbage collection pauses short for large libraries. A
+ * catalogue opened from a {@link CatalogSnapshot} reads its columns from the mapped snapshot file.
+ */
+public final class MediaCatalog {
+
+  /**
+   * Separates the searchable fields of an item so that search text cannot match across two
+   * adjacent fields.
+   */
+  private static final char FIELD_SEPARATOR = '\u0000';
+
+  private final Storage storage;
+
+  private final MediaTable<Movie> movies;
+  private final MediaTable<Audio> audio;
+  private final MediaTable<TelevisionShow> televisionShows;
+
+  private final SearchText movieSearchText;
+  private final SearchText audioSearchText;
+  private final SearchText televisionShowSearchText;
+
+  private final SeriesIndex seriesIndex;
+  private final AlbumIndex albumIndex;
+  private final LookupFilters lookupFilters;
+
+  private final Instant created;
+
+  private MediaCatalog(Storage storage, MediaTable<Movie> movies, MediaTable<Audio> audio,
+      MediaTable<TelevisionShow> televisionShows, SearchText movieSearchText,
+      SearchText audioSearchText, SearchText televisionShowSearchText, SeriesIndex seriesIndex,
+      AlbumIndex albumIndex, Instant created) {
+    this.storage = storage;
+    this.movies = movies;
+    this.audio = audio;
+    this.televisionShows = televisionShows;
+    this.movieSearchText = movieSearchText;
+    this.audioSearchText = audioSearchText;
+    this.televisionShowSearchText = televisionShowSearchText;
+
+    this.seriesIndex = seriesIndex;
+    this.albumIndex = albumIndex;
+    lookupFilters = LookupFilters.of(albumIndex.getAlbumTitles(), seriesIndex.getSeriesTitles());
+
+    this.created = created;
+  }
+
+  /**
+   * Create a catalogue from the given media items.
+   *
+   * @param movies          the movies
+   * @param audio           the audio items
+   * @param televisionShows the television shows
+   * @return the catalogue
+   */
+  public static MediaCatalog of(List<Movie> movies, List<Audio> audio,
+      List<TelevisionShow> televisionShows) {
+    return of(movies, audio, televisionShows, Storage.OBJECTS);
+  }
+
+  /**
+   * Create a catalogue from the given media items, held using the given storage.
+   *
+   * @param movies          the movies
+   * @param audio           the audio items
+   * @param televisionShows the television shows
+   * @param storage         how the items are held
+   * @return the catalogue
+   */
+  public static MediaCatalog of(List<Movie> movies, List<Audio> audio,
+      List<TelevisionShow> televisionShows, Storage storage) {
+    String[] movieText = movies.stream().map(MediaCatalog::searchText).toArray(String[]::new);
+    String[] audioText = audio.stream().map(MediaCatalog::searchText).toArray(String[]::new);
+    String[] televisionShowText =
+        televisionShows.stream().map(MediaCatalog::searchText).toArray(String[]::new);
+
+    if (storage == Storage.COLUMNAR) {
+      return of(storage, new ColumnarMovieTable(movies), new ColumnarAudioTable(audio),
+          new ColumnarTelevisionShowTable(televisionShows), SearchText.offHeap(movieText),
+          SearchText.offHeap(audioText), SearchText.offHeap(televisionShowText));
+    }
+
+    return of(storage, MediaTable.of(movies), MediaTable.of(audio),
+        MediaTable.of(televisionShows), SearchText.onHeap(movieText),
+        SearchText.onHeap(audioText), SearchText.onHeap(televisionShowText));
+  }
+
+  private static MediaCatalog of(Storage storage, MediaTable<Movie> movies,
+      MediaTable<Audio> audio, MediaTable<TelevisionShow> televisionShows,
+      SearchText movieSearchText, SearchText audioSearchText,
+      SearchText televisionShowSearchText) {
+    return new MediaCatalog(storage, movies, audio, televisionShows, movieSearchText,
+        audioSearchText, televisionShowSearchText, SeriesIndex.of(televisionShows),
+        AlbumIndex.of(audio), Instant.now());
+  }
+
+  /**
+   * Create a catalogue over tables, search text and index entries read from a snapshot.
+   */
+  static MediaCatalog of(MediaTable<Movie> movies, MediaTable<Audio> audio,
+      MediaTable<TelevisionShow> televisionShows, SearchText movieSearchText,
+      SearchText audioSearchText, SearchText televisionShowSearchText,
+      Map<String, SeriesIndex.Series> series, Map<String, AlbumIndex.Album> albums,
+      Instant created) {
+    return new MediaCatalog(Storage.COLUMNAR, movies, audio, televisionShows, movieSearchText,
+        audioSearchText, televisionShowSearchText, SeriesIndex.of(televisionShows, series),
+        AlbumIndex.of(audio, albums), created);
+  }
+
+  /**
+   * Create a catalogue by reading every movie, audio item and television show from the given
+   * service. The three streams are consumed concurrently.
+   *
+   * @param source the service providing the media items
+   * @return a Single emitting the catalogue once all items have been read
+   */
+  public static Single<MediaCatalog> load(MediaService source) {
+    return load(source, Storage.OBJECTS);
+  }
+
+  /**
+   * Create a catalogue, held using the given storage, by reading every movie, audio item and
+   * television show from the given service. The three streams are consumed concurrently.
+   *
+   * @param source  the service providing the media items
+   * @param storage how the items are held
+   * @return a Single emitting the catalogue once all items have been read
+   */
+  public static Single<MediaCatalog> load(MediaService source, Storage storage) {
+    return Single.zip(source.getMovies().toList(), source.getAudio().toList(),
+        source.getTelevisionShows().toList(),
+        (movies, audio, televisionShows) -> of(movies, audio, televisionShows, storage));
+  }
+
+  public Flowable<Movie> getMovies() {
+    return rows(movies);
+  }
+
+  public Flowable<Movie> searchMovies(String movieText) {
+    return select(movies, matching(movieSearchText, movieText));
+  }
+
+  public Flowable<Audio> getAudio() {
+    return rows(audio);
+  }
+
+  public Flowable<Audio> getAudioTracks(String albumTitle) {
+    return Flowable.fromIterable(albumIndex.getTracks(albumTitle));
+  }
+
+  public Flowable<Audio> searchAudio(String audioText) {
+    return select(audio, matching(audioSearchText, audioText));
+  }
+
+  public Flowable<TelevisionShow> getTelevisionShows() {
+    return rows(televisionShows);
+  }
+
+  public Flowable<TelevisionShow> searchTelevisionShows(String showText) {
+    return select(televisionShows, matching(televisionShowSearchText, showText));
+  }
+
+  public Flowable<TelevisionShow> getEpisodes(String seriesTitle, int season) {
+    return Flowable.fromIterable(seriesIndex.getEpisodes(seriesTitle, season));
+  }
+
+  public Flowable<TelevisionShow> getSeries(String seriesTitle) {
+    return Flowable.fromIterable(seriesIndex.getSeries(seriesTitle));
+  }
+
+  /**
+   * Return the series index built over the catalogue's television shows.
+   *
+   * @return the series index
+   */
+  public SeriesIndex getSeriesIndex() {
+    return seriesIndex;
+  }
+
+  /**
+   * Return the album index built over the catalogue's audio items.
+   *
+   * @return the album index
+   */
+  public AlbumIndex getAlbumIndex() {
+    return albumIndex;
+  }
+
+  /**
+   * Return the lookup filters built over the catalogue's album and series titles.
+   *
+   * @return the lookup filters
+   */
+  public LookupFilters getLookupFilters() {
+    return lookupFilters;
+  }
+
+  /**
+   * Return the total number of media items held by the catalogue.
+   *
+   * @return the number of media items
+   */
+  public int size() {
+    return movies.size() + audio.size() + televisionShows.size();
+  }
+
+  /**
+   * Return how the catalogue holds its items.
+   *
+   * @return the storage
+   */
+  public Storage getStorage() {
+    return storage;
+  }
+
+  /**
+   * Return the number of bytes the catalogue holds outside the Java heap. This is zero unless the
+   * catalogue uses {@link Storage#COLUMNAR} storage.
+   *
+   * @return the off-heap size in bytes
+   */
+  public long getOffHeapBytes() {
+    return movies.getOffHeapBytes() + audio.getOffHeapBytes()
+        + televisionShows.getOffHeapBytes() + movieSearchText.byteSize()
+        + audioSearchText.byteSize() + televisionShowSearchText.byteSize();
+  }
+
+  /**
+   * Return the time at which the catalogue was built.
+   *
+   * @return the creation time
+   */
+  public Instant getCreated() {
+    return created;
+  }
+
+  static String searchText(Movie movie) {
+    return searchText(movie.getTitle(), movie.getTagline(), movie.getSummary());
+  }
+
+  static String searchText(Audio track) {
+    return searchText(track.getTitle(), track.getAlbum(), track.getArtist().orElse(""),
+        track.getAlbumArtist());
+  }
+
+  static String searchText(TelevisionShow show) {
+    return searchText(show.getTitle(), show.getSeriesTitle(), show.getSummary());
+  }
+
+  private static String searchText(String... fields) {
+    return String.join(String.valueOf(FIELD_SEPARATOR), fields).toLowerCase(Locale.ROOT);
+  }
+
+  private static IntPredicate matching(SearchText searchText, String text) {
+    return searchText.matching(text.toLowerCase(Locale.ROOT));
+  }
+
+  private static <T> Flowable<T> rows(MediaTable<T> items) {
+    return Flowable.range(0, items.size()).map(items::get);
+  }
+
+  private static <T> Flowable<T> select(MediaTable<T> items, IntPredicate predicate) {
+    return Flowable.range(0, items.size()).filter(predicate::test).map(items::get);
+  }
+
+  /**
+   * How a catalogue holds its media items.
+   */
+  public enum Storage {
+    /**
+     * Items are held as objects on the heap.
+     */
+    OBJECTS,
+    /**
+     * Item attributes are held in columns outside the heap and items are materialized when read.
+     */
+    COLUMNAR
+  }
+}
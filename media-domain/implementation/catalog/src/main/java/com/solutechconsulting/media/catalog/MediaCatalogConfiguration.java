@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.catalog")
+public interface MediaCatalogConfiguration {
+
+  /**
+   * How in-memory catalogues hold their media items. {@link MediaCatalog.Storage#COLUMNAR} keeps
+   * the items outside the heap, which suits large libraries.
+   *
+   * @return the catalogue storage
+   */
+  @ConfigProperty(defaultValue = "OBJECTS")
+  MediaCatalog.Storage getStorage();
+
+  /**
+   * A {@link CatalogSnapshot} file. When the file exists, services holding an in-memory catalogue
+   * open it at start rather than loading their media items, so they are ready without parsing or
+   * querying anything. A catalogue opened from a snapshot always uses columnar storage.
+   *
+   * @return the snapshot file
+   */
+  Optional<String> getSnapshotFile();
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable table of media items addressed by row number. Tables either hold the items
+ * themselves or store their attributes in columns and materialize an item each time a row is
+ * read.
+ *
+ * @param <T> the type of media item
+ */
+public interface MediaTable<T> {
+
+  /**
+   * Create a table holding the given items on the heap.
+   *
+   * @param items the items
+   * @param <T>   the type of media item
+   * @return the table
+   */
+  static <T> MediaTable<T> of(List<? extends T> items) {
+    List<T> rows = Collections.unmodifiableList(new ArrayList<>(items));
+    return new MediaTable<>() {
+      @Override
+      public int size() {
+        return rows.size();
+      }
+
+      @Override
+      public T get(int row) {
+        return rows.get(row);
+      }
+    };
+  }
+
+  /**
+   * Return the number of rows in the table.
+   *
+   * @return the number of rows
+   */
+  int size();
+
+  /**
+   * Return the item in the given row.
+   *
+   * @param row the row number, from zero
+   * @return the item
+   */
+  T get(int row);
+
+  /**
+   * Return the number of bytes the table holds outside the Java heap.
+   *
+   * @return the off-heap size in bytes
+   */
+  default long getOffHeapBytes() {
+    return 0;
+  }
+}
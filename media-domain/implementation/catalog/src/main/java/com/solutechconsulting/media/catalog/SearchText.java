@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * The lowercase text searched for each row of a table. Text is either held as strings on the heap
+ * or as UTF-8 bytes off the heap. Off-heap text is matched against the UTF-8 bytes of the search
+ * text directly, which is valid because no UTF-8 encoded character is a substring of another.
+ */
+abstract class SearchText {
+
+  private static final int SCAN_CHUNK_SIZE = 64 * 1024;
+
+  static SearchText onHeap(String[] text) {
+    return new SearchText() {
+      @Override
+      IntPredicate matching(String lcText) {
+        return row -> text[row].contains(lcText);
+      }
+
+      @Override
+      long byteSize() {
+        return 0;
+      }
+    };
+  }
+
+  static SearchText offHeap(String[] text) {
+    return offHeap(new Columns.Utf8Blob(text));
+  }
+
+  static SearchText offHeap(Columns.Utf8Blob blob) {
+    return new SearchText() {
+      @Override
+      IntPredicate matching(String lcText) {
+        BitSet rows = scan(blob, lcText.getBytes(StandardCharsets.UTF_8));
+        return rows::get;
+      }
+
+      @Override
+      long byteSize() {
+        return blob.byteSize();
+      }
+    };
+  }
+
+  /**
+   * Return a predicate selecting the rows whose text contains the given lowercase text.
+   *
+   * @param lcText the lowercase search text
+   * @return the row predicate
+   */
+  abstract IntPredicate matching(String lcText);
+
+  abstract long byteSize();
+
+  /**
+   * Scan the whole blob once, rather than row by row, and collect the rows containing the pattern.
+   * The blob is copied a chunk at a time to an array on the heap, which is much faster to search
+   * than reading the buffer a byte at a time. Consecutive chunks overlap by one byte less than the
+   * pattern so that no match is lost at a boundary. Row offsets are ascending, so the current row
+   * only ever moves forward, and once a row matches the scan skips to the end of it.
+   */
+  private static BitSet scan(Columns.Utf8Blob blob, byte[] pattern) {
+    BitSet rows = new BitSet(blob.size());
+    if (blob.size() == 0) {
+      return rows;
+    }
+    if (pattern.length == 0) {
+      rows.set(0, blob.size());
+      return rows;
+    }
+
+    int total = blob.end(blob.size() - 1);
+    byte[] chunk = new byte[SCAN_CHUNK_SIZE + pattern.length - 1];
+    byte first = pattern[0];
+    int row = 0;
+    int rowEnd = blob.end(0);
+    for (int base = 0; base + pattern.length <= total; base += SCAN_CHUNK_SIZE) {
+      int length = Math.min(chunk.length, total - base);
+      blob.copy(base, chunk, length);
+      int stop = length - pattern.length;
+      for (int k = indexOf(chunk, first, 0, stop); k >= 0; k = indexOf(chunk, first, k + 1, stop)) {
+        int i = base + k;
+        while (rowEnd <= i) {
+          rowEnd = blob.end(++row);
+        }
+        if (i + pattern.length > rowEnd) {
+          k = rowEnd - 1 - base;
+          continue;
+        }
+        int j = 1;
+        while (j < pattern.length && chunk[k + j] == pattern[j]) {
+          j++;
+        }
+        if (j == pattern.length) {
+          rows.set(row);
+          k = rowEnd - 1 - base;
+        }
+      }
+    }
+    return rows;
+  }
+
+  private static int indexOf(byte[] bytes, byte value, int from, int last) {
+    for (int i = from; i <= last; i++) {
+      if (bytes[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
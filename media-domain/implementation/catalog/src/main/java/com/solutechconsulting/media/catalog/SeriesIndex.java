@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import com.solutechconsulting.media.model.TelevisionShow;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable index of television shows by series. Each series title, normalized with {@link
+ * MediaKeys#normalize(String)}, maps to the rows of the series' episodes in a {@link MediaTable},
+ * held in a single array ordered by season and episode. The start of each season within the array
+ * is recorded so that the episodes of a season are returned as a range of the array.
+ * <p>
+ * The index is built once from a complete set of shows. Lookups return views of the pre-sorted
+ * arrays that read each episode from the table when it is accessed, so no filtering or sorting
+ * takes place per request.
+ */
+public final class SeriesIndex {
+
+  private static final Comparator<TelevisionShow> EPISODE_ORDER =
+      Comparator.comparingInt(TelevisionShow::getSeason)
+          .thenComparingInt(TelevisionShow::getEpisode);
+
+  private final MediaTable<TelevisionShow> table;
+  private final Map<String, Series> series;
+
+  private SeriesIndex(MediaTable<TelevisionShow> table, Map<String, Series> series) {
+    this.table = table;
+    this.series = series;
+  }
+
+  /**
+   * Build an index over the given television shows.
+   *
+   * @param televisionShows the television shows
+   * @return the index
+   */
+  public static SeriesIndex of(Collection<? extends TelevisionShow> televisionShows) {
+    return of(MediaTable.of(new ArrayList<>(televisionShows)));
+  }
+
+  /**
+   * Build an index over the television shows in the given table.
+   *
+   * @param table the television show table
+   * @return the index
+   */
+  public static SeriesIndex of(MediaTable<TelevisionShow> table) {
+    TelevisionShow[] shows = new TelevisionShow[table.size()];
+    Arrays.setAll(shows, table::get);
+
+    Map<String, List<Integer>> grouped = IntStream.range(0, shows.length).boxed().collect(
+        Collectors.groupingBy(row -> MediaKeys.normalize(shows[row].getSeriesTitle())));
+
+    Map<String, Series> series = new HashMap<>(grouped.size() * 4 / 3 + 1);
+    grouped.forEach((title, rows) -> series.put(title, Series.of(shows, rows)));
+
+    return new SeriesIndex(table, series);
+  }
+
+  /**
+   * Create an index over the given table from series entries built earlier over the same table,
+   * such as entries read from a {@link CatalogSnapshot}.
+   */
+  static SeriesIndex of(MediaTable<TelevisionShow> table, Map<String, Series> series) {
+    return new SeriesIndex(table, series);
+  }
+
+  /**
+   * Return every episode of the given series, ordered by season and episode.
+   *
+   * @param seriesTitle the series title
+   * @return the episodes, or an empty list if the series is unknown
+   */
+  public List<TelevisionShow> getSeries(String seriesTitle) {
+    Series entry = series.get(MediaKeys.normalize(seriesTitle));
+    return entry == null ? Collections.emptyList() : new Episodes(entry.rows, 0, entry.rows.length);
+  }
+
+  /**
+   * Return the episodes of a single season of the given series, ordered by episode.
+   *
+   * @param seriesTitle the series title
+   * @param season      the season number
+   * @return the episodes, or an empty list if the series or season is unknown
+   */
+  public List<TelevisionShow> getEpisodes(String seriesTitle, int season) {
+    Series entry = series.get(MediaKeys.normalize(seriesTitle));
+    if (entry == null) {
+      return Collections.emptyList();
+    }
+
+    int position = Arrays.binarySearch(entry.seasons, season);
+    if (position < 0) {
+      return Collections.emptyList();
+    }
+
+    return new Episodes(entry.rows, entry.seasonStarts[position],
+        entry.seasonStarts[position + 1]);
+  }
+
+  /**
+   * Return the series titles held by the index, normalized with {@link
+   * MediaKeys#normalize(String)}.
+   *
+   * @return the normalized series titles
+   */
+  public Set<String> getSeriesTitles() {
+    return Collections.unmodifiableSet(series.keySet());
+  }
+
+  /**
+   * Return the number of series held by the index.
+   *
+   * @return the number of series
+   */
+  public int size() {
+    return series.size();
+  }
+
+  /**
+   * Return the entries of the index by normalized series title.
+   */
+  Map<String, Series> getEntries() {
+    return Collections.unmodifiableMap(series);
+  }
+
+  private final class Episodes extends AbstractList<TelevisionShow> implements RandomAccess {
+
+    private final int[] rows;
+    private final int from;
+    private final int size;
+
+    private Episodes(int[] rows, int from, int to) {
+      this.rows = rows;
+      this.from = from;
+      this.size = to - from;
+    }
+
+    @Override
+    public TelevisionShow get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return table.get(rows[from + index]);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  static final class Series {
+
+    /**
+     * The table rows of the episodes, ordered by season and episode.
+     */
+    final int[] rows;
+
+    /**
+     * The distinct season numbers of the series in ascending order.
+     */
+    final int[] seasons;
+
+    /**
+     * The index in {@link #rows} of the first episode of each season, followed by the length
+     * of the array.
+     */
+    final int[] seasonStarts;
+
+    Series(int[] rows, int[] seasons, int[] seasonStarts) {
+      this.rows = rows;
+      this.seasons = seasons;
+      this.seasonStarts = seasonStarts;
+    }
+
+    private static Series of(TelevisionShow[] shows, List<Integer> seriesRows) {
+      Integer[] order = seriesRows.toArray(new Integer[0]);
+      Arrays.sort(order, Comparator.comparing(row -> shows[row], EPISODE_ORDER));
+      int[] rows = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+
+      int[] seasonBuffer = new int[rows.length];
+      int[] startBuffer = new int[rows.length + 1];
+      int count = 0;
+      for (int i = 0; i < rows.length; i++) {
+        int season = shows[rows[i]].getSeason();
+        if (count == 0 || seasonBuffer[count - 1] != season) {
+          seasonBuffer[count] = season;
+          startBuffer[count] = i;
+          count++;
+        }
+      }
+      startBuffer[count] = rows.length;
+
+      return new Series(rows, Arrays.copyOf(seasonBuffer, count),
+          Arrays.copyOf(startBuffer, count + 1));
+    }
+  }
+}
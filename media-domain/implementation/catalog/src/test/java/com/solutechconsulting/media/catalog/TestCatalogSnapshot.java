@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@QuarkusTest
+public class TestCatalogSnapshot {
+
+  private static MediaCatalog catalog;
+
+  @TempDir
+  Path directory;
+
+  @BeforeAll
+  public static void loadCatalog() {
+    catalog = MediaCatalog.of(new MovieLoader().loadMovies().toList().blockingGet(),
+        new AudioLoader().loadAudio().toList().blockingGet(),
+        new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet());
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path file = directory.resolve("catalog.snapshot");
+    CatalogSnapshot.write(catalog, file);
+    MediaCatalog snapshot = CatalogSnapshot.open(file);
+
+    assertEquals(MediaCatalog.Storage.COLUMNAR, snapshot.getStorage());
+    assertEquals(catalog.getCreated().toEpochMilli(), snapshot.getCreated().toEpochMilli());
+    assertEquals(catalog.size(), snapshot.size());
+
+    assertEquals(catalog.getMovies().toList().blockingGet(),
+        snapshot.getMovies().toList().blockingGet());
+    assertEquals(catalog.getAudio().toList().blockingGet(),
+        snapshot.getAudio().toList().blockingGet());
+    assertEquals(catalog.getTelevisionShows().toList().blockingGet(),
+        snapshot.getTelevisionShows().toList().blockingGet());
+
+    assertEquals(catalog.searchMovies("Star Trek").toList().blockingGet(),
+        snapshot.searchMovies("Star Trek").toList().blockingGet());
+    assertEquals(catalog.searchAudio("pink floyd").toList().blockingGet(),
+        snapshot.searchAudio("pink floyd").toList().blockingGet());
+    assertEquals(catalog.searchTelevisionShows("hawkeye").toList().blockingGet(),
+        snapshot.searchTelevisionShows("hawkeye").toList().blockingGet());
+
+    assertEquals(catalog.getSeries("batman").toList().blockingGet(),
+        snapshot.getSeries("batman").toList().blockingGet());
+    assertEquals(catalog.getEpisodes("doc martin", 3).toList().blockingGet(),
+        snapshot.getEpisodes("doc martin", 3).toList().blockingGet());
+    assertEquals(catalog.getAudioTracks("aja").toList().blockingGet(),
+        snapshot.getAudioTracks("aja").toList().blockingGet());
+
+    assertEquals(catalog.getLookupFilters().mightContainAlbum("aja"),
+        snapshot.getLookupFilters().mightContainAlbum("aja"));
+  }
+
+  @Test
+  public void testEmptyRoundTrip() throws IOException {
+    Path file = directory.resolve("empty.snapshot");
+    CatalogSnapshot.write(MediaCatalog.of(List.of(), List.of(), List.of()), file);
+    MediaCatalog snapshot = CatalogSnapshot.open(file);
+
+    assertEquals(0, snapshot.size());
+    assertEquals(0, snapshot.getMovies().count().blockingGet());
+    assertEquals(0, snapshot.getAudio().count().blockingGet());
+    assertEquals(0, snapshot.getTelevisionShows().count().blockingGet());
+    assertEquals(0, snapshot.searchMovies("star trek").count().blockingGet());
+    assertEquals(0, snapshot.searchAudio("pink floyd").count().blockingGet());
+    assertEquals(0, snapshot.searchTelevisionShows("hawkeye").count().blockingGet());
+    assertEquals(0, snapshot.getSeries("batman").count().blockingGet());
+    assertEquals(0, snapshot.getAudioTracks("aja").count().blockingGet());
+  }
+
+  @Test
+  public void testOtherVersionRejected() throws IOException {
+    Path file = directory.resolve("catalog.snapshot");
+    CatalogSnapshot.write(catalog, file);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      ByteBuffer version = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.write(version.putInt(0, CatalogSnapshot.VERSION + 1), Integer.BYTES);
+    }
+
+    assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+  }
+
+  @Test
+  public void testNotSnapshotRejected() throws IOException {
+    Path file = Files.writeString(directory.resolve("movies.csv"), "Title,Year\n");
+    assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import com.solutechconsulting.media.service.LookupFilters;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestMediaCatalog {
+
+  private static MediaCatalog catalog;
+
+  @BeforeAll
+  public static void loadCatalog() {
+    catalog = MediaCatalog.of(new MovieLoader().loadMovies().toList().blockingGet(),
+        new AudioLoader().loadAudio().toList().blockingGet(),
+        new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet());
+  }
+
+  @Test
+  public void testSeriesOrdered() {
+    List<TelevisionShow> series = catalog.getSeries("batman").toList().blockingGet();
+    assertEquals(120, series.size());
+
+    for (int i = 1; i < series.size(); i++) {
+      TelevisionShow previous = series.get(i - 1);
+      TelevisionShow show = series.get(i);
+      assertTrue(previous.getSeason() < show.getSeason() || (
+          previous.getSeason() == show.getSeason() && previous.getEpisode() <= show.getEpisode()));
+    }
+  }
+
+  @Test
+  public void testEpisodesOrdered() {
+    List<TelevisionShow> episodes = catalog.getEpisodes("doc martin", 3).toList().blockingGet();
+    assertEquals(7, episodes.size());
+
+    for (int i = 0; i < episodes.size(); i++) {
+      assertEquals(3, episodes.get(i).getSeason());
+      if (i > 0) {
+        assertTrue(episodes.get(i - 1).getEpisode() <= episodes.get(i).getEpisode());
+      }
+    }
+  }
+
+  @Test
+  public void testLookupKeys() {
+    // Titles are compared as the database backends compare them, ignoring case and surrounding
+    // whitespace
+    assertEquals("doc martin", MediaKeys.normalize(" Doc Martin "));
+    assertEquals(LookupFilters.normalize("\tAja "), MediaKeys.normalize("\tAja "));
+
+    assertEquals(catalog.getEpisodes("doc martin", 3).toList().blockingGet(),
+        catalog.getEpisodes(" Doc Martin ", 3).toList().blockingGet());
+    assertEquals(catalog.getSeries("batman").toList().blockingGet(),
+        catalog.getSeries("BATMAN ").toList().blockingGet());
+    assertEquals(catalog.getAudioTracks("aja").toList().blockingGet(),
+        catalog.getAudioTracks(" AJA").toList().blockingGet());
+  }
+
+  @Test
+  public void testUnknownSeries() {
+    assertEquals(0, catalog.getSeries("no such series").count().blockingGet());
+    assertEquals(0, catalog.getEpisodes("batman", 99).count().blockingGet());
+  }
+
+  @Test
+  public void testAlbumTracksOrdered() {
+    List<Audio> tracks = catalog.getAudioTracks("AJA").toList().blockingGet();
+    assertEquals(7, tracks.size());
+
+    for (int i = 0; i < tracks.size(); i++) {
+      assertEquals(i + 1, tracks.get(i).getTrackNumber());
+    }
+
+    assertEquals(tracks, catalog.getAlbumIndex().getTracks("aja", "steely dan"));
+    assertEquals(0, catalog.getAlbumIndex().getTracks("aja", "no such artist").size());
+    assertEquals(0, catalog.getAudioTracks("no such album").count().blockingGet());
+  }
+
+  @Test
+  public void testLookupFilters() {
+    LookupFilters filters = catalog.getLookupFilters();
+
+    catalog.getAudio().blockingForEach(
+        track -> assertTrue(filters.mightContainAlbum(track.getAlbum()), track.getAlbum()));
+    catalog.getTelevisionShows().blockingForEach(show -> assertTrue(
+        filters.mightContainSeries(show.getSeriesTitle()), show.getSeriesTitle()));
+    assertTrue(filters.mightContainAlbum(" AJA "));
+    assertTrue(filters.mightContainSeries("BATMAN"));
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (filters.mightContainAlbum("no such album " + i)) {
+        falsePositives++;
+      }
+      if (filters.mightContainSeries("no such series " + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 20000 * LookupFilters.FALSE_POSITIVE_PROBABILITY * 2,
+        "False positives: " + falsePositives);
+  }
+
+  @Test
+  public void testColumnarStorage() {
+    MediaCatalog columnar = MediaCatalog.of(catalog.getMovies().toList().blockingGet(),
+        catalog.getAudio().toList().blockingGet(),
+        catalog.getTelevisionShows().toList().blockingGet(), MediaCatalog.Storage.COLUMNAR);
+
+    assertEquals(MediaCatalog.Storage.COLUMNAR, columnar.getStorage());
+    assertEquals(0, catalog.getOffHeapBytes());
+    assertTrue(columnar.getOffHeapBytes() > 0);
+    assertEquals(catalog.size(), columnar.size());
+
+    assertEquals(catalog.getMovies().toList().blockingGet(),
+        columnar.getMovies().toList().blockingGet());
+    assertEquals(catalog.getAudio().toList().blockingGet(),
+        columnar.getAudio().toList().blockingGet());
+    assertEquals(catalog.getTelevisionShows().toList().blockingGet(),
+        columnar.getTelevisionShows().toList().blockingGet());
+
+    assertEquals(catalog.searchMovies("Star Trek").toList().blockingGet(),
+        columnar.searchMovies("Star Trek").toList().blockingGet());
+    assertEquals(catalog.searchAudio("pink floyd").toList().blockingGet(),
+        columnar.searchAudio("pink floyd").toList().blockingGet());
+    assertEquals(catalog.searchTelevisionShows("hawkeye").toList().blockingGet(),
+        columnar.searchTelevisionShows("hawkeye").toList().blockingGet());
+
+    assertEquals(catalog.getSeries("batman").toList().blockingGet(),
+        columnar.getSeries("batman").toList().blockingGet());
+    assertEquals(catalog.getEpisodes("doc martin", 3).toList().blockingGet(),
+        columnar.getEpisodes("doc martin", 3).toList().blockingGet());
+    assertEquals(catalog.getAudioTracks("aja").toList().blockingGet(),
+        columnar.getAudioTracks("aja").toList().blockingGet());
+  }
+
+  @Test
+  public void testEmptyColumnarCatalog() {
+    for (MediaCatalog.Storage storage : MediaCatalog.Storage.values()) {
+      MediaCatalog empty = MediaCatalog.of(List.of(), List.of(), List.of(), storage);
+
+      assertEquals(0, empty.size());
+      assertEquals(0, empty.searchMovies("star trek").count().blockingGet());
+      assertEquals(0, empty.searchMovies("").count().blockingGet());
+      assertEquals(0, empty.searchAudio("pink floyd").count().blockingGet());
+      assertEquals(0, empty.searchTelevisionShows("hawkeye").count().blockingGet());
+      assertEquals(0, empty.getAudioTracks("aja").count().blockingGet());
+      assertEquals(0, empty.getSeries("batman").count().blockingGet());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.database.init.application;
+
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.SampleDefinitions;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Creates the loaders the data migrations populate the tables from. By default they load the
+ * bundled sample data. When {@value #SAMPLE_DIRECTORY} names a directory, such as one written by
+ * the sample generator, they load the movies, audio and television show CSV files in it instead.
+ */
+public final class SampleDataLoaders {
+
+  public static final String SAMPLE_DIRECTORY = "mediaservice.database-init.sample-directory";
+
+  private SampleDataLoaders() {
+  }
+
+  public static MovieLoader movieLoader() {
+    return sampleDirectory().map(
+        directory -> new MovieLoader(directory.resolve(SampleDefinitions.Movies.FILE_NAME)))
+        .orElseGet(MovieLoader::new);
+  }
+
+  public static AudioLoader audioLoader() {
+    return sampleDirectory().map(
+        directory -> new AudioLoader(directory.resolve(SampleDefinitions.Audio.FILE_NAME)))
+        .orElseGet(AudioLoader::new);
+  }
+
+  public static TelevisionShowLoader televisionShowLoader() {
+    return sampleDirectory().map(directory -> new TelevisionShowLoader(
+        directory.resolve(SampleDefinitions.TelevisionShow.FILE_NAME)))
+        .orElseGet(TelevisionShowLoader::new);
+  }
+
+  private static Optional<Path> sampleDirectory() {
+    return ConfigProvider.getConfig().getOptionalValue(SAMPLE_DIRECTORY, String.class)
+        .map(Paths::get);
+  }
+}
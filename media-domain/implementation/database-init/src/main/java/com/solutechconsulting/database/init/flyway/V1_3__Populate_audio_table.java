@@ -22,11 +22,13 @@
 
 package com.solutechconsulting.database.init.flyway;
 
+import com.solutechconsulting.database.init.application.SampleDataLoaders;
 import com.solutechconsulting.media.sample.AudioLoader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.flywaydb.core.api.migration.BaseJavaMigration;
 import org.flywaydb.core.api.migration.Context;
 import org.slf4j.Logger;
@@ -34,11 +36,14 @@ import org.slf4j.LoggerFactory;
 
 public class V1_3__Populate_audio_table extends BaseJavaMigration {
 
+  private static final int BATCH_SIZE = 1000;
+
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
   @Override
   public void migrate(Context context) throws Exception {
-    AudioLoader audioLoader = new AudioLoader();
+    AudioLoader audioLoader = SampleDataLoaders.audioLoader();
+    AtomicInteger batched = new AtomicInteger();
 
     Connection connection = context.getConnection();
     String insertStatement = "insert into media.audio (id,title,album,album_artist,artist,duration,track_number,year) values (?,?,?,?,?,?,?,?)";
@@ -63,6 +68,9 @@ public class V1_3__Populate_audio_table extends BaseJavaMigration {
             statement.setNull(8, Types.INTEGER);
           }
           statement.addBatch();
+          if (batched.incrementAndGet() % BATCH_SIZE == 0) {
+            statement.executeBatch();
+          }
         } catch (SQLException e) {
           logger.error("Exception loading audio table.", e);
         }
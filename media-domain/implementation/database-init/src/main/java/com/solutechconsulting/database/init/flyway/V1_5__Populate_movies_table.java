@@ -22,6 +22,7 @@
 
 package com.solutechconsulting.database.init.flyway;
 
+import com.solutechconsulting.database.init.application.SampleDataLoaders;
 import com.solutechconsulting.media.sample.MovieLoader;
 import java.sql.Connection;
 import java.sql.Date;
@@ -29,6 +30,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.flywaydb.core.api.migration.BaseJavaMigration;
 import org.flywaydb.core.api.migration.Context;
 import org.slf4j.Logger;
@@ -36,11 +38,14 @@ import org.slf4j.LoggerFactory;
 
 public class V1_5__Populate_movies_table extends BaseJavaMigration {
 
+  private static final int BATCH_SIZE = 1000;
+
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
   @Override
   public void migrate(Context context) throws Exception {
-    MovieLoader movieLoader = new MovieLoader();
+    MovieLoader movieLoader = SampleDataLoaders.movieLoader();
+    AtomicInteger batched = new AtomicInteger();
 
     Connection connection = context.getConnection();
     String insertStatement = "insert into media.movies (id,title,audience_rating,content_rating,critics_rating,directors,duration,genres,released,roles,studio,summary,tagline,year) values (?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
@@ -82,6 +87,9 @@ public class V1_5__Populate_movies_table extends BaseJavaMigration {
           }
 
           statement.addBatch();
+          if (batched.incrementAndGet() % BATCH_SIZE == 0) {
+            statement.executeBatch();
+          }
         } catch (SQLException e) {
           logger.error("Exception loading audio table.", e);
         }
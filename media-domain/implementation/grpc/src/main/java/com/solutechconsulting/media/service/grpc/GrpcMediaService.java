@@ -26,36 +26,55 @@ import com.google.protobuf.Empty;
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.ImmutableAudio;
 import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.ImmutableSuggestion;
 import com.solutechconsulting.media.model.ImmutableTelevisionShow;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.model.protobuf.AudioGrpc;
 import com.solutechconsulting.media.model.protobuf.AudioProto;
-import com.solutechconsulting.media.model.protobuf.AudioProto.GrpcAudio;
 import com.solutechconsulting.media.model.protobuf.CommonProto;
 import com.solutechconsulting.media.model.protobuf.MoviesGrpc;
 import com.solutechconsulting.media.model.protobuf.MoviesProto;
-import com.solutechconsulting.media.model.protobuf.MoviesProto.GrpcMovie;
+import com.solutechconsulting.media.model.protobuf.SuggestionsGrpc;
+import com.solutechconsulting.media.model.protobuf.SuggestionsProto;
 import com.solutechconsulting.media.model.protobuf.TelevisionShowsGrpc;
 import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto;
-import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto.GrpcTelevisionShow;
 import com.solutechconsulting.media.service.AbstractMediaService;
 import io.grpc.Channel;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import io.quarkus.grpc.runtime.annotations.GrpcService;
 import io.reactivex.BackpressureStrategy;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.subjects.CompletableSubject;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
 import javax.annotation.Priority;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Alternative;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.interceptor.Interceptor;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,69 +98,63 @@ public class GrpcMediaService extends AbstractMediaService {
   @GrpcService("mediaservice")
   Channel channel;
 
-  @Override
-  protected Flowable<Movie> doGetMovies() {
-    Observable<MoviesProto.GrpcMovie> observable = Observable.create(emitter -> {
-      try {
-        Empty empty = Empty.getDefaultInstance();
-        MoviesGrpc.newStub(channel).get(empty, new StreamObserver<>() {
-          @Override
-          public void onNext(GrpcMovie grpcMovie) {
-            emitter.onNext(grpcMovie);
-          }
-
-          @Override
-          public void onError(Throwable throwable) {
-            logger.error("Error building gRPC doGetMovies stream.", throwable);
-            emitter.onError(throwable);
-          }
-
-          @Override
-          public void onCompleted() {
-            logger.debug("gRPC doGetMovies stream complete.");
-            emitter.onComplete();
-          }
-        });
-      } catch (Exception e) {
-        logger.error("Error building gRPC doGetMovies stream.", e);
-        emitter.onError(e);
+  @Inject
+  @GrpcService("mediaservice-hedge")
+  Channel hedgeChannel;
+
+  @Inject
+  GrpcMediaServiceConfiguration clientConfiguration;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  private Counter hedgesFired;
+  private Counter hedgesWon;
+
+  private Set<Status.Code> hedgedStatusCodes;
+
+  @PostConstruct
+  void initializeHedging() {
+    hedgedStatusCodes = EnumSet.noneOf(Status.Code.class);
+    for (String code : clientConfiguration.getHedgedStatusCodes().split(",")) {
+      if (!code.isBlank()) {
+        hedgedStatusCodes.add(Status.Code.valueOf(code.trim()));
       }
-    });
+    }
 
-    return movieEventsToFlowable(observable);
+    String metricsPrefix = getMetricsPrefix();
+    String name = metricsPrefix + '.' + HedgeMetricsDefinitions.Hedges.FIRED_NAME;
+    Metadata metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.COUNTER)
+            .withDescription(HedgeMetricsDefinitions.Hedges.FIRED_DESCRIPTION).build();
+
+    hedgesFired = metricRegistry.counter(metadata);
+
+    name = metricsPrefix + '.' + HedgeMetricsDefinitions.Hedges.WON_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.COUNTER)
+            .withDescription(HedgeMetricsDefinitions.Hedges.WON_DESCRIPTION).build();
+
+    hedgesWon = metricRegistry.counter(metadata);
   }
 
   @Override
-  protected Flowable<Movie> doSearchMovies(String movieText) {
-    Observable<MoviesProto.GrpcMovie> observable = Observable.create(emitter -> {
-      try {
-        MoviesGrpc.newStub(channel).search(
-            CommonProto.SearchRequest.newBuilder().setSearchText(movieText).build(),
-            new StreamObserver<>() {
-              @Override
-              public void onNext(GrpcMovie grpcMovie) {
-                emitter.onNext(grpcMovie);
-              }
-
-              @Override
-              public void onError(Throwable throwable) {
-                logger.error("Error building gRPC doSearchMovies stream.", throwable);
-                emitter.onError(throwable);
-              }
-
-              @Override
-              public void onCompleted() {
-                logger.debug("gRPC doSearchMovies stream complete.");
-                emitter.onComplete();
-              }
-            });
-      } catch (Exception e) {
-        logger.error("Error building gRPC doSearchMovies stream.", e);
-        emitter.onError(e);
-      }
-    });
+  protected Flowable<Movie> doGetMovies() {
+    Empty empty = Empty.getDefaultInstance();
+    return movieEventsToFlowable(call("doGetMovies", clientConfiguration.getMoviesDeadline(),
+        (target, deadline, observer) -> MoviesGrpc.newStub(target).withDeadline(deadline)
+            .get(empty, observer)));
+  }
 
-    return movieEventsToFlowable(observable);
+  @Override
+  protected Flowable<Movie> doSearchMovies(String movieText) {
+    CommonProto.SearchRequest searchRequest =
+        CommonProto.SearchRequest.newBuilder().setSearchText(movieText).build();
+    return movieEventsToFlowable(
+        call("doSearchMovies", clientConfiguration.getMovieSearchDeadline(),
+            (target, deadline, observer) -> MoviesGrpc.newStub(target).withDeadline(deadline)
+                .search(searchRequest, observer)));
   }
 
   protected Flowable<Movie> movieEventsToFlowable(Observable<MoviesProto.GrpcMovie> observable) {
@@ -170,101 +183,29 @@ public class GrpcMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<Audio> doGetAudio() {
-    Observable<AudioProto.GrpcAudio> observable = Observable.create(emitter -> {
-      try {
-        Empty empty = Empty.getDefaultInstance();
-        AudioGrpc.newStub(channel).get(empty, new StreamObserver<>() {
-          @Override
-          public void onNext(GrpcAudio grpcAudio) {
-            emitter.onNext(grpcAudio);
-          }
-
-          @Override
-          public void onError(Throwable throwable) {
-            logger.error("Error building gRPC doGetAudio stream.", throwable);
-            emitter.onError(throwable);
-          }
-
-          @Override
-          public void onCompleted() {
-            logger.debug("gRPC doGetAudio stream complete.");
-            emitter.onComplete();
-          }
-        });
-      } catch (Exception e) {
-        logger.error("Error building gRPC doGetAudio stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return audioEventsToFlowable((observable));
+    Empty empty = Empty.getDefaultInstance();
+    return audioEventsToFlowable(call("doGetAudio", clientConfiguration.getAudioDeadline(),
+        (target, deadline, observer) -> AudioGrpc.newStub(target).withDeadline(deadline)
+            .get(empty, observer)));
   }
 
   @Override
   protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
-    Observable<AudioProto.GrpcAudio> observable = Observable.create(emitter -> {
-      try {
-        AudioProto.TracksRequest tracksRequest = AudioProto.TracksRequest.newBuilder()
-            .setAlbumTitle(
-                albumTitle).build();
-        AudioGrpc.newStub(channel).tracks(tracksRequest, new StreamObserver<>() {
-          @Override
-          public void onNext(GrpcAudio grpcAudio) {
-            emitter.onNext(grpcAudio);
-          }
-
-          @Override
-          public void onError(Throwable throwable) {
-            logger.error("Error building gRPC doGetAudioTracks stream.", throwable);
-            emitter.onError(throwable);
-          }
-
-          @Override
-          public void onCompleted() {
-            logger.debug("gRPC doGetAudioTracks stream complete.");
-            emitter.onComplete();
-          }
-        });
-      } catch (Exception e) {
-        logger.error("Error building gRPC doGetAudioTracks stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return audioEventsToFlowable((observable));
+    AudioProto.TracksRequest tracksRequest =
+        AudioProto.TracksRequest.newBuilder().setAlbumTitle(albumTitle).build();
+    return audioEventsToFlowable(
+        hedgedCall("doGetAudioTracks", clientConfiguration.getAudioTracksDeadline(),
+            (target, deadline, observer) -> AudioGrpc.newStub(target).withDeadline(deadline)
+                .tracks(tracksRequest, observer)));
   }
 
   @Override
   protected Flowable<Audio> doSearchAudio(String audioText) {
-    Observable<AudioProto.GrpcAudio> observable = Observable.create(emitter -> {
-      try {
-        CommonProto.SearchRequest searchRequest =
-            CommonProto.SearchRequest.newBuilder().setSearchText(audioText).build();
-        AudioGrpc.newStub(channel).search(searchRequest, new StreamObserver<>() {
-          @Override
-          public void onNext(GrpcAudio grpcAudio) {
-            emitter.onNext(grpcAudio);
-          }
-
-          @Override
-          public void onError(Throwable throwable) {
-            logger.error("Error building doSearchAudio stream.", throwable);
-            emitter.onError(throwable);
-          }
-
-          @Override
-          public void onCompleted() {
-            logger.debug("gRPC doSearchAudio stream complete.");
-            emitter.onComplete();
-          }
-        });
-      } catch (Exception e) {
-        logger.error("Error building doSearchAudio stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return audioEventsToFlowable((observable));
+    CommonProto.SearchRequest searchRequest =
+        CommonProto.SearchRequest.newBuilder().setSearchText(audioText).build();
+    return audioEventsToFlowable(call("doSearchAudio", clientConfiguration.getAudioSearchDeadline(),
+        (target, deadline, observer) -> AudioGrpc.newStub(target).withDeadline(deadline)
+            .search(searchRequest, observer)));
   }
 
   protected Flowable<Audio> audioEventsToFlowable(Observable<AudioProto.GrpcAudio> observable) {
@@ -281,137 +222,42 @@ public class GrpcMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<TelevisionShow> doGetTelevisionShows() {
-    Observable<TelevisionShowsProto.GrpcTelevisionShow> observable = Observable.create(emitter -> {
-      try {
-        Empty empty = Empty.getDefaultInstance();
-        TelevisionShowsGrpc.newStub(channel).get(empty, new StreamObserver<>() {
-          @Override
-          public void onNext(GrpcTelevisionShow grpcTelevisionShow) {
-            emitter.onNext(grpcTelevisionShow);
-          }
-
-          @Override
-          public void onError(Throwable throwable) {
-            logger.error("Error building gRPC doGetTelevisionShows stream.", throwable);
-            emitter.onError(throwable);
-          }
-
-          @Override
-          public void onCompleted() {
-            logger.debug("gRPC doGetTelevisionShows stream complete.");
-            emitter.onComplete();
-          }
-        });
-      } catch (Exception e) {
-        logger.error("Error building gRPC doGetTelevisionShows stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return televisionShowEventsToFlowable(observable);
+    Empty empty = Empty.getDefaultInstance();
+    return televisionShowEventsToFlowable(
+        call("doGetTelevisionShows", clientConfiguration.getTelevisionShowsDeadline(),
+            (target, deadline, observer) -> TelevisionShowsGrpc.newStub(target)
+                .withDeadline(deadline).get(empty, observer)));
   }
 
   @Override
   protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
-    Observable<TelevisionShowsProto.GrpcTelevisionShow> observable = Observable.create(emitter -> {
-      try {
-        CommonProto.SearchRequest searchRequest =
-            CommonProto.SearchRequest.newBuilder().setSearchText(showText).build();
-        TelevisionShowsGrpc.newStub(channel).search(searchRequest,
-            new StreamObserver<>() {
-              @Override
-              public void onNext(GrpcTelevisionShow grpcTelevisionShow) {
-                emitter.onNext(grpcTelevisionShow);
-              }
-
-              @Override
-              public void onError(Throwable throwable) {
-                logger.error("Error building doSearchTelevisionShows stream.", throwable);
-                emitter.onError(throwable);
-              }
-
-              @Override
-              public void onCompleted() {
-                logger.debug("gRPC doSearchTelevisionShows stream complete.");
-                emitter.onComplete();
-              }
-            });
-      } catch (Exception e) {
-        logger.error("Error building doSearchTelevisionShows stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return televisionShowEventsToFlowable((observable));
+    CommonProto.SearchRequest searchRequest =
+        CommonProto.SearchRequest.newBuilder().setSearchText(showText).build();
+    return televisionShowEventsToFlowable(
+        call("doSearchTelevisionShows", clientConfiguration.getTelevisionShowSearchDeadline(),
+            (target, deadline, observer) -> TelevisionShowsGrpc.newStub(target)
+                .withDeadline(deadline).search(searchRequest, observer)));
   }
 
   @Override
   protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
-    Observable<TelevisionShowsProto.GrpcTelevisionShow> observable = Observable.create(emitter -> {
-      try {
-        TelevisionShowsProto.EpisodesRequest episodesRequest =
-            TelevisionShowsProto.EpisodesRequest.newBuilder().setSeriesTitle(seriesTitle).setSeason(
-                season).build();
-        TelevisionShowsGrpc.newStub(channel).episodes(episodesRequest,
-            new StreamObserver<>() {
-              @Override
-              public void onNext(GrpcTelevisionShow grpcTelevisionShow) {
-                emitter.onNext(grpcTelevisionShow);
-              }
-
-              @Override
-              public void onError(Throwable throwable) {
-                logger.error("Error building doGetEpisodes stream.", throwable);
-                emitter.onError(throwable);
-              }
-
-              @Override
-              public void onCompleted() {
-                logger.debug("gRPC doGetEpisodes stream complete.");
-                emitter.onComplete();
-              }
-            });
-      } catch (Exception e) {
-        logger.error("Error building doGetEpisodes stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return televisionShowEventsToFlowable((observable));
+    TelevisionShowsProto.EpisodesRequest episodesRequest =
+        TelevisionShowsProto.EpisodesRequest.newBuilder().setSeriesTitle(seriesTitle).setSeason(
+            season).build();
+    return televisionShowEventsToFlowable(
+        hedgedCall("doGetEpisodes", clientConfiguration.getEpisodesDeadline(),
+            (target, deadline, observer) -> TelevisionShowsGrpc.newStub(target)
+                .withDeadline(deadline).episodes(episodesRequest, observer)));
   }
 
   @Override
   protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
-    Observable<TelevisionShowsProto.GrpcTelevisionShow> observable = Observable.create(emitter -> {
-      try {
-        TelevisionShowsProto.SeriesRequest seriesRequest =
-            TelevisionShowsProto.SeriesRequest.newBuilder().setSeriesTitle(seriesTitle).build();
-        TelevisionShowsGrpc.newStub(channel).series(seriesRequest,
-            new StreamObserver<>() {
-              @Override
-              public void onNext(GrpcTelevisionShow grpcTelevisionShow) {
-                emitter.onNext(grpcTelevisionShow);
-              }
-
-              @Override
-              public void onError(Throwable throwable) {
-                logger.error("Error building doGetSeries stream.", throwable);
-                emitter.onError(throwable);
-              }
-
-              @Override
-              public void onCompleted() {
-                logger.debug("gRPC doGetSeries stream complete.");
-                emitter.onComplete();
-              }
-            });
-      } catch (Exception e) {
-        logger.error("Error building doGetSeries stream.", e);
-        emitter.onError(e);
-      }
-    });
-
-    return televisionShowEventsToFlowable((observable));
+    TelevisionShowsProto.SeriesRequest seriesRequest =
+        TelevisionShowsProto.SeriesRequest.newBuilder().setSeriesTitle(seriesTitle).build();
+    return televisionShowEventsToFlowable(
+        hedgedCall("doGetSeries", clientConfiguration.getSeriesDeadline(),
+            (target, deadline, observer) -> TelevisionShowsGrpc.newStub(target)
+                .withDeadline(deadline).series(seriesRequest, observer)));
   }
 
   protected Flowable<TelevisionShow> televisionShowEventsToFlowable(
@@ -441,8 +287,179 @@ public class GrpcMediaService extends AbstractMediaService {
     });
   }
 
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    SuggestionsProto.SuggestRequest suggestRequest =
+        SuggestionsProto.SuggestRequest.newBuilder().setPrefix(prefix).setLimit(limit).build();
+    Observable<SuggestionsProto.GrpcSuggestion> observable =
+        hedgedCall("doSuggest", clientConfiguration.getSuggestDeadline(),
+            (target, deadline, observer) -> SuggestionsGrpc.newStub(target)
+                .withDeadline(deadline).suggest(suggestRequest, observer));
+
+    return observable.toFlowable(BackpressureStrategy.BUFFER)
+        .map(grpcSuggestion -> ImmutableSuggestion.builder().text(grpcSuggestion.getText())
+            .kind(Suggestion.Kind.valueOf(grpcSuggestion.getKind().name()))
+            .weight(grpcSuggestion.getWeight()).build());
+  }
+
+  /**
+   * Make a server streaming call, bounded by a deadline that starts when the observable is
+   * subscribed.
+   *
+   * @param operation the operation, for logging
+   * @param timeout   the time allowed for the whole call
+   * @param call      starts the call
+   * @param <R>       the type of the responses
+   * @return the responses
+   */
+  protected <R> Observable<R> call(String operation, Duration timeout, StreamingCall<R> call) {
+    return Observable.defer(() -> attempt(operation, channel,
+        Deadline.after(timeout.toNanos(), TimeUnit.NANOSECONDS), call));
+  }
+
+  /**
+   * Make a server streaming call which is hedged when hedging is enabled. If no response has
+   * arrived within the hedge delay, the same call is made over the hedge channel, which connects
+   * to another backend. The first call to signal anything, a response, completion or an error,
+   * wins and the other call is cancelled. Both calls share the one deadline.
+   * <p>
+   * An error whose status is one of the hedged status codes, returned by the first call before it
+   * has answered, does not win: the second call is made at once instead, and its outcome is the
+   * outcome of the lookup. Any other error is final, since repeating the call would fail the same
+   * way.
+   *
+   * @param operation the operation, for logging
+   * @param timeout   the time allowed for the whole call
+   * @param call      starts a call
+   * @param <R>       the type of the responses
+   * @return the responses of the winning call
+   */
+  protected <R> Observable<R> hedgedCall(String operation, Duration timeout,
+      StreamingCall<R> call) {
+    if (!clientConfiguration.isHedging()) {
+      return call(operation, timeout, call);
+    }
+
+    long hedgeDelay = clientConfiguration.getHedgeDelay().toNanos();
+    return Observable.defer(() -> {
+      Deadline deadline = Deadline.after(timeout.toNanos(), TimeUnit.NANOSECONDS);
+      AtomicBoolean decided = new AtomicBoolean();
+      CompletableSubject primaryFailed = CompletableSubject.create();
+
+      Observable<R> primary = attempt(operation, channel, deadline, call)
+          .onErrorResumeNext(throwable -> {
+            if (decided.get() || !hedgedStatusCodes.contains(Status.fromThrowable(throwable)
+                .getCode())) {
+              return Observable.error(throwable);
+            }
+            logger.debug("gRPC {} call failed before answering. Hedging at once.", operation,
+                throwable);
+            primaryFailed.onComplete();
+            return Observable.never();
+          })
+          .doOnEach(notification -> decided.compareAndSet(false, true));
+      Observable<R> hedge = Completable
+          .ambArray(Completable.timer(hedgeDelay, TimeUnit.NANOSECONDS), primaryFailed)
+          .doOnComplete(() -> {
+            logger.debug("Hedging gRPC {} call.", operation);
+            hedgesFired.inc();
+          })
+          .andThen(attempt(operation, hedgeChannel, deadline, call))
+          .doOnEach(notification -> {
+            if (decided.compareAndSet(false, true)) {
+              hedgesWon.inc();
+            }
+          });
+
+      return Observable.ambArray(primary, hedge);
+    });
+  }
+
+  private <R> Observable<R> attempt(String operation, Channel target, Deadline deadline,
+      StreamingCall<R> call) {
+    return Observable.create(emitter -> {
+      try {
+        call.start(target, deadline, relay(operation, emitter));
+      } catch (Exception e) {
+        logger.error("Error building gRPC {} stream.", operation, e);
+        emitter.onError(e);
+      }
+    });
+  }
+
+  /**
+   * Relay the responses of a server streaming call to an emitter. Disposing the emitter, as
+   * cancelling the resulting flowable does, cancels the call so that the server stops sending and
+   * releases what it holds for the stream. The cancelled call's error is not relayed.
+   *
+   * @param operation the operation, for logging
+   * @param emitter   the emitter of the responses
+   * @param <R>       the type of the responses
+   * @return the observer to pass to the call
+   */
+  protected <R> ClientResponseObserver<Object, R> relay(String operation,
+      ObservableEmitter<R> emitter) {
+    return new ClientResponseObserver<>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+        emitter.setCancellable(() -> requestStream.cancel("The subscriber cancelled.", null));
+      }
+
+      @Override
+      public void onNext(R response) {
+        emitter.onNext(response);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        if (!emitter.isDisposed()) {
+          logger.error("Error building gRPC {} stream.", operation, throwable);
+          emitter.tryOnError(throwable);
+        }
+      }
+
+      @Override
+      public void onCompleted() {
+        logger.debug("gRPC {} stream complete.", operation);
+        emitter.onComplete();
+      }
+    };
+  }
+
   @Override
   protected String getMetricsPrefix() {
     return GrpcMediaService.class.getName();
   }
+
+  /**
+   * Starts a server streaming call on a channel.
+   *
+   * @param <R> the type of the responses
+   */
+  @FunctionalInterface
+  protected interface StreamingCall<R> {
+
+    void start(Channel channel, Deadline deadline, StreamObserver<R> observer);
+  }
+
+  public static final class HedgeMetricsDefinitions {
+
+    public static final class Hedges {
+
+      public static final String FIRED_NAME = "HedgesFired";
+      public static final String FIRED_DESCRIPTION =
+          "Number of point lookups that did not answer within the hedge delay and were sent a"
+              + " second time to another backend.";
+
+      public static final String WON_NAME = "HedgesWon";
+      public static final String WON_DESCRIPTION =
+          "Number of hedged point lookups where the second call answered first.";
+
+      private Hedges() {
+      }
+    }
+
+    private HedgeMetricsDefinitions() {
+    }
+  }
 }
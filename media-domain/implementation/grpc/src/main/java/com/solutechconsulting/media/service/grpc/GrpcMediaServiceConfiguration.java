@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.grpc;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configures the calls {@link GrpcMediaService} makes. Every operation is bounded by a deadline,
+ * after which the call is cancelled on both sides and fails with DEADLINE_EXCEEDED. Listings and
+ * searches stream many results and get generous deadlines, the point lookups are expected to answer
+ * quickly and get short ones.
+ */
+@ConfigProperties(prefix = "mediaservice.grpc.client")
+public interface GrpcMediaServiceConfiguration {
+
+  @ConfigProperty(defaultValue = "PT1M")
+  Duration getMoviesDeadline();
+
+  @ConfigProperty(defaultValue = "PT30S")
+  Duration getMovieSearchDeadline();
+
+  @ConfigProperty(defaultValue = "PT1M")
+  Duration getAudioDeadline();
+
+  @ConfigProperty(defaultValue = "PT30S")
+  Duration getAudioSearchDeadline();
+
+  @ConfigProperty(defaultValue = "PT5S")
+  Duration getAudioTracksDeadline();
+
+  @ConfigProperty(defaultValue = "PT1M")
+  Duration getTelevisionShowsDeadline();
+
+  @ConfigProperty(defaultValue = "PT30S")
+  Duration getTelevisionShowSearchDeadline();
+
+  @ConfigProperty(defaultValue = "PT5S")
+  Duration getEpisodesDeadline();
+
+  @ConfigProperty(defaultValue = "PT5S")
+  Duration getSeriesDeadline();
+
+  @ConfigProperty(defaultValue = "PT2S")
+  Duration getSuggestDeadline();
+
+  /**
+   * Whether the point lookups (audio tracks, episodes, series and suggestions) are hedged. A hedged
+   * call that has not answered within the hedge delay is sent a second time over the
+   * <code>mediaservice-hedge</code> client, and whichever call answers first is used.
+   *
+   * @return true if point lookups are hedged
+   */
+  @ConfigProperty(defaultValue = "true")
+  boolean isHedging();
+
+  /**
+   * How long a hedged call waits for its first response before the second call is sent. It should
+   * be around the 95th percentile latency of the lookups, so that only the slowest calls are
+   * hedged.
+   *
+   * @return the hedge delay
+   */
+  @ConfigProperty(defaultValue = "PT0.1S")
+  Duration getHedgeDelay();
+
+  /**
+   * The comma-separated gRPC status codes which, returned by a hedged call before it has answered,
+   * send the second call at once rather than failing the lookup. Like gRPC's non-fatal status
+   * codes, they should only name failures after which the call is safe to repeat.
+   *
+   * @return the status codes that are hedged
+   */
+  @ConfigProperty(defaultValue = "UNAVAILABLE")
+  String getHedgedStatusCodes();
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.protobuf.Empty;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.protobuf.AudioGrpc;
+import com.solutechconsulting.media.model.protobuf.AudioProto;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import io.smallrye.metrics.MetricsRegistryImpl;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Exercises the calls {@link GrpcMediaService} makes against backends served in process, so that
+ * what each backend sees of a call can be asserted.
+ */
+public class TestGrpcMediaServiceCalls {
+
+  private final TestConfiguration configuration = new TestConfiguration();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private AudioBackend primary;
+  private AudioBackend hedge;
+  private Server primaryServer;
+  private Server hedgeServer;
+  private ManagedChannel primaryChannel;
+  private ManagedChannel hedgeChannel;
+
+  private GrpcMediaService mediaService;
+
+  @BeforeEach
+  public void startBackends() throws IOException {
+    primary = new AudioBackend("Primary", scheduler);
+    hedge = new AudioBackend("Hedge", scheduler);
+    primaryServer = InProcessServerBuilder.forName("primary").addService(primary).build().start();
+    hedgeServer = InProcessServerBuilder.forName("hedge").addService(hedge).build().start();
+    primaryChannel = InProcessChannelBuilder.forName("primary").build();
+    hedgeChannel = InProcessChannelBuilder.forName("hedge").build();
+  }
+
+  @AfterEach
+  public void stopBackends() {
+    primaryChannel.shutdownNow();
+    hedgeChannel.shutdownNow();
+    primaryServer.shutdownNow();
+    hedgeServer.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testCancellationReachesServer() throws InterruptedException {
+    TestSubscriber<Audio> subscriber = createMediaService().doGetAudio().take(1).test();
+
+    subscriber.awaitDone(5, TimeUnit.SECONDS).assertValueCount(1).assertComplete();
+    assertTrue(primary.cancelled.await(5, TimeUnit.SECONDS),
+        "The server did not see the call cancelled.");
+  }
+
+  @Test
+  public void testHedgeWinsOverSlowPrimary() throws InterruptedException {
+    configuration.hedging = true;
+    primary.delay = Duration.ofSeconds(3);
+    mediaService = createMediaService();
+
+    long started = System.nanoTime();
+    TestSubscriber<Audio> subscriber = mediaService.doGetAudioTracks("Aja").test();
+
+    subscriber.awaitDone(5, TimeUnit.SECONDS).assertComplete().assertValueCount(2);
+    subscriber.values().forEach(track -> assertEquals("Hedge", track.getAlbum()));
+    assertTrue(hedge.called.await(0, TimeUnit.SECONDS));
+    assertTrue(hedge.calledAt - started >= configuration.hedgeDelay.toNanos(),
+        "The hedge was sent before the hedge delay.");
+    assertTrue(primary.cancelled.await(5, TimeUnit.SECONDS),
+        "The losing call was not cancelled.");
+    assertEquals(1, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.FIRED_NAME));
+    assertEquals(1, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.WON_NAME));
+  }
+
+  @Test
+  public void testPrimaryAnswersWithinHedgeDelay() throws InterruptedException {
+    configuration.hedging = true;
+    configuration.hedgeDelay = Duration.ofSeconds(1);
+    mediaService = createMediaService();
+
+    TestSubscriber<Audio> subscriber = mediaService.doGetAudioTracks("Aja").test();
+
+    subscriber.awaitDone(5, TimeUnit.SECONDS).assertComplete().assertValueCount(2);
+    subscriber.values().forEach(track -> assertEquals("Primary", track.getAlbum()));
+    assertFalse(hedge.called.await(2, TimeUnit.SECONDS), "A hedge was sent.");
+    assertEquals(0, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.FIRED_NAME));
+    assertEquals(0, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.WON_NAME));
+  }
+
+  @Test
+  public void testUnavailablePrimaryHedgedAtOnce() {
+    configuration.hedging = true;
+    configuration.hedgeDelay = Duration.ofSeconds(3);
+    primary.failure = Status.UNAVAILABLE;
+    mediaService = createMediaService();
+
+    TestSubscriber<Audio> subscriber = mediaService.doGetAudioTracks("Aja").test();
+
+    subscriber.awaitDone(2, TimeUnit.SECONDS).assertComplete().assertValueCount(2);
+    subscriber.values().forEach(track -> assertEquals("Hedge", track.getAlbum()));
+    assertEquals(1, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.FIRED_NAME));
+    assertEquals(1, getCount(GrpcMediaService.HedgeMetricsDefinitions.Hedges.WON_NAME));
+  }
+
+  @Test
+  public void testOtherPrimaryErrorIsFinal() throws InterruptedException {
+    configuration.hedging = true;
+    primary.failure = Status.INVALID_ARGUMENT;
+    mediaService = createMediaService();
+
+    TestSubscriber<Audio> subscriber = mediaService.doGetAudioTracks("Aja").test();
+
+    subscriber.awaitDone(5, TimeUnit.SECONDS).assertError(
+        throwable -> Status.fromThrowable(throwable).getCode() == Status.Code.INVALID_ARGUMENT);
+    assertFalse(hedge.called.await(1, TimeUnit.SECONDS), "A hedge was sent.");
+  }
+
+  @Test
+  public void testDeadlineExceeded() {
+    configuration.hedging = true;
+    configuration.deadline = Duration.ofMillis(300);
+    primary.delay = Duration.ofSeconds(3);
+    hedge.delay = Duration.ofSeconds(3);
+    mediaService = createMediaService();
+
+    TestSubscriber<Audio> subscriber = mediaService.doGetAudioTracks("Aja").test();
+
+    subscriber.awaitDone(5, TimeUnit.SECONDS).assertError(
+        throwable -> Status.fromThrowable(throwable).getCode() == Status.Code.DEADLINE_EXCEEDED);
+  }
+
+  private GrpcMediaService createMediaService() {
+    GrpcMediaService service = new GrpcMediaService();
+    service.channel = primaryChannel;
+    service.hedgeChannel = hedgeChannel;
+    service.clientConfiguration = configuration;
+    service.metricRegistry = new MetricsRegistryImpl();
+    service.initializeHedging();
+    return service;
+  }
+
+  private long getCount(String counter) {
+    return mediaService.metricRegistry.getCounters()
+        .get(new MetricID(GrpcMediaService.class.getName() + '.' + counter)).getCount();
+  }
+
+  /**
+   * An audio backend answering track lookups with two tracks of an album named after the backend,
+   * after an optional delay, or failing them. A listing streams one track and is then held open
+   * until it is cancelled.
+   */
+  private static class AudioBackend extends AudioGrpc.AudioImplBase {
+
+    private final String album;
+    private final ScheduledExecutorService scheduler;
+    private final CountDownLatch called = new CountDownLatch(1);
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    private volatile Duration delay = Duration.ZERO;
+    private volatile Status failure;
+    private volatile long calledAt;
+
+    AudioBackend(String album, ScheduledExecutorService scheduler) {
+      this.album = album;
+      this.scheduler = scheduler;
+    }
+
+    @Override
+    public void get(Empty request, StreamObserver<AudioProto.GrpcAudio> responseObserver) {
+      ((ServerCallStreamObserver<AudioProto.GrpcAudio>) responseObserver)
+          .setOnCancelHandler(cancelled::countDown);
+      responseObserver.onNext(track(1));
+    }
+
+    @Override
+    public void tracks(AudioProto.TracksRequest request,
+        StreamObserver<AudioProto.GrpcAudio> responseObserver) {
+      calledAt = System.nanoTime();
+      called.countDown();
+      ServerCallStreamObserver<AudioProto.GrpcAudio> serverObserver =
+          (ServerCallStreamObserver<AudioProto.GrpcAudio>) responseObserver;
+      serverObserver.setOnCancelHandler(cancelled::countDown);
+
+      if (failure != null) {
+        responseObserver.onError(failure.asRuntimeException());
+        return;
+      }
+      scheduler.schedule(() -> {
+        if (!serverObserver.isCancelled()) {
+          responseObserver.onNext(track(1));
+          responseObserver.onNext(track(2));
+          responseObserver.onCompleted();
+        }
+      }, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private AudioProto.GrpcAudio track(int trackNumber) {
+      return AudioProto.GrpcAudio.newBuilder().setId(album + trackNumber).setTitle(album)
+          .setAlbum(album).setAlbumArtist("Steely Dan").setTrackNumber(trackNumber).build();
+    }
+  }
+
+  private static class TestConfiguration implements GrpcMediaServiceConfiguration {
+
+    private volatile Duration deadline = Duration.ofSeconds(5);
+    private volatile boolean hedging;
+    private volatile Duration hedgeDelay = Duration.ofMillis(100);
+
+    @Override
+    public Duration getMoviesDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getMovieSearchDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getAudioDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getAudioSearchDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getAudioTracksDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getTelevisionShowsDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getTelevisionShowSearchDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getEpisodesDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getSeriesDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public Duration getSuggestDeadline() {
+      return deadline;
+    }
+
+    @Override
+    public boolean isHedging() {
+      return hedging;
+    }
+
+    @Override
+    public Duration getHedgeDelay() {
+      return hedgeDelay;
+    }
+
+    @Override
+    public String getHedgedStatusCodes() {
+      return "UNAVAILABLE";
+    }
+  }
+}
@@ -23,22 +23,40 @@
 package com.solutechconsulting.media.service.jpa;
 
 import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableSuggestion;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.service.AbstractMediaService;
-import io.reactivex.BackpressureStrategy;
+import com.solutechconsulting.media.service.LookupFilters;
+import com.solutechconsulting.media.service.MediaLibraryChanged;
+import io.reactivex.Emitter;
 import io.reactivex.Flowable;
-import io.reactivex.Observable;
+import io.reactivex.Maybe;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Priority;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Alternative;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.interceptor.Interceptor;
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import javax.transaction.Transactional;
+import org.hibernate.engine.jdbc.internal.JdbcCoordinatorImpl;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +69,8 @@ public class JpaMediaService extends AbstractMediaService {
 
   public static final String SERVICE_NAME = "JpaMediaService";
 
+  private static final Field LAST_QUERY = lastQueryField();
+
   private final Logger logger = LoggerFactory.getLogger(JpaMediaService.class.getName());
 
   @Inject
@@ -62,6 +82,20 @@ public class JpaMediaService extends AbstractMediaService {
     return movieQueryToFlowable("SELECT m FROM MovieEntity m");
   }
 
+  /**
+   * Keyset pagination on the primary key. The identifier is bound as a parameter since it comes
+   * from the client.
+   */
+  @Override
+  @Transactional
+  protected Flowable<Movie> doGetMoviesAfter(String movieId) {
+    if (movieId == null) {
+      return movieQueryToFlowable("SELECT m FROM MovieEntity m ORDER BY m.id", Map.of());
+    }
+    return movieQueryToFlowable("SELECT m FROM MovieEntity m WHERE m.id > :id ORDER BY m.id",
+        Map.of("id", movieId));
+  }
+
   @Override
   @Transactional
   protected Flowable<Movie> doSearchMovies(String movieText) {
@@ -77,21 +111,16 @@ public class JpaMediaService extends AbstractMediaService {
 
   protected Flowable<Movie> movieQueryToFlowable(
       String queryString) {
-    Observable<MovieEntity> observable = Observable.create(emitter -> {
-      try {
-        Stream<MovieEntity> showEntityStream = entityManager.createQuery(queryString,
-            MovieEntity.class).getResultStream();
-        showEntityStream.forEach(emitter::onNext);
-        showEntityStream.close();
-        emitter.onComplete();
-      } catch (Exception e) {
-        logger.error("Error building movie stream.", e);
-        emitter.onError(e);
-      }
-    });
+    return movieQueryToFlowable(queryString, Map.of());
+  }
 
-    return observable.toFlowable(BackpressureStrategy.BUFFER)
-        .map(MovieEntity::getMovie);
+  protected Flowable<Movie> movieQueryToFlowable(
+      String queryString, Map<String, ?> parameters) {
+    return resultStreamToFlowable(() -> {
+      TypedQuery<MovieEntity> query = entityManager.createQuery(queryString, MovieEntity.class);
+      parameters.forEach(query::setParameter);
+      return query.getResultStream();
+    }, "movie").map(MovieEntity::getMovie);
   }
 
   @Override
@@ -100,6 +129,16 @@ public class JpaMediaService extends AbstractMediaService {
     return audioQueryToFlowable("SELECT a FROM AudioEntity a");
   }
 
+  @Override
+  @Transactional
+  protected Flowable<Audio> doGetAudioAfter(String audioId) {
+    if (audioId == null) {
+      return audioQueryToFlowable("SELECT a FROM AudioEntity a ORDER BY a.id", Map.of());
+    }
+    return audioQueryToFlowable("SELECT a FROM AudioEntity a WHERE a.id > :id ORDER BY a.id",
+        Map.of("id", audioId));
+  }
+
   @Override
   @Transactional
   protected Flowable<Audio> doSearchAudio(String audioText) {
@@ -119,32 +158,27 @@ public class JpaMediaService extends AbstractMediaService {
   @Override
   @Transactional
   protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
-    String lcAlbumTitle = albumTitle.toLowerCase();
-    String queryString =
-        "SELECT a FROM AudioEntity a WHERE lower(a.album) = '" + lcAlbumTitle + "'";
+    String queryString = "SELECT a FROM AudioEntity a WHERE lower(trim(a.album)) = :title"
+        + " ORDER BY lower(trim(a.albumArtist)), a.trackNumber";
 
     logger.debug(queryString);
 
-    return audioQueryToFlowable(queryString);
+    return audioQueryToFlowable(queryString,
+        Map.of("title", LookupFilters.normalize(albumTitle)));
   }
 
   protected Flowable<Audio> audioQueryToFlowable(
       String queryString) {
-    Observable<AudioEntity> observable = Observable.create(emitter -> {
-      try {
-        Stream<AudioEntity> showEntityStream = entityManager.createQuery(queryString,
-            AudioEntity.class).getResultStream();
-        showEntityStream.forEach(emitter::onNext);
-        showEntityStream.close();
-        emitter.onComplete();
-      } catch (Exception e) {
-        logger.error("Error building audio stream.", e);
-        emitter.onError(e);
-      }
-    });
+    return audioQueryToFlowable(queryString, Map.of());
+  }
 
-    return observable.toFlowable(BackpressureStrategy.BUFFER)
-        .map(AudioEntity::getAudio);
+  protected Flowable<Audio> audioQueryToFlowable(
+      String queryString, Map<String, ?> parameters) {
+    return resultStreamToFlowable(() -> {
+      TypedQuery<AudioEntity> query = entityManager.createQuery(queryString, AudioEntity.class);
+      parameters.forEach(query::setParameter);
+      return query.getResultStream();
+    }, "audio").map(AudioEntity::getAudio);
   }
 
   @Override
@@ -153,6 +187,17 @@ public class JpaMediaService extends AbstractMediaService {
     return showQueryToFlowable("SELECT s FROM TelevisionShowEntity s");
   }
 
+  @Override
+  @Transactional
+  protected Flowable<TelevisionShow> doGetTelevisionShowsAfter(String showId) {
+    if (showId == null) {
+      return showQueryToFlowable("SELECT s FROM TelevisionShowEntity s ORDER BY s.id", Map.of());
+    }
+    return showQueryToFlowable(
+        "SELECT s FROM TelevisionShowEntity s WHERE s.id > :id ORDER BY s.id",
+        Map.of("id", showId));
+  }
+
   @Override
   @Transactional
   protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
@@ -171,48 +216,239 @@ public class JpaMediaService extends AbstractMediaService {
   @Transactional
   protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
     String queryString =
-        "SELECT s FROM TelevisionShowEntity s WHERE lower(s.seriesTitle) = '" + seriesTitle
-            .toLowerCase()
-            + "' AND s.season = " + season;
+        "SELECT s FROM TelevisionShowEntity s WHERE lower(trim(s.seriesTitle)) = :title"
+            + " AND s.season = :season ORDER BY s.episode";
 
     logger.debug(queryString);
 
-    return showQueryToFlowable(queryString);
+    return showQueryToFlowable(queryString,
+        Map.of("title", LookupFilters.normalize(seriesTitle), "season", season));
   }
 
   @Override
   @Transactional
   protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
     String queryString =
-        "SELECT s FROM TelevisionShowEntity s WHERE lower(s.seriesTitle) = '" + seriesTitle
-            .toLowerCase() + "'";
+        "SELECT s FROM TelevisionShowEntity s WHERE lower(trim(s.seriesTitle)) = :title"
+            + " ORDER BY s.season, s.episode";
 
     logger.debug(queryString);
 
-    return showQueryToFlowable(queryString);
+    return showQueryToFlowable(queryString,
+        Map.of("title", LookupFilters.normalize(seriesTitle)));
   }
 
   protected Flowable<TelevisionShow> showQueryToFlowable(
       String queryString) {
-    Observable<TelevisionShowEntity> observable = Observable.create(emitter -> {
-      try {
-        Stream<TelevisionShowEntity> showEntityStream = entityManager.createQuery(queryString,
-            TelevisionShowEntity.class).getResultStream();
-        showEntityStream.forEach(emitter::onNext);
-        showEntityStream.close();
-        emitter.onComplete();
-      } catch (Exception e) {
-        logger.error("Error building television show stream.", e);
-        emitter.onError(e);
-      }
+    return showQueryToFlowable(queryString, Map.of());
+  }
+
+  protected Flowable<TelevisionShow> showQueryToFlowable(
+      String queryString, Map<String, ?> parameters) {
+    return resultStreamToFlowable(() -> {
+      TypedQuery<TelevisionShowEntity> query =
+          entityManager.createQuery(queryString, TelevisionShowEntity.class);
+      parameters.forEach(query::setParameter);
+      return query.getResultStream();
+    }, "television show").map(TelevisionShowEntity::getTelevisionShow);
+  }
+
+  /**
+   * Suggestions are computed by grouping the title, series title, album and artist columns that
+   * start with the prefix and ordering them by the number of rows having each value.
+   */
+  @Override
+  @Transactional
+  @SuppressWarnings("unchecked")
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    String queryString = "SELECT value, kind, count(*) AS weight FROM ("
+        + "SELECT title AS value, 0 AS kind FROM {h-schema}movies"
+        + " UNION ALL SELECT title, 0 FROM {h-schema}tv_shows"
+        + " UNION ALL SELECT title, 0 FROM {h-schema}audio"
+        + " UNION ALL SELECT series_title, 1 FROM {h-schema}tv_shows"
+        + " UNION ALL SELECT album, 2 FROM {h-schema}audio"
+        + " UNION ALL SELECT album_artist, 3 FROM {h-schema}audio"
+        + " UNION ALL SELECT artist, 3 FROM {h-schema}audio WHERE artist <> album_artist"
+        + ") candidates WHERE lower(value) LIKE ?1"
+        + " GROUP BY value, kind ORDER BY weight DESC, value LIMIT ?2";
+
+    logger.debug(queryString);
+
+    Flowable<Object[]> rows = resultStreamToFlowable(
+        () -> (Stream<Object[]>) entityManager.createNativeQuery(queryString)
+            .setParameter(1, prefixPattern(prefix)).setParameter(2, limit).getResultStream(),
+        "suggestion");
+
+    return rows
+        .map(row -> ImmutableSuggestion.builder().text((String) row[0])
+            .kind(Suggestion.Kind.values()[((Number) row[1]).intValue()])
+            .weight(((Number) row[2]).longValue()).build());
+  }
+
+  /**
+   * Emit the results of a query as they are read from its result stream. A row is only read from
+   * the stream when the subscriber requests one, and the iteration stops as soon as the subscriber
+   * cancels, as it does when a client goes away, rather than reading the remaining rows. The
+   * result stream is closed, releasing the cursor, once it is exhausted or the subscriber cancels.
+   * <p>
+   * The session is only used by the thread reading the rows. A statement still fetching rows when
+   * the subscriber cancels is interrupted with {@link Statement#cancel()}, which JDBC allows from
+   * another thread, on the statement captured when the result stream was opened; the reading
+   * thread then closes the result stream.
+   *
+   * @param resultStream opens the result stream of the query
+   * @param description  the kind of results, for logging
+   * @param <E>          the type of the results
+   * @return the results
+   */
+  protected <E> Flowable<E> resultStreamToFlowable(Supplier<Stream<E>> resultStream,
+      String description) {
+    return Flowable.defer(() -> {
+      JdbcCoordinator jdbcCoordinator =
+          entityManager.unwrap(SharedSessionContractImplementor.class).getJdbcCoordinator();
+      AtomicReference<ResultCursor<E>> opened = new AtomicReference<>();
+      AtomicBoolean cancelled = new AtomicBoolean();
+
+      Flowable<E> rows = Flowable.generate(() -> {
+            Stream<E> stream = resultStream.get();
+            ResultCursor<E> cursor = new ResultCursor<>(stream, lastQuery(jdbcCoordinator));
+            opened.set(cursor);
+            return cursor;
+          }, (ResultCursor<E> cursor, Emitter<E> emitter) -> {
+            try {
+              cursor.fetching = true;
+              if (cursor.iterator.hasNext()) {
+                emitter.onNext(cursor.iterator.next());
+              } else {
+                emitter.onComplete();
+              }
+            } catch (Exception e) {
+              if (cancelled.get()) {
+                logger.debug("The {} stream was cancelled.", description, e);
+                emitter.onComplete();
+              } else {
+                logger.error("Error reading {} stream.", description, e);
+                emitter.onError(e);
+              }
+            } finally {
+              cursor.fetching = false;
+            }
+          }, ResultCursor::close);
+
+      return rows.doOnCancel(() -> {
+        cancelled.set(true);
+        ResultCursor<E> cursor = opened.get();
+        if (cursor != null && cursor.fetching && cursor.statement != null) {
+          cancelStatement(cursor.statement, description);
+        }
+      });
     });
+  }
+
+  private void cancelStatement(Statement statement, String description) {
+    try {
+      statement.cancel();
+      logger.debug("Cancelled the {} query.", description);
+    } catch (SQLException e) {
+      logger.debug("The {} query could not be cancelled.", description, e);
+    }
+  }
+
+  /**
+   * Return the statement the session last executed, which is the statement of a result stream just
+   * opened. Hibernate does not expose it, so it is read from the coordinator's field; null is
+   * returned if it cannot be read, in which case a fetch in progress is not interrupted.
+   */
+  private static Statement lastQuery(JdbcCoordinator jdbcCoordinator) {
+    if (LAST_QUERY == null || !LAST_QUERY.getDeclaringClass().isInstance(jdbcCoordinator)) {
+      return null;
+    }
+    try {
+      return (Statement) LAST_QUERY.get(jdbcCoordinator);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static Field lastQueryField() {
+    try {
+      Field field = JdbcCoordinatorImpl.class.getDeclaredField("lastQuery");
+      field.setAccessible(true);
+      return field;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LoggerFactory.getLogger(JpaMediaService.class.getName())
+          .warn("Result stream queries cannot be cancelled while fetching.", e);
+      return null;
+    }
+  }
 
-    return observable.toFlowable(BackpressureStrategy.BUFFER)
-        .map(TelevisionShowEntity::getTelevisionShow);
+  protected String prefixPattern(String prefix) {
+    return prefix.stripLeading().toLowerCase().replace("\\", "\\\\").replace("%", "\\%")
+        .replace("_", "\\_") + '%';
+  }
+
+  /**
+   * Lookup filters are built from the distinct album and series titles in the database. The
+   * titles are read when the filters are subscribed to, which happens off the request thread.
+   */
+  @Override
+  protected Maybe<LookupFilters> loadLookupFilters() {
+    return Maybe.fromCallable(this::readLookupFilters);
+  }
+
+  /**
+   * Read the lookup filters from the database. If either table is empty, as it is while the
+   * database is being populated, no filters are built.
+   *
+   * @return the lookup filters, or null if none could be built
+   */
+  @Transactional
+  protected LookupFilters readLookupFilters() {
+    List<String> albumTitles = entityManager
+        .createQuery("SELECT DISTINCT lower(a.album) FROM AudioEntity a", String.class)
+        .getResultList();
+    List<String> seriesTitles = entityManager
+        .createQuery("SELECT DISTINCT lower(s.seriesTitle) FROM TelevisionShowEntity s",
+            String.class).getResultList();
+
+    logger.debug("Loaded {} album titles and {} series titles for the lookup filters.",
+        albumTitles.size(), seriesTitles.size());
+
+    if (albumTitles.isEmpty() || seriesTitles.isEmpty()) {
+      return null;
+    }
+
+    return LookupFilters.of(albumTitles, seriesTitles);
+  }
+
+  void onLibraryChanged(@Observes MediaLibraryChanged event) {
+    invalidateLookupFilters();
   }
 
   @Override
   protected String getMetricsPrefix() {
     return JpaMediaService.class.getName();
   }
+
+  /**
+   * The state of a query being emitted: its open result stream, the position in it, and its
+   * statement, which may be cancelled from another thread while a row is being fetched.
+   */
+  private static final class ResultCursor<E> {
+
+    private final Stream<E> stream;
+    private final Iterator<E> iterator;
+    private final Statement statement;
+    private volatile boolean fetching;
+
+    ResultCursor(Stream<E> stream, Statement statement) {
+      this.stream = stream;
+      this.iterator = stream.iterator();
+      this.statement = statement;
+    }
+
+    void close() {
+      stream.close();
+    }
+  }
 }
@@ -22,25 +22,63 @@
 
 package com.solutechconsulting.media.service.mock.basic;
 
+import com.solutechconsulting.media.catalog.AlbumIndex;
+import com.solutechconsulting.media.catalog.CatalogSnapshot;
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.catalog.MediaCatalogConfiguration;
+import com.solutechconsulting.media.catalog.SeriesIndex;
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.sample.AudioLoader;
 import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.ParallelLoading;
+import com.solutechconsulting.media.sample.SampleDefinitions;
 import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import com.solutechconsulting.media.search.MediaSearchConfiguration;
+import com.solutechconsulting.media.search.MediaSearchIndex;
+import com.solutechconsulting.media.search.MediaSuggester;
 import com.solutechconsulting.media.service.AbstractMediaService;
 import io.reactivex.Flowable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Priority;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Alternative;
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.interceptor.Interceptor;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
 
 /**
  * A simple implementation of the {@link com.solutechconsulting.media.service.MediaService}
  * interface to be used in unit and some integration testing.
+ * <p>
+ * Series, episode and album track lookups are answered from a {@link SeriesIndex} and an {@link
+ * AlbumIndex} built when the service is created, rather than by filtering the sample data on each
+ * request. The catalogue's lookup filters are installed so that lookups of titles that are not in
+ * the sample data return without touching the indexes. Ranked searches are answered from a {@link
+ * MediaSearchIndex}, and suggestions from a {@link MediaSuggester}, both built at the same time.
+ * <p>
+ * When {@link MediaCatalogConfiguration#getSnapshotFile()} names an existing {@link
+ * CatalogSnapshot}, the catalogue is opened from the snapshot instead of the sample data, and every
+ * request is answered from it, so the sample data is never parsed. Otherwise the sample data can be
+ * parsed in parallel when the catalogue is built, as configured by {@link
+ * MockMediaServiceConfiguration#getSampleLoading()}.
+ * <p>
+ * The library can be replaced by a larger one, such as one made by the sample generator, either
+ * from the CSV files in {@link MockMediaServiceConfiguration#getSampleDirectory()} or directly with
+ * {@link #load(Flowable, Flowable, Flowable)}. Every request is then answered from the catalogue.
  */
 @ApplicationScoped
 @Alternative
@@ -50,13 +88,127 @@ public class MockMediaService extends AbstractMediaService {
 
   public static final String SERVICE_NAME = "MockMediaService";
 
+  @Inject
+  MockMediaServiceConfiguration configuration;
+
+  @Inject
+  MediaCatalogConfiguration catalogConfiguration;
+
+  @Inject
+  MediaSearchConfiguration searchConfiguration;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  private volatile MediaCatalog catalog;
+  private volatile boolean catalogOnly;
+  private volatile MediaSuggester suggester;
+  private MediaSearchIndex searchIndex;
+
+  @PostConstruct
+  void loadIndexes() {
+    try {
+      searchIndex = MediaSearchIndex.create(searchConfiguration, SERVICE_NAME);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // Open the configured snapshot if it exists, otherwise load the sample data
+    Optional<Path> snapshot =
+        catalogConfiguration.getSnapshotFile().map(Paths::get).filter(Files::exists);
+    Optional<Path> sampleDirectory = configuration.getSampleDirectory().map(Paths::get);
+    try {
+      install(snapshot.isPresent() ? CatalogSnapshot.open(snapshot.get())
+              : loadSampleData(sampleDirectory),
+          snapshot.isPresent() || sampleDirectory.isPresent());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    MediaSuggester.registerMetrics(metricRegistry, getMetricsPrefix(), () -> suggester);
+  }
+
+  @PreDestroy
+  public void cleanup() throws IOException {
+    if (searchIndex != null) {
+      searchIndex.close();
+    }
+  }
+
+
+  /**
+   * Replace the media library with the given items, such as a catalogue made by the sample
+   * generator, without writing them to files first. Every request is then answered from the
+   * items.
+   *
+   * @param movies the movies
+   * @param audio the audio tracks
+   * @param televisionShows the television shows
+   */
+  public void load(Flowable<Movie> movies, Flowable<Audio> audio,
+      Flowable<TelevisionShow> televisionShows) {
+    install(MediaCatalog.of(movies.toList().blockingGet(), audio.toList().blockingGet(),
+        televisionShows.toList().blockingGet(), catalogConfiguration.getStorage()), true);
+  }
+
+  private void install(MediaCatalog loaded, boolean catalogOnly) {
+    try {
+      searchIndex.update(loaded);
+      suggester = MediaSuggester.of(loaded);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    catalog = loaded;
+    this.catalogOnly = catalogOnly;
+    setLookupFilters(loaded.getLookupFilters());
+  }
+
+  private MediaCatalog loadSampleData(Optional<Path> directory) {
+    MovieLoader movieLoader = directory
+        .map(path -> new MovieLoader(path.resolve(SampleDefinitions.Movies.FILE_NAME)))
+        .orElseGet(MovieLoader::new);
+    AudioLoader audioLoader = directory
+        .map(path -> new AudioLoader(path.resolve(SampleDefinitions.Audio.FILE_NAME)))
+        .orElseGet(AudioLoader::new);
+    TelevisionShowLoader showLoader = directory.map(path -> new TelevisionShowLoader(
+        path.resolve(SampleDefinitions.TelevisionShow.FILE_NAME)))
+        .orElseGet(TelevisionShowLoader::new);
+
+    ParallelLoading parallelLoading;
+    switch (configuration.getSampleLoading()) {
+      case PARALLEL:
+        parallelLoading = ParallelLoading.ordered();
+        break;
+      case PARALLEL_UNORDERED:
+        parallelLoading = ParallelLoading.unordered();
+        break;
+      default:
+        return MediaCatalog.of(movieLoader.loadMovies().toList().blockingGet(),
+            audioLoader.loadAudio().toList().blockingGet(),
+            showLoader.loadTelevisionShows().toList().blockingGet(),
+            catalogConfiguration.getStorage());
+    }
+
+    parallelLoading = parallelLoading.withChunkSize(configuration.getChunkSize());
+    return MediaCatalog.of(movieLoader.loadMovies(parallelLoading).toList().blockingGet(),
+        audioLoader.loadAudio(parallelLoading).toList().blockingGet(),
+        showLoader.loadTelevisionShows(parallelLoading).toList().blockingGet(),
+        catalogConfiguration.getStorage());
+  }
+
   @Override
   protected Flowable<Movie> doGetMovies() {
-    return new MovieLoader().loadMovies();
+    return catalogOnly ? catalog.getMovies() : new MovieLoader().loadMovies();
   }
 
   @Override
   protected Flowable<Movie> doSearchMovies(String movieText) {
+    if (catalogOnly) {
+      return catalog.searchMovies(movieText);
+    }
+
     return new MovieLoader().loadMovies().filter(movie -> {
       List<String> fields = new ArrayList<>();
       fields.add(movie.getTagline());
@@ -66,21 +218,27 @@ public class MockMediaService extends AbstractMediaService {
     });
   }
 
+  @Override
+  protected Flowable<Movie> doRankedSearchMovies(String movieText, int limit) {
+    return Flowable.defer(() -> Flowable.fromIterable(searchIndex.searchMovies(movieText, limit)));
+  }
+
   @Override
   protected Flowable<Audio> doGetAudio() {
-    return new AudioLoader().loadAudio();
+    return catalogOnly ? catalog.getAudio() : new AudioLoader().loadAudio();
   }
 
   @Override
   protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
-    String lcAlbumTitle = albumTitle.toLowerCase();
-
-    return new AudioLoader().loadAudio()
-        .filter(audio -> audio.getAlbum().equalsIgnoreCase(lcAlbumTitle));
+    return catalog.getAudioTracks(albumTitle);
   }
 
   @Override
   protected Flowable<Audio> doSearchAudio(String audioText) {
+    if (catalogOnly) {
+      return catalog.searchAudio(audioText);
+    }
+
     return new AudioLoader().loadAudio().filter(audio -> {
       List<String> fields = new ArrayList<>();
       fields.add(audio.getTitle());
@@ -91,13 +249,23 @@ public class MockMediaService extends AbstractMediaService {
     });
   }
 
+  @Override
+  protected Flowable<Audio> doRankedSearchAudio(String audioText, int limit) {
+    return Flowable.defer(() -> Flowable.fromIterable(searchIndex.searchAudio(audioText, limit)));
+  }
+
   @Override
   protected Flowable<TelevisionShow> doGetTelevisionShows() {
-    return new TelevisionShowLoader().loadTelevisionShows();
+    return catalogOnly ? catalog.getTelevisionShows()
+        : new TelevisionShowLoader().loadTelevisionShows();
   }
 
   @Override
   protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
+    if (catalogOnly) {
+      return catalog.searchTelevisionShows(showText);
+    }
+
     return new TelevisionShowLoader().loadTelevisionShows().filter(show -> {
       List<String> fields = new ArrayList<>();
       fields.add(show.getTitle());
@@ -107,16 +275,25 @@ public class MockMediaService extends AbstractMediaService {
     });
   }
 
+  @Override
+  protected Flowable<TelevisionShow> doRankedSearchTelevisionShows(String showText, int limit) {
+    return Flowable.defer(
+        () -> Flowable.fromIterable(searchIndex.searchTelevisionShows(showText, limit)));
+  }
+
   @Override
   protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
-    return new TelevisionShowLoader().loadTelevisionShows().filter(
-        show -> show.getSeason() == season && show.getSeriesTitle().equalsIgnoreCase(seriesTitle));
+    return catalog.getEpisodes(seriesTitle, season);
   }
 
   @Override
   protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
-    return new TelevisionShowLoader().loadTelevisionShows().filter(
-        show -> show.getSeriesTitle().equalsIgnoreCase(seriesTitle));
+    return catalog.getSeries(seriesTitle);
+  }
+
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    return Flowable.defer(() -> Flowable.fromIterable(suggester.suggest(prefix, limit)));
   }
 
   @Override
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.mock.basic;
+
+import com.solutechconsulting.media.sample.ParallelLoading;
+import io.quarkus.arc.config.ConfigProperties;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.mock")
+public interface MockMediaServiceConfiguration {
+
+  /**
+   * How the sample data is parsed when the catalogue is built. Parallel loading splits each file
+   * into chunks parsed on the common fork-join pool; {@link SampleLoading#PARALLEL_UNORDERED} also
+   * lets the catalogue hold the items in the order the chunks finish rather than the file order.
+   *
+   * @return the sample loading mode
+   */
+  @ConfigProperty(defaultValue = "SEQUENTIAL")
+  SampleLoading getSampleLoading();
+
+  /**
+   * The approximate size in bytes of the chunks the sample files are split into when they are
+   * loaded in parallel.
+   *
+   * @return the chunk size
+   */
+  @ConfigProperty(defaultValue = "" + ParallelLoading.DEFAULT_CHUNK_SIZE)
+  int getChunkSize();
+
+  /**
+   * A directory of CSV files in the format of the bundled sample data, with the same file names,
+   * such as one written by the sample generator. When it is set, the catalogue is built from these
+   * files instead of the bundled sample data.
+   *
+   * @return the sample directory
+   */
+  Optional<String> getSampleDirectory();
+
+  enum SampleLoading {
+    SEQUENTIAL, PARALLEL, PARALLEL_UNORDERED
+  }
+}
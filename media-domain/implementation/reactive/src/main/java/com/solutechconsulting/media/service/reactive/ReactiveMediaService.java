@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.reactive;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableAudio;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.ImmutableSuggestion;
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.service.AbstractMediaService;
+import com.solutechconsulting.media.service.LookupFilters;
+import com.solutechconsulting.media.service.MediaLibraryChanged;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Transaction;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Alternative;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.interceptor.Interceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking {@link com.solutechconsulting.media.service.MediaService} implementation built on
+ * the Vert.x reactive PostgreSQL client. Each query is executed through a server-side cursor inside
+ * its own transaction. Rows are fetched from the cursor in batches of {@link
+ * ReactiveMediaServiceConfiguration#getFetchSize()} only as the subscriber requests them, so no
+ * thread is held while a stream is in flight and a slow consumer does not cause the result set to
+ * be buffered in memory.
+ * <p>
+ * The service reads the same tables as the JPA implementation. Durations are stored in seconds,
+ * as written by the database-init module.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(Interceptor.Priority.APPLICATION)
+@Named(ReactiveMediaService.SERVICE_NAME)
+public class ReactiveMediaService extends AbstractMediaService {
+
+  public static final String SERVICE_NAME = "ReactiveMediaService";
+
+  private final Logger logger = LoggerFactory.getLogger(ReactiveMediaService.class.getName());
+
+  @Inject
+  PgPool client;
+
+  @Inject
+  ReactiveMediaServiceConfiguration serviceConfiguration;
+
+  @Override
+  protected Flowable<Movie> doGetMovies() {
+    return queryToFlowable("SELECT * FROM " + table(Tables.MOVIES), Tuple.tuple(),
+        this::toMovie, "movie");
+  }
+
+  /**
+   * Keyset pagination on the primary key, so a resumed stream reads only the rows it has not
+   * already sent.
+   */
+  @Override
+  protected Flowable<Movie> doGetMoviesAfter(String movieId) {
+    if (movieId == null) {
+      return queryToFlowable("SELECT * FROM " + table(Tables.MOVIES) + " ORDER BY id",
+          Tuple.tuple(), this::toMovie, "movie");
+    }
+    return queryToFlowable("SELECT * FROM " + table(Tables.MOVIES) + " WHERE id > $1 ORDER BY id",
+        Tuple.of(movieId), this::toMovie, "movie");
+  }
+
+  @Override
+  protected Flowable<Movie> doSearchMovies(String movieText) {
+    String queryString = "SELECT * FROM " + table(Tables.MOVIES)
+        + " WHERE lower(title) LIKE $1 OR lower(tagline) LIKE $1 OR lower(summary) LIKE $1";
+
+    return queryToFlowable(queryString, Tuple.of(likePattern(movieText)), this::toMovie, "movie");
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudio() {
+    return queryToFlowable("SELECT * FROM " + table(Tables.AUDIO), Tuple.tuple(), this::toAudio,
+        "audio");
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudioAfter(String audioId) {
+    if (audioId == null) {
+      return queryToFlowable("SELECT * FROM " + table(Tables.AUDIO) + " ORDER BY id",
+          Tuple.tuple(), this::toAudio, "audio");
+    }
+    return queryToFlowable("SELECT * FROM " + table(Tables.AUDIO) + " WHERE id > $1 ORDER BY id",
+        Tuple.of(audioId), this::toAudio, "audio");
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
+    String queryString = "SELECT * FROM " + table(Tables.AUDIO)
+        + " WHERE lower(trim(album)) = $1 ORDER BY lower(trim(album_artist)), track_number";
+
+    return queryToFlowable(queryString, Tuple.of(LookupFilters.normalize(albumTitle)),
+        this::toAudio, "audio");
+  }
+
+  @Override
+  protected Flowable<Audio> doSearchAudio(String audioText) {
+    String queryString = "SELECT * FROM " + table(Tables.AUDIO)
+        + " WHERE lower(title) LIKE $1 OR lower(album) LIKE $1 OR lower(album_artist) LIKE $1"
+        + " OR lower(artist) LIKE $1";
+
+    return queryToFlowable(queryString, Tuple.of(likePattern(audioText)), this::toAudio, "audio");
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetTelevisionShows() {
+    return queryToFlowable("SELECT * FROM " + table(Tables.TELEVISION_SHOWS), Tuple.tuple(),
+        this::toTelevisionShow, "television show");
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetTelevisionShowsAfter(String showId) {
+    if (showId == null) {
+      return queryToFlowable("SELECT * FROM " + table(Tables.TELEVISION_SHOWS) + " ORDER BY id",
+          Tuple.tuple(), this::toTelevisionShow, "television show");
+    }
+    String queryString =
+        "SELECT * FROM " + table(Tables.TELEVISION_SHOWS) + " WHERE id > $1 ORDER BY id";
+
+    return queryToFlowable(queryString, Tuple.of(showId), this::toTelevisionShow,
+        "television show");
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
+    String queryString = "SELECT * FROM " + table(Tables.TELEVISION_SHOWS)
+        + " WHERE lower(title) LIKE $1 OR lower(series_title) LIKE $1 OR lower(summary) LIKE $1";
+
+    return queryToFlowable(queryString, Tuple.of(likePattern(showText)), this::toTelevisionShow,
+        "television show");
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
+    String queryString = "SELECT * FROM " + table(Tables.TELEVISION_SHOWS)
+        + " WHERE lower(trim(series_title)) = $1 AND season = $2 ORDER BY episode";
+
+    return queryToFlowable(queryString, Tuple.of(LookupFilters.normalize(seriesTitle), season),
+        this::toTelevisionShow, "television show");
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
+    String queryString = "SELECT * FROM " + table(Tables.TELEVISION_SHOWS)
+        + " WHERE lower(trim(series_title)) = $1 ORDER BY season, episode";
+
+    return queryToFlowable(queryString, Tuple.of(LookupFilters.normalize(seriesTitle)),
+        this::toTelevisionShow, "television show");
+  }
+
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    String queryString = "SELECT value, kind, count(*) AS weight FROM ("
+        + "SELECT title AS value, 0 AS kind FROM " + table(Tables.MOVIES)
+        + " UNION ALL SELECT title, 0 FROM " + table(Tables.TELEVISION_SHOWS)
+        + " UNION ALL SELECT title, 0 FROM " + table(Tables.AUDIO)
+        + " UNION ALL SELECT series_title, 1 FROM " + table(Tables.TELEVISION_SHOWS)
+        + " UNION ALL SELECT album, 2 FROM " + table(Tables.AUDIO)
+        + " UNION ALL SELECT album_artist, 3 FROM " + table(Tables.AUDIO)
+        + " UNION ALL SELECT artist, 3 FROM " + table(Tables.AUDIO)
+        + " WHERE artist <> album_artist) candidates WHERE lower(value) LIKE $1"
+        + " GROUP BY value, kind ORDER BY weight DESC, value LIMIT $2";
+
+    return queryToFlowable(queryString, Tuple.of(prefixPattern(prefix), limit),
+        this::toSuggestion, "suggestion");
+  }
+
+  /**
+   * Lookup filters are built from the distinct album and series titles in the database. If either
+   * table is empty, as it is while the database is being populated, no filters are built.
+   */
+  @Override
+  protected Maybe<LookupFilters> loadLookupFilters() {
+    Single<List<String>> albumTitles =
+        queryToFlowable("SELECT DISTINCT lower(album) AS title FROM " + table(Tables.AUDIO),
+            Tuple.tuple(), row -> row.getString("title"), "album title").toList();
+    Single<List<String>> seriesTitles = queryToFlowable(
+        "SELECT DISTINCT lower(series_title) AS title FROM " + table(Tables.TELEVISION_SHOWS),
+        Tuple.tuple(), row -> row.getString("title"), "series title").toList();
+
+    return Single.zip(albumTitles, seriesTitles, (albums, series) -> {
+      logger.debug("Loaded {} album titles and {} series titles for the lookup filters.",
+          albums.size(), series.size());
+      return albums.isEmpty() || series.isEmpty() ? Optional.<LookupFilters>empty()
+          : Optional.of(LookupFilters.of(albums, series));
+    }).flatMapMaybe(filters -> filters.map(Maybe::just).orElseGet(Maybe::empty));
+  }
+
+  void onLibraryChanged(@Observes MediaLibraryChanged event) {
+    invalidateLookupFilters();
+  }
+
+  @Override
+  protected String getMetricsPrefix() {
+    return ReactiveMediaService.class.getName();
+  }
+
+  /**
+   * Execute a query through a cursor and expose the rows as a {@link Flowable}. Nothing is sent to
+   * the database until the flowable is subscribed. The cursor transaction is committed on
+   * completion and rolled back on failure or cancellation; in every case the connection is returned
+   * to the pool.
+   *
+   * @param queryString the SQL query using positional ($n) parameters
+   * @param arguments   the query parameters
+   * @param mapper      maps a result row to a domain object
+   * @param description the media type description used in log messages
+   * @param <T>         the domain type emitted
+   * @return a back-pressure capable stream of the mapped rows
+   */
+  protected <T> Flowable<T> queryToFlowable(String queryString, Tuple arguments,
+      Function<Row, T> mapper, String description) {
+    logger.debug(queryString);
+
+    Multi<T> multi = client.getConnection().toMulti()
+        .concatMap(connection -> Multi.createFrom()
+            .resource(() -> new CursorContext(connection), context -> context.transaction
+                .prepare(queryString).toMulti()
+                .concatMap(statement -> statement
+                    .createStream(serviceConfiguration.getFetchSize(), arguments).toMulti()))
+            .withFinalizer(CursorContext::commit, (context, throwable) -> context.rollback(),
+                CursorContext::rollback))
+        .map(mapper)
+        .onFailure().invoke(
+            throwable -> logger.error("Error building " + description + " stream.", throwable));
+
+    return Flowable.fromPublisher(multi);
+  }
+
+  protected Movie toMovie(Row row) {
+    return ImmutableMovie.builder().id(row.getString("id")).title(row.getString("title"))
+        .studio(row.getString("studio")).contentRating(row.getString("content_rating"))
+        .year(Optional.ofNullable(row.getInteger("year")))
+        .criticsRating(Optional.ofNullable(row.getDouble("critics_rating")))
+        .audienceRating(Optional.ofNullable(row.getDouble("audience_rating")))
+        .summary(row.getString("summary")).genres(row.getString("genres"))
+        .tagline(row.getString("tagline")).directors(row.getString("directors"))
+        .roles(row.getString("roles"))
+        .releaseDate(Optional.ofNullable(row.getLocalDate("released")))
+        .duration(toDuration(row.getLong("duration"))).build();
+  }
+
+  protected Audio toAudio(Row row) {
+    return ImmutableAudio.builder().id(row.getString("id")).title(row.getString("title"))
+        .albumArtist(row.getString("album_artist")).album(row.getString("album"))
+        .artist(Optional.ofNullable(row.getString("artist")))
+        .trackNumber(Optional.ofNullable(row.getInteger("track_number")).orElse(0))
+        .year(Optional.ofNullable(row.getInteger("year")))
+        .duration(toDuration(row.getLong("duration"))).build();
+  }
+
+  protected TelevisionShow toTelevisionShow(Row row) {
+    return ImmutableTelevisionShow.builder().id(row.getString("id"))
+        .title(row.getString("title")).seriesTitle(row.getString("series_title"))
+        .season(Optional.ofNullable(row.getInteger("season")).orElse(0))
+        .episode(Optional.ofNullable(row.getInteger("episode")).orElse(0))
+        .contentRating(row.getString("content_rating")).summary(row.getString("summary"))
+        .studio(row.getString("studio")).directors(row.getString("directors"))
+        .writers(row.getString("writers"))
+        .year(Optional.ofNullable(row.getInteger("year")))
+        .rating(Optional.ofNullable(row.getDouble("rating")))
+        .originallyAired(Optional.ofNullable(row.getLocalDate("originally_aired")))
+        .duration(toDuration(row.getLong("duration"))).build();
+  }
+
+  protected Suggestion toSuggestion(Row row) {
+    return ImmutableSuggestion.builder().text(row.getString("value"))
+        .kind(Suggestion.Kind.values()[row.getInteger("kind")]).weight(row.getLong("weight"))
+        .build();
+  }
+
+  protected Duration toDuration(Long seconds) {
+    return seconds == null ? Duration.ZERO : Duration.ofSeconds(seconds);
+  }
+
+  protected String table(String table) {
+    return serviceConfiguration.getSchema() + '.' + table;
+  }
+
+  protected String likePattern(String text) {
+    return '%' + text.toLowerCase() + '%';
+  }
+
+  protected String prefixPattern(String prefix) {
+    return prefix.stripLeading().toLowerCase().replace("\\", "\\\\").replace("%", "\\%")
+        .replace("_", "\\_") + '%';
+  }
+
+  /**
+   * PostgreSQL only keeps a cursor open for the life of a transaction. This holds the connection
+   * and the transaction a cursor runs in so both can be released together.
+   */
+  protected static final class CursorContext {
+
+    private final SqlConnection connection;
+    private final Transaction transaction;
+
+    CursorContext(SqlConnection connection) {
+      this.connection = connection;
+      this.transaction = connection.begin();
+    }
+
+    Uni<Void> commit() {
+      return transaction.commit().eventually(connection::close);
+    }
+
+    Uni<Void> rollback() {
+      return transaction.rollback().eventually(connection::close);
+    }
+  }
+
+  protected static final class Tables {
+
+    public static final String MOVIES = "movies";
+    public static final String AUDIO = "audio";
+    public static final String TELEVISION_SHOWS = "tv_shows";
+
+    private Tables() {
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.reactive;
+
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.quarkus.runtime.Startup;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the media tables and loads the sample data into the test database before any tests are
+ * executed.
+ */
+@Startup
+@ApplicationScoped
+public class ReactiveSampleDatabaseLoader {
+
+  private final Logger logger = LoggerFactory.getLogger(
+      ReactiveSampleDatabaseLoader.class.getName());
+
+  @Inject
+  PgPool client;
+
+  @Inject
+  ReactiveMediaServiceConfiguration serviceConfiguration;
+
+  @PostConstruct
+  public void loadDatabase() {
+    String schema = serviceConfiguration.getSchema();
+
+    logger.info("Creating tables...");
+    client.query("CREATE SCHEMA IF NOT EXISTS " + schema).executeAndAwait();
+    client.query("CREATE TABLE IF NOT EXISTS " + schema + ".movies (id varchar(255) PRIMARY KEY,"
+        + " title varchar(255), audience_rating double precision, content_rating varchar(255),"
+        + " critics_rating double precision, directors varchar(255), duration bigint,"
+        + " genres varchar(255), released date, roles varchar(255), studio varchar(255),"
+        + " summary varchar(2048), tagline varchar(255), year integer)").executeAndAwait();
+    client.query("CREATE TABLE IF NOT EXISTS " + schema + ".audio (id varchar(255) PRIMARY KEY,"
+        + " title varchar(255), album varchar(255), album_artist varchar(255),"
+        + " artist varchar(255), duration bigint, track_number integer, year integer)")
+        .executeAndAwait();
+    client.query("CREATE INDEX IF NOT EXISTS audio_album_idx ON " + schema
+        + ".audio (lower(trim(album)), lower(trim(album_artist)), track_number)")
+        .executeAndAwait();
+    client.query("CREATE TABLE IF NOT EXISTS " + schema + ".tv_shows (id varchar(255) PRIMARY KEY,"
+        + " title varchar(255), content_rating varchar(255), directors varchar(255),"
+        + " duration bigint, episode integer, originally_aired date, rating double precision,"
+        + " season integer, series_title varchar(255), studio varchar(255),"
+        + " summary varchar(8192), writers varchar(255), year integer)").executeAndAwait();
+    client.query("CREATE INDEX IF NOT EXISTS tv_shows_series_idx ON " + schema
+        + ".tv_shows (lower(trim(series_title)), season, episode)").executeAndAwait();
+
+    logger.info("Loading movies...");
+    List<Tuple> movies = new MovieLoader().loadMovies().map(movie -> Tuple.tuple()
+        .addValue(movie.getId()).addValue(movie.getTitle())
+        .addValue(movie.getAudienceRating().orElse(null)).addValue(movie.getContentRating())
+        .addValue(movie.getCriticsRating().orElse(null)).addValue(movie.getDirectors())
+        .addValue(movie.getDuration().toSeconds()).addValue(movie.getGenres())
+        .addValue(movie.getReleaseDate().orElse(null)).addValue(movie.getRoles())
+        .addValue(movie.getStudio()).addValue(movie.getSummary()).addValue(movie.getTagline())
+        .addValue(movie.getYear().orElse(null))).toList().blockingGet();
+    client.preparedQuery("INSERT INTO " + schema + ".movies (id, title, audience_rating,"
+        + " content_rating, critics_rating, directors, duration, genres, released, roles, studio,"
+        + " summary, tagline, year) VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12,"
+        + " $13, $14)").executeBatchAndAwait(movies);
+
+    logger.info("Loading audio...");
+    List<Tuple> audio = new AudioLoader().loadAudio().map(track -> Tuple.tuple()
+        .addValue(track.getId()).addValue(track.getTitle()).addValue(track.getAlbum())
+        .addValue(track.getAlbumArtist()).addValue(track.getArtist().orElse(null))
+        .addValue(track.getDuration().toSeconds()).addValue(track.getTrackNumber())
+        .addValue(track.getYear().orElse(null))).toList().blockingGet();
+    client.preparedQuery("INSERT INTO " + schema + ".audio (id, title, album, album_artist,"
+        + " artist, duration, track_number, year) VALUES ($1, $2, $3, $4, $5, $6, $7, $8)")
+        .executeBatchAndAwait(audio);
+
+    logger.info("Loading television shows...");
+    List<Tuple> shows = new TelevisionShowLoader().loadTelevisionShows().map(show -> Tuple.tuple()
+        .addValue(show.getId()).addValue(show.getTitle()).addValue(show.getContentRating())
+        .addValue(show.getDirectors()).addValue(show.getDuration().toSeconds())
+        .addValue(show.getEpisode()).addValue(show.getOriginallyAired().orElse(null))
+        .addValue(show.getRating().orElse(null)).addValue(show.getSeason())
+        .addValue(show.getSeriesTitle()).addValue(show.getStudio()).addValue(show.getSummary())
+        .addValue(show.getWriters()).addValue(show.getYear().orElse(null))).toList()
+        .blockingGet();
+    client.preparedQuery("INSERT INTO " + schema + ".tv_shows (id, title, content_rating,"
+        + " directors, duration, episode, originally_aired, rating, season, series_title, studio,"
+        + " summary, writers, year) VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12,"
+        + " $13, $14)").executeBatchAndAwait(shows);
+
+    logger.info("Sample data loaded.");
+  }
+}
@@ -23,16 +23,27 @@
 package com.solutechconsulting.media.service.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.solutechconsulting.media.encoding.MediaEncoding;
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.Media;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.service.AbstractMediaService;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Priority;
@@ -43,7 +54,10 @@ import javax.inject.Named;
 import javax.interceptor.Interceptor;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestFilter;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.sse.SseEventSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,6 +88,8 @@ public class RestMediaService extends AbstractMediaService {
   private WebTarget searchShowsTarget;
   private WebTarget seriesTarget;
   private WebTarget episodesTarget;
+  private WebTarget suggestTarget;
+  private MediaEncoding encoding;
 
   @Inject
   RestMediaServiceUrlConfiguration serviceUrlConfiguration;
@@ -98,13 +114,19 @@ public class RestMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<Movie> doGetMovies() {
-    return getStreamResult(getMoviesTarget, new TypeReference<>() {
+    return getResult(getMoviesTarget, new TypeReference<>() {
+    });
+  }
+
+  @Override
+  protected Flowable<Movie> doGetMoviesAfter(String movieId) {
+    return getStreamResult(getMoviesTarget, movieId, new TypeReference<>() {
     });
   }
 
   @Override
   protected Flowable<Movie> doSearchMovies(String movieText) {
-    return getStreamResult(
+    return getResult(
         searchMoviesTarget.resolveTemplate(Parameters.Common.SEARCH_TEXT, movieText),
         new TypeReference<>() {
         });
@@ -112,20 +134,26 @@ public class RestMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<Audio> doGetAudio() {
-    return getStreamResult(getAudioTarget, new TypeReference<>() {
+    return getResult(getAudioTarget, new TypeReference<>() {
+    });
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudioAfter(String audioId) {
+    return getStreamResult(getAudioTarget, audioId, new TypeReference<>() {
     });
   }
 
   @Override
   protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
-    return getStreamResult(tracksTarget.resolveTemplate(Parameters.Audio.ALBUM_TITLE, albumTitle),
+    return getResult(tracksTarget.resolveTemplate(Parameters.Audio.ALBUM_TITLE, albumTitle),
         new TypeReference<>() {
         });
   }
 
   @Override
   protected Flowable<Audio> doSearchAudio(String audioText) {
-    return getStreamResult(
+    return getResult(
         searchAudioTarget.resolveTemplate(Parameters.Common.SEARCH_TEXT, audioText),
         new TypeReference<>() {
         });
@@ -133,14 +161,20 @@ public class RestMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<TelevisionShow> doGetTelevisionShows() {
-    return getStreamResult(getShowsTarget, new TypeReference<>() {
+    return getResult(getShowsTarget, new TypeReference<>() {
     });
 
   }
 
+  @Override
+  protected Flowable<TelevisionShow> doGetTelevisionShowsAfter(String showId) {
+    return getStreamResult(getShowsTarget, showId, new TypeReference<>() {
+    });
+  }
+
   @Override
   protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
-    return getStreamResult(
+    return getResult(
         searchShowsTarget.resolveTemplate(Parameters.Common.SEARCH_TEXT, showText),
         new TypeReference<>() {
         });
@@ -148,7 +182,7 @@ public class RestMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
-    return getStreamResult(
+    return getResult(
         episodesTarget.resolveTemplate(Parameters.Shows.SERIES_TITLE, seriesTitle).resolveTemplate(
             Parameters.Shows.SEASON, season), new TypeReference<>() {
         });
@@ -156,34 +190,144 @@ public class RestMediaService extends AbstractMediaService {
 
   @Override
   protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
-    return getStreamResult(
+    return getResult(
         seriesTarget.resolveTemplate(Parameters.Shows.SERIES_TITLE, seriesTitle),
         new TypeReference<>() {
         });
   }
 
+  /**
+   * Suggestions are short, bounded lists requested as a user types, so they are retrieved with a
+   * single JSON request rather than an event stream.
+   */
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    WebTarget target = suggestTarget.resolveTemplate(Parameters.Suggest.PREFIX, prefix)
+        .queryParam(Parameters.Suggest.LIMIT, limit);
+
+    return Flowable.fromCallable(() -> {
+      String json = target.request(MediaType.APPLICATION_JSON_TYPE).get(String.class);
+      return objectMapper.readValue(json, new TypeReference<List<Suggestion>>() {
+      });
+    }).flatMapIterable(suggestions -> suggestions).subscribeOn(Schedulers.io());
+  }
+
   @Override
   protected String getMetricsPrefix() {
     return RestMediaService.class.getName();
   }
 
-  protected <T extends Media> Flowable<T> getStreamResult(WebTarget target,
+  /**
+   * Read the media items of a stream target. When an encoding is configured, the items are instead
+   * read in that encoding from the synchronous resource corresponding to the stream.
+   *
+   * @param target        the stream target
+   * @param typeReference the type of the media items
+   * @param <T>           the type of the media items
+   * @return the media items
+   */
+  protected <T extends Media> Flowable<T> getResult(WebTarget target,
+      TypeReference<T> typeReference) {
+    if (encoding != null) {
+      return getEncodedResult(target, typeReference);
+    }
+    return getStreamResult(target, null, typeReference);
+  }
+
+  /**
+   * Read the media items of the synchronous resource corresponding to a stream target in the
+   * configured encoding. Items are decoded as the response arrives, rather than once it has been
+   * read in full.
+   *
+   * @param target        the stream target
+   * @param typeReference the type of the media items
+   * @param <T>           the type of the media items
+   * @return the media items
+   */
+  protected <T extends Media> Flowable<T> getEncodedResult(WebTarget target,
+      TypeReference<T> typeReference) {
+    @SuppressWarnings("unchecked")
+    Class<T> type =
+        (Class<T>) objectMapper.getTypeFactory().constructType(typeReference).getRawClass();
+    String streamUri = target.getUri().toString();
+    WebTarget resourceTarget = client.target(
+        getMediaPath().append(streamUri.substring(getMediaStreamPath().length())).toString());
+
+    return Flowable.using(
+        () -> resourceTarget.request(encoding.getMediaType()).get(InputStream.class),
+        in -> {
+          Iterator<T> media = encoding.read(in, type);
+          return Flowable.fromIterable(() -> media);
+        }, InputStream::close)
+        .doOnError(throwable -> logger.error("Error reading encoded media.", throwable))
+        .subscribeOn(Schedulers.io());
+  }
+
+  /**
+   * Read the server-sent events of a media stream. When a batch size is configured, the server is
+   * asked to send the items in batches and each event's data is read as a JSON array of items.
+   * <p>
+   * Should the connection drop before the end of the stream, the event source reconnects after the
+   * configured delay and sends the id of the last event received as its {@code Last-Event-ID}, so
+   * the server resumes the stream rather than starting over.
+   *
+   * @param target        the stream target
+   * @param lastEventId   the id of the event after which the stream starts, or {@code null} to
+   *                      start at the beginning
+   * @param typeReference the type of the media items
+   * @param <T>           the type of the media items
+   * @return the media items
+   */
+  protected <T extends Media> Flowable<T> getStreamResult(WebTarget target, String lastEventId,
       TypeReference<T> typeReference) {
-    SseEventSource eventSource = SseEventSource.target(target).build();
+    int batchSize = serviceStreamConfiguration.getBatchSize();
+    WebTarget streamTarget = target;
+    if (batchSize > 0) {
+      streamTarget = streamTarget.queryParam(Parameters.Stream.BATCH_SIZE, batchSize);
+      Optional<Duration> batchTime = serviceStreamConfiguration.getBatchTime();
+      if (batchTime.isPresent()) {
+        streamTarget = streamTarget.queryParam(Parameters.Stream.BATCH_MILLIS,
+            batchTime.get().toMillis());
+      }
+    }
+    JavaType batchType = objectMapper.getTypeFactory().constructCollectionType(List.class,
+        objectMapper.getTypeFactory().constructType(typeReference));
+
+    if (lastEventId != null) {
+      // Registering a filter configures the target it is registered on, so it gets a target of its
+      // own. The event source sends its own Last-Event-ID once it has received an event.
+      streamTarget = client.target(streamTarget.getUri()).register(
+          (ClientRequestFilter) requestContext -> requestContext.getHeaders()
+              .putIfAbsent(HttpHeaders.LAST_EVENT_ID_HEADER, List.of(lastEventId)));
+    }
+
+    SseEventSource eventSource = SseEventSource.target(streamTarget)
+        .reconnectingEvery(serviceStreamConfiguration.getReconnectDelay().toMillis(),
+            TimeUnit.MILLISECONDS).build();
     Observable<T> observable = Observable.create(emitter -> {
+      emitter.setCancellable(eventSource::close);
       eventSource.register(sseEvent -> {
         if (sseEvent.getId().equals(serviceStreamConfiguration.getEndOfStreamMarker())) {
           eventSource.close();
           emitter.onComplete();
         } else {
           try {
-            emitter.onNext(objectMapper.readValue(sseEvent.readData(), typeReference));
+            if (batchSize > 0) {
+              List<T> batch = objectMapper.readValue(sseEvent.readData(), batchType);
+              batch.forEach(emitter::onNext);
+            } else {
+              emitter.onNext(objectMapper.readValue(sseEvent.readData(), typeReference));
+            }
           } catch (IOException e) {
             logger.error("Error processing event stream.", e);
             eventSource.close();
             emitter.onError(e);
           }
         }
+      }, throwable -> {
+        logger.error("Error reading event stream.", throwable);
+        eventSource.close();
+        emitter.onError(throwable);
       });
       eventSource.open();
     });
@@ -191,11 +335,14 @@ public class RestMediaService extends AbstractMediaService {
     return observable.toFlowable(BackpressureStrategy.BUFFER);
   }
 
-  protected StringBuilder getMediaStreamPath() {
+  protected StringBuilder getMediaPath() {
     return new StringBuilder().append(serviceUrlConfiguration.getProtocol()).append("://").append(
         serviceUrlConfiguration.getHost()).append(':').append(
-        serviceUrlConfiguration.getPort()).append(serviceCommonConfiguration.getMediaRoot()).append(
-        serviceCommonConfiguration.getStream());
+        serviceUrlConfiguration.getPort()).append(serviceCommonConfiguration.getMediaRoot());
+  }
+
+  protected StringBuilder getMediaStreamPath() {
+    return getMediaPath().append(serviceCommonConfiguration.getStream());
   }
 
   protected String getMoviesStreamPath() {
@@ -252,9 +399,19 @@ public class RestMediaService extends AbstractMediaService {
             '}').append("/{").append(Parameters.Shows.SEASON).append('}').toString();
   }
 
+  protected String suggestPath() {
+    return new StringBuilder().append(serviceUrlConfiguration.getProtocol()).append("://").append(
+        serviceUrlConfiguration.getHost()).append(':').append(
+        serviceUrlConfiguration.getPort()).append(serviceCommonConfiguration.getMediaRoot()).append(
+        serviceCommonConfiguration.getSuggest()).append("/{").append(Parameters.Suggest.PREFIX)
+        .append('}').toString();
+  }
+
   @PostConstruct
   protected void buildWebTargets() {
     client = ClientBuilder.newClient();
+    encoding = serviceStreamConfiguration.getEncoding()
+        .map(name -> MediaEncoding.valueOf(name.toUpperCase(Locale.ROOT))).orElse(null);
 
     getMoviesTarget = client.target(getMoviesStreamPath());
     searchMoviesTarget = client.target(searchMoviesStreamPath());
@@ -265,6 +422,7 @@ public class RestMediaService extends AbstractMediaService {
     searchShowsTarget = client.target(searchShowsStreamPath());
     seriesTarget = client.target(seriesStreamPath());
     episodesTarget = client.target(episodesStreamPath());
+    suggestTarget = client.target(suggestPath());
   }
 
   @PreDestroy
@@ -303,6 +461,24 @@ public class RestMediaService extends AbstractMediaService {
       }
     }
 
+    public static final class Stream {
+
+      public static final String BATCH_SIZE = "batchSize";
+      public static final String BATCH_MILLIS = "batchMillis";
+
+      private Stream() {
+      }
+    }
+
+    public static final class Suggest {
+
+      public static final String PREFIX = "prefix";
+      public static final String LIMIT = "limit";
+
+      private Suggest() {
+      }
+    }
+
     private Parameters() {
     }
   }
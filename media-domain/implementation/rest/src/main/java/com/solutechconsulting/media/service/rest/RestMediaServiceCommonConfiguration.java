@@ -37,4 +37,7 @@ public interface RestMediaServiceCommonConfiguration {
 
   @ConfigProperty(defaultValue = "/search")
   String getSearch();
+
+  @ConfigProperty(defaultValue = "/suggest")
+  String getSuggest();
 }
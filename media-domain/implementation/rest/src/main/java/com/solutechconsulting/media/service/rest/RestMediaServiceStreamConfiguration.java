@@ -23,6 +23,8 @@
 package com.solutechconsulting.media.service.rest;
 
 import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import java.util.Optional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ConfigProperties(prefix = "mediaservice.rest.stream")
@@ -34,4 +36,41 @@ public interface RestMediaServiceStreamConfiguration {
 
   @ConfigProperty(name = "error", defaultValue = "ERROR_MARKER")
   String getErrorMarker();
+
+  /**
+   * The maximum number of media items the server is asked to send in each event, as a JSON array.
+   * Zero, the default, has the server send each item as its own event.
+   *
+   * @return the batch size
+   */
+  @ConfigProperty(name = "batch-size", defaultValue = "0")
+  int getBatchSize();
+
+  /**
+   * How long the server lets a batch wait to fill before sending it. When absent, the server's
+   * default applies.
+   *
+   * @return the batch time
+   */
+  @ConfigProperty(name = "batch-time")
+  Optional<Duration> getBatchTime();
+
+  /**
+   * How long to wait before reconnecting when the connection to the server drops part way through
+   * a stream. The stream resumes after the last event received.
+   *
+   * @return the reconnect delay
+   */
+  @ConfigProperty(name = "reconnect-delay", defaultValue = "PT0.5S")
+  Duration getReconnectDelay();
+
+  /**
+   * The encoding, {@code protobuf}, {@code smile}, {@code cbor} or {@code json}, in which media
+   * lists are read from the server's synchronous resources. When absent, the default, lists are
+   * read from the event streams. Resumed streams are always read from the event streams.
+   *
+   * @return the encoding
+   */
+  @ConfigProperty(name = "encoding")
+  Optional<String> getEncoding();
 }
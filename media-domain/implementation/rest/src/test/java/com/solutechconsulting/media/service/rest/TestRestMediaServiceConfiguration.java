@@ -25,6 +25,8 @@ package com.solutechconsulting.media.service.rest;
 import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Optional;
 import javax.inject.Inject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -62,6 +64,7 @@ public class TestRestMediaServiceConfiguration {
     assertEquals("/media", serviceCommonConfiguration.getMediaRoot());
     assertEquals("/sch", serviceCommonConfiguration.getSearch());
     assertEquals("/stream", serviceCommonConfiguration.getStream());
+    assertEquals("/suggest", serviceCommonConfiguration.getSuggest());
   }
 
   @Test
@@ -85,5 +88,7 @@ public class TestRestMediaServiceConfiguration {
   public void testStreamConfiguration() {
     assertEquals("EOS", serviceStreamConfiguration.getEndOfStreamMarker());
     assertEquals("ERROR_MARKER", serviceStreamConfiguration.getErrorMarker());
+    assertEquals(25, serviceStreamConfiguration.getBatchSize());
+    assertEquals(Optional.of(Duration.ofMillis(50)), serviceStreamConfiguration.getBatchTime());
   }
 }
@@ -25,50 +25,102 @@ package com.solutechconsulting.media.sample;
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.ImmutableAudio;
 import io.reactivex.Flowable;
-import org.apache.commons.csv.CSVFormat;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.file.Path;
+import java.util.function.Function;
 
 import static com.solutechconsulting.media.sample.SampleDefinitions.Audio.Columns.*;
 
 /**
- * Loads audio data from a resource-based CSV file into {@link Audio} domain models.
+ * Loads audio data from a resource-based or file-based CSV file into {@link Audio} domain models.
+ * The file is streamed a record at a time with a {@link CsvReader}, or parsed in parallel chunks,
+ * and read once for each subscription.
  */
 public class AudioLoader {
 
+  private final CsvLoading.Source source;
+
+  /**
+   * Create a loader for the bundled sample data.
+   */
+  public AudioLoader() {
+    source = CsvLoading.Source.resource(SampleDefinitions.Audio.SAMPLE_RESOURCE);
+  }
+
+  /**
+   * Create a loader for a CSV file in the same format as the bundled sample data, such as a file
+   * written by the sample generator.
+   *
+   * @param file the CSV file
+   */
+  public AudioLoader(Path file) {
+    source = CsvLoading.Source.file(file);
+  }
+
   public Flowable<Audio> loadAudio() {
-    try {
-      Reader audioReader =
-          new InputStreamReader(
-              getClass().getResourceAsStream(SampleDefinitions.Audio.SAMPLE_RESOURCE));
-      return Flowable.fromIterable(CSVFormat.EXCEL.withFirstRecordAsHeader().parse(audioReader))
-          .map(record -> {
-            ImmutableAudio.Builder audioBuilder = ImmutableAudio.builder();
-
-            audioBuilder.id(record.get(MEDIA_ID)).title(record.get(TITLE)).albumArtist(
-                record.get(ALBUM_ARTIST)).album(
-                record.get(ALBUM)).trackNumber(Integer.parseInt(record.get(TRACK_NUMBER)));
-
-            String csvYear = record.get(YEAR);
-            if (csvYear != null && !csvYear.isEmpty() && !csvYear.equals("N/A")) {
-              audioBuilder.year(Integer.parseInt(csvYear));
-            }
-
-            String csvAlbumArtist = record.get(ALBUM_ARTIST);
-            String csvArtist = record.get(ARTIST);
-            if (csvArtist != null && !csvArtist.equals("N/A") && !csvArtist
-                .equals(csvAlbumArtist)) {
-              audioBuilder.artist(csvArtist);
-            }
-
-            audioBuilder.duration(SampleDefinitions.getDuration(record.get(DURATION)));
-
-            return audioBuilder.build();
-          });
-    } catch (IOException e) {
-      return Flowable.error(e);
+    return CsvLoading.load(source, AudioLoader::mapping);
+  }
+
+  /**
+   * Load the file in parallel chunks.
+   *
+   * @param parallelLoading the parallel loading options
+   * @return the items, in the order of the file if the options are ordered
+   */
+  public Flowable<Audio> loadAudio(ParallelLoading parallelLoading) {
+    return CsvLoading.load(source, parallelLoading, AudioLoader::mapping);
+  }
+
+  private static Function<CsvReader, Audio> mapping(CsvReader header) {
+    ColumnIndexes columns = new ColumnIndexes(header);
+    return reader -> toAudio(reader, columns);
+  }
+
+  private static Audio toAudio(CsvReader reader, ColumnIndexes columns) {
+    ImmutableAudio.Builder audioBuilder = ImmutableAudio.builder();
+
+    String albumArtist = reader.get(columns.albumArtist);
+    audioBuilder.id(reader.get(columns.mediaId)).title(reader.get(columns.title))
+        .albumArtist(albumArtist).album(reader.get(columns.album))
+        .trackNumber(reader.getInt(columns.trackNumber));
+
+    if (!reader.isMissing(columns.year)) {
+      audioBuilder.year(reader.getInt(columns.year));
+    }
+
+    if (!reader.contentEquals(columns.artist, CsvReader.NOT_AVAILABLE) && !reader
+        .contentEquals(columns.artist, albumArtist)) {
+      audioBuilder.artist(reader.get(columns.artist));
+    }
+
+    audioBuilder.duration(reader.getDuration(columns.duration));
+
+    return audioBuilder.build();
+  }
+
+  /**
+   * The indexes of the columns read, resolved once from the header.
+   */
+  private static final class ColumnIndexes {
+
+    final int mediaId;
+    final int title;
+    final int albumArtist;
+    final int album;
+    final int trackNumber;
+    final int year;
+    final int artist;
+    final int duration;
+
+    ColumnIndexes(CsvReader reader) {
+      mediaId = reader.column(MEDIA_ID);
+      title = reader.column(TITLE);
+      albumArtist = reader.column(ALBUM_ARTIST);
+      album = reader.column(ALBUM);
+      trackNumber = reader.column(TRACK_NUMBER);
+      year = reader.column(YEAR);
+      artist = reader.column(ARTIST);
+      duration = reader.column(DURATION);
     }
   }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Streams the items of a CSV class path resource or file, either sequentially or in parallel
+ * chunks. The loaders supply a mapping function that resolves its columns from the header and
+ * returns the function mapping each record to an item.
+ */
+final class CsvLoading {
+
+  private static final Logger logger = LoggerFactory.getLogger(CsvLoading.class);
+
+  private CsvLoading() {
+  }
+
+  static <T> Flowable<T> load(Source source,
+      Function<CsvReader, Function<CsvReader, T>> mapping) {
+    return Flowable.using(
+        source::open,
+        reader -> {
+          Function<CsvReader, T> mapper = mapping.apply(reader);
+          return Flowable.<T>generate(emitter -> {
+            if (reader.next()) {
+              emitter.onNext(mapper.apply(reader));
+            } else {
+              emitter.onComplete();
+            }
+          });
+        },
+        CsvReader::close);
+  }
+
+  /**
+   * Split the file into chunks of whole records as it is read and parse the chunks on the
+   * configured pool. Chunks are only read as the parsing asks for them, at most twice as many as
+   * the pool has threads ahead of the subscriber, so the file is never held in memory as a whole
+   * and only the chunks in flight and their items are.
+   */
+  static <T> Flowable<T> load(Source source, ParallelLoading options,
+      Function<CsvReader, Function<CsvReader, T>> mapping) {
+    return Flowable.using(
+        () -> new ChunkReader(source.stream()),
+        chunks -> {
+          long started = System.nanoTime();
+          Chunk headerChunk = chunks.next(0);
+          if (headerChunk == null) {
+            throw new IOException("No header in " + source);
+          }
+          CsvReader header = new CsvReader(headerChunk.reader());
+          Function<CsvReader, T> mapper = mapping.apply(header);
+
+          Queue<ParallelLoading.ChunkReport> reports = new ConcurrentLinkedQueue<>();
+          Scheduler scheduler = Schedulers.from(options.getPool());
+          Function<Chunk, Single<List<T>>> parse = chunk -> Single.fromCallable(() -> {
+            long parseStarted = System.nanoTime();
+            List<T> items = new ArrayList<>();
+            try (CsvReader reader = header.chunk(chunk.reader())) {
+              while (reader.next()) {
+                items.add(mapper.apply(reader));
+              }
+            }
+            reports.add(new ParallelLoading.ChunkReport(chunk.index, chunk.offset, chunk.length,
+                items.size(), Duration.ofNanos(System.nanoTime() - parseStarted)));
+            return items;
+          }).subscribeOn(scheduler);
+
+          Flowable<Chunk> body = Flowable.generate(emitter -> {
+            Chunk chunk = chunks.next(options.getChunkSize());
+            if (chunk != null) {
+              emitter.onNext(chunk);
+            } else {
+              emitter.onComplete();
+            }
+          });
+          int maxConcurrency = Math.max(2 * options.getPool().getParallelism(), 1);
+          Flowable<List<T>> parsed = options.isOrdered()
+              ? body.concatMapEager(chunk -> parse.apply(chunk).toFlowable(), maxConcurrency, 1)
+              : body.flatMapSingle(parse::apply, false, maxConcurrency);
+
+          return parsed.<T>flatMapIterable(items -> items).doOnComplete(() -> {
+            List<ParallelLoading.ChunkReport> chunkReports = new ArrayList<>(reports);
+            chunkReports.sort(Comparator.comparingInt(ParallelLoading.ChunkReport::getIndex));
+            ParallelLoading.Report report = new ParallelLoading.Report(source.toString(),
+                chunkReports, Duration.ofNanos(System.nanoTime() - started));
+            logger.info("Loaded {}", report);
+            if (logger.isDebugEnabled()) {
+              chunkReports.forEach(chunk -> logger.debug("Loaded {} of {}", chunk, source));
+            }
+            options.getReportListener().accept(report);
+          });
+        },
+        ChunkReader::close);
+  }
+
+  /**
+   * Reads a CSV stream a chunk of whole records at a time. The quotes of each chunk are counted
+   * from its start, which is always the start of a record, so that a line break inside a quoted
+   * field is not taken for the end of a record. Neither a quote nor a line feed is ever part of a
+   * multi-byte UTF-8 character, so the data can be scanned a byte at a time.
+   */
+  static final class ChunkReader implements Closeable {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final InputStream stream;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int blockStart;
+    private int blockEnd;
+    private long offset;
+    private int index = -1;
+
+    ChunkReader(InputStream stream) {
+      this.stream = stream;
+    }
+
+    /**
+     * Read the records up to and including the one reaching the given size.
+     *
+     * @param size the number of bytes the chunk must reach
+     * @return the chunk, or null at the end of the stream
+     * @throws IOException if the stream can't be read
+     */
+    Chunk next(int size) throws IOException {
+      byte[] data = new byte[Math.min(size, 16 * BLOCK_SIZE) + BLOCK_SIZE / 16];
+      int length = 0;
+      boolean quoted = false;
+      boolean ended = false;
+      while (!ended) {
+        if (blockStart == blockEnd) {
+          int read = stream.read(block);
+          if (read < 0) {
+            break;
+          }
+          blockStart = 0;
+          blockEnd = read;
+        }
+        int end = blockEnd;
+        for (int i = blockStart; i < blockEnd; i++) {
+          byte b = block[i];
+          if (b == '"') {
+            quoted = !quoted;
+          } else if (b == '\n' && !quoted && length + i - blockStart + 1 >= size) {
+            end = i + 1;
+            ended = true;
+            break;
+          }
+        }
+        int count = end - blockStart;
+        if (length + count > data.length) {
+          data = Arrays.copyOf(data, Math.max(length + count, 2 * data.length));
+        }
+        System.arraycopy(block, blockStart, data, length, count);
+        length += count;
+        blockStart = end;
+      }
+      if (length == 0) {
+        return null;
+      }
+      Chunk chunk = new Chunk(index++, offset, data, length);
+      offset += length;
+      return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+      stream.close();
+    }
+  }
+
+  /**
+   * The bytes of one or more whole records and their place in the file. The header is chunk -1.
+   */
+  static final class Chunk {
+
+    final int index;
+    final long offset;
+    final byte[] data;
+    final int length;
+
+    Chunk(int index, long offset, byte[] data, int length) {
+      this.index = index;
+      this.offset = offset;
+      this.data = data;
+      this.length = length;
+    }
+
+    InputStreamReader reader() {
+      return new InputStreamReader(new ByteArrayInputStream(data, 0, length),
+          StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+      return new String(data, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * A CSV class path resource or file.
+   */
+  static final class Source {
+
+    private final String resource;
+    private final Path file;
+
+    private Source(String resource, Path file) {
+      this.resource = resource;
+      this.file = file;
+    }
+
+    static Source resource(String resource) {
+      return new Source(resource, null);
+    }
+
+    static Source file(Path file) {
+      return new Source(null, file);
+    }
+
+    CsvReader open() throws IOException {
+      return file != null ? CsvReader.open(file) : CsvReader.open(resource);
+    }
+
+    InputStream stream() throws IOException {
+      if (file != null) {
+        return Files.newInputStream(file);
+      }
+      InputStream stream = CsvLoading.class.getResourceAsStream(resource);
+      if (stream == null) {
+        throw new IOException("Resource not found: " + resource);
+      }
+      return stream;
+    }
+
+    @Override
+    public String toString() {
+      return file != null ? file.toString() : resource;
+    }
+  }
+}
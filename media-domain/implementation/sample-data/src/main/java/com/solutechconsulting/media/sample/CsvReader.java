@@ -0,0 +1,411 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads CSV records in the format exported for the sample data, which is the Excel dialect: comma
+ * separated fields, optionally enclosed in double quotes, with a double quote inside a quoted field
+ * written twice. The first record is the header.
+ * <p>
+ * The reader is built for throughput. Input is read a block at a time into a buffer, and the
+ * fields of the current record are unescaped into a single character array that is reused from
+ * record to record. Columns are resolved to an index once with {@link #column(String)}, and the
+ * typed getters parse numbers, dates and durations straight from the characters of the field, so
+ * only the fields read as strings are ever materialized as {@link String}s. A field that does not
+ * fit the fast path, such as a number in exponent form, is handed to the JDK parser instead, so
+ * the results are the same as parsing the field's string.
+ */
+public final class CsvReader implements Closeable {
+
+  /**
+   * The text exported for a value that is not available.
+   */
+  public static final String NOT_AVAILABLE = "N/A";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6
+  };
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+
+  private char[] record = new char[1024];
+  private int[] starts = new int[32];
+  private int[] ends = new int[32];
+  private int fields;
+
+  private final Map<String, Integer> header;
+
+  /**
+   * Create a reader over the given characters and read the header record.
+   *
+   * @param reader the source of the CSV text
+   * @throws IOException if the header can't be read
+   */
+  public CsvReader(Reader reader) throws IOException {
+    this.reader = reader;
+    this.header = new HashMap<>();
+    if (next()) {
+      for (int column = 0; column < fields; column++) {
+        header.putIfAbsent(get(column), column);
+      }
+    }
+  }
+
+  private CsvReader(Reader reader, Map<String, Integer> header) {
+    this.reader = reader;
+    this.header = header;
+  }
+
+  /**
+   * Create a reader over a run of records split from the same file as this reader. The run has no
+   * header of its own, so its columns are those of this reader's header.
+   *
+   * @param reader the source of the records
+   * @return a reader positioned before the first record of the run
+   */
+  public CsvReader chunk(Reader reader) {
+    return new CsvReader(reader, header);
+  }
+
+  /**
+   * Open a UTF-8 encoded CSV class path resource.
+   *
+   * @param resource the absolute resource name
+   * @return a reader positioned after the header
+   * @throws IOException if the resource doesn't exist or its header can't be read
+   */
+  public static CsvReader open(String resource) throws IOException {
+    InputStream stream = CsvReader.class.getResourceAsStream(resource);
+    if (stream == null) {
+      throw new IOException("Resource not found: " + resource);
+    }
+    return new CsvReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Open a UTF-8 encoded CSV file.
+   *
+   * @param file the file
+   * @return a reader positioned after the header
+   * @throws IOException if the file can't be opened or its header can't be read
+   */
+  public static CsvReader open(Path file) throws IOException {
+    return new CsvReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Resolve the index of a column from its header name. Resolve each column once, before reading
+   * the records, and use the index with the getters.
+   *
+   * @param name the column name in the header
+   * @return the column index
+   * @throws IllegalArgumentException if there is no column with the name
+   */
+  public int column(String name) {
+    Integer column = header.get(name);
+    if (column == null) {
+      throw new IllegalArgumentException(
+          String.format("Mapping for %s not found, expected one of %s", name, header.keySet()));
+    }
+    return column;
+  }
+
+  /**
+   * Advance to the next record. Blank lines are skipped.
+   *
+   * @return {@code true} if there is a record, {@code false} at the end of the input
+   * @throws IOException if the input can't be read
+   */
+  public boolean next() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      c = read();
+    }
+    if (c < 0) {
+      fields = 0;
+      return false;
+    }
+
+    int length = 0;
+    fields = 0;
+    while (true) {
+      if (fields == starts.length) {
+        starts = Arrays.copyOf(starts, fields * 2);
+        ends = Arrays.copyOf(ends, fields * 2);
+      }
+      starts[fields] = length;
+      boolean quoted = c == '"';
+      if (quoted) {
+        c = read();
+      }
+      while (c >= 0) {
+        if (quoted) {
+          if (c == '"') {
+            c = read();
+            if (c != '"') {
+              quoted = false;
+              continue;
+            }
+          }
+        } else if (c == ',' || c == '\n' || c == '\r') {
+          break;
+        }
+        if (length == record.length) {
+          record = Arrays.copyOf(record, length * 2);
+        }
+        record[length++] = (char) c;
+        c = read();
+      }
+      ends[fields++] = length;
+      if (c != ',') {
+        return true;
+      }
+      c = read();
+    }
+  }
+
+  /**
+   * Return the number of fields in the current record.
+   *
+   * @return the field count
+   */
+  public int size() {
+    return fields;
+  }
+
+  /**
+   * Return a field of the current record as a string.
+   *
+   * @param column the column index
+   * @return the unescaped field
+   */
+  public String get(int column) {
+    checkColumn(column);
+    return new String(record, starts[column], ends[column] - starts[column]);
+  }
+
+  /**
+   * Determine whether a field of the current record has no value, meaning it is empty or holds
+   * {@value #NOT_AVAILABLE}.
+   *
+   * @param column the column index
+   * @return {@code true} if the field has no value
+   */
+  public boolean isMissing(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    int length = ends[column] - start;
+    return length == 0 || length == 3 && record[start] == 'N' && record[start + 1] == '/'
+        && record[start + 2] == 'A';
+  }
+
+  /**
+   * Determine whether a field of the current record holds the given text.
+   *
+   * @param column the column index
+   * @param text the text to compare with
+   * @return {@code true} if the field equals the text
+   */
+  public boolean contentEquals(int column, String text) {
+    checkColumn(column);
+    int start = starts[column];
+    if (ends[column] - start != text.length()) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      if (record[start + i] != text.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse a field of the current record as an {@code int}.
+   *
+   * @param column the column index
+   * @return the value
+   * @throws NumberFormatException if the field isn't an {@code int}
+   */
+  public int getInt(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    int end = ends[column];
+    boolean negative = end > start && record[start] == '-';
+    int first = negative || end > start && record[start] == '+' ? start + 1 : start;
+    // Nine digits can't overflow an int
+    if (first < end && end - first <= 9) {
+      int value = digits(first, end);
+      if (value >= 0) {
+        return negative ? -value : value;
+      }
+    }
+    return Integer.parseInt(get(column));
+  }
+
+  /**
+   * Parse a field of the current record as a {@code double}.
+   *
+   * @param column the column index
+   * @return the value
+   * @throws NumberFormatException if the field isn't a {@code double}
+   */
+  public double getDouble(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    int end = ends[column];
+    boolean negative = end > start && record[start] == '-';
+    int first = negative || end > start && record[start] == '+' ? start + 1 : start;
+    int point = first;
+    while (point < end && record[point] != '.') {
+      point++;
+    }
+    int fraction = Math.max(end - point - 1, 0);
+    // With at most nine integer and six fraction digits the mantissa and the power of ten are
+    // both exact, so a single division rounds correctly, just as the JDK parser does
+    if ((point > first || fraction > 0) && point - first <= 9 && fraction < POWERS_OF_TEN.length) {
+      long integer = point > first ? digits(first, point) : 0;
+      long decimals = fraction > 0 ? digits(point + 1, end) : 0;
+      if (integer >= 0 && decimals >= 0) {
+        double value = (integer * (long) POWERS_OF_TEN[fraction] + decimals)
+            / POWERS_OF_TEN[fraction];
+        return negative ? -value : value;
+      }
+    }
+    return Double.parseDouble(get(column));
+  }
+
+  /**
+   * Parse a field of the current record as an ISO-8601 local date, such as {@code 2007-12-03}.
+   *
+   * @param column the column index
+   * @return the date
+   * @throws java.time.DateTimeException if the field isn't a date
+   */
+  public LocalDate getDate(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    if (ends[column] - start == 10 && record[start + 4] == '-' && record[start + 7] == '-') {
+      int year = digits(start, start + 4);
+      int month = digits(start + 5, start + 7);
+      int day = digits(start + 8, start + 10);
+      if (year >= 0 && month >= 0 && day >= 0) {
+        return LocalDate.of(year, month, day);
+      }
+    }
+    return LocalDate.parse(get(column));
+  }
+
+  /**
+   * Parse a field of the current record as a duration in {@code h:mm:ss} form. A field with no
+   * value is a zero duration, as it is for {@link SampleDefinitions#getDuration(String)}.
+   *
+   * @param column the column index
+   * @return the duration
+   */
+  public Duration getDuration(int column) {
+    if (isMissing(column)) {
+      return Duration.ZERO;
+    }
+    int start = starts[column];
+    int end = ends[column];
+    int firstColon = start;
+    while (firstColon < end && record[firstColon] != ':') {
+      firstColon++;
+    }
+    int secondColon = firstColon + 1;
+    while (secondColon < end && record[secondColon] != ':') {
+      secondColon++;
+    }
+    if (firstColon > start && firstColon - start <= 9 && secondColon - firstColon - 1 == 2
+        && end - secondColon - 1 == 2) {
+      int hours = digits(start, firstColon);
+      int minutes = digits(firstColon + 1, secondColon);
+      int seconds = digits(secondColon + 1, end);
+      if (hours >= 0 && minutes >= 0 && seconds >= 0) {
+        return Duration.ofSeconds(hours * 3600L + minutes * 60L + seconds);
+      }
+    }
+    return SampleDefinitions.getDuration(get(column));
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Parse a run of at most nine decimal digits.
+   *
+   * @return the value, or -1 if there is a character that isn't a digit
+   */
+  private int digits(int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      int digit = record[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private void checkColumn(int column) {
+    if (column < 0 || column >= fields) {
+      throw new IllegalArgumentException(
+          String.format("Index %d is out of range, the record has %d values", column, fields));
+    }
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++];
+  }
+}
@@ -25,66 +25,122 @@ package com.solutechconsulting.media.sample;
 import com.solutechconsulting.media.model.ImmutableMovie;
 import com.solutechconsulting.media.model.Movie;
 import io.reactivex.Flowable;
-import org.apache.commons.csv.CSVFormat;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.time.LocalDate;
+import java.nio.file.Path;
+import java.util.function.Function;
 
 import static com.solutechconsulting.media.sample.SampleDefinitions.Movies.Columns.*;
 
 /**
- * Loads movie data from a resource-based CSV file into {@link Movie} domain models.
+ * Loads movie data from a resource-based or file-based CSV file into {@link Movie} domain models.
+ * The file is streamed a record at a time with a {@link CsvReader}, or parsed in parallel chunks,
+ * and read once for each subscription.
  */
 public class MovieLoader {
 
+  private final CsvLoading.Source source;
+
+  /**
+   * Create a loader for the bundled sample data.
+   */
+  public MovieLoader() {
+    source = CsvLoading.Source.resource(SampleDefinitions.Movies.SAMPLE_RESOURCE);
+  }
+
+  /**
+   * Create a loader for a CSV file in the same format as the bundled sample data, such as a file
+   * written by the sample generator.
+   *
+   * @param file the CSV file
+   */
+  public MovieLoader(Path file) {
+    source = CsvLoading.Source.file(file);
+  }
+
   public Flowable<Movie> loadMovies() {
-    try {
-      Reader movieReader =
-          new InputStreamReader(
-              getClass().getResourceAsStream(SampleDefinitions.Movies.SAMPLE_RESOURCE));
-      return Flowable.fromIterable(CSVFormat.EXCEL.withFirstRecordAsHeader().parse(movieReader))
-          .map(record -> {
-            ImmutableMovie.Builder movieBuilder = ImmutableMovie.builder();
-
-            movieBuilder.id(record.get(MEDIA_ID)).title(record.get(TITLE))
-                .studio(record.get(STUDIO)).contentRating(
-                record.get(CONTENT_RATING)).summary(
-                record.get(SUMMARY)).genres(
-                record.get(GENRES)).tagline(record.get(TAGLINE)).directors(record.get(DIRECTORS))
-                .roles(
-                    record.get(ROLES));
-
-            String csvYear = record.get(YEAR);
-            if (csvYear != null && !csvYear.isEmpty() && !csvYear.equals("N/A")) {
-              movieBuilder.year(Integer.parseInt(csvYear));
-            }
-
-            String csvCriticsRating = record.get(RATING);
-            if (csvCriticsRating != null && !csvCriticsRating.isEmpty() && !csvCriticsRating
-                .equals("N/A")) {
-              movieBuilder.criticsRating(Double.parseDouble(csvCriticsRating));
-            }
-
-            String csvAudienceRating = record.get(AUDIENCE);
-            if (csvAudienceRating != null && !csvAudienceRating.isEmpty() && !csvAudienceRating
-                .equals("N/A")) {
-              movieBuilder.audienceRating(Double.parseDouble(csvAudienceRating));
-            }
-
-            String csvReleaseDate = record.get(RELEASE_DATE);
-            if (csvReleaseDate != null && !csvReleaseDate.isEmpty() && !csvReleaseDate
-                .equals("N/A")) {
-              movieBuilder.releaseDate(LocalDate.parse(csvReleaseDate));
-            }
-
-            movieBuilder.duration(SampleDefinitions.getDuration(record.get(DURATION)));
-
-            return movieBuilder.build();
-          });
-    } catch (IOException e) {
-      return Flowable.error(e);
+    return CsvLoading.load(source, MovieLoader::mapping);
+  }
+
+  /**
+   * Load the file in parallel chunks.
+   *
+   * @param parallelLoading the parallel loading options
+   * @return the items, in the order of the file if the options are ordered
+   */
+  public Flowable<Movie> loadMovies(ParallelLoading parallelLoading) {
+    return CsvLoading.load(source, parallelLoading, MovieLoader::mapping);
+  }
+
+  private static Function<CsvReader, Movie> mapping(CsvReader header) {
+    ColumnIndexes columns = new ColumnIndexes(header);
+    return reader -> toMovie(reader, columns);
+  }
+
+  private static Movie toMovie(CsvReader reader, ColumnIndexes columns) {
+    ImmutableMovie.Builder movieBuilder = ImmutableMovie.builder();
+
+    movieBuilder.id(reader.get(columns.mediaId)).title(reader.get(columns.title))
+        .studio(reader.get(columns.studio)).contentRating(reader.get(columns.contentRating))
+        .summary(reader.get(columns.summary)).genres(reader.get(columns.genres))
+        .tagline(reader.get(columns.tagline)).directors(reader.get(columns.directors))
+        .roles(reader.get(columns.roles));
+
+    if (!reader.isMissing(columns.year)) {
+      movieBuilder.year(reader.getInt(columns.year));
+    }
+
+    if (!reader.isMissing(columns.criticsRating)) {
+      movieBuilder.criticsRating(reader.getDouble(columns.criticsRating));
+    }
+
+    if (!reader.isMissing(columns.audienceRating)) {
+      movieBuilder.audienceRating(reader.getDouble(columns.audienceRating));
+    }
+
+    if (!reader.isMissing(columns.releaseDate)) {
+      movieBuilder.releaseDate(reader.getDate(columns.releaseDate));
+    }
+
+    movieBuilder.duration(reader.getDuration(columns.duration));
+
+    return movieBuilder.build();
+  }
+
+  /**
+   * The indexes of the columns read, resolved once from the header.
+   */
+  private static final class ColumnIndexes {
+
+    final int mediaId;
+    final int title;
+    final int studio;
+    final int contentRating;
+    final int summary;
+    final int genres;
+    final int tagline;
+    final int directors;
+    final int roles;
+    final int year;
+    final int criticsRating;
+    final int audienceRating;
+    final int releaseDate;
+    final int duration;
+
+    ColumnIndexes(CsvReader reader) {
+      mediaId = reader.column(MEDIA_ID);
+      title = reader.column(TITLE);
+      studio = reader.column(STUDIO);
+      contentRating = reader.column(CONTENT_RATING);
+      summary = reader.column(SUMMARY);
+      genres = reader.column(GENRES);
+      tagline = reader.column(TAGLINE);
+      directors = reader.column(DIRECTORS);
+      roles = reader.column(ROLES);
+      year = reader.column(YEAR);
+      criticsRating = reader.column(RATING);
+      audienceRating = reader.column(AUDIENCE);
+      releaseDate = reader.column(RELEASE_DATE);
+      duration = reader.column(DURATION);
     }
   }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Options for loading a CSV file in parallel. The file is split into chunks of whole records, the
+ * chunks are parsed on a {@link ForkJoinPool}, and the parsed items are merged into one stream,
+ * either in the order of the file or in the order the chunks finish. Each chunk is roughly {@link
+ * #getChunkSize()} bytes long. Instances are immutable; the {@code with} methods return a copy with
+ * one option changed.
+ */
+public final class ParallelLoading {
+
+  public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+  private final boolean ordered;
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+  private final Consumer<Report> reportListener;
+
+  private ParallelLoading(boolean ordered, int chunkSize, ForkJoinPool pool,
+      Consumer<Report> reportListener) {
+    this.ordered = ordered;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+    this.reportListener = reportListener;
+  }
+
+  /**
+   * Load in parallel and emit the items in the order of the file.
+   *
+   * @return the options
+   */
+  public static ParallelLoading ordered() {
+    return new ParallelLoading(true, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(), report -> {
+    });
+  }
+
+  /**
+   * Load in parallel and emit the items of each chunk as soon as it is parsed. Items from the same
+   * chunk keep their order.
+   *
+   * @return the options
+   */
+  public static ParallelLoading unordered() {
+    return ordered().withOrdered(false);
+  }
+
+  public ParallelLoading withOrdered(boolean ordered) {
+    return new ParallelLoading(ordered, chunkSize, pool, reportListener);
+  }
+
+  public ParallelLoading withChunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+    }
+    return new ParallelLoading(ordered, chunkSize, pool, reportListener);
+  }
+
+  public ParallelLoading withPool(ForkJoinPool pool) {
+    return new ParallelLoading(ordered, chunkSize, Objects.requireNonNull(pool), reportListener);
+  }
+
+  /**
+   * Receive a {@link Report} of each load that completes. Reports are also logged, the totals at
+   * INFO and the chunks at DEBUG.
+   *
+   * @param reportListener the report listener
+   * @return the options
+   */
+  public ParallelLoading withReportListener(Consumer<Report> reportListener) {
+    return new ParallelLoading(ordered, chunkSize, pool, Objects.requireNonNull(reportListener));
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  public Consumer<Report> getReportListener() {
+    return reportListener;
+  }
+
+  /**
+   * The timings of a completed load.
+   */
+  public static final class Report {
+
+    private final String source;
+    private final List<ChunkReport> chunks;
+    private final Duration elapsed;
+
+    Report(String source, List<ChunkReport> chunks, Duration elapsed) {
+      this.source = source;
+      this.chunks = Collections.unmodifiableList(chunks);
+      this.elapsed = elapsed;
+    }
+
+    public String getSource() {
+      return source;
+    }
+
+    public List<ChunkReport> getChunks() {
+      return chunks;
+    }
+
+    /**
+     * Return the time from subscribing to the last item, including reading and splitting the file.
+     *
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+      return elapsed;
+    }
+
+    public long getRows() {
+      return chunks.stream().mapToLong(ChunkReport::getRows).sum();
+    }
+
+    public double getRowsPerSecond() {
+      return elapsed.isZero() ? 0 : getRows() * 1e9 / elapsed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d rows from %s in %d chunks in %d ms, %.0f rows/s", getRows(), source,
+          chunks.size(), elapsed.toMillis(), getRowsPerSecond());
+    }
+  }
+
+  /**
+   * The timing of one chunk of a load.
+   */
+  public static final class ChunkReport {
+
+    private final int index;
+    private final long offset;
+    private final int length;
+    private final long rows;
+    private final Duration parseTime;
+
+    ChunkReport(int index, long offset, int length, long rows, Duration parseTime) {
+      this.index = index;
+      this.offset = offset;
+      this.length = length;
+      this.rows = rows;
+      this.parseTime = parseTime;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * Return the byte offset of the chunk in the file.
+     *
+     * @return the offset
+     */
+    public long getOffset() {
+      return offset;
+    }
+
+    /**
+     * Return the length of the chunk in bytes.
+     *
+     * @return the length
+     */
+    public int getLength() {
+      return length;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    public Duration getParseTime() {
+      return parseTime;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("chunk %d at %d, %d bytes: %d rows in %.3f ms", index, offset, length,
+          rows, parseTime.toNanos() / 1e6);
+    }
+  }
+}
@@ -50,7 +50,8 @@ public final class SampleDefinitions {
 
   public static final class Movies {
 
-    public static final String SAMPLE_RESOURCE = "/movies.csv";
+    public static final String FILE_NAME = "movies.csv";
+    public static final String SAMPLE_RESOURCE = "/" + FILE_NAME;
 
     public static final class Columns {
 
@@ -80,7 +81,8 @@ public final class SampleDefinitions {
 
   public static final class TelevisionShow {
 
-    public static final String SAMPLE_RESOURCE = "/tv.csv";
+    public static final String FILE_NAME = "tv.csv";
+    public static final String SAMPLE_RESOURCE = "/" + FILE_NAME;
 
     public static final class Columns {
 
@@ -109,7 +111,8 @@ public final class SampleDefinitions {
 
   public static final class Audio {
 
-    public static final String SAMPLE_RESOURCE = "/audio.csv";
+    public static final String FILE_NAME = "audio.csv";
+    public static final String SAMPLE_RESOURCE = "/" + FILE_NAME;
 
     public static final class Columns {
 
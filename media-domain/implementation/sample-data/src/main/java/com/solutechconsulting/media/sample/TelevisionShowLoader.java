@@ -23,63 +23,52 @@
 package com.solutechconsulting.media.sample;
 
 import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.TelevisionShow;
 import io.reactivex.Flowable;
-import org.apache.commons.csv.CSVFormat;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.time.LocalDate;
+import java.nio.file.Path;
+import java.util.function.Function;
 
 import static com.solutechconsulting.media.sample.SampleDefinitions.TelevisionShow.Columns.*;
 
 /**
- * Loads television show data from a resource-based CSV file into {@link
- * com.solutechconsulting.media.model.TelevisionShow} domain models.
+ * Loads television show data from a resource-based or file-based CSV file into {@link
+ * TelevisionShow} domain models. The file is streamed a record at a time with a {@link CsvReader},
+ * or parsed in parallel chunks, and read once for each subscription.
  */
 public class TelevisionShowLoader {
 
-  public Flowable<com.solutechconsulting.media.model.TelevisionShow> loadTelevisionShows() {
-    try {
-      Reader showReader =
-          new InputStreamReader(
-              getClass().getResourceAsStream(SampleDefinitions.TelevisionShow.SAMPLE_RESOURCE));
-      return Flowable.fromIterable(CSVFormat.EXCEL.withFirstRecordAsHeader().parse(showReader))
-          .map(record -> {
-            ImmutableTelevisionShow.Builder showBuilder = ImmutableTelevisionShow.builder();
-
-            showBuilder.id(record.get(MEDIA_ID)).title(record.get(EPISODE_TITLE)).seriesTitle(
-                record.get(SERIES_TITLE)).contentRating(record.get(CONTENT_RATING)).summary(
-                record.get(SUMMARY)).studio(record.get(STUDIO)).directors(
-                record.get(DIRECTORS)).writers(record.get(WRITERS));
-
-            String csvYear = record.get(YEAR);
-            showBuilder.year(getIntValue(csvYear));
-
-            String csvSeason = record.get(SEASON);
-            showBuilder.season(getIntValue(csvSeason));
-
-            String csvEpisode = record.get(EPISODE);
-            showBuilder.episode(getIntValue(csvEpisode));
-
-            String csvRating = record.get(RATING);
-            if (csvRating != null && !csvRating.isEmpty() && !csvRating.equals("N/A")) {
-              showBuilder.rating(Double.parseDouble(csvRating));
-            }
-
-            String csvOriginallyAired = record.get(ORIGINALLY_AIRED);
-            if (csvOriginallyAired != null && !csvOriginallyAired.isEmpty() && !csvOriginallyAired
-                .equals("N/A")) {
-              showBuilder.originallyAired(LocalDate.parse(csvOriginallyAired));
-            }
-
-            showBuilder.duration(SampleDefinitions.getDuration(record.get(DURATION)));
-
-            return showBuilder.build();
-          });
-    } catch (IOException e) {
-      return Flowable.error(e);
-    }
+  private final CsvLoading.Source source;
+
+  /**
+   * Create a loader for the bundled sample data.
+   */
+  public TelevisionShowLoader() {
+    source = CsvLoading.Source.resource(SampleDefinitions.TelevisionShow.SAMPLE_RESOURCE);
+  }
+
+  /**
+   * Create a loader for a CSV file in the same format as the bundled sample data, such as a file
+   * written by the sample generator.
+   *
+   * @param file the CSV file
+   */
+  public TelevisionShowLoader(Path file) {
+    source = CsvLoading.Source.file(file);
+  }
+
+  public Flowable<TelevisionShow> loadTelevisionShows() {
+    return CsvLoading.load(source, TelevisionShowLoader::mapping);
+  }
+
+  /**
+   * Load the file in parallel chunks.
+   *
+   * @param parallelLoading the parallel loading options
+   * @return the items, in the order of the file if the options are ordered
+   */
+  public Flowable<TelevisionShow> loadTelevisionShows(ParallelLoading parallelLoading) {
+    return CsvLoading.load(source, parallelLoading, TelevisionShowLoader::mapping);
   }
 
   protected int getIntValue(String strValue) {
@@ -89,4 +78,77 @@ public class TelevisionShowLoader {
 
     return 0;
   }
+
+  private static Function<CsvReader, TelevisionShow> mapping(CsvReader header) {
+    ColumnIndexes columns = new ColumnIndexes(header);
+    return reader -> toTelevisionShow(reader, columns);
+  }
+
+  private static TelevisionShow toTelevisionShow(CsvReader reader, ColumnIndexes columns) {
+    ImmutableTelevisionShow.Builder showBuilder = ImmutableTelevisionShow.builder();
+
+    showBuilder.id(reader.get(columns.mediaId)).title(reader.get(columns.episodeTitle))
+        .seriesTitle(reader.get(columns.seriesTitle))
+        .contentRating(reader.get(columns.contentRating)).summary(reader.get(columns.summary))
+        .studio(reader.get(columns.studio)).directors(reader.get(columns.directors))
+        .writers(reader.get(columns.writers));
+
+    showBuilder.year(getIntValue(reader, columns.year));
+    showBuilder.season(getIntValue(reader, columns.season));
+    showBuilder.episode(getIntValue(reader, columns.episode));
+
+    if (!reader.isMissing(columns.rating)) {
+      showBuilder.rating(reader.getDouble(columns.rating));
+    }
+
+    if (!reader.isMissing(columns.originallyAired)) {
+      showBuilder.originallyAired(reader.getDate(columns.originallyAired));
+    }
+
+    showBuilder.duration(reader.getDuration(columns.duration));
+
+    return showBuilder.build();
+  }
+
+  private static int getIntValue(CsvReader reader, int column) {
+    return reader.isMissing(column) ? 0 : reader.getInt(column);
+  }
+
+  /**
+   * The indexes of the columns read, resolved once from the header.
+   */
+  private static final class ColumnIndexes {
+
+    final int mediaId;
+    final int episodeTitle;
+    final int seriesTitle;
+    final int contentRating;
+    final int summary;
+    final int studio;
+    final int directors;
+    final int writers;
+    final int year;
+    final int season;
+    final int episode;
+    final int rating;
+    final int originallyAired;
+    final int duration;
+
+    ColumnIndexes(CsvReader reader) {
+      mediaId = reader.column(MEDIA_ID);
+      episodeTitle = reader.column(EPISODE_TITLE);
+      seriesTitle = reader.column(SERIES_TITLE);
+      contentRating = reader.column(CONTENT_RATING);
+      summary = reader.column(SUMMARY);
+      studio = reader.column(STUDIO);
+      directors = reader.column(DIRECTORS);
+      writers = reader.column(WRITERS);
+      year = reader.column(YEAR);
+      season = reader.column(SEASON);
+      episode = reader.column(EPISODE);
+      rating = reader.column(RATING);
+      originallyAired = reader.column(ORIGINALLY_AIRED);
+      duration = reader.column(DURATION);
+    }
+  }
 }
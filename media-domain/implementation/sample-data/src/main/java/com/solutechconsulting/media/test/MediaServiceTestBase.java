@@ -23,11 +23,13 @@
 package com.solutechconsulting.media.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.service.MediaService;
 import io.reactivex.Flowable;
@@ -37,6 +39,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
+import org.eclipse.microprofile.metrics.Counter;
 import org.eclipse.microprofile.metrics.Metric;
 import org.eclipse.microprofile.metrics.MetricID;
 import org.eclipse.microprofile.metrics.MetricRegistry;
@@ -103,6 +106,25 @@ public abstract class MediaServiceTestBase {
     assertTrue(found, "Test movie not found.");
   }
 
+  @Test
+  public void testGetMoviesAfter() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Flowable<Movie> flowable = mediaService.getMoviesAfter("2588");
+    TestSubscriber<Movie> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<Movie> movies = subscriber.values();
+    assertTrue(movies.size() < 269);
+    movies.forEach(movie -> assertNotEquals("2588", movie.getId()));
+
+    Timer timer = getMetricByName(
+        getServiceClassname() + '.' + MediaService.MetricsDefinitions.GetMoviesAfter.TIMER_NAME);
+    assertNotNull(timer);
+    assertEquals(1, timer.getCount());
+  }
+
   @Test
   public void testSearchMovies() throws InterruptedException {
     MediaService mediaService = getMediaService();
@@ -123,6 +145,27 @@ public abstract class MediaServiceTestBase {
     assertEquals(1, timer.getCount());
   }
 
+  @Test
+  public void testRankedSearchMovies() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Flowable<Movie> flowable = mediaService.rankedSearchMovies("star trek", 5);
+    TestSubscriber<Movie> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<Movie> movies = subscriber.values();
+    assertNotNull(movies);
+    assertEquals(5, movies.size());
+
+    Timer timer =
+        getMetricByName(
+            getServiceClassname() + '.'
+                + MediaService.MetricsDefinitions.RankedSearchMovies.TIMER_NAME);
+    assertNotNull(timer);
+    assertEquals(1, timer.getCount());
+  }
+
   @Test
   public void testGetAudio() throws InterruptedException {
     MediaService mediaService = getMediaService();
@@ -180,6 +223,27 @@ public abstract class MediaServiceTestBase {
     assertEquals(1, timer.getCount());
   }
 
+  @Test
+  public void testRankedSearchAudio() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Flowable<Audio> flowable = mediaService.rankedSearchAudio("pink floyd", 5);
+    TestSubscriber<Audio> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<Audio> audioItems = subscriber.values();
+    assertNotNull(audioItems);
+    assertEquals(5, audioItems.size());
+
+    Timer timer =
+        getMetricByName(
+            getServiceClassname() + '.'
+                + MediaService.MetricsDefinitions.RankedSearchAudio.TIMER_NAME);
+    assertNotNull(timer);
+    assertEquals(1, timer.getCount());
+  }
+
   @Test
   public void testGetAudioTracks() throws InterruptedException {
     MediaService mediaService = getMediaService();
@@ -192,6 +256,9 @@ public abstract class MediaServiceTestBase {
     List<Audio> audio = subscriber.values();
     assertNotNull(audio);
     assertEquals(7, audio.size());
+    for (int i = 0; i < audio.size(); i++) {
+      assertEquals(i + 1, audio.get(i).getTrackNumber());
+    }
 
     Timer timer =
         getMetricByName(
@@ -271,9 +338,32 @@ public abstract class MediaServiceTestBase {
     assertEquals(1, timer.getCount());
   }
 
+  @Test
+  public void testRankedSearchTelevisionShows() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Flowable<TelevisionShow> flowable = mediaService.rankedSearchTelevisionShows("hawkeye", 5);
+    TestSubscriber<TelevisionShow> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<TelevisionShow> televisionShows = subscriber.values();
+    assertNotNull(televisionShows);
+    assertEquals(5, televisionShows.size());
+
+    Timer timer =
+        getMetricByName(
+            getServiceClassname() + '.'
+                + MediaService.MetricsDefinitions.RankedSearchTelevisionShows.TIMER_NAME);
+    assertNotNull(timer);
+    assertEquals(1, timer.getCount());
+  }
+
   @Test
   public void testGetEpisodes() throws InterruptedException {
     MediaService mediaService = getMediaService();
+    // Other tests look episodes up too
+    long count = getTimerCount(MediaService.MetricsDefinitions.GetEpisodes.TIMER_NAME);
 
     Flowable<TelevisionShow> flowable = mediaService.getEpisodes("doc martin", 3);
     TestSubscriber<TelevisionShow> subscriber = flowable.test();
@@ -288,7 +378,35 @@ public abstract class MediaServiceTestBase {
         getMetricByName(
             getServiceClassname() + '.' + MediaService.MetricsDefinitions.GetEpisodes.TIMER_NAME);
     assertNotNull(timer);
-    assertEquals(1, timer.getCount());
+    assertEquals(count + 1, timer.getCount());
+  }
+
+  @Test
+  public void testGetEpisodesPaddedTitle() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    // Every implementation ignores the case and surrounding whitespace of the series title
+    Flowable<TelevisionShow> flowable = mediaService.getEpisodes(" Doc Martin ", 3);
+    TestSubscriber<TelevisionShow> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<TelevisionShow> shows = subscriber.values();
+    assertEquals(7, shows.size());
+    shows.forEach(show -> assertEquals("Doc Martin", show.getSeriesTitle()));
+  }
+
+  @Test
+  public void testGetEpisodesQuotedTitle() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    // The quote must not end the title in the query
+    Flowable<TelevisionShow> flowable = mediaService.getEpisodes("Smiley's People", 1);
+    TestSubscriber<TelevisionShow> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    assertEquals(12, subscriber.values().size());
   }
 
   @Test
@@ -311,6 +429,54 @@ public abstract class MediaServiceTestBase {
     assertEquals(1, timer.getCount());
   }
 
+  @Test
+  public void testSuggest() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Flowable<Suggestion> flowable = mediaService.suggest("star", 5);
+    TestSubscriber<Suggestion> subscriber = flowable.test();
+
+    subscriber.assertNoErrors();
+    subscriber.await().assertComplete();
+    List<Suggestion> suggestions = subscriber.values();
+    assertNotNull(suggestions);
+    assertEquals(5, suggestions.size());
+    for (int i = 0; i < suggestions.size(); i++) {
+      assertTrue(suggestions.get(i).getText().toLowerCase().startsWith("star"));
+      if (i > 0) {
+        assertTrue(suggestions.get(i - 1).getWeight() >= suggestions.get(i).getWeight());
+      }
+    }
+
+    Timer timer =
+        getMetricByName(
+            getServiceClassname() + '.' + MediaService.MetricsDefinitions.Suggest.TIMER_NAME);
+    assertNotNull(timer);
+    assertEquals(1, timer.getCount());
+  }
+
+  @Test
+  public void testAbandonedStream() throws InterruptedException {
+    MediaService mediaService = getMediaService();
+
+    Counter counter =
+        getMetricByName(getServiceClassname() + '.'
+            + MediaService.MetricsDefinitions.AbandonedStream.COUNTER_NAME);
+    assertNotNull(counter);
+    long abandoned = counter.getCount();
+
+    TestSubscriber<TelevisionShow> subscriber = mediaService.getTelevisionShows().take(5).test();
+
+    subscriber.await().assertComplete();
+    subscriber.assertValueCount(5);
+    assertEquals(abandoned + 1, counter.getCount());
+  }
+
+  private long getTimerCount(String timerName) {
+    Timer timer = getMetricByName(getServiceClassname() + '.' + timerName);
+    return timer == null ? 0 : timer.getCount();
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T getMetricByName(String metricName) {
     Map<MetricID, Metric> metrics = metricRegistry.getMetrics();
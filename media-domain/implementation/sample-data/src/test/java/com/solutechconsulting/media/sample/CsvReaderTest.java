@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+  @Test
+  public void testQuotedFields() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(
+        "\"Title\",\"Summary\",Plain\r\n"
+            + "\"The \"\"Pilot\"\"\",\"Line one\nLine two, still the summary\",x\r\n"
+            + "\n"
+            + ",\"\",\"N/A\""));
+    int title = reader.column("Title");
+    int summary = reader.column("Summary");
+    int plain = reader.column("Plain");
+
+    assertTrue(reader.next());
+    assertEquals(3, reader.size());
+    assertEquals("The \"Pilot\"", reader.get(title));
+    assertEquals("Line one\nLine two, still the summary", reader.get(summary));
+    assertEquals("x", reader.get(plain));
+    assertTrue(reader.contentEquals(plain, "x"));
+    assertFalse(reader.isMissing(plain));
+
+    assertTrue(reader.next());
+    assertEquals(3, reader.size());
+    assertTrue(reader.isMissing(title));
+    assertTrue(reader.isMissing(summary));
+    assertTrue(reader.isMissing(plain));
+    assertEquals(Duration.ZERO, reader.getDuration(plain));
+
+    assertFalse(reader.next());
+    assertThrows(IllegalArgumentException.class, () -> reader.column("Missing"));
+  }
+
+  @Test
+  public void testTypedFields() throws IOException {
+    String[] doubles = {"7.8", "-0.1", "10", ".5", "5.", "123456789.123456", "1.5e3",
+        "0.30000000000000004"};
+    StringBuilder csv = new StringBuilder("Int,Double,Date,Duration\n");
+    for (String value : doubles) {
+      csv.append("\"2014\",").append(value).append(",2014-02-06,1:53:01\n");
+    }
+    csv.append("-2147483648,0,1982-06-03,0:5:3\n");
+
+    CsvReader reader = new CsvReader(new StringReader(csv.toString()));
+    int intColumn = reader.column("Int");
+    int doubleColumn = reader.column("Double");
+    int dateColumn = reader.column("Date");
+    int durationColumn = reader.column("Duration");
+
+    for (String value : doubles) {
+      assertTrue(reader.next());
+      assertEquals(2014, reader.getInt(intColumn));
+      assertEquals(Double.parseDouble(value), reader.getDouble(doubleColumn), value);
+      assertEquals(LocalDate.of(2014, 2, 6), reader.getDate(dateColumn));
+      assertEquals(Duration.ofHours(1).plusMinutes(53).plusSeconds(1),
+          reader.getDuration(durationColumn));
+    }
+
+    assertTrue(reader.next());
+    assertEquals(Integer.MIN_VALUE, reader.getInt(intColumn));
+    assertEquals(LocalDate.of(1982, 6, 3), reader.getDate(dateColumn));
+    assertEquals(Duration.ofMinutes(5).plusSeconds(3), reader.getDuration(durationColumn));
+    assertThrows(NumberFormatException.class, () -> reader.getInt(dateColumn));
+
+    assertFalse(reader.next());
+  }
+}
@@ -24,6 +24,7 @@ package com.solutechconsulting.media.sample;
 
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.service.AbstractMediaService;
 import io.reactivex.Flowable;
@@ -81,6 +82,11 @@ public class DummyMediaService extends AbstractMediaService {
     return null;
   }
 
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    return null;
+  }
+
   @Override
   protected String getMetricsPrefix() {
     return null;
@@ -30,9 +30,14 @@ import io.reactivex.Flowable;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -160,4 +165,54 @@ public class LoaderTest {
 
     assertTrue(found, "Test audio not found.");
   }
+
+  @Test
+  public void testParallelLoading() {
+    List<TelevisionShow> shows = new TelevisionShowLoader().loadTelevisionShows().toList()
+        .blockingGet();
+    AtomicReference<ParallelLoading.Report> report = new AtomicReference<>();
+    ParallelLoading parallelLoading = ParallelLoading.ordered().withChunkSize(16 * 1024)
+        .withReportListener(report::set);
+
+    assertEquals(shows,
+        new TelevisionShowLoader().loadTelevisionShows(parallelLoading).toList().blockingGet());
+    assertEquals(shows.size(), report.get().getRows());
+    assertTrue(report.get().getChunks().size() > 1);
+    report.get().getChunks().forEach(chunk -> assertTrue(chunk.getRows() > 0));
+
+    List<TelevisionShow> unordered = new TelevisionShowLoader()
+        .loadTelevisionShows(parallelLoading.withOrdered(false)).toList().blockingGet();
+    assertEquals(shows.size(), unordered.size());
+    assertEquals(new HashSet<>(shows), new HashSet<>(unordered));
+
+    assertEquals(new MovieLoader().loadMovies().toList().blockingGet(),
+        new MovieLoader().loadMovies(parallelLoading).toList().blockingGet());
+    assertEquals(new AudioLoader().loadAudio().toList().blockingGet(),
+        new AudioLoader().loadAudio(parallelLoading).toList().blockingGet());
+  }
+
+  @Test
+  public void testRecordBoundaries() throws IOException {
+    byte[] data = "A,B\n\"one\ntwo\",\"\"\"\"\n\"\"\"\n\",x\n".getBytes(StandardCharsets.UTF_8);
+
+    CsvLoading.ChunkReader chunks = new CsvLoading.ChunkReader(new ByteArrayInputStream(data));
+    CsvLoading.Chunk header = chunks.next(0);
+    assertEquals("A,B\n", header.toString());
+    assertEquals(-1, header.index);
+    CsvLoading.Chunk second = chunks.next(1);
+    assertEquals("\"one\ntwo\",\"\"\"\"\n", second.toString());
+    assertEquals(4, second.offset);
+    CsvLoading.Chunk third = chunks.next(1);
+    assertEquals("\"\"\"\n\",x\n", third.toString());
+    assertEquals(1, third.index);
+    assertEquals(data.length, third.offset + third.length);
+    assertNull(chunks.next(1));
+
+    chunks = new CsvLoading.ChunkReader(new ByteArrayInputStream(data));
+    chunks.next(0);
+    assertEquals(second.length, chunks.next(5).length);
+    chunks = new CsvLoading.ChunkReader(new ByteArrayInputStream(data));
+    chunks.next(0);
+    assertEquals(data.length - header.length, chunks.next(second.length + 1).length);
+  }
 }
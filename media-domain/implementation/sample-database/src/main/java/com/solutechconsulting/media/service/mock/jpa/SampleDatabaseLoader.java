@@ -25,6 +25,7 @@ package com.solutechconsulting.media.service.mock.jpa;
 import com.solutechconsulting.media.sample.AudioLoader;
 import com.solutechconsulting.media.sample.MovieLoader;
 import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import com.solutechconsulting.media.service.MediaLibraryChanged;
 import com.solutechconsulting.media.service.jpa.AudioEntity;
 import com.solutechconsulting.media.service.jpa.MovieEntity;
 import com.solutechconsulting.media.service.jpa.TelevisionShowEntity;
@@ -32,6 +33,7 @@ import io.quarkus.runtime.Startup;
 import io.reactivex.schedulers.Schedulers;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
@@ -47,9 +49,14 @@ public class SampleDatabaseLoader {
   @Inject
   EntityManager entityManager;
 
+  @Inject
+  Event<MediaLibraryChanged> libraryChanged;
+
   @PostConstruct
   public void postLoad() {
     loadDatabase();
+    // Announced once the transaction has committed, so filters reloaded in response see the data.
+    libraryChanged.fire(new MediaLibraryChanged());
   }
 
   @Transactional
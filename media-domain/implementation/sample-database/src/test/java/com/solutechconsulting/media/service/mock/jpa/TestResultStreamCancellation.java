@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.mock.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.jpa.JpaMediaService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.reactivex.subscribers.TestSubscriber;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.resource.jdbc.ResourceRegistry;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestResultStreamCancellation {
+
+  @Inject
+  @Named(JpaMediaService.SERVICE_NAME)
+  MediaService mediaService;
+
+  @Inject
+  EntityManager entityManager;
+
+  @Test
+  @Transactional
+  public void testCursorReleasedOnCancel() {
+    ResourceRegistry resources = entityManager.unwrap(SharedSessionContractImplementor.class)
+        .getJdbcCoordinator().getResourceRegistry();
+
+    // Hogan's Heroes has 32 episodes in its first season, so the cursor stays open after three
+    TestSubscriber<TelevisionShow> subscriber =
+        mediaService.getEpisodes("hogan's heroes", 1).test(0);
+    subscriber.request(3);
+    subscriber.assertValueCount(3);
+    assertTrue(resources.hasRegisteredResources(), "The result stream was read to the end.");
+
+    subscriber.cancel();
+    subscriber.request(10);
+    subscriber.assertValueCount(3);
+    subscriber.assertNotComplete();
+    assertFalse(resources.hasRegisteredResources(),
+        "The cursor was not released when the subscriber cancelled.");
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.SampleDefinitions;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Writes media items as CSV files in the format of the bundled sample data, so that they can be
+ * read by the sample data loaders: the columns the loaders read, every field quoted, and {@code
+ * N/A} for a missing value. Items are written as they are emitted, so the size of a file is not
+ * limited by memory.
+ */
+public final class CatalogCsvWriter {
+
+  private static final String NOT_AVAILABLE = "N/A";
+
+  private CatalogCsvWriter() {
+  }
+
+  /**
+   * Write the generated movies, audio and television shows to files in a directory, with the file
+   * names of the bundled sample data. The directory is created if it doesn't exist.
+   *
+   * @param generator the catalogue generator
+   * @param directory the directory
+   * @throws IOException if a file can't be written
+   */
+  public static void write(CatalogGenerator generator, Path directory) throws IOException {
+    Files.createDirectories(directory);
+    writeMovies(generator.movies(), directory.resolve(SampleDefinitions.Movies.FILE_NAME));
+    writeAudio(generator.audio(), directory.resolve(SampleDefinitions.Audio.FILE_NAME));
+    writeTelevisionShows(generator.televisionShows(),
+        directory.resolve(SampleDefinitions.TelevisionShow.FILE_NAME));
+  }
+
+  public static long writeMovies(Flowable<Movie> movies, Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeRecord(writer, SampleDefinitions.Movies.Columns.MEDIA_ID,
+          SampleDefinitions.Movies.Columns.TITLE, SampleDefinitions.Movies.Columns.STUDIO,
+          SampleDefinitions.Movies.Columns.CONTENT_RATING, SampleDefinitions.Movies.Columns.YEAR,
+          SampleDefinitions.Movies.Columns.RATING, SampleDefinitions.Movies.Columns.SUMMARY,
+          SampleDefinitions.Movies.Columns.GENRES, SampleDefinitions.Movies.Columns.TAGLINE,
+          SampleDefinitions.Movies.Columns.RELEASE_DATE, SampleDefinitions.Movies.Columns.DURATION,
+          SampleDefinitions.Movies.Columns.DIRECTORS, SampleDefinitions.Movies.Columns.ROLES,
+          SampleDefinitions.Movies.Columns.AUDIENCE);
+      long count = 0;
+      for (Movie movie : movies.blockingIterable()) {
+        writeRecord(writer, movie.getId(), movie.getTitle(), movie.getStudio(),
+            movie.getContentRating(), value(movie.getYear()), value(movie.getCriticsRating()),
+            movie.getSummary(), movie.getGenres(), movie.getTagline(),
+            value(movie.getReleaseDate()), duration(movie.getDuration()), movie.getDirectors(),
+            movie.getRoles(), value(movie.getAudienceRating()));
+        count++;
+      }
+      return count;
+    }
+  }
+
+  public static long writeAudio(Flowable<Audio> audio, Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeRecord(writer, SampleDefinitions.Audio.Columns.MEDIA_ID,
+          SampleDefinitions.Audio.Columns.TITLE, SampleDefinitions.Audio.Columns.ALBUM_ARTIST,
+          SampleDefinitions.Audio.Columns.ALBUM, SampleDefinitions.Audio.Columns.ARTIST,
+          SampleDefinitions.Audio.Columns.TRACK_NUMBER, SampleDefinitions.Audio.Columns.YEAR,
+          SampleDefinitions.Audio.Columns.DURATION);
+      long count = 0;
+      for (Audio track : audio.blockingIterable()) {
+        writeRecord(writer, track.getId(), track.getTitle(), track.getAlbumArtist(),
+            track.getAlbum(), value(track.getArtist()), String.valueOf(track.getTrackNumber()),
+            value(track.getYear()), duration(track.getDuration()));
+        count++;
+      }
+      return count;
+    }
+  }
+
+  public static long writeTelevisionShows(Flowable<TelevisionShow> shows, Path file)
+      throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeRecord(writer, SampleDefinitions.TelevisionShow.Columns.MEDIA_ID,
+          SampleDefinitions.TelevisionShow.Columns.SERIES_TITLE,
+          SampleDefinitions.TelevisionShow.Columns.EPISODE_TITLE,
+          SampleDefinitions.TelevisionShow.Columns.YEAR,
+          SampleDefinitions.TelevisionShow.Columns.SEASON,
+          SampleDefinitions.TelevisionShow.Columns.EPISODE,
+          SampleDefinitions.TelevisionShow.Columns.CONTENT_RATING,
+          SampleDefinitions.TelevisionShow.Columns.SUMMARY,
+          SampleDefinitions.TelevisionShow.Columns.RATING,
+          SampleDefinitions.TelevisionShow.Columns.STUDIO,
+          SampleDefinitions.TelevisionShow.Columns.ORIGINALLY_AIRED,
+          SampleDefinitions.TelevisionShow.Columns.DIRECTORS,
+          SampleDefinitions.TelevisionShow.Columns.WRITERS,
+          SampleDefinitions.TelevisionShow.Columns.DURATION);
+      long count = 0;
+      for (TelevisionShow show : shows.blockingIterable()) {
+        writeRecord(writer, show.getId(), show.getSeriesTitle(), show.getTitle(),
+            value(show.getYear()), String.valueOf(show.getSeason()),
+            String.valueOf(show.getEpisode()), show.getContentRating(), show.getSummary(),
+            value(show.getRating()), show.getStudio(), value(show.getOriginallyAired()),
+            show.getDirectors(), show.getWriters(), duration(show.getDuration()));
+        count++;
+      }
+      return count;
+    }
+  }
+
+  private static void writeRecord(Writer writer, String... fields) throws IOException {
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write('"');
+      String field = fields[i];
+      int start = 0;
+      for (int quote = field.indexOf('"'); quote >= 0; quote = field.indexOf('"', start)) {
+        writer.write(field, start, quote + 1 - start);
+        writer.write('"');
+        start = quote + 1;
+      }
+      writer.write(field, start, field.length() - start);
+      writer.write('"');
+    }
+    writer.write('\n');
+  }
+
+  private static String value(Optional<?> value) {
+    return value.map(String::valueOf).orElse(NOT_AVAILABLE);
+  }
+
+  /**
+   * Format a duration as {@code h:mm:ss}, the format {@link SampleDefinitions#getDuration(String)}
+   * reads.
+   */
+  private static String duration(Duration duration) {
+    long seconds = duration.toSeconds();
+    long minutes = seconds / 60 % 60;
+    long secondsOfMinute = seconds % 60;
+    return (seconds / 3600) + (minutes < 10 ? ":0" : ":") + minutes
+        + (secondsOfMinute < 10 ? ":0" : ":") + secondsOfMinute;
+  }
+}
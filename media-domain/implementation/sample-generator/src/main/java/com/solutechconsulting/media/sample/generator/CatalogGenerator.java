@@ -0,0 +1,300 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableAudio;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.ImmutableTelevisionShow;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import io.reactivex.Flowable;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates a synthetic media library of any size. The library is determined by its {@link
+ * GeneratorSettings}: the same settings always generate the same items, in the same order, on
+ * every subscription. Items are generated as they are requested, so even a library of millions of
+ * items is never held in memory.
+ * <p>
+ * Television shows are generated a series at a time: each series has a number of seasons, each
+ * season a number of episodes, numbered from one and aired a week apart, and the episodes of a
+ * series share its studio, content rating, running time and a small pool of directors and writers.
+ * Audio is generated an album at a time, with tracks numbered from one, and occasionally an album
+ * is a compilation whose tracks have their own artists. Series and album titles are unique.
+ * <p>
+ * Identifiers are numbered from one across movies, audio and television shows in that order, so
+ * that they are unique across the library.
+ */
+public final class CatalogGenerator {
+
+  private static final LocalDate EARLIEST_DATE = LocalDate.of(1930, 1, 1);
+  private static final int DATE_RANGE_DAYS = 90 * 365;
+  private static final String VARIOUS_ARTISTS = "Various Artists";
+
+  private final GeneratorSettings settings;
+  private final Vocabulary vocabulary;
+
+  public CatalogGenerator(GeneratorSettings settings) {
+    this.settings = settings;
+    this.vocabulary = Vocabulary.fromSampleData();
+  }
+
+  public GeneratorSettings getSettings() {
+    return settings;
+  }
+
+  public Flowable<Movie> movies() {
+    return Flowable.fromIterable(() -> new Movies(new Random(settings.getSeed())));
+  }
+
+  public Flowable<Audio> audio() {
+    return Flowable.fromIterable(() -> new Tracks(new Random(settings.getSeed() + 1)));
+  }
+
+  public Flowable<TelevisionShow> televisionShows() {
+    return Flowable.fromIterable(() -> new Episodes(new Random(settings.getSeed() + 2)));
+  }
+
+  private static LocalDate date(Random random) {
+    return EARLIEST_DATE.plusDays(random.nextInt(DATE_RANGE_DAYS));
+  }
+
+  private static Duration duration(Random random, int minSeconds, int maxSeconds) {
+    return Duration.ofSeconds(minSeconds + random.nextInt(maxSeconds - minSeconds + 1));
+  }
+
+  /**
+   * Return a rating from 1.0 to 10.0 with one decimal place, which is how the sample data
+   * expresses ratings.
+   */
+  private static double rating(double rating) {
+    return Math.round(Math.max(1, Math.min(10, rating)) * 10) / 10.0;
+  }
+
+  /**
+   * Make a series or album title unique by adding its year, and then a number, as libraries do to
+   * tell apart items with the same title.
+   */
+  private static String unique(Set<String> titles, String title, int year) {
+    String unique = title;
+    for (int number = 2; !titles.add(unique); number++) {
+      unique = number == 2 ? title + " (" + year + ")" : title + " (" + year + ") " + number;
+    }
+    return unique;
+  }
+
+  private abstract static class Sequence<T> implements Iterator<T> {
+
+    final Random random;
+    private final int count;
+    private int produced;
+
+    Sequence(Random random, int count) {
+      this.random = random;
+      this.count = count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return produced < count;
+    }
+
+    @Override
+    public T next() {
+      return next(produced++);
+    }
+
+    abstract T next(int index);
+  }
+
+  private final class Movies extends Sequence<Movie> {
+
+    Movies(Random random) {
+      super(random, settings.getMovies());
+    }
+
+    @Override
+    Movie next(int index) {
+      LocalDate released = date(random);
+      ImmutableMovie.Builder builder = ImmutableMovie.builder()
+          .id(String.valueOf(index + 1))
+          .title(vocabulary.title(random, settings.getTitleWords()))
+          .studio(vocabulary.studio(random))
+          .contentRating(vocabulary.movieContentRating(random))
+          .summary(vocabulary.text(random, settings.getSummaryWords()))
+          .genres(vocabulary.genres(random))
+          .tagline(vocabulary.text(random, settings.getTaglineWords()))
+          .duration(duration(random, 75 * 60, 180 * 60))
+          .directors(vocabulary.credits(random, Distribution.of(1, 1.2, 0.5, 4)))
+          .roles(vocabulary.credits(random, settings.getCredits()));
+
+      if (random.nextInt(50) > 0) {
+        builder.year(released.getYear()).releaseDate(released);
+      }
+      double quality = 3 + random.nextDouble() * 6;
+      if (random.nextInt(10) > 0) {
+        builder.criticsRating(rating(quality + random.nextGaussian()));
+      }
+      if (random.nextInt(10) > 0) {
+        builder.audienceRating(rating(quality + random.nextGaussian()));
+      }
+      return builder.build();
+    }
+  }
+
+  private final class Tracks extends Sequence<Audio> {
+
+    private final Set<String> albums = new HashSet<>();
+    private String album;
+    private String albumArtist;
+    private Integer year;
+    private int tracks;
+    private int trackNumber;
+
+    Tracks(Random random) {
+      super(random, settings.getAudio());
+    }
+
+    @Override
+    Audio next(int index) {
+      if (trackNumber == tracks) {
+        nextAlbum();
+      }
+      trackNumber++;
+
+      ImmutableAudio.Builder builder = ImmutableAudio.builder()
+          .id(String.valueOf(settings.getMovies() + index + 1))
+          .title(vocabulary.title(random, settings.getTitleWords()))
+          .album(album)
+          .albumArtist(albumArtist)
+          .trackNumber(trackNumber)
+          .duration(duration(random, 90, 480));
+
+      if (year != null) {
+        builder.year(year);
+      }
+      // A track only has an artist of its own when it differs from the album artist
+      String artist = albumArtist.equals(VARIOUS_ARTISTS) || random.nextInt(20) == 0
+          ? vocabulary.artist(random) : albumArtist;
+      if (!artist.equals(albumArtist)) {
+        builder.artist(artist);
+      }
+      return builder.build();
+    }
+
+    private void nextAlbum() {
+      LocalDate released = date(random);
+      year = random.nextInt(10) > 0 ? released.getYear() : null;
+      albumArtist = random.nextInt(10) > 0 ? vocabulary.artist(random) : VARIOUS_ARTISTS;
+      album = unique(albums, vocabulary.title(random, settings.getTitleWords()),
+          released.getYear());
+      tracks = Math.max(settings.getTracksPerAlbum().sample(random), 1);
+      trackNumber = 0;
+    }
+  }
+
+  private final class Episodes extends Sequence<TelevisionShow> {
+
+    private final Set<String> series = new HashSet<>();
+    private String seriesTitle;
+    private String studio;
+    private String contentRating;
+    private List<String> directors;
+    private List<String> writers;
+    private double seriesRating;
+    private int runningMinutes;
+    private LocalDate premiere;
+    private int seasons;
+    private int season;
+    private int episodes;
+    private int episode;
+
+    Episodes(Random random) {
+      super(random, settings.getTelevisionShows());
+    }
+
+    @Override
+    TelevisionShow next(int index) {
+      if (episode == episodes) {
+        if (season == seasons) {
+          nextSeries();
+        }
+        season++;
+        episodes = Math.max(settings.getEpisodesPerSeason().sample(random), 1);
+        episode = 0;
+      }
+      episode++;
+
+      LocalDate aired = premiere.plusYears(season - 1L).plusWeeks(episode - 1L);
+      ImmutableTelevisionShow.Builder builder = ImmutableTelevisionShow.builder()
+          .id(String.valueOf(settings.getMovies() + settings.getAudio() + index + 1))
+          .title(vocabulary.title(random, settings.getTitleWords()))
+          .seriesTitle(seriesTitle)
+          .season(season)
+          .episode(episode)
+          .year(aired.getYear())
+          .originallyAired(aired)
+          .studio(studio)
+          .contentRating(contentRating)
+          .summary(vocabulary.text(random, settings.getSummaryWords()))
+          .duration(Duration.ofMinutes(runningMinutes).plus(duration(random, -90, 90)))
+          .directors(directors.get(random.nextInt(directors.size())))
+          .writers(String.join(" - ", writers.subList(0, 1 + random.nextInt(writers.size()))));
+
+      if (random.nextInt(10) > 0) {
+        builder.rating(rating(seriesRating + random.nextGaussian() * 0.6));
+      }
+      return builder.build();
+    }
+
+    private void nextSeries() {
+      premiere = date(random);
+      seriesTitle = unique(series, vocabulary.title(random, settings.getTitleWords()),
+          premiere.getYear());
+      studio = vocabulary.studio(random);
+      contentRating = vocabulary.televisionContentRating(random);
+      directors = people(3 + random.nextInt(4));
+      writers = people(1 + random.nextInt(3));
+      seriesRating = 4 + random.nextDouble() * 5;
+      runningMinutes = new int[]{22, 30, 44, 60}[random.nextInt(4)];
+      seasons = Math.max(settings.getSeasonsPerSeries().sample(random), 1);
+      season = 0;
+    }
+
+    private List<String> people(int count) {
+      List<String> people = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        people.add(vocabulary.person(random));
+      }
+      return people;
+    }
+  }
+}
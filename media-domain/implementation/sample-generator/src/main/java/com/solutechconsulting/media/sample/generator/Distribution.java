@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import java.util.Random;
+
+/**
+ * A distribution of small counts, such as the number of words in a field or the number of episodes
+ * in a season. Counts are drawn from a log-normal distribution with the given mean and standard
+ * deviation, which has the long right tail that the lengths of real text fields have, and are
+ * clamped to the given bounds.
+ */
+public final class Distribution {
+
+  private final int min;
+  private final double mean;
+  private final double standardDeviation;
+  private final int max;
+  private final double mu;
+  private final double sigma;
+
+  private Distribution(int min, double mean, double standardDeviation, int max) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException(
+          String.format("The bounds must satisfy 0 <= min <= max: %d, %d", min, max));
+    }
+    if (mean <= 0 || standardDeviation < 0) {
+      throw new IllegalArgumentException(String.format(
+          "The mean must be positive and the standard deviation not negative: %f, %f", mean,
+          standardDeviation));
+    }
+    this.min = min;
+    this.mean = mean;
+    this.standardDeviation = standardDeviation;
+    this.max = max;
+    double variance = Math.log(1 + (standardDeviation * standardDeviation) / (mean * mean));
+    this.mu = Math.log(mean) - variance / 2;
+    this.sigma = Math.sqrt(variance);
+  }
+
+  public static Distribution of(int min, double mean, double standardDeviation, int max) {
+    return new Distribution(min, mean, standardDeviation, max);
+  }
+
+  public static Distribution fixed(int count) {
+    return new Distribution(count, Math.max(count, 1), 0, count);
+  }
+
+  public int getMin() {
+    return min;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public double getStandardDeviation() {
+    return standardDeviation;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  int sample(Random random) {
+    long count = Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    return (int) Math.max(min, Math.min(max, count));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[%d, mean %.1f, sd %.1f, %d]", min, mean, standardDeviation, max);
+  }
+}
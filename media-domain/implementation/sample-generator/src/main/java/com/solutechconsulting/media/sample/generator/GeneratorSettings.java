@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import java.util.Objects;
+
+/**
+ * The settings of a {@link CatalogGenerator}: the seed, the number of items of each type, the
+ * shape of the series and albums, and the lengths of the text fields. Instances are immutable; the
+ * {@code with} methods return a copy with one setting changed.
+ */
+public final class GeneratorSettings {
+
+  private static final GeneratorSettings DEFAULTS = new GeneratorSettings(1, 10_000, 10_000,
+      10_000, Distribution.of(1, 11, 4, 40), Distribution.of(1, 3, 2.5, 30),
+      Distribution.of(1, 13, 6, 50), Distribution.of(1, 3, 1.5, 15),
+      Distribution.of(0, 45, 25, 400), Distribution.of(0, 8, 3, 30),
+      Distribution.of(1, 3, 2, 30));
+
+  private final long seed;
+  private final int movies;
+  private final int audio;
+  private final int televisionShows;
+  private final Distribution tracksPerAlbum;
+  private final Distribution seasonsPerSeries;
+  private final Distribution episodesPerSeason;
+  private final Distribution titleWords;
+  private final Distribution summaryWords;
+  private final Distribution taglineWords;
+  private final Distribution credits;
+
+  private GeneratorSettings(long seed, int movies, int audio, int televisionShows,
+      Distribution tracksPerAlbum, Distribution seasonsPerSeries, Distribution episodesPerSeason,
+      Distribution titleWords, Distribution summaryWords, Distribution taglineWords,
+      Distribution credits) {
+    if (movies < 0 || audio < 0 || televisionShows < 0) {
+      throw new IllegalArgumentException(
+          String.format("Item counts can't be negative: %d, %d, %d", movies, audio,
+              televisionShows));
+    }
+    if (tracksPerAlbum.getMax() < 1 || seasonsPerSeries.getMax() < 1
+        || episodesPerSeason.getMax() < 1 || titleWords.getMax() < 1) {
+      throw new IllegalArgumentException(
+          "Albums, series, seasons and titles need room for at least one track, season, episode "
+              + "or word");
+    }
+    this.seed = seed;
+    this.movies = movies;
+    this.audio = audio;
+    this.televisionShows = televisionShows;
+    this.tracksPerAlbum = Objects.requireNonNull(tracksPerAlbum);
+    this.seasonsPerSeries = Objects.requireNonNull(seasonsPerSeries);
+    this.episodesPerSeason = Objects.requireNonNull(episodesPerSeason);
+    this.titleWords = Objects.requireNonNull(titleWords);
+    this.summaryWords = Objects.requireNonNull(summaryWords);
+    this.taglineWords = Objects.requireNonNull(taglineWords);
+    this.credits = Objects.requireNonNull(credits);
+  }
+
+  /**
+   * Return the default settings: seed 1 and 10,000 items of each type.
+   *
+   * @return the default settings
+   */
+  public static GeneratorSettings defaults() {
+    return DEFAULTS;
+  }
+
+  public GeneratorSettings withSeed(long seed) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withMovies(int movies) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withAudio(int audio) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withTelevisionShows(int televisionShows) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withTracksPerAlbum(Distribution tracksPerAlbum) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withSeasonsPerSeries(Distribution seasonsPerSeries) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withEpisodesPerSeason(Distribution episodesPerSeason) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withTitleWords(Distribution titleWords) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withSummaryWords(Distribution summaryWords) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public GeneratorSettings withTaglineWords(Distribution taglineWords) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  /**
+   * Set the distribution of the number of names in the directors, writers and roles fields.
+   *
+   * @param credits the credit count distribution
+   * @return the settings
+   */
+  public GeneratorSettings withCredits(Distribution credits) {
+    return new GeneratorSettings(seed, movies, audio, televisionShows, tracksPerAlbum,
+        seasonsPerSeries, episodesPerSeason, titleWords, summaryWords, taglineWords, credits);
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public int getMovies() {
+    return movies;
+  }
+
+  public int getAudio() {
+    return audio;
+  }
+
+  public int getTelevisionShows() {
+    return televisionShows;
+  }
+
+  public Distribution getTracksPerAlbum() {
+    return tracksPerAlbum;
+  }
+
+  public Distribution getSeasonsPerSeries() {
+    return seasonsPerSeries;
+  }
+
+  public Distribution getEpisodesPerSeason() {
+    return episodesPerSeason;
+  }
+
+  public Distribution getTitleWords() {
+    return titleWords;
+  }
+
+  public Distribution getSummaryWords() {
+    return summaryWords;
+  }
+
+  public Distribution getTaglineWords() {
+    return taglineWords;
+  }
+
+  public Distribution getCredits() {
+    return credits;
+  }
+
+  @Override
+  public String toString() {
+    return "GeneratorSettings{seed=" + seed + ", movies=" + movies + ", audio=" + audio
+        + ", televisionShows=" + televisionShows + ", tracksPerAlbum=" + tracksPerAlbum
+        + ", seasonsPerSeries=" + seasonsPerSeries + ", episodesPerSeason=" + episodesPerSeason
+        + ", titleWords=" + titleWords + ", summaryWords=" + summaryWords + ", taglineWords="
+        + taglineWords + ", credits=" + credits + "}";
+  }
+}
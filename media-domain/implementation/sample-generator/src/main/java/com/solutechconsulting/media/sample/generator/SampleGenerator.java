@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a generated catalogue to CSV files in a directory. The files can be loaded by the sample
+ * data loaders, by the database initialization migrations with {@code
+ * mediaservice.database-init.sample-directory} set to the directory, and by the mock service with
+ * {@code mediaservice.mock.sample-directory} set to it.
+ * <p>
+ * Usage: {@code java -jar sample-generator-<version>-cli.jar <directory> [seed=<n>] [movies=<n>]
+ * [audio=<n>] [television-shows=<n>]}
+ */
+public final class SampleGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(SampleGenerator.class.getName());
+
+  private SampleGenerator() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      logger.error("Usage: <directory> [seed=<n>] [movies=<n>] [audio=<n>] "
+          + "[television-shows=<n>]");
+      System.exit(1);
+    }
+
+    Path directory = Paths.get(args[0]);
+    GeneratorSettings settings = GeneratorSettings.defaults();
+    for (int i = 1; i < args.length; i++) {
+      settings = apply(settings, args[i]);
+    }
+
+    long started = System.nanoTime();
+    CatalogCsvWriter.write(new CatalogGenerator(settings), directory);
+    logger.info(
+        "Generated {} movies, {} audio tracks and {} television shows in {} in {} ms with {}",
+        settings.getMovies(), settings.getAudio(), settings.getTelevisionShows(),
+        directory.toAbsolutePath(), (System.nanoTime() - started) / 1_000_000, settings);
+  }
+
+  private static GeneratorSettings apply(GeneratorSettings settings, String argument) {
+    int separator = argument.indexOf('=');
+    if (separator < 0) {
+      throw new IllegalArgumentException("Expected <name>=<value>: " + argument);
+    }
+    String value = argument.substring(separator + 1);
+    switch (argument.substring(0, separator)) {
+      case "seed":
+        return settings.withSeed(Long.parseLong(value));
+      case "movies":
+        return settings.withMovies(Integer.parseInt(value));
+      case "audio":
+        return settings.withAudio(Integer.parseInt(value));
+      case "television-shows":
+        return settings.withTelevisionShows(Integer.parseInt(value));
+      default:
+        throw new IllegalArgumentException("Unknown setting: " + argument);
+    }
+  }
+}
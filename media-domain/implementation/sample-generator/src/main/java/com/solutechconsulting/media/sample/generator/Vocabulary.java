@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The words and names generated items are made of, taken from the bundled sample data so that the
+ * generated text has the vocabulary and word frequencies of a real library. Word lists keep their
+ * duplicates, so a word is picked as often as it occurs in the sample data; name lists are
+ * distinct.
+ */
+final class Vocabulary {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern CREDIT_SEPARATOR = Pattern.compile(" - ");
+
+  private final List<String> titleWords = new ArrayList<>();
+  private final List<String> textWords = new ArrayList<>();
+  private final List<String> people;
+  private final List<String> artists;
+  private final List<String> studios;
+  private final List<String> movieContentRatings;
+  private final List<String> televisionContentRatings;
+  private final List<String> genres;
+
+  private Vocabulary() {
+    List<Movie> movies = new MovieLoader().loadMovies().toList().blockingGet();
+    List<Audio> audio = new AudioLoader().loadAudio().toList().blockingGet();
+    List<TelevisionShow> shows = new TelevisionShowLoader().loadTelevisionShows().toList()
+        .blockingGet();
+
+    Set<String> people = new LinkedHashSet<>();
+    Set<String> artists = new LinkedHashSet<>();
+    Set<String> studios = new LinkedHashSet<>();
+    Set<String> movieContentRatings = new LinkedHashSet<>();
+    Set<String> televisionContentRatings = new LinkedHashSet<>();
+    Set<String> genres = new LinkedHashSet<>();
+
+    for (Movie movie : movies) {
+      addWords(titleWords, movie.getTitle());
+      addWords(textWords, movie.getSummary());
+      addWords(textWords, movie.getTagline());
+      addCredits(people, movie.getDirectors());
+      addCredits(people, movie.getRoles());
+      addValue(studios, movie.getStudio());
+      addValue(movieContentRatings, movie.getContentRating());
+      addCredits(genres, movie.getGenres());
+    }
+    for (Audio track : audio) {
+      addWords(titleWords, track.getTitle());
+      addWords(titleWords, track.getAlbum());
+      addValue(artists, track.getAlbumArtist());
+      track.getArtist().ifPresent(artist -> addValue(artists, artist));
+    }
+    for (TelevisionShow show : shows) {
+      addWords(titleWords, show.getTitle());
+      addWords(titleWords, show.getSeriesTitle());
+      addWords(textWords, show.getSummary());
+      addCredits(people, show.getDirectors());
+      addCredits(people, show.getWriters());
+      addValue(studios, show.getStudio());
+      addValue(televisionContentRatings, show.getContentRating());
+    }
+
+    this.people = new ArrayList<>(people);
+    this.artists = new ArrayList<>(artists);
+    this.studios = new ArrayList<>(studios);
+    this.movieContentRatings = new ArrayList<>(movieContentRatings);
+    this.televisionContentRatings = new ArrayList<>(televisionContentRatings);
+    this.genres = new ArrayList<>(genres);
+  }
+
+  /**
+   * Return the vocabulary of the bundled sample data, which is read the first time it is needed.
+   *
+   * @return the vocabulary
+   */
+  static Vocabulary fromSampleData() {
+    return Holder.SAMPLE_DATA;
+  }
+
+  String title(Random random, Distribution words) {
+    return join(random, titleWords, Math.max(words.sample(random), 1), " ");
+  }
+
+  String text(Random random, Distribution words) {
+    return join(random, textWords, words.sample(random), " ");
+  }
+
+  String credits(Random random, Distribution names) {
+    return join(random, people, names.sample(random), " - ");
+  }
+
+  String person(Random random) {
+    return pick(random, people);
+  }
+
+  String artist(Random random) {
+    return pick(random, artists);
+  }
+
+  String studio(Random random) {
+    return pick(random, studios);
+  }
+
+  String movieContentRating(Random random) {
+    return pick(random, movieContentRatings);
+  }
+
+  String televisionContentRating(Random random) {
+    return pick(random, televisionContentRatings);
+  }
+
+  String genres(Random random) {
+    return join(random, genres, 1 + random.nextInt(3), " - ");
+  }
+
+  private static String pick(Random random, List<String> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+
+  private static String join(Random random, List<String> values, int count, String separator) {
+    StringBuilder joined = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        joined.append(separator);
+      }
+      joined.append(pick(random, values));
+    }
+    return joined.toString();
+  }
+
+  private static void addWords(List<String> words, String text) {
+    if (isPresent(text)) {
+      words.addAll(Arrays.asList(WHITESPACE.split(text.trim())));
+    }
+  }
+
+  private static void addCredits(Set<String> names, String credits) {
+    if (isPresent(credits)) {
+      for (String name : CREDIT_SEPARATOR.split(credits)) {
+        addValue(names, name.trim());
+      }
+    }
+  }
+
+  private static void addValue(Set<String> values, String value) {
+    if (isPresent(value)) {
+      values.add(value);
+    }
+  }
+
+  private static boolean isPresent(String value) {
+    return !value.isEmpty() && !value.equals("N/A");
+  }
+
+  private static final class Holder {
+
+    private static final Vocabulary SAMPLE_DATA = new Vocabulary();
+  }
+}
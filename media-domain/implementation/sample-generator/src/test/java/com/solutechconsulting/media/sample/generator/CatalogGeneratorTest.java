@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.sample.generator;
+
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.SampleDefinitions;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class CatalogGeneratorTest {
+
+  private static final GeneratorSettings SETTINGS = GeneratorSettings.defaults().withSeed(42)
+      .withMovies(500).withAudio(2000).withTelevisionShows(3000);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testDeterministic() {
+    CatalogGenerator generator = new CatalogGenerator(SETTINGS);
+    CatalogGenerator sameSeed = new CatalogGenerator(SETTINGS);
+    CatalogGenerator otherSeed = new CatalogGenerator(SETTINGS.withSeed(43));
+
+    assertEquals(generator.movies().toList().blockingGet(),
+        sameSeed.movies().toList().blockingGet());
+    assertEquals(generator.audio().toList().blockingGet(),
+        sameSeed.audio().toList().blockingGet());
+    assertEquals(generator.televisionShows().toList().blockingGet(),
+        generator.televisionShows().toList().blockingGet());
+    assertNotEquals(generator.televisionShows().toList().blockingGet(),
+        otherSeed.televisionShows().toList().blockingGet());
+  }
+
+  @Test
+  public void testStructure() {
+    CatalogGenerator generator = new CatalogGenerator(SETTINGS);
+    List<Movie> movies = generator.movies().toList().blockingGet();
+    List<Audio> audio = generator.audio().toList().blockingGet();
+    List<TelevisionShow> shows = generator.televisionShows().toList().blockingGet();
+
+    assertEquals(SETTINGS.getMovies(), movies.size());
+    assertEquals(SETTINGS.getAudio(), audio.size());
+    assertEquals(SETTINGS.getTelevisionShows(), shows.size());
+    Set<String> ids = Stream.of(movies, audio, shows).flatMap(List::stream)
+        .map(media -> media.getId()).collect(Collectors.toSet());
+    assertEquals(movies.size() + audio.size() + shows.size(), ids.size());
+
+    Set<String> albums = new HashSet<>();
+    Audio previousTrack = null;
+    for (Audio track : audio) {
+      if (previousTrack != null && previousTrack.getAlbum().equals(track.getAlbum())) {
+        assertEquals(previousTrack.getTrackNumber() + 1, track.getTrackNumber());
+        assertEquals(previousTrack.getAlbumArtist(), track.getAlbumArtist());
+      } else {
+        assertEquals(1, track.getTrackNumber());
+        assertTrue(albums.add(track.getAlbum()), "Album titles are unique");
+      }
+      track.getArtist().ifPresent(artist -> assertNotEquals(track.getAlbumArtist(), artist));
+      previousTrack = track;
+    }
+    assertTrue(albums.size() > 1);
+
+    Set<String> series = new HashSet<>();
+    TelevisionShow previousShow = null;
+    for (TelevisionShow show : shows) {
+      if (previousShow != null && previousShow.getSeriesTitle().equals(show.getSeriesTitle())) {
+        if (previousShow.getSeason() == show.getSeason()) {
+          assertEquals(previousShow.getEpisode() + 1, show.getEpisode());
+          assertTrue(show.getOriginallyAired().get()
+              .isAfter(previousShow.getOriginallyAired().get()));
+        } else {
+          assertEquals(previousShow.getSeason() + 1, show.getSeason());
+          assertEquals(1, show.getEpisode());
+        }
+        assertEquals(previousShow.getStudio(), show.getStudio());
+      } else {
+        assertEquals(1, show.getSeason());
+        assertEquals(1, show.getEpisode());
+        assertTrue(series.add(show.getSeriesTitle()), "Series titles are unique");
+      }
+      previousShow = show;
+    }
+    assertTrue(series.size() > 1);
+  }
+
+  @Test
+  public void testCsvRoundTrip() throws IOException {
+    CatalogGenerator generator = new CatalogGenerator(SETTINGS);
+    CatalogCsvWriter.write(generator, directory);
+
+    assertEquals(generator.movies().toList().blockingGet(),
+        new MovieLoader(directory.resolve(SampleDefinitions.Movies.FILE_NAME)).loadMovies()
+            .toList().blockingGet());
+    assertEquals(generator.audio().toList().blockingGet(),
+        new AudioLoader(directory.resolve(SampleDefinitions.Audio.FILE_NAME)).loadAudio()
+            .toList().blockingGet());
+    assertEquals(generator.televisionShows().toList().blockingGet(),
+        new TelevisionShowLoader(directory.resolve(SampleDefinitions.TelevisionShow.FILE_NAME))
+            .loadTelevisionShows().toList().blockingGet());
+  }
+}
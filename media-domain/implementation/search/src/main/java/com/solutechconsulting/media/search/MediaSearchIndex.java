@@ -0,0 +1,404 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.search;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Media;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An embedded full-text search index over the text fields of a {@link MediaCatalog}. Movies, audio
+ * items and television shows are held in separate Lucene indexes, each searched across several
+ * fields with per-field boosts so that, for example, a match in a title ranks above a match in a
+ * summary. Text is analyzed with Lucene's English analyzer, so searches are case-insensitive and
+ * match across simple word forms. All search terms must match for an item to be returned.
+ * <p>
+ * Searches return the top {@code limit} items by relevance. Collection stops counting hits once the
+ * limit is reached, allowing Lucene to skip documents that cannot make the top results.
+ * <p>
+ * Updates are incremental: each indexed document stores a SHA-1 digest of the field values it was
+ * built from, and {@link #update(MediaCatalog)} only rewrites documents for items that were added
+ * or whose indexed fields changed, and deletes documents for items that were removed. When the
+ * index is kept on disk, the stored digests are read back on start, so a restart against an
+ * unchanged catalogue does not re-index anything. Documents written without a digest are
+ * re-indexed.
+ * <p>
+ * The index only stores item identifiers. Items returned from searches are taken from the catalogue
+ * most recently passed to {@link #update(MediaCatalog)}.
+ */
+public class MediaSearchIndex implements Closeable {
+
+  private static final String ID_FIELD = "id";
+  private static final String DIGEST_FIELD = "digest";
+
+  private final Logger logger = LoggerFactory.getLogger(MediaSearchIndex.class.getName());
+
+  private final Section<Movie> movies;
+  private final Section<Audio> audio;
+  private final Section<TelevisionShow> televisionShows;
+
+  private MediaSearchIndex(DirectoryFactory directoryFactory) throws IOException {
+    Analyzer analyzer = new EnglishAnalyzer();
+
+    Map<String, Float> movieFields = new HashMap<>();
+    movieFields.put(Fields.TITLE, 4.0f);
+    movieFields.put(Fields.TAGLINE, 2.0f);
+    movieFields.put(Fields.SUMMARY, 1.0f);
+    movies = new Section<>(directoryFactory.create("movies"), analyzer, movieFields, movie -> {
+      Map<String, String> fields = new HashMap<>();
+      fields.put(Fields.TITLE, movie.getTitle());
+      fields.put(Fields.TAGLINE, movie.getTagline());
+      fields.put(Fields.SUMMARY, movie.getSummary());
+      return fields;
+    });
+
+    Map<String, Float> audioFields = new HashMap<>();
+    audioFields.put(Fields.TITLE, 4.0f);
+    audioFields.put(Fields.ALBUM, 2.0f);
+    audioFields.put(Fields.ALBUM_ARTIST, 2.0f);
+    audioFields.put(Fields.ARTIST, 2.0f);
+    audio = new Section<>(directoryFactory.create("audio"), analyzer, audioFields, track -> {
+      Map<String, String> fields = new HashMap<>();
+      fields.put(Fields.TITLE, track.getTitle());
+      fields.put(Fields.ALBUM, track.getAlbum());
+      fields.put(Fields.ALBUM_ARTIST, track.getAlbumArtist());
+      track.getArtist().ifPresent(artist -> fields.put(Fields.ARTIST, artist));
+      return fields;
+    });
+
+    Map<String, Float> showFields = new HashMap<>();
+    showFields.put(Fields.TITLE, 4.0f);
+    showFields.put(Fields.SERIES_TITLE, 3.0f);
+    showFields.put(Fields.SUMMARY, 1.0f);
+    televisionShows = new Section<>(directoryFactory.create("shows"), analyzer, showFields,
+        show -> {
+          Map<String, String> fields = new HashMap<>();
+          fields.put(Fields.TITLE, show.getTitle());
+          fields.put(Fields.SERIES_TITLE, show.getSeriesTitle());
+          fields.put(Fields.SUMMARY, show.getSummary());
+          return fields;
+        });
+  }
+
+  /**
+   * Create an index held in memory.
+   *
+   * @return the index
+   * @throws IOException if the index cannot be created
+   */
+  public static MediaSearchIndex inMemory() throws IOException {
+    return new MediaSearchIndex(name -> new ByteBuffersDirectory());
+  }
+
+  /**
+   * Create an index stored in the given directory, reopening the index already stored there if
+   * there is one.
+   *
+   * @param directory the index directory
+   * @return the index
+   * @throws IOException if the index cannot be created or opened
+   */
+  public static MediaSearchIndex onDisk(Path directory) throws IOException {
+    return new MediaSearchIndex(name -> FSDirectory.open(directory.resolve(name)));
+  }
+
+  /**
+   * Create the index for a service as described by the given configuration.
+   *
+   * @param configuration the search configuration
+   * @param serviceName   the name of the service using the index
+   * @return the index
+   * @throws IOException if the index cannot be created or opened
+   */
+  public static MediaSearchIndex create(MediaSearchConfiguration configuration,
+      String serviceName) throws IOException {
+    if (configuration.getIndexDirectory().isPresent()) {
+      return onDisk(Paths.get(configuration.getIndexDirectory().get()).resolve(serviceName));
+    }
+
+    return inMemory();
+  }
+
+  /**
+   * Bring the index up to date with the given catalogue.
+   *
+   * @param catalog the catalogue
+   * @return the number of documents added, replaced or deleted
+   * @throws IOException if the index cannot be updated
+   */
+  public synchronized int update(MediaCatalog catalog) throws IOException {
+    int changes = movies.update(catalog.getMovies().toList().blockingGet());
+    changes += audio.update(catalog.getAudio().toList().blockingGet());
+    changes += televisionShows.update(catalog.getTelevisionShows().toList().blockingGet());
+
+    logger.info("Search index updated. Documents changed: {}", changes);
+    return changes;
+  }
+
+  public List<Movie> searchMovies(String movieText, int limit) throws IOException {
+    return movies.search(movieText, limit);
+  }
+
+  public List<Audio> searchAudio(String audioText, int limit) throws IOException {
+    return audio.search(audioText, limit);
+  }
+
+  public List<TelevisionShow> searchTelevisionShows(String showText, int limit)
+      throws IOException {
+    return televisionShows.search(showText, limit);
+  }
+
+  @Override
+  public void close() throws IOException {
+    movies.close();
+    audio.close();
+    televisionShows.close();
+  }
+
+  @FunctionalInterface
+  private interface DirectoryFactory {
+
+    Directory create(String name) throws IOException;
+  }
+
+  /**
+   * The index of a single media type.
+   */
+  private static final class Section<T extends Media> implements Closeable {
+
+    private final Directory directory;
+    private final Analyzer analyzer;
+    private final Map<String, Float> fieldBoosts;
+    private final Function<T, Map<String, String>> fieldExtractor;
+
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private Map<String, BytesRef> indexedDigests;
+    private volatile Map<String, T> items = Collections.emptyMap();
+
+    private Section(Directory directory, Analyzer analyzer, Map<String, Float> fieldBoosts,
+        Function<T, Map<String, String>> fieldExtractor) throws IOException {
+      this.directory = directory;
+      this.analyzer = analyzer;
+      this.fieldBoosts = fieldBoosts;
+      this.fieldExtractor = fieldExtractor;
+
+      writer = new IndexWriter(directory,
+          new IndexWriterConfig(analyzer).setOpenMode(OpenMode.CREATE_OR_APPEND));
+      searcherManager = new SearcherManager(writer, null);
+      indexedDigests = readIndexedDigests();
+    }
+
+    private Map<String, BytesRef> readIndexedDigests() throws IOException {
+      Map<String, BytesRef> digests = new HashMap<>();
+      Set<String> storedFields = Set.of(ID_FIELD, DIGEST_FIELD);
+
+      try (DirectoryReader reader = DirectoryReader.open(writer)) {
+        for (LeafReaderContext context : reader.leaves()) {
+          LeafReader leafReader = context.reader();
+          Bits liveDocs = leafReader.getLiveDocs();
+          for (int doc = 0; doc < leafReader.maxDoc(); doc++) {
+            if (liveDocs == null || liveDocs.get(doc)) {
+              Document document = leafReader.document(doc, storedFields);
+              BytesRef digest = document.getBinaryValue(DIGEST_FIELD);
+              digests.put(document.get(ID_FIELD),
+                  digest == null ? new BytesRef() : BytesRef.deepCopyOf(digest));
+            }
+          }
+        }
+      }
+
+      return digests;
+    }
+
+    private int update(List<T> catalogItems) throws IOException {
+      Map<String, T> updatedItems = new HashMap<>(catalogItems.size() * 4 / 3 + 1);
+      Map<String, BytesRef> updatedDigests = new HashMap<>(catalogItems.size() * 4 / 3 + 1);
+      int changes = 0;
+
+      for (T item : catalogItems) {
+        Map<String, String> fields = fieldExtractor.apply(item);
+        BytesRef digest = digest(fields);
+        updatedItems.put(item.getId(), item);
+        updatedDigests.put(item.getId(), digest);
+
+        if (!digest.equals(indexedDigests.get(item.getId()))) {
+          writer.updateDocument(new Term(ID_FIELD, item.getId()),
+              toDocument(item.getId(), fields, digest));
+          changes++;
+        }
+      }
+
+      for (String id : indexedDigests.keySet()) {
+        if (!updatedDigests.containsKey(id)) {
+          writer.deleteDocuments(new Term(ID_FIELD, id));
+          changes++;
+        }
+      }
+
+      // Publish the new items before the new documents become searchable, so that every document
+      // a searcher can see has a matching item.
+      items = updatedItems;
+      indexedDigests = updatedDigests;
+
+      if (changes > 0) {
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+      }
+
+      return changes;
+    }
+
+    private static Document toDocument(String id, Map<String, String> fields, BytesRef digest) {
+      Document document = new Document();
+      document.add(new StringField(ID_FIELD, id, Field.Store.YES));
+      document.add(new StoredField(DIGEST_FIELD, digest));
+      fields.forEach((name, value) -> document.add(new TextField(name, value, Field.Store.NO)));
+      return document;
+    }
+
+    /**
+     * Return a digest of the indexed fields of an item, taken over each field name and value in
+     * name order. Values are prefixed with their length so that no two sets of fields run together
+     * into the same input.
+     */
+    private static BytesRef digest(Map<String, String> fields) {
+      MessageDigest digest;
+      try {
+        digest = MessageDigest.getInstance("SHA-1");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+
+      ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+      new TreeMap<>(fields).forEach((name, value) -> {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update(length.clear().putInt(bytes.length).flip());
+        digest.update(bytes);
+      });
+      return new BytesRef(digest.digest());
+    }
+
+    private List<T> search(String text, int limit) throws IOException {
+      if (limit <= 0) {
+        throw new IllegalArgumentException("The search limit must be greater than zero.");
+      }
+
+      SimpleQueryParser parser = new SimpleQueryParser(analyzer, fieldBoosts);
+      parser.setDefaultOperator(BooleanClause.Occur.MUST);
+      Query query = parser.parse(text);
+      if (query == null) {
+        return Collections.emptyList();
+      }
+
+      Map<String, T> currentItems = items;
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        TopScoreDocCollector collector = TopScoreDocCollector.create(limit, limit);
+        searcher.search(query, collector);
+
+        Set<String> storedFields = Set.of(ID_FIELD);
+        List<T> results = new ArrayList<>(limit);
+        for (ScoreDoc scoreDoc : collector.topDocs().scoreDocs) {
+          T item = currentItems.get(searcher.doc(scoreDoc.doc, storedFields).get(ID_FIELD));
+          if (item != null) {
+            results.add(item);
+          }
+        }
+
+        return results;
+      } finally {
+        searcherManager.release(searcher);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      searcherManager.close();
+      writer.close();
+      directory.close();
+    }
+  }
+
+  private static final class Fields {
+
+    private static final String TITLE = "title";
+    private static final String TAGLINE = "tagline";
+    private static final String SUMMARY = "summary";
+    private static final String ALBUM = "album";
+    private static final String ALBUM_ARTIST = "albumArtist";
+    private static final String ARTIST = "artist";
+    private static final String SERIES_TITLE = "seriesTitle";
+
+    private Fields() {
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.search;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.catalog.MediaKeys;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableSuggestion;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.model.TelevisionShow;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup.LookupResult;
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+
+/**
+ * An immutable prefix completion structure over the titles, series titles, album titles and
+ * artists of a {@link MediaCatalog}. Completions are held in a weighted finite state transducer,
+ * which shares common prefixes and suffixes between entries and so needs far less memory than a
+ * map or trie of the same values. Each completion is weighted by the number of media items having
+ * that value, and lookups return the most heavily weighted completions of a prefix without visiting
+ * the other completions.
+ * <p>
+ * Each FST entry is the normalized value, used for matching, followed by the kind of value and the
+ * value as it appears in the catalogue. The displayed form of a suggestion is therefore recovered
+ * from the FST itself, without a separate lookup table.
+ */
+public final class MediaSuggester {
+
+  private static final char SEPARATOR = '\u001F';
+
+  private final WFSTCompletionLookup lookup;
+
+  private MediaSuggester(WFSTCompletionLookup lookup) {
+    this.lookup = lookup;
+  }
+
+  /**
+   * Build a suggester over the given catalogue.
+   *
+   * @param catalog the catalogue
+   * @return the suggester
+   * @throws IOException if the completion structure cannot be built
+   */
+  public static MediaSuggester of(MediaCatalog catalog) throws IOException {
+    Map<String, Long> weights = new HashMap<>();
+
+    for (Movie movie : catalog.getMovies().blockingIterable()) {
+      count(weights, Suggestion.Kind.TITLE, movie.getTitle());
+    }
+
+    for (Audio audio : catalog.getAudio().blockingIterable()) {
+      count(weights, Suggestion.Kind.TITLE, audio.getTitle());
+      count(weights, Suggestion.Kind.ALBUM, audio.getAlbum());
+      count(weights, Suggestion.Kind.ARTIST, audio.getAlbumArtist());
+      audio.getArtist().filter(artist -> !artist.equals(audio.getAlbumArtist()))
+          .ifPresent(artist -> count(weights, Suggestion.Kind.ARTIST, artist));
+    }
+
+    for (TelevisionShow show : catalog.getTelevisionShows().blockingIterable()) {
+      count(weights, Suggestion.Kind.TITLE, show.getTitle());
+      count(weights, Suggestion.Kind.SERIES_TITLE, show.getSeriesTitle());
+    }
+
+    WFSTCompletionLookup lookup;
+    try (Directory tempDirectory = new ByteBuffersDirectory()) {
+      lookup = new WFSTCompletionLookup(tempDirectory, "suggest", false);
+      lookup.build(new WeightIterator(weights));
+    }
+
+    return new MediaSuggester(lookup);
+  }
+
+  /**
+   * Return the most popular completions of the given prefix, most popular first.
+   *
+   * @param prefix the text entered so far
+   * @param limit  the maximum number of suggestions to return
+   * @return the suggestions
+   * @throws IOException if the lookup fails
+   */
+  public List<Suggestion> suggest(String prefix, int limit) throws IOException {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("The suggestion limit must be greater than zero.");
+    }
+
+    String key = prefix.stripLeading().toLowerCase(Locale.ROOT);
+    if (key.isEmpty() || key.indexOf(SEPARATOR) >= 0) {
+      return List.of();
+    }
+
+    List<LookupResult> results = lookup.lookup(key, null, false, limit);
+    List<Suggestion> suggestions = new ArrayList<>(results.size());
+    for (LookupResult result : results) {
+      String entry = result.key.toString();
+      int separator = entry.indexOf(SEPARATOR);
+      Suggestion.Kind kind = Suggestion.Kind.values()[entry.charAt(separator + 1) - '0'];
+      suggestions.add(ImmutableSuggestion.builder().text(entry.substring(separator + 2))
+          .kind(kind).weight(result.value).build());
+    }
+
+    return suggestions;
+  }
+
+  /**
+   * Return the number of completions held by the suggester.
+   *
+   * @return the number of completions
+   */
+  public long size() {
+    return lookup.getCount();
+  }
+
+  /**
+   * Return the memory used by the completion structure.
+   *
+   * @return the size in bytes
+   */
+  public long ramBytesUsed() {
+    return lookup.ramBytesUsed();
+  }
+
+  /**
+   * Register a gauge reporting the memory used by the current suggester of a service.
+   *
+   * @param metricRegistry the application metric registry
+   * @param metricsPrefix  the metrics prefix of the service
+   * @param suggester      supplies the service's current suggester, or null if there is none
+   */
+  public static void registerMetrics(MetricRegistry metricRegistry, String metricsPrefix,
+      Supplier<MediaSuggester> suggester) {
+    String name = metricsPrefix + '.' + MetricsDefinitions.Size.GAUGE_NAME;
+    Metadata metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.GAUGE)
+            .withUnit(MetricUnits.BYTES).withDescription(MetricsDefinitions.Size.GAUGE_DESCRIPTION)
+            .build();
+
+    metricRegistry.register(metadata, (Gauge<Long>) () -> {
+      MediaSuggester current = suggester.get();
+      return current == null ? 0L : current.ramBytesUsed();
+    });
+  }
+
+  private static void count(Map<String, Long> weights, Suggestion.Kind kind, String value) {
+    String normalized = MediaKeys.normalize(value);
+    if (!normalized.isEmpty() && normalized.indexOf(SEPARATOR) < 0) {
+      weights.merge(normalized + SEPARATOR + kind.ordinal() + value.trim(), 1L, Long::sum);
+    }
+  }
+
+  /**
+   * Feeds the weighted completions to the FST builder.
+   */
+  private static final class WeightIterator implements InputIterator {
+
+    private final Iterator<Map.Entry<String, Long>> entries;
+    private long weight;
+
+    private WeightIterator(Map<String, Long> weights) {
+      entries = weights.entrySet().iterator();
+    }
+
+    @Override
+    public BytesRef next() {
+      if (!entries.hasNext()) {
+        return null;
+      }
+
+      Map.Entry<String, Long> entry = entries.next();
+      weight = entry.getValue();
+      return new BytesRef(entry.getKey());
+    }
+
+    @Override
+    public long weight() {
+      return weight;
+    }
+
+    @Override
+    public BytesRef payload() {
+      return null;
+    }
+
+    @Override
+    public boolean hasPayloads() {
+      return false;
+    }
+
+    @Override
+    public Set<BytesRef> contexts() {
+      return null;
+    }
+
+    @Override
+    public boolean hasContexts() {
+      return false;
+    }
+  }
+
+  public static final class MetricsDefinitions {
+
+    public static final class Size {
+
+      public static final String GAUGE_NAME = "SuggesterSize";
+      public static final String GAUGE_DESCRIPTION =
+          "The memory in bytes used by the prefix completion structure.";
+
+      private Size() {
+      }
+    }
+
+    private MetricsDefinitions() {
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.ImmutableMovie;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestMediaSearchIndex {
+
+  private static List<Movie> movies;
+  private static List<Audio> audio;
+  private static List<TelevisionShow> televisionShows;
+
+  @BeforeAll
+  public static void loadSampleData() {
+    movies = new MovieLoader().loadMovies().toList().blockingGet();
+    audio = new AudioLoader().loadAudio().toList().blockingGet();
+    televisionShows = new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet();
+  }
+
+  @Test
+  public void testRankedSearch() throws IOException {
+    try (MediaSearchIndex index = MediaSearchIndex.inMemory()) {
+      index.update(MediaCatalog.of(movies, audio, televisionShows));
+
+      List<Movie> results = index.searchMovies("star trek", 5);
+      assertEquals(5, results.size());
+      for (Movie movie : results) {
+        assertTrue(movie.getTitle().toLowerCase().contains("star trek"), movie.getTitle());
+      }
+
+      List<Audio> tracks = index.searchAudio("pink floyd", 10);
+      assertEquals(10, tracks.size());
+
+      List<TelevisionShow> shows = index.searchTelevisionShows("Hawkeye", 3);
+      assertEquals(3, shows.size());
+      for (TelevisionShow show : shows) {
+        assertTrue(show.getTitle().toLowerCase().contains("hawkeye")
+            || show.getSeriesTitle().toLowerCase().contains("hawkeye"), show.getTitle());
+      }
+
+      assertTrue(index.searchMovies("xyzzy", 5).isEmpty());
+    }
+  }
+
+  @Test
+  public void testIncrementalUpdate() throws IOException {
+    try (MediaSearchIndex index = MediaSearchIndex.inMemory()) {
+      assertEquals(movies.size() + audio.size() + televisionShows.size(),
+          index.update(MediaCatalog.of(movies, audio, televisionShows)));
+
+      Movie khan = movies.stream().filter(movie -> movie.getId().equals("2588")).findFirst()
+          .orElseThrow();
+      List<Movie> updatedMovies = movies.stream().filter(movie -> movie != khan)
+          .collect(Collectors.toCollection(ArrayList::new));
+      updatedMovies.add(ImmutableMovie.copyOf(khan).withTitle("Zanzibar"));
+
+      assertEquals(1, index.update(MediaCatalog.of(updatedMovies, audio, televisionShows)));
+      assertEquals("Zanzibar", index.searchMovies("zanzibar", 5).get(0).getTitle());
+      assertFalse(index.searchMovies("wrath of khan", 5).stream()
+          .anyMatch(movie -> movie.getId().equals("2588")));
+
+      updatedMovies.removeIf(movie -> movie.getId().equals("2588"));
+      assertEquals(1, index.update(MediaCatalog.of(updatedMovies, audio, televisionShows)));
+      assertTrue(index.searchMovies("zanzibar", 5).isEmpty());
+    }
+  }
+
+  @Test
+  public void testIndexOnDisk() throws IOException {
+    Path directory = Files.createTempDirectory("media-search");
+    MediaCatalog catalog = MediaCatalog.of(movies, audio, televisionShows);
+
+    try (MediaSearchIndex index = MediaSearchIndex.onDisk(directory)) {
+      assertEquals(catalog.size(), index.update(catalog));
+    }
+
+    try (MediaSearchIndex index = MediaSearchIndex.onDisk(directory)) {
+      assertEquals(0, index.update(catalog));
+      assertEquals(5, index.searchMovies("star trek", 5).size());
+    }
+  }
+
+  @Test
+  public void testChangedFieldsOnDisk() throws IOException {
+    Path directory = Files.createTempDirectory("media-search");
+    try (MediaSearchIndex index = MediaSearchIndex.onDisk(directory)) {
+      index.update(MediaCatalog.of(movies, audio, televisionShows));
+    }
+
+    Movie khan = movies.stream().filter(movie -> movie.getId().equals("2588")).findFirst()
+        .orElseThrow();
+    List<Movie> updatedMovies = movies.stream().filter(movie -> movie != khan)
+        .collect(Collectors.toCollection(ArrayList::new));
+    Movie changed = ImmutableMovie.copyOf(khan).withSummary(khan.getSummary() + " Zanzibar.");
+    updatedMovies.add(changed);
+
+    try (MediaSearchIndex index = MediaSearchIndex.onDisk(directory)) {
+      // A change to an indexed field is found against the digests stored by the previous run
+      assertEquals(1, index.update(MediaCatalog.of(updatedMovies, audio, televisionShows)));
+      assertEquals("2588", index.searchMovies("zanzibar", 5).get(0).getId());
+
+      // A change to a field that is not indexed leaves the document alone
+      updatedMovies.set(updatedMovies.size() - 1, ImmutableMovie.copyOf(changed)
+          .withStudio("Zanzibar Studios"));
+      assertEquals(0, index.update(MediaCatalog.of(updatedMovies, audio, televisionShows)));
+      assertEquals("Zanzibar Studios", index.searchMovies("zanzibar", 5).get(0).getStudio());
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.sample.AudioLoader;
+import com.solutechconsulting.media.sample.MovieLoader;
+import com.solutechconsulting.media.sample.TelevisionShowLoader;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestMediaSuggester {
+
+  private static MediaSuggester suggester;
+
+  @BeforeAll
+  public static void buildSuggester() throws IOException {
+    suggester = MediaSuggester.of(
+        MediaCatalog.of(new MovieLoader().loadMovies().toList().blockingGet(),
+            new AudioLoader().loadAudio().toList().blockingGet(),
+            new TelevisionShowLoader().loadTelevisionShows().toList().blockingGet()));
+  }
+
+  @Test
+  public void testSuggestTitles() throws IOException {
+    List<Suggestion> suggestions = suggester.suggest("Star T", 5);
+    assertEquals(5, suggestions.size());
+    for (Suggestion suggestion : suggestions) {
+      assertTrue(suggestion.getText().startsWith("Star Trek"), suggestion.getText());
+      assertEquals(Suggestion.Kind.TITLE, suggestion.getKind());
+    }
+  }
+
+  @Test
+  public void testSuggestOrderedByWeight() throws IOException {
+    List<Suggestion> suggestions = suggester.suggest("pink", 10);
+    assertTrue(suggestions.size() > 1);
+    assertEquals("Pink Floyd", suggestions.get(0).getText());
+    assertEquals(Suggestion.Kind.ARTIST, suggestions.get(0).getKind());
+    for (int i = 1; i < suggestions.size(); i++) {
+      assertTrue(suggestions.get(i - 1).getWeight() >= suggestions.get(i).getWeight());
+    }
+  }
+
+  @Test
+  public void testSuggestSeriesAndAlbums() throws IOException {
+    assertTrue(suggester.suggest("doc mar", 5).stream().anyMatch(
+        suggestion -> suggestion.getKind() == Suggestion.Kind.SERIES_TITLE && suggestion.getText()
+            .equals("Doc Martin")));
+    assertTrue(suggester.suggest("aja", 5).stream().anyMatch(
+        suggestion -> suggestion.getKind() == Suggestion.Kind.ALBUM));
+  }
+
+  @Test
+  public void testSuggestNoMatch() throws IOException {
+    assertTrue(suggester.suggest("zzzzzz", 5).isEmpty());
+    assertTrue(suggester.suggest("", 5).isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> suggester.suggest("star", 0));
+  }
+}
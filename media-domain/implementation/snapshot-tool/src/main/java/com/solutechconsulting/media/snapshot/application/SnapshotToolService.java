@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.snapshot.application;
+
+import com.solutechconsulting.media.catalog.CatalogSnapshot;
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.service.MediaService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a {@link CatalogSnapshot} of every media item served by the {@link MediaService}
+ * implementation included in the build: the sample CSV files with the mock profile, or the
+ * database otherwise.
+ */
+@ApplicationScoped
+public class SnapshotToolService {
+
+  private final Logger logger = LoggerFactory.getLogger(SnapshotToolService.class);
+
+  @Inject
+  MediaService mediaService;
+
+  public void writeSnapshot(Path file) throws IOException {
+    logger.info("Reading the catalogue...");
+    long start = System.nanoTime();
+    MediaCatalog catalog = MediaCatalog.load(mediaService).blockingGet();
+    long loaded = System.nanoTime();
+
+    CatalogSnapshot.write(catalog, file);
+    long written = System.nanoTime();
+
+    logger.info("Snapshot written:");
+    logger.info("   File:              {}", file.toAbsolutePath());
+    logger.info("   Snapshot version:  {}", CatalogSnapshot.VERSION);
+    logger.info("   Media items:       {}", catalog.size());
+    logger.info("   Size:              {} bytes", Files.size(file));
+    logger.info("   Read time:         {} ms", TimeUnit.NANOSECONDS.toMillis(loaded - start));
+    logger.info("   Write time:        {} ms", TimeUnit.NANOSECONDS.toMillis(written - loaded));
+  }
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.tiered;
+
+import com.solutechconsulting.media.catalog.CatalogSnapshot;
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.catalog.MediaCatalogConfiguration;
+import com.solutechconsulting.media.model.Audio;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.search.MediaSearchConfiguration;
+import com.solutechconsulting.media.search.MediaSearchIndex;
+import com.solutechconsulting.media.search.MediaSuggester;
+import com.solutechconsulting.media.service.AbstractMediaService;
+import com.solutechconsulting.media.service.MediaService;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Alternative;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.literal.NamedLiteral;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.interceptor.Interceptor;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Timer;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link MediaService} implementation that answers every request from a local, in-memory {@link
+ * MediaCatalog} snapshot of an upstream service. The upstream is another MediaService
+ * implementation, selected by name through {@link TieredMediaServiceConfiguration#getUpstream()}.
+ * It is typically the gRPC or REST client implementation, allowing an edge deployment to serve
+ * requests without a network round trip to the core service.
+ * <p>
+ * The snapshot is loaded on first use and refreshed in the background at the configured refresh
+ * interval, or when a {@link MediaCatalogChanged} event announces a new catalogue version. Refreshes
+ * follow stale-while-revalidate semantics: once the snapshot is older than the configured maximum
+ * age, requests continue to be served from it while a refresh runs in the background. Only one
+ * refresh runs at a time, and a failed refresh leaves the current snapshot in place. Requests made
+ * before the first snapshot is available wait for it to load.
+ * <p>
+ * When {@link MediaCatalogConfiguration#getSnapshotFile()} is configured, the service opens the
+ * {@link CatalogSnapshot} left by a previous run at start and serves requests from it while the
+ * first refresh runs, and writes a new snapshot after every successful refresh. A missing or
+ * unreadable snapshot is ignored and the service waits for the upstream as usual.
+ * <p>
+ * Ranked searches are answered from a {@link MediaSearchIndex}, which is updated incrementally as
+ * part of each refresh. Suggestions are answered from a {@link MediaSuggester} rebuilt with each
+ * refresh.
+ * <p>
+ * Since this service is intended to sit in front of other implementations, it is given a higher
+ * priority than they are.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(Interceptor.Priority.APPLICATION + 10)
+@Named(TieredMediaService.SERVICE_NAME)
+public class TieredMediaService extends AbstractMediaService {
+
+  public static final String SERVICE_NAME = "TieredMediaService";
+
+  private final Logger logger = LoggerFactory.getLogger(TieredMediaService.class.getName());
+
+  private final AtomicReference<MediaCatalog> catalog = new AtomicReference<>();
+  private final AtomicReference<Single<MediaCatalog>> pendingRefresh = new AtomicReference<>();
+
+  private volatile String catalogVersion;
+
+  @Inject
+  @Any
+  Instance<MediaService> mediaServices;
+
+  @Inject
+  TieredMediaServiceConfiguration serviceConfiguration;
+
+  @Inject
+  MediaCatalogConfiguration catalogConfiguration;
+
+  @Inject
+  MediaSearchConfiguration searchConfiguration;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  private MediaService upstream;
+  private MediaSearchIndex searchIndex;
+  private volatile MediaSuggester suggester;
+  private ScheduledExecutorService refreshExecutor;
+
+  private Timer refreshTimer;
+  private Counter refreshFailures;
+
+  @PostConstruct
+  void start() {
+    String upstreamName = serviceConfiguration.getUpstream();
+    logger.info("Using {} as the upstream media service.", upstreamName);
+    upstream = mediaServices.select(NamedLiteral.of(upstreamName)).get();
+
+    try {
+      searchIndex = MediaSearchIndex.create(searchConfiguration, SERVICE_NAME);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    initializeSnapshotMetrics();
+    MediaSuggester.registerMetrics(metricRegistry, getMetricsPrefix(), () -> suggester);
+
+    catalogConfiguration.getSnapshotFile().map(Paths::get).filter(Files::exists)
+        .ifPresent(this::openSnapshot);
+
+    refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "tiered-media-service-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long refreshInterval = serviceConfiguration.getRefreshInterval().toMillis();
+    refreshExecutor.scheduleWithFixedDelay(() -> refresh(null), refreshInterval, refreshInterval,
+        TimeUnit.MILLISECONDS);
+
+    refresh(null);
+  }
+
+  @PreDestroy
+  public void cleanup() throws IOException {
+    logger.info("Stopping snapshot refresh.");
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+
+    if (searchIndex != null) {
+      searchIndex.close();
+    }
+  }
+
+  /**
+   * Refresh the snapshot when the upstream catalogue version differs from the version the current
+   * snapshot was loaded for.
+   *
+   * @param event the catalogue change event
+   */
+  void onCatalogChanged(@Observes MediaCatalogChanged event) {
+    String version = event.getVersion();
+    if (Objects.equals(version, catalogVersion)) {
+      logger.debug("Snapshot is already at catalogue version {}.", version);
+      return;
+    }
+
+    Single<MediaCatalog> pending = pendingRefresh.get();
+    if (pending == null) {
+      refresh(version);
+    } else {
+      // The running refresh may have read the upstream before the change. Refresh again once it
+      // completes.
+      pending.ignoreElement().onErrorComplete().subscribe(() -> refresh(version));
+    }
+  }
+
+  @Override
+  protected Flowable<Movie> doGetMovies() {
+    return currentCatalog().flatMapPublisher(MediaCatalog::getMovies);
+  }
+
+  @Override
+  protected Flowable<Movie> doSearchMovies(String movieText) {
+    return currentCatalog().flatMapPublisher(current -> current.searchMovies(movieText));
+  }
+
+  @Override
+  protected Flowable<Movie> doRankedSearchMovies(String movieText, int limit) {
+    return currentCatalog().flatMapPublisher(
+        current -> Flowable.fromIterable(searchIndex.searchMovies(movieText, limit)));
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudio() {
+    return currentCatalog().flatMapPublisher(MediaCatalog::getAudio);
+  }
+
+  @Override
+  protected Flowable<Audio> doGetAudioTracks(String albumTitle) {
+    return currentCatalog().flatMapPublisher(current -> current.getAudioTracks(albumTitle));
+  }
+
+  @Override
+  protected Flowable<Audio> doSearchAudio(String audioText) {
+    return currentCatalog().flatMapPublisher(current -> current.searchAudio(audioText));
+  }
+
+  @Override
+  protected Flowable<Audio> doRankedSearchAudio(String audioText, int limit) {
+    return currentCatalog().flatMapPublisher(
+        current -> Flowable.fromIterable(searchIndex.searchAudio(audioText, limit)));
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetTelevisionShows() {
+    return currentCatalog().flatMapPublisher(MediaCatalog::getTelevisionShows);
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doSearchTelevisionShows(String showText) {
+    return currentCatalog().flatMapPublisher(current -> current.searchTelevisionShows(showText));
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doRankedSearchTelevisionShows(String showText, int limit) {
+    return currentCatalog().flatMapPublisher(
+        current -> Flowable.fromIterable(searchIndex.searchTelevisionShows(showText, limit)));
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetEpisodes(String seriesTitle, int season) {
+    return currentCatalog()
+        .flatMapPublisher(current -> current.getEpisodes(seriesTitle, season));
+  }
+
+  @Override
+  protected Flowable<TelevisionShow> doGetSeries(String seriesTitle) {
+    return currentCatalog().flatMapPublisher(current -> current.getSeries(seriesTitle));
+  }
+
+  @Override
+  protected Flowable<Suggestion> doSuggest(String prefix, int limit) {
+    return currentCatalog().flatMapPublisher(
+        current -> Flowable.fromIterable(suggester.suggest(prefix, limit)));
+  }
+
+  @Override
+  protected String getMetricsPrefix() {
+    return TieredMediaService.class.getName();
+  }
+
+  /**
+   * Return the upstream catalogue version the current snapshot was loaded for.
+   *
+   * @return the catalogue version, or null if no versioned snapshot has been loaded
+   */
+  String getCatalogVersion() {
+    return catalogVersion;
+  }
+
+  /**
+   * Return the snapshot to answer a request from. A stale snapshot is returned as-is after a
+   * background refresh has been started. If no snapshot has been loaded yet, the returned Single
+   * completes once the load in progress completes.
+   *
+   * @return the snapshot
+   */
+  protected Single<MediaCatalog> currentCatalog() {
+    MediaCatalog current = catalog.get();
+    if (current == null) {
+      return refresh(null);
+    }
+
+    if (getSnapshotAge(current).compareTo(serviceConfiguration.getMaxAge()) > 0) {
+      logger.debug("Snapshot is stale. Revalidating in the background...");
+      refresh(null);
+    }
+
+    return Single.just(current);
+  }
+
+  /**
+   * Start a snapshot refresh unless one is already running, in which case the running refresh is
+   * returned. The running refresh is cleared before its subscribers are notified, so a subscriber
+   * refreshing again, as {@link #onCatalogChanged(MediaCatalogChanged)} does, starts a new one.
+   *
+   * @param version the catalogue version being loaded, or null if unknown
+   * @return a Single emitting the refreshed snapshot
+   */
+  protected Single<MediaCatalog> refresh(String version) {
+    while (true) {
+      Single<MediaCatalog> pending = pendingRefresh.get();
+      if (pending != null) {
+        return pending;
+      }
+
+      Single<MediaCatalog> load = Single.defer(() -> {
+        logger.info("Refreshing snapshot from upstream...");
+        long start = System.nanoTime();
+        return MediaCatalog.load(upstream, catalogConfiguration.getStorage()).doOnSuccess(loaded -> {
+          searchIndex.update(loaded);
+          suggester = MediaSuggester.of(loaded);
+          refreshTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+      }).subscribeOn(Schedulers.io()).doOnSuccess(loaded -> {
+        catalog.set(loaded);
+        setLookupFilters(loaded.getLookupFilters());
+        if (version != null) {
+          catalogVersion = version;
+        }
+        logger.info("Snapshot refreshed. Media items: {}, Storage: {}", loaded.size(),
+            loaded.getStorage());
+        catalogConfiguration.getSnapshotFile().map(Paths::get).ifPresent(
+            file -> Schedulers.io().scheduleDirect(() -> writeSnapshot(loaded, file)));
+      }).doOnError(throwable -> {
+        refreshFailures.inc();
+        logger.error("Error refreshing snapshot from upstream.", throwable);
+      }).doOnEvent((loaded, throwable) -> pendingRefresh.set(null)).cache();
+
+      if (pendingRefresh.compareAndSet(null, load)) {
+        load.subscribe(loaded -> {
+        }, throwable -> {
+        });
+        return load;
+      }
+    }
+  }
+
+  private void openSnapshot(Path file) {
+    try {
+      long start = System.nanoTime();
+      MediaCatalog opened = CatalogSnapshot.open(file);
+      searchIndex.update(opened);
+      suggester = MediaSuggester.of(opened);
+      catalog.compareAndSet(null, opened);
+      setLookupFilters(opened.getLookupFilters());
+      logger.info("Snapshot opened from {} in {} ms. Media items: {}, Created: {}", file,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), opened.size(),
+          opened.getCreated());
+    } catch (IOException e) {
+      logger.warn("Unable to open snapshot {}. Waiting for the upstream.", file, e);
+    }
+  }
+
+  private void writeSnapshot(MediaCatalog loaded, Path file) {
+    try {
+      CatalogSnapshot.write(loaded, file);
+      logger.debug("Snapshot written to {}.", file);
+    } catch (IOException e) {
+      logger.warn("Unable to write snapshot {}.", file, e);
+    }
+  }
+
+  private Duration getSnapshotAge(MediaCatalog current) {
+    return Duration.between(current.getCreated(), Instant.now());
+  }
+
+  private void initializeSnapshotMetrics() {
+    String metricsPrefix = getMetricsPrefix();
+    String name = metricsPrefix + '.' + SnapshotMetricsDefinitions.SnapshotAge.GAUGE_NAME;
+    Metadata metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.GAUGE)
+            .withUnit(MetricUnits.SECONDS)
+            .withDescription(SnapshotMetricsDefinitions.SnapshotAge.GAUGE_DESCRIPTION).build();
+
+    metricRegistry.register(metadata, (Gauge<Long>) () -> {
+      MediaCatalog current = catalog.get();
+      return current == null ? -1L : getSnapshotAge(current).getSeconds();
+    });
+
+    name = metricsPrefix + '.' + SnapshotMetricsDefinitions.SnapshotOffHeapSize.GAUGE_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.GAUGE)
+            .withUnit(MetricUnits.BYTES)
+            .withDescription(SnapshotMetricsDefinitions.SnapshotOffHeapSize.GAUGE_DESCRIPTION)
+            .build();
+
+    metricRegistry.register(metadata, (Gauge<Long>) () -> {
+      MediaCatalog current = catalog.get();
+      return current == null ? 0L : current.getOffHeapBytes();
+    });
+
+    name = metricsPrefix + '.' + SnapshotMetricsDefinitions.Refresh.TIMER_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.TIMER)
+            .withDescription(SnapshotMetricsDefinitions.Refresh.TIMER_DESCRIPTION).build();
+
+    refreshTimer = metricRegistry.timer(metadata);
+
+    name = metricsPrefix + '.' + SnapshotMetricsDefinitions.Refresh.FAILURES_NAME;
+    metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(MetricType.COUNTER)
+            .withDescription(SnapshotMetricsDefinitions.Refresh.FAILURES_DESCRIPTION).build();
+
+    refreshFailures = metricRegistry.counter(metadata);
+  }
+
+  public static final class SnapshotMetricsDefinitions {
+
+    public static final class SnapshotAge {
+
+      public static final String GAUGE_NAME = "SnapshotAge";
+      public static final String GAUGE_DESCRIPTION =
+          "The age in seconds of the local snapshot, or -1 if no snapshot has been loaded.";
+
+      private SnapshotAge() {
+      }
+    }
+
+    public static final class SnapshotOffHeapSize {
+
+      public static final String GAUGE_NAME = "SnapshotOffHeapSize";
+      public static final String GAUGE_DESCRIPTION =
+          "The number of bytes the local snapshot holds outside the Java heap.";
+
+      private SnapshotOffHeapSize() {
+      }
+    }
+
+    public static final class Refresh {
+
+      public static final String TIMER_NAME = "SnapshotRefreshTimer";
+      public static final String TIMER_DESCRIPTION =
+          "Time taken to load a complete snapshot from the upstream media service and update the"
+              + " search index.";
+
+      public static final String FAILURES_NAME = "SnapshotRefreshFailures";
+      public static final String FAILURES_DESCRIPTION =
+          "Number of snapshot refreshes that failed, leaving the previous snapshot in place.";
+
+      private Refresh() {
+      }
+    }
+
+    private SnapshotMetricsDefinitions() {
+    }
+  }
+}
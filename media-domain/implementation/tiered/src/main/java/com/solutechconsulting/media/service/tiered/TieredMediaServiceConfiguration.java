@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.tiered;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.tiered")
+public interface TieredMediaServiceConfiguration {
+
+  /**
+   * The name of the {@link com.solutechconsulting.media.service.MediaService} implementation from
+   * which the local snapshot is loaded (e.g. GrpcMediaService or RestMediaService).
+   *
+   * @return the upstream service name
+   */
+  @ConfigProperty(defaultValue = "GrpcMediaService")
+  String getUpstream();
+
+  /**
+   * The interval at which the snapshot is refreshed in the background.
+   *
+   * @return the refresh interval
+   */
+  @ConfigProperty(defaultValue = "PT1H")
+  Duration getRefreshInterval();
+
+  /**
+   * The age after which the snapshot is considered stale. A request served from a stale snapshot
+   * still receives the stale data, but also triggers a background refresh.
+   *
+   * @return the maximum snapshot age
+   */
+  @ConfigProperty(defaultValue = "PT15M")
+  Duration getMaxAge();
+}
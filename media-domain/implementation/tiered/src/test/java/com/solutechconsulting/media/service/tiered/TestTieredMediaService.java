@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.service.tiered;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.solutechconsulting.media.catalog.MediaCatalog;
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.test.MediaServiceTestBase;
+import io.quarkus.test.junit.QuarkusTest;
+import io.reactivex.Single;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.inject.Named;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestTieredMediaService extends MediaServiceTestBase {
+
+  @Inject
+  @Named(TieredMediaService.SERVICE_NAME)
+  MediaService mediaService;
+
+  @Inject
+  Event<MediaCatalogChanged> catalogChanged;
+
+  public MediaService getMediaService() {
+    return mediaService;
+  }
+
+  @Override
+  public String getServiceClassname() {
+    return TieredMediaService.class.getName();
+  }
+
+  @Test
+  public void testCatalogChangedDuringRefresh() throws InterruptedException {
+    TieredMediaService tiered = (TieredMediaService) mediaService;
+    String version = "version-" + System.nanoTime();
+
+    // The change arrives while a refresh is running, which may have read the upstream before it
+    Single<MediaCatalog> running = tiered.refresh(null);
+    catalogChanged.fire(new MediaCatalogChanged(version));
+    running.blockingGet();
+
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!version.equals(tiered.getCatalogVersion())
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(version, tiered.getCatalogVersion());
+  }
+}
@@ -29,11 +29,14 @@ import com.solutechconsulting.media.model.protobuf.AudioGrpc;
 import com.solutechconsulting.media.model.protobuf.AudioProto;
 import com.solutechconsulting.media.model.protobuf.AudioProto.GrpcAudio;
 import com.solutechconsulting.media.model.protobuf.CommonProto;
-import com.solutechconsulting.media.model.protobuf.MutinyAudioGrpc;
+import com.solutechconsulting.media.model.protobuf.StreamObserverSubscriber;
 import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import com.solutechconsulting.media.service.StreamRecorder;
+import io.grpc.stub.StreamObserver;
 import io.reactivex.Flowable;
-import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.converters.multi.MultiRxConverters;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import javax.annotation.PostConstruct;
@@ -50,17 +53,26 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provides the gRPC implementation of the {@link MediaService} audio methods as defined in {@link
- * AudioGrpc}. The class extends and leverages the generated Mutiny base gRPC class.
+ * AudioGrpc}. Results are sent through a {@link StreamObserverSubscriber}, which requests audio
+ * from the media service only while the call is ready to send.
  */
 @Singleton
-public class AudioGrpcService extends MutinyAudioGrpc.AudioImplBase {
+public class AudioGrpcService extends AudioGrpc.AudioImplBase {
 
   private static final Logger logger = LoggerFactory.getLogger(AudioGrpcService.class.getName());
 
   private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final Scheduler scheduler = Schedulers.from(executorService);
 
   @Inject
   MediaService mediaService;
+
+  @Inject
+  StreamMetrics streamMetrics;
+
+  @Inject
+  GrpcStreamConfiguration streamConfiguration;
+
   private MetricRegistry metricRegistry;
 
   private Timer getAudioTimer;
@@ -68,39 +80,46 @@ public class AudioGrpcService extends MutinyAudioGrpc.AudioImplBase {
   private Timer getAudioTracksTimer;
 
   @Override
-  public Multi<GrpcAudio> get(Empty request) {
+  public void get(Empty request, StreamObserver<GrpcAudio> responseObserver) {
     logger.debug("Invoking get...");
-    return convertAudioResults(mediaService.getAudio(), getAudioTimer.time())
-        .runSubscriptionOn(executorService);
+    streamAudioResults("getAudio", mediaService.getAudio(), getAudioTimer.time(),
+        responseObserver);
   }
 
   @Override
-  public Multi<GrpcAudio> search(CommonProto.SearchRequest request) {
+  public void search(CommonProto.SearchRequest request,
+      StreamObserver<GrpcAudio> responseObserver) {
     logger.debug("Invoking search... Search text: {}", request.getSearchText());
-    return convertAudioResults(mediaService.searchAudio(request.getSearchText()),
-        searchAudioTimer.time()).runSubscriptionOn(executorService);
+    streamAudioResults("searchAudio", mediaService.searchAudio(request.getSearchText()),
+        searchAudioTimer.time(), responseObserver);
   }
 
   @Override
-  public Multi<GrpcAudio> tracks(AudioProto.TracksRequest request) {
+  public void tracks(AudioProto.TracksRequest request,
+      StreamObserver<GrpcAudio> responseObserver) {
     logger.debug("Invoking tracks... Album title: {}", request.getAlbumTitle());
-    return convertAudioResults(mediaService.getAudioTracks(request.getAlbumTitle()),
-        getAudioTracksTimer.time()).runSubscriptionOn(executorService);
+    streamAudioResults("getAudioTracks",
+        mediaService.getAudioTracks(request.getAlbumTitle()),
+        getAudioTracksTimer.time(), responseObserver);
   }
 
-  protected Multi<GrpcAudio> convertAudioResults(Flowable<Audio> flowable,
-      Timer.Context timerContext) {
+  protected void streamAudioResults(String operation, Flowable<Audio> flowable,
+      Timer.Context timerContext, StreamObserver<GrpcAudio> responseObserver) {
 
-    return Multi.createFrom()
-        .converter(MultiRxConverters.fromFlowable(), flowable.map(
-            this::mapAudio).doOnError(throwable -> {
+    StreamRecorder recorder =
+        streamMetrics.stream(operation, MediaService.MetricsDefinitions.Stream.GRPC_TRANSPORT);
+    Flowable<GrpcAudio> audio = recorder.measure(flowable.map(this::mapAudio),
+        GrpcAudio::getSerializedSize).doOnError(throwable -> {
           logger.error("An error occurred. Terminating stream.", throwable);
           timerContext.stop();
         }).doOnComplete(() -> {
-              logger.debug("Audio stream complete.");
-              timerContext.stop();
-            }
-        ));
+          logger.debug("Audio stream complete.");
+          timerContext.stop();
+        });
+    if (streamConfiguration.isBlocking()) {
+      audio = audio.subscribeOn(scheduler);
+    }
+    StreamObserverSubscriber.subscribe(audio, responseObserver, streamConfiguration.getPrefetch());
   }
 
   protected GrpcAudio mapAudio(Audio audio) {
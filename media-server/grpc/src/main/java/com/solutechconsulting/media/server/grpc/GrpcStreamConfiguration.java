@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.grpc;
+
+import io.quarkus.arc.config.ConfigProperties;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.grpc.stream")
+public interface GrpcStreamConfiguration {
+
+  /**
+   * Whether the media service blocks the thread subscribing to or requesting from its flowables,
+   * as the JPA implementation does. A blocking media service is subscribed to on a worker thread;
+   * otherwise elements are requested, mapped and sent on the gRPC transport thread.
+   *
+   * @return true if the media service blocks
+   */
+  @ConfigProperty(defaultValue = "true")
+  boolean isBlocking();
+
+  /**
+   * The maximum number of messages of a stream requested from the media service ahead of those
+   * sent. Messages are only requested while the call is ready to send.
+   *
+   * @return the prefetch
+   */
+  @ConfigProperty(defaultValue = "128")
+  int getPrefetch();
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import com.solutechconsulting.media.model.protobuf.LatencyHistogramsGrpc;
+import com.solutechconsulting.media.model.protobuf.LatencyHistogramsProto.GrpcLatencyHistogram;
+import com.solutechconsulting.media.model.protobuf.MutinyLatencyHistogramsGrpc;
+import com.solutechconsulting.media.service.EncodedLatencyHistogram;
+import com.solutechconsulting.media.service.LatencyHistograms;
+import io.smallrye.mutiny.Multi;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports the latency histograms of the media service operations, as defined in {@link
+ * LatencyHistogramsGrpc}, for collectors aggregating them across replicas. See {@link
+ * LatencyHistograms}.
+ */
+@Singleton
+public class LatencyHistogramsGrpcService extends
+    MutinyLatencyHistogramsGrpc.LatencyHistogramsImplBase {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LatencyHistogramsGrpcService.class.getName());
+
+  @Inject
+  LatencyHistograms latencyHistograms;
+
+  @Override
+  public Multi<GrpcLatencyHistogram> export(Empty request) {
+    logger.debug("Invoking export...");
+    return Multi.createFrom().iterable(latencyHistograms.export()).map(this::mapHistogram);
+  }
+
+  protected GrpcLatencyHistogram mapHistogram(EncodedLatencyHistogram histogram) {
+    return GrpcLatencyHistogram.newBuilder().setService(histogram.getService())
+        .setOperation(histogram.getOperation())
+        .setStartTimeStamp(histogram.getStartTimeStamp())
+        .setEndTimeStamp(histogram.getEndTimeStamp())
+        .setHistogram(ByteString.copyFrom(histogram.getHistogram())).build();
+  }
+}
@@ -30,11 +30,14 @@ import com.solutechconsulting.media.model.protobuf.CommonProto;
 import com.solutechconsulting.media.model.protobuf.MoviesGrpc;
 import com.solutechconsulting.media.model.protobuf.MoviesProto;
 import com.solutechconsulting.media.model.protobuf.MoviesProto.GrpcMovie;
-import com.solutechconsulting.media.model.protobuf.MutinyMoviesGrpc;
+import com.solutechconsulting.media.model.protobuf.StreamObserverSubscriber;
 import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import com.solutechconsulting.media.service.StreamRecorder;
+import io.grpc.stub.StreamObserver;
 import io.reactivex.Flowable;
-import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.converters.multi.MultiRxConverters;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.concurrent.ExecutorService;
@@ -53,49 +56,63 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provides the gRPC implementation of the {@link MediaService} movies methods as defined in {@link
- * MoviesGrpc}. The class extends and leverages the generated Mutiny base gRPC class.
+ * MoviesGrpc}. Results are sent through a {@link StreamObserverSubscriber}, which requests movies
+ * from the media service only while the call is ready to send.
  */
 @Singleton
-public class MoviesGrpcService extends MutinyMoviesGrpc.MoviesImplBase {
+public class MoviesGrpcService extends MoviesGrpc.MoviesImplBase {
 
   private static final Logger logger = LoggerFactory.getLogger(MoviesGrpcService.class.getName());
 
   private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final Scheduler scheduler = Schedulers.from(executorService);
 
   @Inject
   MediaService mediaService;
+
+  @Inject
+  StreamMetrics streamMetrics;
+
+  @Inject
+  GrpcStreamConfiguration streamConfiguration;
+
   private MetricRegistry metricRegistry;
 
   private Timer getMoviesTimer;
   private Timer searchMoviesTimer;
 
   @Override
-  public Multi<GrpcMovie> get(Empty request) {
+  public void get(Empty request, StreamObserver<GrpcMovie> responseObserver) {
     logger.debug("Invoking get...");
-    return convertMovieResults(mediaService.getMovies(), getMoviesTimer.time())
-        .runSubscriptionOn(executorService);
+    streamMovieResults("getMovies", mediaService.getMovies(), getMoviesTimer.time(),
+        responseObserver);
   }
 
   @Override
-  public Multi<GrpcMovie> search(CommonProto.SearchRequest request) {
+  public void search(CommonProto.SearchRequest request,
+      StreamObserver<GrpcMovie> responseObserver) {
     logger.debug("Invoking search... Search text: {}", request.getSearchText());
-    return convertMovieResults(mediaService.searchMovies(request.getSearchText()),
-        searchMoviesTimer.time()).runSubscriptionOn(executorService);
+    streamMovieResults("searchMovies", mediaService.searchMovies(request.getSearchText()),
+        searchMoviesTimer.time(), responseObserver);
   }
 
-  protected Multi<GrpcMovie> convertMovieResults(Flowable<Movie> flowable,
-      Timer.Context timerContext) {
+  protected void streamMovieResults(String operation, Flowable<Movie> flowable,
+      Timer.Context timerContext, StreamObserver<GrpcMovie> responseObserver) {
 
-    return Multi.createFrom()
-        .converter(MultiRxConverters.fromFlowable(), flowable.map(
-            this::mapMovie).doOnError(throwable -> {
+    StreamRecorder recorder =
+        streamMetrics.stream(operation, MediaService.MetricsDefinitions.Stream.GRPC_TRANSPORT);
+    Flowable<GrpcMovie> movies = recorder.measure(flowable.map(this::mapMovie),
+        GrpcMovie::getSerializedSize).doOnError(throwable -> {
           logger.error("An error occurred. Terminating stream.", throwable);
           timerContext.stop();
         }).doOnComplete(() -> {
-              logger.debug("Movies stream complete.");
-              timerContext.stop();
-            }
-        ));
+          logger.debug("Movies stream complete.");
+          timerContext.stop();
+        });
+    if (streamConfiguration.isBlocking()) {
+      movies = movies.subscribeOn(scheduler);
+    }
+    StreamObserverSubscriber.subscribe(movies, responseObserver, streamConfiguration.getPrefetch());
   }
 
   protected GrpcMovie mapMovie(Movie movie) {
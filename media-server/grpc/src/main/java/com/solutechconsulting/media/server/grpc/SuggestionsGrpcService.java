@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.grpc;
+
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.model.protobuf.StreamObserverSubscriber;
+import com.solutechconsulting.media.model.protobuf.SuggestionsGrpc;
+import com.solutechconsulting.media.model.protobuf.SuggestionsProto;
+import com.solutechconsulting.media.model.protobuf.SuggestionsProto.GrpcSuggestion;
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import com.solutechconsulting.media.service.StreamRecorder;
+import io.grpc.stub.StreamObserver;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Timer;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the gRPC implementation of the {@link MediaService#suggest(String, int)} method as
+ * defined in {@link SuggestionsGrpc}. Results are sent through a {@link StreamObserverSubscriber},
+ * which requests suggestions from the media service only while the call is ready to send.
+ */
+@Singleton
+public class SuggestionsGrpcService extends SuggestionsGrpc.SuggestionsImplBase {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(SuggestionsGrpcService.class.getName());
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final Scheduler scheduler = Schedulers.from(executorService);
+
+  @Inject
+  MediaService mediaService;
+
+  @Inject
+  StreamMetrics streamMetrics;
+
+  @Inject
+  GrpcStreamConfiguration streamConfiguration;
+
+  private MetricRegistry metricRegistry;
+
+  private Timer suggestTimer;
+
+  @Override
+  public void suggest(SuggestionsProto.SuggestRequest request,
+      StreamObserver<GrpcSuggestion> responseObserver) {
+    logger.debug("Invoking suggest... Prefix: {}, Limit: {}", request.getPrefix(),
+        request.getLimit());
+    streamSuggestionResults("suggest",
+        mediaService.suggest(request.getPrefix(), request.getLimit()),
+        suggestTimer.time(), responseObserver);
+  }
+
+  protected void streamSuggestionResults(String operation, Flowable<Suggestion> flowable,
+      Timer.Context timerContext, StreamObserver<GrpcSuggestion> responseObserver) {
+
+    StreamRecorder recorder =
+        streamMetrics.stream(operation, MediaService.MetricsDefinitions.Stream.GRPC_TRANSPORT);
+    Flowable<GrpcSuggestion> suggestions = recorder.measure(flowable.map(this::mapSuggestion),
+        GrpcSuggestion::getSerializedSize).doOnError(throwable -> {
+          logger.error("An error occurred. Terminating stream.", throwable);
+          timerContext.stop();
+        }).doOnComplete(() -> {
+          logger.debug("Suggestions stream complete.");
+          timerContext.stop();
+        });
+    if (streamConfiguration.isBlocking()) {
+      suggestions = suggestions.subscribeOn(scheduler);
+    }
+    StreamObserverSubscriber.subscribe(suggestions, responseObserver,
+        streamConfiguration.getPrefetch());
+  }
+
+  protected GrpcSuggestion mapSuggestion(Suggestion suggestion) {
+    return SuggestionsProto.GrpcSuggestion.newBuilder().setText(suggestion.getText())
+        .setKind(GrpcSuggestion.Kind.valueOf(suggestion.getKind().name()))
+        .setWeight(suggestion.getWeight()).build();
+  }
+
+  /**
+   * Creates implementation specific metrics. This pattern supports establishing common metrics
+   * across any implementation of MediaService choosing to extend from this abstract class. It
+   * provides consistency in metrics naming and documentation.
+   */
+  public void initializeMetrics() {
+    logger.debug("Initializing service metrics...");
+
+    String metricsPrefix = SuggestionsGrpcService.class.getName();
+    String name = metricsPrefix + '.' + MediaService.MetricsDefinitions.Suggest.TIMER_NAME;
+    Metadata metadata =
+        new MetadataBuilder().withName(name).withDisplayName(name).withType(
+            MetricType.TIMER).withDescription(
+            MediaService.MetricsDefinitions.Suggest.TIMER_DESCRIPTION).build();
+
+    suggestTimer = metricRegistry.timer(metadata);
+
+    logger.debug("Service metrics initialized.");
+  }
+
+  /**
+   * Inject the registry for use by the services. The metric registry is available at the post
+   * construct lifecycle event. The registry is passed to each service implementation to register
+   * and log metrics.
+   *
+   * @param metricRegistry the application metric registry
+   */
+  @PostConstruct
+  @Inject
+  public void initialize(
+      @RegistryType(type = MetricRegistry.Type.APPLICATION) MetricRegistry metricRegistry) {
+    this.metricRegistry = metricRegistry;
+    initializeMetrics();
+  }
+}
@@ -27,13 +27,17 @@ import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.model.protobuf.CommonProto;
-import com.solutechconsulting.media.model.protobuf.MutinyTelevisionShowsGrpc;
+import com.solutechconsulting.media.model.protobuf.StreamObserverSubscriber;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsGrpc;
 import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto;
 import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto.GrpcTelevisionShow;
 import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import com.solutechconsulting.media.service.StreamRecorder;
+import io.grpc.stub.StreamObserver;
 import io.reactivex.Flowable;
-import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.converters.multi.MultiRxConverters;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.concurrent.ExecutorService;
@@ -52,17 +56,24 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provides the gRPC implementation of the {@link MediaService} television shoes methods as defined
- * in {@link com.solutechconsulting.media.model.protobuf.TelevisionShowsGrpc}. The class extends and
- * leverages the generated Mutiny base gRPC class.
+ * in {@link TelevisionShowsGrpc}. Results are sent through a {@link StreamObserverSubscriber},
+ * which requests shows from the media service only while the call is ready to send.
  */
 @Singleton
-public class TelevisionShowsGrpcService extends MutinyTelevisionShowsGrpc.TelevisionShowsImplBase {
+public class TelevisionShowsGrpcService extends TelevisionShowsGrpc.TelevisionShowsImplBase {
 
   private static final Logger logger = LoggerFactory
       .getLogger(TelevisionShowsGrpcService.class.getName());
 
   @Inject
   MediaService mediaService;
+
+  @Inject
+  StreamMetrics streamMetrics;
+
+  @Inject
+  GrpcStreamConfiguration streamConfiguration;
+
   private MetricRegistry metricRegistry;
 
   private Timer getTelevisionShowsTimer;
@@ -71,50 +82,60 @@ public class TelevisionShowsGrpcService extends MutinyTelevisionShowsGrpc.Televi
   private Timer getSeriesTimer;
 
   private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final Scheduler scheduler = Schedulers.from(executorService);
 
   @Override
-  public Multi<GrpcTelevisionShow> get(Empty request) {
+  public void get(Empty request, StreamObserver<GrpcTelevisionShow> responseObserver) {
     logger.debug("Invoking get...");
-    return convertTelevisionShowResults(mediaService.getTelevisionShows(),
-        getTelevisionShowsTimer.time()).runSubscriptionOn(executorService);
+    streamTelevisionShowResults("getTelevisionShows", mediaService.getTelevisionShows(),
+        getTelevisionShowsTimer.time(), responseObserver);
   }
 
   @Override
-  public Multi<GrpcTelevisionShow> search(CommonProto.SearchRequest request) {
+  public void search(CommonProto.SearchRequest request,
+      StreamObserver<GrpcTelevisionShow> responseObserver) {
     logger.debug("Invoking search... Search text: {}", request.getSearchText());
-    return convertTelevisionShowResults(mediaService.searchTelevisionShows(request.getSearchText()),
-        searchTelevisionShowsTimer.time()).runSubscriptionOn(executorService);
+    streamTelevisionShowResults("searchTelevisionShows",
+        mediaService.searchTelevisionShows(request.getSearchText()),
+        searchTelevisionShowsTimer.time(), responseObserver);
   }
 
   @Override
-  public Multi<GrpcTelevisionShow> episodes(TelevisionShowsProto.EpisodesRequest request) {
+  public void episodes(TelevisionShowsProto.EpisodesRequest request,
+      StreamObserver<GrpcTelevisionShow> responseObserver) {
     logger.debug("Invoking episodes... Series: {}, Episode: {}", request.getSeriesTitle(),
         request.getSeason());
-    return convertTelevisionShowResults(
+    streamTelevisionShowResults("getEpisodes",
         mediaService.getEpisodes(request.getSeriesTitle(), request.getSeason()),
-        getEpisodesTimer.time()).runSubscriptionOn(executorService);
+        getEpisodesTimer.time(), responseObserver);
   }
 
   @Override
-  public Multi<GrpcTelevisionShow> series(TelevisionShowsProto.SeriesRequest request) {
+  public void series(TelevisionShowsProto.SeriesRequest request,
+      StreamObserver<GrpcTelevisionShow> responseObserver) {
     logger.debug("Invoking series... Series: {}", request.getSeriesTitle());
-    return convertTelevisionShowResults(mediaService.getSeries(request.getSeriesTitle()),
-        getSeriesTimer.time()).runSubscriptionOn(executorService);
+    streamTelevisionShowResults("getSeries",
+        mediaService.getSeries(request.getSeriesTitle()),
+        getSeriesTimer.time(), responseObserver);
   }
 
-  protected Multi<GrpcTelevisionShow> convertTelevisionShowResults(
-      Flowable<TelevisionShow> flowable,
-      Timer.Context timerContext) {
-    return Multi.createFrom()
-        .converter(MultiRxConverters.fromFlowable(), flowable.map(
-            this::mapTelevisionShow).doOnError(throwable -> {
+  protected void streamTelevisionShowResults(String operation, Flowable<TelevisionShow> flowable,
+      Timer.Context timerContext, StreamObserver<GrpcTelevisionShow> responseObserver) {
+
+    StreamRecorder recorder =
+        streamMetrics.stream(operation, MediaService.MetricsDefinitions.Stream.GRPC_TRANSPORT);
+    Flowable<GrpcTelevisionShow> shows = recorder.measure(flowable.map(this::mapTelevisionShow),
+        GrpcTelevisionShow::getSerializedSize).doOnError(throwable -> {
           logger.error("An error occurred. Terminating stream.", throwable);
           timerContext.stop();
         }).doOnComplete(() -> {
-              logger.debug("Television shows stream complete.");
-              timerContext.stop();
-            }
-        )).runSubscriptionOn(executorService);
+          logger.debug("Television shows stream complete.");
+          timerContext.stop();
+        });
+    if (streamConfiguration.isBlocking()) {
+      shows = shows.subscribeOn(scheduler);
+    }
+    StreamObserverSubscriber.subscribe(shows, responseObserver, streamConfiguration.getPrefetch());
   }
 
   protected GrpcTelevisionShow mapTelevisionShow(TelevisionShow televisionShow) {
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import com.solutechconsulting.media.server.rest.ResourceDefinitions;
+import io.reactivex.Single;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base class of the REST clients. Requests are sent with the JDK HTTP client, whose responses are
+ * consumed by a {@link Flow.Subscriber} as they arrive, so the clients see the first item of a
+ * response without waiting for the rest of it.
+ */
+abstract class AbstractRestClient implements LoadClient {
+
+  private final HttpClient httpClient;
+  private final URI restUrl;
+  private final String mediaType;
+
+  AbstractRestClient(LoadSettings settings, String mediaType) {
+    this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(settings.getRequestTimeout()).build();
+    this.restUrl = settings.getRestUrl();
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Send a request whose response is consumed by the given subscriber, which must also be the
+   * subscriber of the body handler.
+   */
+  Single<Outcome> send(Operation operation, String argument,
+      HttpResponse.BodyHandler<?> bodyHandler, ResponseSubscriber<?> subscriber) {
+    return Single.create(emitter -> {
+      HttpRequest request = HttpRequest.newBuilder(uri(operation, argument))
+          .header("Accept", mediaType).GET().build();
+      httpClient.sendAsync(request, bodyHandler).whenComplete((response, throwable) -> {
+        if (throwable != null) {
+          emitter.tryOnError(throwable);
+        } else if (response.statusCode() != 200) {
+          emitter.tryOnError(new IOException(
+              "HTTP status " + response.statusCode() + " from " + request.uri()));
+        } else {
+          try {
+            emitter.onSuccess(subscriber.outcome());
+          } catch (IOException e) {
+            emitter.tryOnError(e);
+          }
+        }
+      });
+      emitter.setCancellable(subscriber::cancel);
+    });
+  }
+
+  URI uri(Operation operation, String argument) {
+    return restUrl.resolve(path(operation, argument));
+  }
+
+  abstract String basePath(Operation operation);
+
+  private String path(Operation operation, String argument) {
+    String basePath = basePath(operation);
+    switch (operation) {
+      case GET_MOVIES:
+      case GET_AUDIO:
+      case GET_TELEVISION_SHOWS:
+        return basePath + ResourceDefinitions.Path.Common.ALL_PATH;
+      case SEARCH_MOVIES:
+      case SEARCH_AUDIO:
+      case SEARCH_TELEVISION_SHOWS:
+        return basePath + ResourceDefinitions.Path.Common.SEARCH_PATH + '/' + encode(argument);
+      case GET_AUDIO_TRACKS:
+        return basePath + ResourceDefinitions.Path.Audio.TRACKS_PATH + '/' + encode(argument);
+      case GET_EPISODES:
+        return basePath + ResourceDefinitions.Path.TelevisionShows.SERIES_PATH + '/'
+            + encode(Operation.seriesTitle(argument)) + '/' + Operation.season(argument);
+      case GET_SERIES:
+        return basePath + ResourceDefinitions.Path.TelevisionShows.SERIES_PATH + '/'
+            + encode(argument);
+      default:
+        throw new IllegalArgumentException("Unsupported operation: " + operation);
+    }
+  }
+
+  private static String encode(String pathSegment) {
+    return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  @Override
+  public void close() {
+    // The JDK HTTP client releases its connections when it is no longer referenced.
+  }
+
+  /**
+   * Consumes a response as it arrives and builds its outcome. Consumption stops if the request is
+   * cancelled.
+   */
+  abstract static class ResponseSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription.set(subscription);
+      if (cancelled) {
+        subscription.cancel();
+      } else {
+        subscription.request(Long.MAX_VALUE);
+      }
+    }
+
+    void cancel() {
+      cancelled = true;
+      Flow.Subscription current = subscription.get();
+      if (current != null) {
+        current.cancel();
+      }
+    }
+
+    /**
+     * Return the outcome of the response once it has been consumed.
+     *
+     * @return the outcome
+     * @throws IOException if the response reported an error or was incomplete
+     */
+    abstract Outcome outcome() throws IOException;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import com.google.protobuf.Empty;
+import com.google.protobuf.MessageLite;
+import com.solutechconsulting.media.model.protobuf.AudioGrpc;
+import com.solutechconsulting.media.model.protobuf.AudioProto;
+import com.solutechconsulting.media.model.protobuf.CommonProto;
+import com.solutechconsulting.media.model.protobuf.MoviesGrpc;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsGrpc;
+import com.solutechconsulting.media.model.protobuf.TelevisionShowsProto;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the gRPC server over a single plain-text channel, which multiplexes all outstanding calls.
+ * The bytes of a response are the serialized sizes of its messages.
+ */
+final class GrpcClient implements LoadClient {
+
+  private final ManagedChannel channel;
+  private final MoviesGrpc.MoviesStub moviesStub;
+  private final AudioGrpc.AudioStub audioStub;
+  private final TelevisionShowsGrpc.TelevisionShowsStub televisionShowsStub;
+
+  GrpcClient(LoadSettings settings) {
+    this.channel = ManagedChannelBuilder.forAddress(settings.getGrpcHost(),
+        settings.getGrpcPort()).usePlaintext().build();
+    this.moviesStub = MoviesGrpc.newStub(channel);
+    this.audioStub = AudioGrpc.newStub(channel);
+    this.televisionShowsStub = TelevisionShowsGrpc.newStub(channel);
+  }
+
+  @Override
+  public Single<Outcome> call(Operation operation, String argument) {
+    return Single.create(emitter -> {
+      switch (operation) {
+        case GET_MOVIES:
+          moviesStub.get(Empty.getDefaultInstance(), new OutcomeObserver<>(emitter));
+          break;
+        case SEARCH_MOVIES:
+          moviesStub.search(search(argument), new OutcomeObserver<>(emitter));
+          break;
+        case GET_AUDIO:
+          audioStub.get(Empty.getDefaultInstance(), new OutcomeObserver<>(emitter));
+          break;
+        case SEARCH_AUDIO:
+          audioStub.search(search(argument), new OutcomeObserver<>(emitter));
+          break;
+        case GET_AUDIO_TRACKS:
+          audioStub.tracks(AudioProto.TracksRequest.newBuilder().setAlbumTitle(argument).build(),
+              new OutcomeObserver<>(emitter));
+          break;
+        case GET_TELEVISION_SHOWS:
+          televisionShowsStub.get(Empty.getDefaultInstance(), new OutcomeObserver<>(emitter));
+          break;
+        case SEARCH_TELEVISION_SHOWS:
+          televisionShowsStub.search(search(argument), new OutcomeObserver<>(emitter));
+          break;
+        case GET_EPISODES:
+          televisionShowsStub.episodes(TelevisionShowsProto.EpisodesRequest.newBuilder()
+                  .setSeriesTitle(Operation.seriesTitle(argument))
+                  .setSeason(Operation.season(argument)).build(),
+              new OutcomeObserver<>(emitter));
+          break;
+        case GET_SERIES:
+          televisionShowsStub.series(TelevisionShowsProto.SeriesRequest.newBuilder()
+              .setSeriesTitle(argument).build(), new OutcomeObserver<>(emitter));
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported operation: " + operation);
+      }
+    });
+  }
+
+  private static CommonProto.SearchRequest search(String searchText) {
+    return CommonProto.SearchRequest.newBuilder().setSearchText(searchText).build();
+  }
+
+  @Override
+  public void close() {
+    channel.shutdown();
+    try {
+      if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+        channel.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      channel.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Counts the messages of a server stream and cancels the call if the single is disposed.
+   */
+  private static final class OutcomeObserver<ReqT, RespT extends MessageLite>
+      implements ClientResponseObserver<ReqT, RespT> {
+
+    private final SingleEmitter<Outcome> emitter;
+    private long firstResponseNanos = -1;
+    private long items;
+    private long bytes;
+
+    OutcomeObserver(SingleEmitter<Outcome> emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
+      emitter.setCancellable(() -> requestStream.cancel("Call disposed", null));
+    }
+
+    @Override
+    public void onNext(RespT message) {
+      if (firstResponseNanos < 0) {
+        firstResponseNanos = System.nanoTime();
+      }
+      items++;
+      bytes += message.getSerializedSize();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      emitter.tryOnError(throwable);
+    }
+
+    @Override
+    public void onCompleted() {
+      emitter.onSuccess(new Outcome(firstResponseNanos, System.nanoTime(), items, bytes));
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import io.reactivex.Single;
+import java.io.Closeable;
+
+/**
+ * Calls one operation of a server with one protocol. Calls are asynchronous so that an open-loop
+ * run can have many requests outstanding without a thread for each; disposing a call cancels the
+ * request.
+ */
+interface LoadClient extends Closeable {
+
+  static LoadClient create(LoadSettings settings) {
+    switch (settings.getProtocol()) {
+      case REST_JSON:
+        return new RestJsonClient(settings);
+      case REST_SSE:
+        return new RestSseClient(settings);
+      case GRPC:
+        return new GrpcClient(settings);
+      default:
+        throw new IllegalArgumentException("Unsupported protocol: " + settings.getProtocol());
+    }
+  }
+
+  /**
+   * Call an operation. The returned single is cold: the request is sent on subscription.
+   *
+   * @param operation the operation to call
+   * @param argument  the argument of the operation, or {@code null} if it takes none
+   * @return the outcome of the call, or an error if the call fails
+   */
+  Single<Outcome> call(Operation operation, String argument);
+}
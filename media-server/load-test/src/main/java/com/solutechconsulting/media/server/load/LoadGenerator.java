@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives load against the REST or gRPC server as described by its {@link LoadSettings}. A run
+ * starts with a warmup phase, whose results are discarded, followed by the measured phase, and
+ * returns a {@link LoadReport}. Requests are asynchronous in both modes:
+ * <ul>
+ * <li>closed-loop: each of the concurrent workers sends a request, waits for its response, and
+ * sends the next until the phase is over;</li>
+ * <li>open-loop: requests are started at the arrival rate on a fixed schedule, at most the
+ * concurrency at once. Requests that can't start on time queue, and their latency includes the
+ * time queued.</li>
+ * </ul>
+ * Each worker of a closed-loop run picks requests with its own random source seeded from the
+ * settings, so runs with the same settings send the same requests.
+ */
+public final class LoadGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class.getName());
+
+  private final LoadSettings settings;
+
+  public LoadGenerator(LoadSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Run the load and report the results of the measured phase.
+   *
+   * @return the report
+   * @throws IOException if the client can't be closed
+   */
+  public LoadReport run() throws IOException {
+    try (LoadClient client = LoadClient.create(settings)) {
+      return run(client);
+    }
+  }
+
+  LoadReport run(LoadClient client) {
+    logger.info("Starting load run: {}", settings);
+    if (!settings.getWarmup().isZero()) {
+      phase(client, settings.getWarmup(), new LoadRecorder());
+    }
+
+    LoadRecorder recorder = new LoadRecorder();
+    Instant started = Instant.now();
+    long startNanos = System.nanoTime();
+    phase(client, settings.getDuration(), recorder);
+    LoadReport report = recorder.report(settings, started,
+        Duration.ofNanos(System.nanoTime() - startNanos));
+
+    logger.info("Load run complete.\n{}", report);
+    return report;
+  }
+
+  private void phase(LoadClient client, Duration length, LoadRecorder recorder) {
+    if (settings.isOpenLoop()) {
+      openLoop(client, length, recorder).blockingAwait();
+    } else {
+      closedLoop(client, length, recorder).blockingAwait();
+    }
+  }
+
+  private Completable closedLoop(LoadClient client, Duration length, LoadRecorder recorder) {
+    return Completable.defer(() -> {
+      long endNanos = System.nanoTime() + length.toNanos();
+      List<Completable> workers = IntStream.range(0, settings.getConcurrency())
+          .mapToObj(worker -> {
+            RequestMix.Picker picker =
+                settings.getMix().picker(new Random(settings.getSeed() + worker));
+            return Completable.defer(() -> request(client, picker, System.nanoTime(), recorder))
+                .repeatUntil(() -> System.nanoTime() - endNanos >= 0);
+          }).collect(Collectors.toList());
+      return Completable.merge(workers);
+    });
+  }
+
+  private Completable openLoop(LoadClient client, Duration length, LoadRecorder recorder) {
+    long periodNanos = Math.max(1, Math.round(1e9 / settings.getArrivalRate()));
+    long count = Math.max(1, length.toNanos() / periodNanos);
+    RequestMix.Picker picker = settings.getMix().picker(new Random(settings.getSeed()));
+    return Flowable.defer(() -> {
+      long startNanos = System.nanoTime();
+      return Flowable.intervalRange(0, count, 0, periodNanos, TimeUnit.NANOSECONDS)
+          .onBackpressureBuffer()
+          .map(tick -> startNanos + tick * periodNanos);
+    }).flatMapCompletable(scheduledNanos -> request(client, picker, scheduledNanos, recorder),
+        false, settings.getConcurrency());
+  }
+
+  private Completable request(LoadClient client, RequestMix.Picker picker, long scheduledNanos,
+      LoadRecorder recorder) {
+    Operation operation = picker.nextOperation();
+    String argument = picker.nextArgument(operation);
+    return client.call(operation, argument)
+        .timeout(settings.getRequestTimeout().toNanos(), TimeUnit.NANOSECONDS)
+        .doOnSuccess(outcome -> recorder.record(operation, scheduledNanos, outcome))
+        .doOnError(throwable -> {
+          logger.debug("{} request failed.", operation, throwable);
+          recorder.recordError(operation, throwable);
+        })
+        .ignoreElement()
+        .onErrorComplete();
+  }
+}
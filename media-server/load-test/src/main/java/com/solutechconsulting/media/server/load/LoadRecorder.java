@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Records the outcomes of the requests of a run as they complete, from any thread. Latencies are
+ * recorded in microseconds with three significant digits in auto-resizing histograms, so queueing
+ * in an overloaded open-loop run is recorded however long it gets.
+ */
+final class LoadRecorder {
+
+  static final int SIGNIFICANT_DIGITS = 3;
+
+  private static final int MAX_ERROR_MESSAGES = 10;
+  private static final String OTHER_ERRORS = "(other errors)";
+
+  private final Map<Operation, OperationRecorder> operations = new EnumMap<>(Operation.class);
+
+  LoadRecorder() {
+    for (Operation operation : Operation.values()) {
+      operations.put(operation, new OperationRecorder());
+    }
+  }
+
+  /**
+   * Record a successful request.
+   *
+   * @param operation      the operation called
+   * @param scheduledNanos the time the request was due to start
+   * @param outcome        the outcome of the request
+   */
+  void record(Operation operation, long scheduledNanos, Outcome outcome) {
+    OperationRecorder recorder = operations.get(operation);
+    recorder.latency.recordValue(micros(outcome.getCompletedNanos() - scheduledNanos));
+    recorder.firstResponse.recordValue(micros(outcome.getFirstResponseNanos() - scheduledNanos));
+    recorder.items.add(outcome.getItems());
+    recorder.bytes.add(outcome.getBytes());
+  }
+
+  void recordError(Operation operation, Throwable throwable) {
+    OperationRecorder recorder = operations.get(operation);
+    recorder.errors.increment();
+    String message = throwable.getClass().getSimpleName()
+        + (throwable.getMessage() == null ? "" : ": " + throwable.getMessage());
+    LongAdder count = recorder.errorMessages.get(message);
+    if (count == null) {
+      count = recorder.errorMessages.size() < MAX_ERROR_MESSAGES
+          ? recorder.errorMessages.computeIfAbsent(message, key -> new LongAdder())
+          : recorder.errorMessages.computeIfAbsent(OTHER_ERRORS, key -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  LoadReport report(LoadSettings settings, Instant started, Duration elapsed) {
+    long startMillis = started.toEpochMilli();
+    long endMillis = startMillis + elapsed.toMillis();
+    Map<Operation, LoadReport.OperationReport> reports = new EnumMap<>(Operation.class);
+    operations.forEach((operation, recorder) -> {
+      Histogram latency = snapshot(recorder.latency, startMillis, endMillis);
+      Histogram firstResponse = snapshot(recorder.firstResponse, startMillis, endMillis);
+      if (latency.getTotalCount() > 0 || recorder.errors.sum() > 0) {
+        Map<String, Long> errorMessages = new LinkedHashMap<>();
+        recorder.errorMessages.forEach((message, count) -> errorMessages.put(message,
+            count.sum()));
+        reports.put(operation, new LoadReport.OperationReport(operation, elapsed, latency,
+            firstResponse, recorder.errors.sum(), recorder.items.sum(), recorder.bytes.sum(),
+            errorMessages));
+      }
+    });
+    return new LoadReport(settings, started, elapsed, reports);
+  }
+
+  private static Histogram snapshot(Histogram histogram, long startMillis, long endMillis) {
+    Histogram copy = histogram.copy();
+    copy.setStartTimeStamp(startMillis);
+    copy.setEndTimeStamp(endMillis);
+    return copy;
+  }
+
+  private static long micros(long nanos) {
+    return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  private static final class OperationRecorder {
+
+    private final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Histogram firstResponse = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final Map<String, LongAdder> errorMessages = new ConcurrentHashMap<>();
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * The results of a {@link LoadGenerator} run: the latency and first response time distributions,
+ * throughput and errors of each operation and of the run as a whole. Latencies are measured from
+ * the time each request was due to start; the first response is the first JSON bytes, server-sent
+ * event or gRPC message of a response. Histogram values are in microseconds.
+ * <p>
+ * {@link #write(Path)} saves a report as a JSON summary and an HdrHistogram interval log holding
+ * the full distributions, tagged by operation, so that runs can be compared with each other or
+ * plotted with the standard HdrHistogram tools.
+ */
+public final class LoadReport {
+
+  static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+  private static final DateTimeFormatter FILE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+  private final LoadSettings settings;
+  private final Instant started;
+  private final Duration elapsed;
+  private final List<OperationReport> operations;
+  private final Histogram latency;
+  private final Histogram firstResponse;
+
+  LoadReport(LoadSettings settings, Instant started, Duration elapsed,
+      Map<Operation, OperationReport> operations) {
+    this.settings = settings;
+    this.started = started;
+    this.elapsed = elapsed;
+    this.operations = Collections.unmodifiableList(new ArrayList<>(operations.values()));
+    this.latency = new Histogram(LoadRecorder.SIGNIFICANT_DIGITS);
+    this.firstResponse = new Histogram(LoadRecorder.SIGNIFICANT_DIGITS);
+    for (OperationReport operation : this.operations) {
+      latency.add(operation.getLatency());
+      firstResponse.add(operation.getFirstResponse());
+    }
+    latency.setStartTimeStamp(started.toEpochMilli());
+    latency.setEndTimeStamp(started.toEpochMilli() + elapsed.toMillis());
+    firstResponse.setStartTimeStamp(latency.getStartTimeStamp());
+    firstResponse.setEndTimeStamp(latency.getEndTimeStamp());
+  }
+
+  public LoadSettings getSettings() {
+    return settings;
+  }
+
+  public Instant getStarted() {
+    return started;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * Return the reports of the operations called during the run, in {@link Operation} order.
+   *
+   * @return the operation reports
+   */
+  public List<OperationReport> getOperations() {
+    return operations;
+  }
+
+  public Histogram getLatency() {
+    return latency;
+  }
+
+  public Histogram getFirstResponse() {
+    return firstResponse;
+  }
+
+  public long getRequests() {
+    return latency.getTotalCount();
+  }
+
+  public long getErrors() {
+    return operations.stream().mapToLong(OperationReport::getErrors).sum();
+  }
+
+  public double getErrorRate() {
+    long total = getRequests() + getErrors();
+    return total == 0 ? 0 : (double) getErrors() / total;
+  }
+
+  /**
+   * Return the throughput of the run, in successful requests per second.
+   *
+   * @return the throughput
+   */
+  public double getThroughput() {
+    return perSecond(getRequests(), elapsed);
+  }
+
+  /**
+   * Write the report to a directory as {@code <protocol>-<start time>.json}, the summary, and
+   * {@code <protocol>-<start time>.hlog}, the HdrHistogram log.
+   *
+   * @param directory the directory, which is created if missing
+   * @return the path of the summary
+   * @throws IOException if the report can't be written
+   */
+  public Path write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    String baseName = settings.getProtocol().name().toLowerCase(Locale.ROOT).replace('_', '-')
+        + '-' + FILE_TIMESTAMP.format(started);
+
+    HistogramLogWriter logWriter =
+        new HistogramLogWriter(directory.resolve(baseName + ".hlog").toFile());
+    try {
+      logWriter.outputComment(settings.toString());
+      logWriter.outputComment("Values are in microseconds");
+      logWriter.outputLogFormatVersion();
+      logWriter.outputStartTime(started.toEpochMilli());
+      logWriter.outputLegend();
+      for (OperationReport operation : operations) {
+        logWriter.outputIntervalHistogram(tagged(operation.getLatency(),
+            operation.getOperation() + ".latency"));
+        logWriter.outputIntervalHistogram(tagged(operation.getFirstResponse(),
+            operation.getOperation() + ".first-response"));
+      }
+      logWriter.outputIntervalHistogram(tagged(latency, "all.latency"));
+      logWriter.outputIntervalHistogram(tagged(firstResponse, "all.first-response"));
+    } finally {
+      logWriter.close();
+    }
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    ObjectNode summary = objectMapper.createObjectNode();
+    summary.put("protocol", settings.getProtocol().name());
+    summary.put("mode", settings.isOpenLoop() ? "open-loop" : "closed-loop");
+    summary.put("concurrency", settings.getConcurrency());
+    summary.put("arrivalRate", settings.getArrivalRate());
+    summary.put("warmup", settings.getWarmup().toString());
+    summary.put("duration", settings.getDuration().toString());
+    summary.put("mix", settings.getMix().toString());
+    summary.put("seed", settings.getSeed());
+    summary.put("started", started.toString());
+    summary.put("elapsedMillis", elapsed.toMillis());
+    summary.put("requests", getRequests());
+    summary.put("errors", getErrors());
+    summary.put("errorRate", getErrorRate());
+    summary.put("throughput", getThroughput());
+    summary.set("latencyMillis", distribution(objectMapper, latency));
+    summary.set("firstResponseMillis", distribution(objectMapper, firstResponse));
+    ObjectNode operationsNode = summary.putObject("operations");
+    for (OperationReport operation : operations) {
+      ObjectNode node = operationsNode.putObject(operation.getOperation().getOperationName());
+      node.put("requests", operation.getRequests());
+      node.put("errors", operation.getErrors());
+      node.put("items", operation.getItems());
+      node.put("bytes", operation.getBytes());
+      node.put("throughput", operation.getThroughput());
+      node.set("latencyMillis", distribution(objectMapper, operation.getLatency()));
+      node.set("firstResponseMillis", distribution(objectMapper, operation.getFirstResponse()));
+      ObjectNode errorsNode = node.putObject("errorMessages");
+      operation.getErrorMessages().forEach(errorsNode::put);
+    }
+
+    Path summaryPath = directory.resolve(baseName + ".json");
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(summaryPath.toFile(), summary);
+    return summaryPath;
+  }
+
+  private static Histogram tagged(Histogram histogram, String tag) {
+    Histogram copy = histogram.copy();
+    copy.setTag(tag);
+    return copy;
+  }
+
+  private static ObjectNode distribution(ObjectMapper objectMapper, Histogram histogram) {
+    ObjectNode node = objectMapper.createObjectNode();
+    node.put("mean", histogram.getMean() / 1000.0);
+    for (double percentile : PERCENTILES) {
+      node.put("p" + formatPercentile(percentile),
+          histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+    node.put("max", histogram.getMaxValue() / 1000.0);
+    return node;
+  }
+
+  private static String formatPercentile(double percentile) {
+    return percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+        : String.valueOf(percentile);
+  }
+
+  private static double perSecond(long count, Duration duration) {
+    return duration.isZero() ? 0 : count * 1e9 / duration.toNanos();
+  }
+
+  private static String formatMillis(long micros) {
+    return String.format(Locale.ROOT, "%.2f", micros / 1000.0);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(String.format(Locale.ROOT,
+        "%s %s run: %,d requests, %,d errors (%.2f%%), %.1f requests/s in %,d ms%n",
+        settings.getProtocol(), settings.isOpenLoop() ? "open-loop" : "closed-loop",
+        getRequests(), getErrors(), getErrorRate() * 100, getThroughput(), elapsed.toMillis()));
+    builder.append(String.format(Locale.ROOT, "%-22s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+        "operation (ms)", "requests", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max",
+        "first p50"));
+    for (OperationReport operation : operations) {
+      appendRow(builder, operation.getOperation().getOperationName(), operation.getRequests(),
+          operation.getErrors(), operation.getThroughput(), operation.getLatency(),
+          operation.getFirstResponse());
+    }
+    appendRow(builder, "all", getRequests(), getErrors(), getThroughput(), latency,
+        firstResponse);
+    return builder.toString();
+  }
+
+  private static void appendRow(StringBuilder builder, String name, long requests, long errors,
+      double throughput, Histogram latency, Histogram firstResponse) {
+    builder.append(String.format(Locale.ROOT, "%-22s %,9d %,7d %9.1f %9s %9s %9s %9s %9s %9s%n",
+        name, requests, errors, throughput, formatMillis(latency.getValueAtPercentile(50)),
+        formatMillis(latency.getValueAtPercentile(90)),
+        formatMillis(latency.getValueAtPercentile(99)),
+        formatMillis(latency.getValueAtPercentile(99.9)), formatMillis(latency.getMaxValue()),
+        formatMillis(firstResponse.getValueAtPercentile(50))));
+  }
+
+  /**
+   * The results of one operation of a run.
+   */
+  public static final class OperationReport {
+
+    private final Operation operation;
+    private final Duration elapsed;
+    private final Histogram latency;
+    private final Histogram firstResponse;
+    private final long errors;
+    private final long items;
+    private final long bytes;
+    private final Map<String, Long> errorMessages;
+
+    OperationReport(Operation operation, Duration elapsed, Histogram latency,
+        Histogram firstResponse, long errors, long items, long bytes,
+        Map<String, Long> errorMessages) {
+      this.operation = operation;
+      this.elapsed = elapsed;
+      this.latency = latency;
+      this.firstResponse = firstResponse;
+      this.errors = errors;
+      this.items = items;
+      this.bytes = bytes;
+      this.errorMessages = Collections.unmodifiableMap(errorMessages);
+    }
+
+    public Operation getOperation() {
+      return operation;
+    }
+
+    public Histogram getLatency() {
+      return latency;
+    }
+
+    public Histogram getFirstResponse() {
+      return firstResponse;
+    }
+
+    public long getRequests() {
+      return latency.getTotalCount();
+    }
+
+    public long getErrors() {
+      return errors;
+    }
+
+    public long getItems() {
+      return items;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    public double getThroughput() {
+      return perSecond(getRequests(), elapsed);
+    }
+
+    /**
+     * Return the number of errors by error message; at most ten distinct messages are kept.
+     *
+     * @return the error counts
+     */
+    public Map<String, Long> getErrorMessages() {
+      return errorMessages;
+    }
+  }
+}
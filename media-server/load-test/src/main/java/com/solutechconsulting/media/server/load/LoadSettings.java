@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+import org.eclipse.microprofile.config.Config;
+
+/**
+ * The settings of a {@link LoadGenerator} run. A run is closed-loop by default: each of the
+ * concurrent workers sends its next request as soon as the previous one completes. With an
+ * arrival rate set the run is open-loop: requests are started on a fixed schedule whatever the
+ * response times, with at most the concurrency outstanding at once, and latencies are measured
+ * from the scheduled start so that queueing behind slow responses is not hidden. Instances are
+ * immutable; the {@code with} methods return a copy with one setting changed.
+ */
+public final class LoadSettings {
+
+  public static final String CONFIG_PREFIX = "mediaservice.load-test.";
+
+  private static final LoadSettings DEFAULTS = new LoadSettings(Protocol.REST_JSON, 4, 0,
+      Duration.ofSeconds(2), Duration.ofSeconds(10), RequestMix.uniform(), 1,
+      URI.create("http://localhost:8081"), "localhost", 9000, Duration.ofSeconds(30));
+
+  private final Protocol protocol;
+  private final int concurrency;
+  private final double arrivalRate;
+  private final Duration warmup;
+  private final Duration duration;
+  private final RequestMix mix;
+  private final long seed;
+  private final URI restUrl;
+  private final String grpcHost;
+  private final int grpcPort;
+  private final Duration requestTimeout;
+
+  private LoadSettings(Protocol protocol, int concurrency, double arrivalRate, Duration warmup,
+      Duration duration, RequestMix mix, long seed, URI restUrl, String grpcHost, int grpcPort,
+      Duration requestTimeout) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("The concurrency must be at least 1: " + concurrency);
+    }
+    if (arrivalRate < 0) {
+      throw new IllegalArgumentException("The arrival rate can't be negative: " + arrivalRate);
+    }
+    if (warmup.isNegative() || duration.isNegative() || duration.isZero()
+        || requestTimeout.isNegative() || requestTimeout.isZero()) {
+      throw new IllegalArgumentException(
+          String.format("Invalid warmup, duration or request timeout: %s, %s, %s", warmup,
+              duration, requestTimeout));
+    }
+    this.protocol = Objects.requireNonNull(protocol);
+    this.concurrency = concurrency;
+    this.arrivalRate = arrivalRate;
+    this.warmup = warmup;
+    this.duration = duration;
+    this.mix = Objects.requireNonNull(mix);
+    this.seed = seed;
+    this.restUrl = Objects.requireNonNull(restUrl);
+    this.grpcHost = Objects.requireNonNull(grpcHost);
+    this.grpcPort = grpcPort;
+    this.requestTimeout = requestTimeout;
+  }
+
+  /**
+   * Return the default settings: a ten second closed-loop REST JSON run with four workers and the
+   * uniform request mix, against the servers' test ports on the local host.
+   *
+   * @return the default settings
+   */
+  public static LoadSettings defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Return the default settings overridden by any {@code mediaservice.load-test.*} properties:
+   * {@code protocol}, {@code concurrency}, {@code arrival-rate}, {@code warmup}, {@code duration},
+   * {@code mix}, {@code seed}, {@code rest-url}, {@code grpc-host}, {@code grpc-port} and {@code
+   * request-timeout}. Durations use the ISO-8601 format, for example {@code PT30S}.
+   *
+   * @param config the configuration to read
+   * @return the configured settings
+   */
+  public static LoadSettings fromConfig(Config config) {
+    LoadSettings settings = DEFAULTS;
+    settings = config.getOptionalValue(CONFIG_PREFIX + "protocol", String.class)
+        .map(Protocol::valueOf).map(settings::withProtocol).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "concurrency", Integer.class)
+        .map(settings::withConcurrency).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "arrival-rate", Double.class)
+        .map(settings::withArrivalRate).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "warmup", String.class)
+        .map(Duration::parse).map(settings::withWarmup).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "duration", String.class)
+        .map(Duration::parse).map(settings::withDuration).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "mix", String.class)
+        .map(RequestMix::parse).map(settings::withMix).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "seed", Long.class)
+        .map(settings::withSeed).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "rest-url", String.class)
+        .map(URI::create).map(settings::withRestUrl).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "grpc-host", String.class)
+        .map(settings::withGrpcHost).orElse(settings);
+    settings = config.getOptionalValue(CONFIG_PREFIX + "grpc-port", Integer.class)
+        .map(settings::withGrpcPort).orElse(settings);
+    return config.getOptionalValue(CONFIG_PREFIX + "request-timeout", String.class)
+        .map(Duration::parse).map(settings::withRequestTimeout).orElse(settings);
+  }
+
+  public LoadSettings withProtocol(Protocol protocol) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withConcurrency(int concurrency) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  /**
+   * Return a copy with the given arrival rate, in requests per second. Zero makes the run
+   * closed-loop.
+   *
+   * @param arrivalRate the arrival rate
+   * @return the changed settings
+   */
+  public LoadSettings withArrivalRate(double arrivalRate) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withWarmup(Duration warmup) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withDuration(Duration duration) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withMix(RequestMix mix) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withSeed(long seed) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withRestUrl(URI restUrl) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withGrpcHost(String grpcHost) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withGrpcPort(int grpcPort) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public LoadSettings withRequestTimeout(Duration requestTimeout) {
+    return new LoadSettings(protocol, concurrency, arrivalRate, warmup, duration, mix, seed,
+        restUrl, grpcHost, grpcPort, requestTimeout);
+  }
+
+  public Protocol getProtocol() {
+    return protocol;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public double getArrivalRate() {
+    return arrivalRate;
+  }
+
+  public boolean isOpenLoop() {
+    return arrivalRate > 0;
+  }
+
+  public Duration getWarmup() {
+    return warmup;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public RequestMix getMix() {
+    return mix;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public URI getRestUrl() {
+    return restUrl;
+  }
+
+  public String getGrpcHost() {
+    return grpcHost;
+  }
+
+  public int getGrpcPort() {
+    return grpcPort;
+  }
+
+  public Duration getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadSettings{protocol=" + protocol + ", concurrency=" + concurrency
+        + ", arrivalRate=" + arrivalRate + ", warmup=" + warmup + ", duration=" + duration
+        + ", mix=" + mix + ", seed=" + seed + ", restUrl=" + restUrl + ", grpc=" + grpcHost
+        + ':' + grpcPort + ", requestTimeout=" + requestTimeout + '}';
+  }
+}
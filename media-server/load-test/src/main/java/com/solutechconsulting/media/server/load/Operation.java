@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The nine catalogue operations served by the REST and gRPC servers. Operations taking an argument
+ * carry default arguments that match the bundled sample data; the arguments of the episodes
+ * operation have the form {@code <series title>/<season>}, as in the REST path.
+ */
+public enum Operation {
+
+  GET_MOVIES("getMovies"),
+  SEARCH_MOVIES("searchMovies", "star trek", "star", "love", "night"),
+  GET_AUDIO("getAudio"),
+  SEARCH_AUDIO("searchAudio", "pink floyd", "beatles", "love", "blue"),
+  GET_AUDIO_TRACKS("getAudioTracks", "aja", "abbey road", "the dark side of the moon"),
+  GET_TELEVISION_SHOWS("getTelevisionShows"),
+  SEARCH_TELEVISION_SHOWS("searchTelevisionShows", "hawkeye", "doctor", "christmas"),
+  GET_EPISODES("getEpisodes", "doc martin/3", "the big bang theory/1"),
+  GET_SERIES("getSeries", "batman", "doc martin");
+
+  private final String operationName;
+  private final List<String> defaultArguments;
+
+  Operation(String operationName, String... defaultArguments) {
+    this.operationName = operationName;
+    this.defaultArguments = Collections.unmodifiableList(Arrays.asList(defaultArguments));
+  }
+
+  /**
+   * Return the operation with the given name, as used in request mixes and reports.
+   *
+   * @param operationName the operation name, for example {@code searchMovies}
+   * @return the operation
+   */
+  public static Operation of(String operationName) {
+    for (Operation operation : values()) {
+      if (operation.operationName.equals(operationName)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation: " + operationName);
+  }
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  public boolean hasArgument() {
+    return !defaultArguments.isEmpty();
+  }
+
+  public List<String> getDefaultArguments() {
+    return defaultArguments;
+  }
+
+  static String seriesTitle(String episodesArgument) {
+    return episodesArgument.substring(0, seasonSeparator(episodesArgument));
+  }
+
+  static int season(String episodesArgument) {
+    return Integer.parseInt(episodesArgument.substring(seasonSeparator(episodesArgument) + 1));
+  }
+
+  private static int seasonSeparator(String episodesArgument) {
+    int separator = episodesArgument.lastIndexOf('/');
+    if (separator < 0) {
+      throw new IllegalArgumentException(
+          "Expected <series title>/<season>: " + episodesArgument);
+    }
+    return separator;
+  }
+
+  @Override
+  public String toString() {
+    return operationName;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+/**
+ * The outcome of one successful request: when the first item of the response arrived, when the
+ * response completed, and how many items and bytes it held. Times are {@link System#nanoTime()}
+ * values; the first response time equals the completion time for an empty response.
+ */
+final class Outcome {
+
+  private final long firstResponseNanos;
+  private final long completedNanos;
+  private final long items;
+  private final long bytes;
+
+  Outcome(long firstResponseNanos, long completedNanos, long items, long bytes) {
+    this.firstResponseNanos = firstResponseNanos < 0 ? completedNanos : firstResponseNanos;
+    this.completedNanos = completedNanos;
+    this.items = items;
+    this.bytes = bytes;
+  }
+
+  long getFirstResponseNanos() {
+    return firstResponseNanos;
+  }
+
+  long getCompletedNanos() {
+    return completedNanos;
+  }
+
+  long getItems() {
+    return items;
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+}
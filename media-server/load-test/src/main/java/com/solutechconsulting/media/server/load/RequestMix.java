@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The relative weights of the operations in a load run and the arguments they are called with.
+ * Each request picks an operation with probability proportional to its weight, then one of the
+ * operation's arguments uniformly. Instances are immutable; the {@code with} methods return a copy
+ * with one operation changed.
+ */
+public final class RequestMix {
+
+  private final Map<Operation, Integer> weights;
+  private final Map<Operation, List<String>> arguments;
+
+  private RequestMix(Map<Operation, Integer> weights, Map<Operation, List<String>> arguments) {
+    this.weights = weights;
+    this.arguments = arguments;
+  }
+
+  /**
+   * Return a mix calling every operation equally often with its default arguments.
+   *
+   * @return the uniform mix
+   */
+  public static RequestMix uniform() {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    Map<Operation, List<String>> arguments = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      weights.put(operation, 1);
+      arguments.put(operation, operation.getDefaultArguments());
+    }
+    return new RequestMix(weights, arguments);
+  }
+
+  /**
+   * Parse a mix of the form {@code searchMovies=4,getSeries=1}. Operations not listed get weight
+   * zero; all operations keep their default arguments.
+   *
+   * @param text the mix
+   * @return the parsed mix
+   */
+  public static RequestMix parse(String text) {
+    RequestMix mix = uniform();
+    for (Operation operation : Operation.values()) {
+      mix = mix.withWeight(operation, 0);
+    }
+    for (String entry : text.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected <operation>=<weight>: " + entry);
+      }
+      mix = mix.withWeight(Operation.of(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+    return mix;
+  }
+
+  public RequestMix withWeight(Operation operation, int weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("The weight can't be negative: " + weight);
+    }
+    Map<Operation, Integer> copy = new EnumMap<>(weights);
+    copy.put(operation, weight);
+    return new RequestMix(copy, arguments);
+  }
+
+  public RequestMix withArguments(Operation operation, List<String> operationArguments) {
+    if (operation.hasArgument() == operationArguments.isEmpty()) {
+      throw new IllegalArgumentException(
+          operation + (operation.hasArgument() ? " needs arguments" : " takes no arguments"));
+    }
+    Map<Operation, List<String>> copy = new EnumMap<>(arguments);
+    copy.put(operation, Collections.unmodifiableList(new ArrayList<>(operationArguments)));
+    return new RequestMix(weights, copy);
+  }
+
+  public int getWeight(Operation operation) {
+    return weights.get(operation);
+  }
+
+  public List<String> getArguments(Operation operation) {
+    return arguments.get(operation);
+  }
+
+  /**
+   * Return a picker choosing requests from this mix with the given random source. A picker isn't
+   * thread-safe, so each worker uses its own.
+   *
+   * @param random the random source
+   * @return the request picker
+   */
+  Picker picker(Random random) {
+    return new Picker(random);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    weights.forEach((operation, weight) -> {
+      if (weight > 0) {
+        builder.append(builder.length() == 0 ? "" : ",").append(operation).append('=')
+            .append(weight);
+      }
+    });
+    return builder.toString();
+  }
+
+  /**
+   * Chooses the operation and argument of each request.
+   */
+  final class Picker {
+
+    private final Random random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private Picker(Random random) {
+      this.random = random;
+      List<Operation> weighted = new ArrayList<>();
+      weights.forEach((operation, weight) -> {
+        if (weight > 0) {
+          weighted.add(operation);
+        }
+      });
+      if (weighted.isEmpty()) {
+        throw new IllegalStateException("The request mix has no operation with a weight");
+      }
+      this.operations = weighted.toArray(new Operation[0]);
+      this.cumulativeWeights = new int[operations.length];
+      int total = 0;
+      for (int i = 0; i < operations.length; i++) {
+        total += weights.get(operations[i]);
+        cumulativeWeights[i] = total;
+      }
+    }
+
+    Operation nextOperation() {
+      int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+      int i = 0;
+      while (cumulativeWeights[i] <= value) {
+        i++;
+      }
+      return operations[i];
+    }
+
+    String nextArgument(Operation operation) {
+      List<String> operationArguments = arguments.get(operation);
+      return operationArguments.isEmpty() ? null
+          : operationArguments.get(random.nextInt(operationArguments.size()));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import com.solutechconsulting.media.server.rest.ResourceDefinitions;
+import io.reactivex.Single;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Calls the JSON endpoints of the REST server. The items of a response are counted by scanning the
+ * bytes of the JSON array for the objects it holds, rather than by parsing it, to keep the cost of
+ * the client low when it shares a machine with the server.
+ */
+final class RestJsonClient extends AbstractRestClient {
+
+  RestJsonClient(LoadSettings settings) {
+    super(settings, "application/json");
+  }
+
+  @Override
+  public Single<Outcome> call(Operation operation, String argument) {
+    return Single.defer(() -> {
+      JsonArraySubscriber subscriber = new JsonArraySubscriber();
+      return send(operation, argument, HttpResponse.BodyHandlers.fromSubscriber(subscriber),
+          subscriber);
+    });
+  }
+
+  @Override
+  String basePath(Operation operation) {
+    switch (operation) {
+      case GET_MOVIES:
+      case SEARCH_MOVIES:
+        return ResourceDefinitions.Path.Movies.PATH;
+      case GET_AUDIO:
+      case SEARCH_AUDIO:
+      case GET_AUDIO_TRACKS:
+        return ResourceDefinitions.Path.Audio.PATH;
+      default:
+        return ResourceDefinitions.Path.TelevisionShows.PATH;
+    }
+  }
+
+  /**
+   * Counts the objects directly inside a JSON array as its bytes arrive. Only quotes, escapes and
+   * braces matter; multi-byte UTF-8 characters never contain those bytes.
+   */
+  static final class JsonArraySubscriber extends ResponseSubscriber<List<ByteBuffer>> {
+
+    private long firstResponseNanos = -1;
+    private long completedNanos;
+    private long items;
+    private long bytes;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      if (firstResponseNanos < 0) {
+        firstResponseNanos = System.nanoTime();
+      }
+      for (ByteBuffer buffer : buffers) {
+        bytes += buffer.remaining();
+        while (buffer.hasRemaining()) {
+          scan(buffer.get());
+        }
+      }
+    }
+
+    private void scan(byte value) {
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+        } else if (value == '\\') {
+          escaped = true;
+        } else if (value == '"') {
+          inString = false;
+        }
+      } else if (value == '"') {
+        inString = true;
+      } else if (value == '{' || value == '[') {
+        if (value == '{' && depth == 1) {
+          items++;
+        }
+        depth++;
+      } else if (value == '}' || value == ']') {
+        depth--;
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      // The error completes the response exceptionally.
+    }
+
+    @Override
+    public void onComplete() {
+      completedNanos = System.nanoTime();
+    }
+
+    @Override
+    Outcome outcome() throws IOException {
+      if (depth != 0 || inString) {
+        throw new IOException("Incomplete JSON response");
+      }
+      return new Outcome(firstResponseNanos, completedNanos, items, bytes);
+    }
+  }
+}
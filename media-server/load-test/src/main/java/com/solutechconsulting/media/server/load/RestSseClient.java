@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import com.solutechconsulting.media.server.rest.ResourceDefinitions;
+import io.reactivex.Single;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+
+/**
+ * Calls the streaming endpoints of the REST server and reads the server-sent events of each
+ * response line by line. The first response time is the arrival of the first media event, and a
+ * stream only succeeds if it ends with the end of stream event.
+ */
+final class RestSseClient extends AbstractRestClient {
+
+  RestSseClient(LoadSettings settings) {
+    super(settings, "text/event-stream");
+  }
+
+  @Override
+  public Single<Outcome> call(Operation operation, String argument) {
+    return Single.defer(() -> {
+      EventSubscriber subscriber = new EventSubscriber();
+      return send(operation, argument,
+          HttpResponse.BodyHandlers.fromLineSubscriber(subscriber), subscriber);
+    });
+  }
+
+  @Override
+  String basePath(Operation operation) {
+    switch (operation) {
+      case GET_MOVIES:
+      case SEARCH_MOVIES:
+        return ResourceDefinitions.Path.Movies.STREAM_PATH;
+      case GET_AUDIO:
+      case SEARCH_AUDIO:
+      case GET_AUDIO_TRACKS:
+        return ResourceDefinitions.Path.Audio.STREAM_PATH;
+      default:
+        return ResourceDefinitions.Path.TelevisionShows.STREAM_PATH;
+    }
+  }
+
+  /**
+   * Parses the event stream. An event is dispatched at the blank line ending it; only its id
+   * matters here, since the id marks the end of stream and error events.
+   */
+  static final class EventSubscriber extends ResponseSubscriber<String> {
+
+    private static final String ID_FIELD = "id:";
+
+    private long firstResponseNanos = -1;
+    private long completedNanos;
+    private long items;
+    private long bytes;
+    private String eventId;
+    private boolean ended;
+    private boolean failed;
+
+    @Override
+    public void onNext(String line) {
+      bytes += line.length() + 1;
+      if (line.isEmpty()) {
+        dispatch();
+      } else if (line.startsWith(ID_FIELD)) {
+        eventId = line.substring(ID_FIELD.length()).trim();
+      }
+    }
+
+    private void dispatch() {
+      if (eventId == null) {
+        return;
+      }
+      if (ResourceDefinitions.Stream.END_OF_STREAM_MARKER.equals(eventId)) {
+        ended = true;
+      } else if (ResourceDefinitions.Stream.ERROR_MARKER.equals(eventId)) {
+        failed = true;
+      } else {
+        if (firstResponseNanos < 0) {
+          firstResponseNanos = System.nanoTime();
+        }
+        items++;
+      }
+      eventId = null;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      // The error completes the response exceptionally.
+    }
+
+    @Override
+    public void onComplete() {
+      dispatch();
+      completedNanos = System.nanoTime();
+    }
+
+    @Override
+    Outcome outcome() throws IOException {
+      if (failed) {
+        throw new IOException("The server sent an error event");
+      }
+      if (!ended) {
+        throw new IOException("The event stream ended without an end of stream event");
+      }
+      return new Outcome(firstResponseNanos, completedNanos, items, bytes);
+    }
+  }
+}
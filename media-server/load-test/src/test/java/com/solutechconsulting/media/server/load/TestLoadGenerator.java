@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives load against the REST and gRPC servers running in the test application, backed by the
+ * H2 database or, with {@code -Dquarkus.profile=mock}, by the mock implementation. The settings are
+ * read from the {@code mediaservice.load-test.*} properties, and each report is written to the
+ * report directory.
+ */
+@QuarkusTest
+public class TestLoadGenerator {
+
+  @ConfigProperty(name = LoadSettings.CONFIG_PREFIX + "report-directory")
+  String reportDirectory;
+
+  @Test
+  public void testRestJson() throws IOException {
+    run(Protocol.REST_JSON);
+  }
+
+  @Test
+  public void testRestSse() throws IOException {
+    run(Protocol.REST_SSE);
+  }
+
+  @Test
+  public void testGrpc() throws IOException {
+    run(Protocol.GRPC);
+  }
+
+  private void run(Protocol protocol) throws IOException {
+    LoadSettings settings = LoadSettings.fromConfig(ConfigProvider.getConfig())
+        .withProtocol(protocol);
+    LoadReport report = new LoadGenerator(settings).run();
+    Path summary = report.write(Paths.get(reportDirectory));
+
+    assertTrue(Files.exists(summary));
+    assertTrue(report.getRequests() > 0);
+    assertEquals(0, report.getErrors(), report::toString);
+    long calledOperations = Arrays.stream(Operation.values())
+        .filter(operation -> settings.getMix().getWeight(operation) > 0).count();
+    assertEquals(calledOperations, report.getOperations().size(), report::toString);
+    report.getOperations().forEach(operation -> assertTrue(operation.getItems() > 0,
+        () -> operation.getOperation() + " returned nothing"));
+  }
+}
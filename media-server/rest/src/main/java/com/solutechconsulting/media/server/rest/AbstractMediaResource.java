@@ -22,11 +22,10 @@
 
 package com.solutechconsulting.media.server.rest;
 
-import com.solutechconsulting.media.model.Media;
 import com.solutechconsulting.media.service.MediaService;
 import io.reactivex.Flowable;
-import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.converters.multi.MultiRxConverters;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import javax.inject.Inject;
@@ -38,30 +37,39 @@ import org.slf4j.LoggerFactory;
  * AbstractMediaResource contains common and convenience methods used by all {@link MediaService}
  * RESTful resources.
  */
-public abstract class AbstractMediaResource<T extends Media> {
+public abstract class AbstractMediaResource<T> {
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
   private final ExecutorService executorService = Executors.newCachedThreadPool();
 
+  private final Scheduler scheduler = Schedulers.from(executorService);
+
   @Inject
   MediaService mediaService;
 
   /**
-   * Given a flowable as returned from the {@link MediaService}, create a {@link Response} to be
-   * used with synchronous RESTful endpoints.
+   * Given a flowable as returned from the {@link MediaService}, create the result of a synchronous
+   * RESTful endpoint. The items are written as a JSON array or, when the client accepts one, in a
+   * binary {@link com.solutechconsulting.media.service.rest.MediaEncoding}. Either way they are
+   * written as the flowable produces them rather than collected first; see {@link
+   * StreamingArrayWriter}.
    *
    * @param flowable a flowable as returned by the {@link MediaService}
-   * @return a response containing an array of all items returned in the flowable or a bad request
-   * error if an exception occurs.
+   * @return the items of the flowable to be written as the response. A failure before the first
+   * item results in an error response.
    */
-  protected Multi<T> createResponse(Flowable<T> flowable) {
+  protected StreamingArray<T> createResponse(Flowable<T> flowable) {
     getLogger().debug("Creating response...");
 
-    return Multi.createFrom().converter(MultiRxConverters.fromFlowable(), flowable)
-        .onFailure().invoke(throwable -> getLogger().error("Media service exception.", throwable))
-        .onCompletion().invoke(() -> getLogger().debug("Response complete."))
-        .runSubscriptionOn(executorService);
+    return new StreamingArray<>(flowable
+        .doOnError(throwable -> getLogger().error("Media service exception.", throwable))
+        .doOnComplete(() -> getLogger().debug("Response complete."))
+        .subscribeOn(scheduler));
+  }
+
+  protected ExecutorService getExecutorService() {
+    return executorService;
   }
 
   protected MediaService getMediaService() {
@@ -22,8 +22,23 @@
 
 package com.solutechconsulting.media.server.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.solutechconsulting.media.model.Media;
+import com.solutechconsulting.media.service.ConcurrencyLimitExceededException;
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import com.solutechconsulting.media.service.StreamRecorder;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.sse.OutboundSseEvent;
@@ -35,7 +50,16 @@ import javax.ws.rs.sse.SseEventSink;
  */
 public abstract class AbstractMediaStreamResource extends AbstractMediaResource {
 
-  private OutboundSseEvent.Builder outboundEventBuilder;
+  private Sse sse;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @Inject
+  StreamMetrics streamMetrics;
+
+  @Inject
+  StreamConfiguration streamConfiguration;
 
   /**
    * Send server-side events to callers. Given a flowable as returned from the {@link
@@ -60,44 +84,183 @@ public abstract class AbstractMediaStreamResource extends AbstractMediaResource
    * name: "The media type"<br> comment: An error has occurred.<br> id: ERROR_MARKER<br> data: The
    * error/exception text<br>
    * </code>
+   * <p>
+   * When the parameters carry a batch size, the media items are instead sent as JSON arrays of up
+   * to that many items, each array sent once it is full or once its first item has waited for the
+   * batch time, whichever comes first. A batch event carries the id of its last item and no
+   * comment:
+   * <br>
+   * <code>
+   * name: "The media type"<br> id: "The id of the last media item"<br> data: "The media items
+   * serialized as a JSON array"<br>
+   * </code>
+   * <p>
+   * Items are requested from the flowable as the sink sends the events: at most {@link
+   * StreamConfiguration#getSendWindow()} events are handed to the sink and not yet sent, so a slow
+   * client holds back the media service rather than filling the server's buffers. The method
+   * returns once the last event has been sent or the client has gone. A failed send cancels the
+   * flowable, so the media service stops producing items for a client that is no longer there.
+   * <p>
+   * Since every media event carries the id of its (last) item, a client whose connection drops
+   * reconnects with that id as its {@code Last-Event-ID} and the resources resume the stream after
+   * it; see {@link #resumeAfter(Function, StreamParameters)}.
+   * <p>
+   * Each stream is recorded in the {@link StreamMetrics} of the operation: the elements and bytes
+   * of event data sent, the events awaiting the sink, the time the sink takes to send each event,
+   * and a disconnect when the sink fails to send an event because the client has gone.
+   * <p>
+   * The sink is closed once the stream has ended. A stream rejected by the operation's
+   * concurrency limit has not sent anything, so the {@link ConcurrencyLimitExceededException} is
+   * thrown instead, leaving the sink open for the exception to be answered with a 503 response.
+   *
+   * @param operation  the name of the {@link com.solutechconsulting.media.service.MediaService}
+   *                   method producing the flowable
+   * @param flowable   a flowable returned from the {@link com.solutechconsulting.media.service.MediaService}
+   *                   methods
+   * @param parameters the stream parameters of the request
+   * @param eventSink  the event sink to which the event data is to be sent
+   * @param <T>        the type of Media object being processed
+   */
+  protected <T extends Media> void sendEvents(String operation, Flowable<T> flowable,
+      StreamParameters parameters, SseEventSink eventSink) {
+    if (parameters.getBatchSize() < 0) {
+      throw new BadRequestException("The batch size must not be negative.");
+    }
+
+    StreamRecorder recorder =
+        streamMetrics.stream(operation, MediaService.MetricsDefinitions.Stream.SSE_TRANSPORT);
+    Scheduler scheduler = Schedulers.from(getExecutorService());
+
+    Flowable<OutboundSseEvent> events;
+    if (parameters.getBatchSize() > 0) {
+      int batchSize = Math.min(parameters.getBatchSize(), streamConfiguration.getMaxBatchSize());
+      long batchNanos = parameters.getBatchMillis() < 0
+          ? streamConfiguration.getBatchTime().toNanos()
+          : TimeUnit.MILLISECONDS.toNanos(parameters.getBatchMillis());
+      events = flowable.lift(new BatchingOperator<T>(batchSize, batchNanos, scheduler))
+          .map(batch -> batchEvent(batch, recorder));
+    } else {
+      events = flowable.map(media -> mediaEvent(media, recorder));
+    }
+
+    Throwable sendFailure = events.concatWith(Flowable.fromCallable(() -> sse.newEventBuilder()
+        .name(getEventName())
+        .comment(ResourceDefinitions.Stream.END_OF_STREAM_COMMENT)
+        .id(ResourceDefinitions.Stream.END_OF_STREAM_MARKER)
+        .build())).onErrorResumeNext(throwable -> {
+      if (throwable instanceof ConcurrencyLimitExceededException) {
+        return Flowable.error(throwable);
+      }
+      getLogger().error("An exception has occurred while streaming events.", throwable);
+      return Flowable.just(sse.newEventBuilder()
+          .name(getEventName())
+          .mediaType(MediaType.TEXT_PLAIN_TYPE)
+          .comment(ResourceDefinitions.Stream.ERROR_COMMENT)
+          .id(ResourceDefinitions.Stream.ERROR_MARKER)
+          .data(throwable.toString())
+          .build());
+    }).flatMapCompletable(event -> send(eventSink, event, recorder).observeOn(scheduler), false,
+        streamConfiguration.getSendWindow()).blockingGet();
+
+    if (sendFailure instanceof ConcurrencyLimitExceededException) {
+      getLogger().debug("The stream was rejected by its concurrency limit.", sendFailure);
+      throw (ConcurrencyLimitExceededException) sendFailure;
+    }
+
+    try (eventSink) {
+      if (sendFailure == null) {
+        recorder.complete();
+      } else {
+        getLogger().debug("The client stopped receiving events.", sendFailure);
+        recorder.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Resume a stream ordered by media id after the last event the client received. A stream the
+   * client saw end is not sent again, and one that ended in an error starts over.
+   *
+   * @param after      returns the media following an id, or all media for a {@code null} id
+   * @param parameters the stream parameters of the request
+   * @param <T>        the type of Media object being processed
+   * @return the media not yet sent to the client
+   */
+  protected <T extends Media> Flowable<T> resumeAfter(Function<String, Flowable<T>> after,
+      StreamParameters parameters) {
+    String lastEventId = parameters.getLastEventId();
+    if (ResourceDefinitions.Stream.END_OF_STREAM_MARKER.equals(lastEventId)) {
+      return Flowable.empty();
+    }
+    return after.apply(ResourceDefinitions.Stream.ERROR_MARKER.equals(lastEventId)
+        ? null : lastEventId);
+  }
+
+  /**
+   * Resume a stream the media service cannot seek after the last event the client received. The
+   * results are read again, but only those following the media with the last event id are sent.
+   * Should that media no longer be part of the results, nothing more is sent.
    *
-   * @param flowable  a flowable returned from the {@link com.solutechconsulting.media.service.MediaService}
-   *                  methods
-   * @param eventSink the event sink to which the event data is to be sent
-   * @param <T>       the type of Media object being processed
+   * @param flowable   the complete results
+   * @param parameters the stream parameters of the request
+   * @param <T>        the type of Media object being processed
+   * @return the media not yet sent to the client
    */
-  protected <T extends Media> void sendEvents(Flowable<T> flowable, SseEventSink eventSink) {
-    flowable.map(media -> outboundEventBuilder
+  protected <T extends Media> Flowable<T> resume(Flowable<T> flowable,
+      StreamParameters parameters) {
+    return resumeAfter(lastEventId -> lastEventId == null ? flowable
+        : flowable.skipWhile(media -> !lastEventId.equals(media.getId())).skip(1), parameters);
+  }
+
+  private OutboundSseEvent mediaEvent(Media media, StreamRecorder recorder)
+      throws JsonProcessingException {
+    String data = objectMapper.writeValueAsString(media);
+    recorder.element(data.getBytes(StandardCharsets.UTF_8).length);
+    return sse.newEventBuilder()
         .name(getEventName())
         .id(media.getId())
         .comment(media.getTitle())
         .mediaType(MediaType.APPLICATION_JSON_TYPE)
-        .data(this.getClass(), media)
-        .build()).subscribe(eventSink::send,
-        throwable -> {
-          getLogger().error("An exception has occurred while streaming events.",
-              throwable);
-          eventSink.send(outboundEventBuilder
-              .name(getEventName())
-              .mediaType(
-                  MediaType.TEXT_PLAIN_TYPE)
-              .comment(ResourceDefinitions.Stream.ERROR_COMMENT)
-              .id(ResourceDefinitions.Stream.ERROR_MARKER)
-              .data(throwable.toString())
-              .build());
-
-        }, () -> eventSink.send(outboundEventBuilder
-            .name(getEventName())
-            .comment(
-                ResourceDefinitions.Stream.END_OF_STREAM_COMMENT)
-            .id(ResourceDefinitions.Stream.END_OF_STREAM_MARKER)
-            .build()).thenAccept(o -> eventSink.close())).dispose();
+        .data(String.class, data)
+        .build();
+  }
+
+  private OutboundSseEvent batchEvent(List<? extends Media> batch, StreamRecorder recorder)
+      throws JsonProcessingException {
+    String data = objectMapper.writeValueAsString(batch);
+    recorder.elements(batch.size(), data.getBytes(StandardCharsets.UTF_8).length);
+    return sse.newEventBuilder()
+        .name(getEventName())
+        .id(batch.get(batch.size() - 1).getId())
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(String.class, data)
+        .build();
+  }
+
+  /**
+   * Hand an event to the sink, completing when the sink has sent it. Completion is observed on a
+   * worker thread, as it requests the next item from the media service.
+   */
+  private static Completable send(SseEventSink eventSink, OutboundSseEvent event,
+      StreamRecorder recorder) {
+    return Completable.create(emitter -> {
+      long sendStart = System.nanoTime();
+      recorder.sending();
+      eventSink.send(event).whenComplete((o, throwable) -> {
+        recorder.sent(System.nanoTime() - sendStart);
+        if (throwable == null) {
+          emitter.onComplete();
+        } else {
+          emitter.onError(throwable);
+        }
+      });
+    });
   }
 
   protected abstract String getEventName();
 
   @Context
   public void setSse(Sse sse) {
-    this.outboundEventBuilder = sse.newEventBuilder();
+    this.sse = sse;
   }
 }
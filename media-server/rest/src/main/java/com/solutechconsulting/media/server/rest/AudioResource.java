@@ -22,9 +22,9 @@
 
 package com.solutechconsulting.media.server.rest;
 
+import com.solutechconsulting.media.encoding.MediaEncoding;
 import com.solutechconsulting.media.model.Audio;
 import com.solutechconsulting.media.service.MediaService;
-import io.smallrye.mutiny.Multi;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -48,12 +48,13 @@ public class AudioResource extends AbstractMediaResource<Audio> {
    * @return a response containing all audio items in the media library.
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.ALL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetAudio.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.GetAudio.TIMER_NAME, description =
       MediaService.MetricsDefinitions.GetAudio.TIMER_DESCRIPTION)
-  public Multi<Audio> getAudio() {
+  public StreamingArray<Audio> getAudio() {
     getLogger().debug("Invoking getAudio...");
     return createResponse(getMediaService().getAudio());
   }
@@ -67,12 +68,13 @@ public class AudioResource extends AbstractMediaResource<Audio> {
    * @return a response containing audio items matching the search criteria
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.SEARCH_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.SearchAudio.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.SearchAudio.TIMER_NAME, description =
       MediaService.MetricsDefinitions.SearchAudio.TIMER_DESCRIPTION)
-  public Multi<Audio> searchAudio(
+  public StreamingArray<Audio> searchAudio(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText) {
     getLogger().debug("Invoking searchAudio... Search text: {}", searchText);
     return createResponse(getMediaService().searchAudio(searchText));
@@ -86,13 +88,14 @@ public class AudioResource extends AbstractMediaResource<Audio> {
    * @return a response containing the tracks associated with the album
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Audio.TRACKS_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetAudioTracks.TIMER_NAME, displayName =
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.GetAudioTracks.TIMER_NAME, description =
       MediaService.MetricsDefinitions.GetAudioTracks.TIMER_DESCRIPTION)
-  public Multi<Audio> getTracks(
+  public StreamingArray<Audio> getTracks(
       @PathParam(ResourceDefinitions.Path.Audio.ALBUM_TITLE_PARAMETER) String albumTitle) {
     getLogger().debug("Invoking getTracks... Album title: {}", albumTitle);
     return createResponse(getMediaService().getAudioTracks(albumTitle));
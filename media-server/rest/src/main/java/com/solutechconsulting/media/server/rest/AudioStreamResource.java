@@ -24,6 +24,7 @@ package com.solutechconsulting.media.server.rest;
 
 import com.solutechconsulting.media.service.MediaService;
 import io.reactivex.Flowable;
+import javax.ws.rs.BeanParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -36,7 +37,8 @@ import org.eclipse.microprofile.metrics.annotation.Timed;
 /**
  * RESTful resource providing result streams from the audio item methods of the {@link
  * MediaService}. Result streams are sent using server-sent events. The event format is outlined
- * here: {@link AbstractMediaStreamResource#sendEvents(Flowable, SseEventSink)}.
+ * here: {@link AbstractMediaStreamResource#sendEvents(String, Flowable, StreamParameters,
+ * SseEventSink)}.
  */
 @Path(ResourceDefinitions.Path.Audio.STREAM_PATH)
 public class AudioStreamResource extends AbstractMediaStreamResource {
@@ -44,10 +46,12 @@ public class AudioStreamResource extends AbstractMediaStreamResource {
   private static final String METRICS_PREFIX = "com.solutechconsulting.media.server.rest.AudioStreamResource";
 
   /**
-   * Emit all audio items in the media library as server-sent events. See {@link
-   * MediaService#getAudio()}.
+   * Emit all audio items in the media library, in order of their ids, as server-sent events. A
+   * reconnecting client resumes after its last event id. See {@link
+   * MediaService#getAudioAfter(String)}.
    *
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -55,12 +59,12 @@ public class AudioStreamResource extends AbstractMediaStreamResource {
   @Timed(name = MediaService.MetricsDefinitions.GetAudio.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.GetAudio.TIMER_NAME, description =
       MediaService.MetricsDefinitions.GetAudio.TIMER_DESCRIPTION)
-  public void getAudioStream(@Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking getAudioStream...");
-      sendEvents(getMediaService().getAudio(), eventSink);
-      getLogger().debug("getAudioStream complete.");
-    }
+  public void getAudioStream(@BeanParam StreamParameters streamParameters,
+      @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking getAudioStream...");
+    sendEvents("getAudio", resumeAfter(getMediaService()::getAudioAfter, streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getAudioStream complete.");
   }
 
   /**
@@ -68,8 +72,9 @@ public class AudioStreamResource extends AbstractMediaStreamResource {
    * as server-sent events. The service will include the song and album titles and the album
    * artist(s) in its search. See {@link MediaService#searchAudio(String)}.
    *
-   * @param searchText   the text value used in searching audio
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param searchText       the text value used in searching audio
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -79,20 +84,20 @@ public class AudioStreamResource extends AbstractMediaStreamResource {
       MediaService.MetricsDefinitions.SearchAudio.TIMER_DESCRIPTION)
   public void searchAudioStream(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking searchAudioStream... Search text: {}", searchText);
-      sendEvents(getMediaService().searchAudio(searchText), eventSink);
-      getLogger().debug("searchAudioStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking searchAudioStream... Search text: {}", searchText);
+    sendEvents("searchAudio", resume(getMediaService().searchAudio(searchText), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("searchAudioStream complete.");
   }
 
   /**
    * Given a case-insensitive album title, emit the associated album tracks as server-sent events.
    * See {@link MediaService#getAudioTracks(String)}.
    *
-   * @param albumTitle   the album title
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param albumTitle       the album title
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -103,12 +108,12 @@ public class AudioStreamResource extends AbstractMediaStreamResource {
       MediaService.MetricsDefinitions.GetAudioTracks.TIMER_DESCRIPTION)
   public void getAudioTracksStream(
       @PathParam(ResourceDefinitions.Path.Audio.ALBUM_TITLE_PARAMETER) String albumTitle,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking getAudioTracksStream... Album title: {}", albumTitle);
-      sendEvents(getMediaService().getAudioTracks(albumTitle), eventSink);
-      getLogger().debug("getAudioTracksStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking getAudioTracksStream... Album title: {}", albumTitle);
+    sendEvents("getAudioTracks",
+        resume(getMediaService().getAudioTracks(albumTitle), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getAudioTracksStream complete.");
   }
 
   @Override
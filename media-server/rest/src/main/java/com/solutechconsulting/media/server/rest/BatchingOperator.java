@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Collects the items of a flowable into batches of at most a given size, emitting a partial batch
+ * once its first item has waited for the linger time. Unlike the timed {@code buffer} operators,
+ * which request everything from upstream, items are only requested to fill the batch being
+ * collected while downstream has requested a batch, so no more than one batch is ever held and a
+ * slow subscriber holds back the source.
+ *
+ * @param <T> the type of the items
+ */
+final class BatchingOperator<T> implements FlowableOperator<List<T>, T> {
+
+  private final int batchSize;
+  private final long lingerNanos;
+  private final Scheduler scheduler;
+
+  /**
+   * @param batchSize   the maximum number of items in a batch
+   * @param lingerNanos how long the first item of a batch waits for the batch to fill
+   * @param scheduler   the scheduler emitting partial batches
+   */
+  BatchingOperator(int batchSize, long lingerNanos, Scheduler scheduler) {
+    this.batchSize = batchSize;
+    this.lingerNanos = lingerNanos;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Subscriber<? super T> apply(Subscriber<? super List<T>> downstream) {
+    return new BatchingSubscriber<>(downstream, batchSize, lingerNanos, scheduler.createWorker());
+  }
+
+  private static final class BatchingSubscriber<T> implements FlowableSubscriber<T>,
+      Subscription {
+
+    private final Subscriber<? super List<T>> downstream;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Scheduler.Worker worker;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private Subscription upstream;
+    private List<T> batch = new ArrayList<>();
+    private long batchNumber;
+    private boolean lingered;
+    private Disposable linger;
+    private long requested;
+    private long upstreamRequested;
+    private boolean done;
+    private Throwable error;
+    private volatile boolean cancelled;
+
+    BatchingSubscriber(Subscriber<? super List<T>> downstream, int batchSize, long lingerNanos,
+        Scheduler.Worker worker) {
+      this.downstream = downstream;
+      this.batchSize = batchSize;
+      this.lingerNanos = lingerNanos;
+      this.worker = worker;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      upstream = subscription;
+      downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T item) {
+      synchronized (this) {
+        upstreamRequested--;
+        batch.add(item);
+        if (batch.size() == 1 && batchSize > 1) {
+          long number = batchNumber;
+          linger = worker.schedule(() -> linger(number), lingerNanos, TimeUnit.NANOSECONDS);
+        }
+      }
+      drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      synchronized (this) {
+        error = throwable;
+        done = true;
+      }
+      drain();
+    }
+
+    @Override
+    public void onComplete() {
+      synchronized (this) {
+        done = true;
+      }
+      drain();
+    }
+
+    @Override
+    public void request(long n) {
+      synchronized (this) {
+        requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      upstream.cancel();
+      worker.dispose();
+    }
+
+    private void linger(long number) {
+      synchronized (this) {
+        if (number != batchNumber) {
+          return;
+        }
+        lingered = true;
+      }
+      drain();
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        while (!cancelled) {
+          List<T> emit = null;
+          boolean terminate = false;
+          long request = 0;
+          synchronized (this) {
+            boolean ready = !batch.isEmpty() && (batch.size() >= batchSize || lingered || done);
+            if (ready && requested > 0) {
+              emit = batch;
+              batch = new ArrayList<>();
+              batchNumber++;
+              lingered = false;
+              if (linger != null) {
+                linger.dispose();
+                linger = null;
+              }
+              if (requested != Long.MAX_VALUE) {
+                requested--;
+              }
+            } else if (done && batch.isEmpty()) {
+              terminate = true;
+            } else if (!done && requested > 0) {
+              request = batchSize - batch.size() - upstreamRequested;
+              if (request > 0) {
+                upstreamRequested += request;
+              }
+            }
+          }
+
+          if (emit != null) {
+            downstream.onNext(emit);
+          } else if (terminate) {
+            worker.dispose();
+            if (error != null) {
+              downstream.onError(error);
+            } else {
+              downstream.onComplete();
+            }
+            return;
+          } else {
+            if (request > 0) {
+              upstream.request(request);
+            }
+            break;
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import com.solutechconsulting.media.service.ConcurrencyLimitExceededException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers a request rejected by the media service's concurrency limit with 503 Service Unavailable
+ * and a Retry-After header, rather than the 500 of an unexpected failure, so that clients and load
+ * balancers back off and retry. The synchronous and server-sent event resources both report the
+ * rejection this way, as a rejected stream has not sent anything yet.
+ */
+@Provider
+public class ConcurrencyLimitExceededMapper implements
+    ExceptionMapper<ConcurrencyLimitExceededException> {
+
+  static final String RETRY_AFTER_SECONDS = "1";
+
+  private final Logger logger =
+      LoggerFactory.getLogger(ConcurrencyLimitExceededMapper.class.getName());
+
+  @Override
+  public Response toResponse(ConcurrencyLimitExceededException exception) {
+    logger.debug("Rejecting request: {}", exception.getMessage());
+    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).type(MediaType.TEXT_PLAIN_TYPE)
+        .entity(exception.getMessage()).build();
+  }
+}
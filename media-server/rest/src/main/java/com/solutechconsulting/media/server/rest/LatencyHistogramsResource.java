@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import com.solutechconsulting.media.service.EncodedLatencyHistogram;
+import com.solutechconsulting.media.service.LatencyHistograms;
+import java.util.List;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * RESTful resource exporting the latency histograms of the media service operations for
+ * collectors aggregating them across replicas. See {@link LatencyHistograms}.
+ */
+@Path(ResourceDefinitions.Path.LatencyHistograms.PATH)
+public class LatencyHistogramsResource {
+
+  @Inject
+  LatencyHistograms latencyHistograms;
+
+  /**
+   * Return the cumulative latency histogram of each operation called since start-up, in the
+   * compressed HdrHistogram encoding.
+   *
+   * @return the encoded histograms
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public List<EncodedLatencyHistogram> export() {
+    return latencyHistograms.export();
+  }
+}
@@ -22,9 +22,9 @@
 
 package com.solutechconsulting.media.server.rest;
 
+import com.solutechconsulting.media.encoding.MediaEncoding;
 import com.solutechconsulting.media.model.Movie;
 import com.solutechconsulting.media.service.MediaService;
-import io.smallrye.mutiny.Multi;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -48,13 +48,14 @@ public class MoviesResource extends AbstractMediaResource<Movie> {
    * @return a response containing all movies in the media library.
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.ALL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetMovies.TIMER_NAME, displayName =
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.GetMovies.TIMER_NAME,
       description = MediaService.MetricsDefinitions.GetMovies.TIMER_DESCRIPTION)
-  public Multi<Movie> getMovies() {
+  public StreamingArray<Movie> getMovies() {
     getLogger().debug("Invoking getMovies...");
     return createResponse(getMediaService().getMovies());
   }
@@ -68,13 +69,14 @@ public class MoviesResource extends AbstractMediaResource<Movie> {
    * @return a response containing movies matching the search criteria
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.SEARCH_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.SearchMovies.TIMER_NAME, displayName =
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.SearchMovies.TIMER_NAME,
       description = MediaService.MetricsDefinitions.SearchMovies.TIMER_DESCRIPTION)
-  public Multi<Movie> searchMovies(
+  public StreamingArray<Movie> searchMovies(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText) {
     getLogger().debug("Invoking searchMovies... Search text: {}", searchText);
     return createResponse(getMediaService().searchMovies(searchText));
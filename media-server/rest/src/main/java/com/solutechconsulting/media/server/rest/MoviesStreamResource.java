@@ -24,6 +24,7 @@ package com.solutechconsulting.media.server.rest;
 
 import com.solutechconsulting.media.service.MediaService;
 import io.reactivex.Flowable;
+import javax.ws.rs.BeanParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -36,7 +37,7 @@ import org.eclipse.microprofile.metrics.annotation.Timed;
 /**
  * RESTful resource providing result streams from the movie methods of the {@link MediaService}.
  * Result streams are sent using server-sent events. The event format is outlined here: {@link
- * AbstractMediaStreamResource#sendEvents(Flowable, SseEventSink)}.
+ * AbstractMediaStreamResource#sendEvents(String, Flowable, StreamParameters, SseEventSink)}.
  */
 @Path(ResourceDefinitions.Path.Movies.STREAM_PATH)
 public class MoviesStreamResource extends AbstractMediaStreamResource {
@@ -44,10 +45,12 @@ public class MoviesStreamResource extends AbstractMediaStreamResource {
   private static final String METRICS_PREFIX = "com.solutechconsulting.media.server.rest.MovieStreamResource";
 
   /**
-   * Emit all movies in the media library as server-sent events. See {@link
-   * MediaService#getMovies()}.
+   * Emit all movies in the media library, in order of their ids, as server-sent events. A
+   * reconnecting client resumes after its last event id. See {@link
+   * MediaService#getMoviesAfter(String)}.
    *
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -55,12 +58,12 @@ public class MoviesStreamResource extends AbstractMediaStreamResource {
   @Timed(name = MediaService.MetricsDefinitions.GetMovies.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.GetMovies.TIMER_NAME, description =
       MediaService.MetricsDefinitions.GetMovies.TIMER_DESCRIPTION)
-  public void getMoviesStream(@Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking getMoviesStream...");
-      sendEvents(getMediaService().getMovies(), eventSink);
-      getLogger().debug("getMoviesStream complete.");
-    }
+  public void getMoviesStream(@BeanParam StreamParameters streamParameters,
+      @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking getMoviesStream...");
+    sendEvents("getMovies", resumeAfter(getMediaService()::getMoviesAfter, streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getMoviesStream complete.");
   }
 
   /**
@@ -68,8 +71,9 @@ public class MoviesStreamResource extends AbstractMediaStreamResource {
    * server-sent events. The service will include the title, summary and tag line attributes of
    * movies in its search. See {@link MediaService#searchMovies(String)}.
    *
-   * @param searchText   the text value used in searching movies
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param searchText       the text value used in searching movies
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -79,12 +83,12 @@ public class MoviesStreamResource extends AbstractMediaStreamResource {
       MediaService.MetricsDefinitions.SearchMovies.TIMER_DESCRIPTION)
   public void searchMoviesStream(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking searchMoviesStream... Search text: {}", searchText);
-      sendEvents(getMediaService().searchMovies(searchText), eventSink);
-      getLogger().debug("searchMoviesStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking searchMoviesStream... Search text: {}", searchText);
+    sendEvents("searchMovies",
+        resume(getMediaService().searchMovies(searchText), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("searchMoviesStream complete.");
   }
 
   @Override
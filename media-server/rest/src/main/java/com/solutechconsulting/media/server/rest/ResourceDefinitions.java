@@ -29,6 +29,8 @@ public final class ResourceDefinitions {
   public static final String MEDIA_STREAM = "/stream";
 
   public static final String SEARCH_TEXT_PARAMETER = "searchText";
+  public static final String BATCH_SIZE_PARAMETER = "batchSize";
+  public static final String BATCH_MILLIS_PARAMETER = "batchMillis";
 
   public static final class Path {
 
@@ -83,6 +85,27 @@ public final class ResourceDefinitions {
       }
     }
 
+    public static final class Suggestions {
+
+      public static final String PATH = MEDIA_RESOURCE_PATH + "/suggest";
+
+      public static final String PREFIX_PARAMETER = "prefix";
+      public static final String PREFIX_FULL_PATH = "/{" + PREFIX_PARAMETER + "}";
+      public static final String LIMIT_PARAMETER = "limit";
+      public static final String DEFAULT_LIMIT = "10";
+
+      private Suggestions() {
+      }
+    }
+
+    public static final class LatencyHistograms {
+
+      public static final String PATH = MEDIA_RESOURCE_PATH + "/histograms";
+
+      private LatencyHistograms() {
+      }
+    }
+
     private Path() {
     }
   }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import io.quarkus.arc.config.ConfigProperties;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ConfigProperties(prefix = "mediaservice.stream")
+public interface StreamConfiguration {
+
+  /**
+   * The maximum number of server-sent events of a stream handed to the sink and not yet sent. No
+   * more items are requested from the media service until a send completes, so a slow client
+   * holds back the stream instead of filling the server's buffers. A window of one sends each
+   * event only after the previous one has been sent.
+   *
+   * @return the send window
+   */
+  @ConfigProperty(defaultValue = "8")
+  int getSendWindow();
+
+  /**
+   * The largest batch size a client may request. Larger requested sizes are reduced to it.
+   *
+   * @return the maximum batch size
+   */
+  @ConfigProperty(defaultValue = "1000")
+  int getMaxBatchSize();
+
+  /**
+   * How long a batch waits to fill before it is sent, when the client doesn't say.
+   *
+   * @return the batch time
+   */
+  @ConfigProperty(defaultValue = "PT0.1S")
+  Duration getBatchTime();
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+
+/**
+ * The parameters common to the server-sent event streams. All are optional: without a batch size,
+ * each media item is sent as its own event, and without a last event id the stream starts with the
+ * first item.
+ */
+public class StreamParameters {
+
+  @QueryParam(ResourceDefinitions.BATCH_SIZE_PARAMETER)
+  @DefaultValue("0")
+  int batchSize;
+
+  @QueryParam(ResourceDefinitions.BATCH_MILLIS_PARAMETER)
+  @DefaultValue("-1")
+  long batchMillis;
+
+  @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER)
+  String lastEventId;
+
+  /**
+   * The maximum number of media items sent as a JSON array in each event, or zero to send each
+   * item as its own event.
+   *
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * The time in milliseconds a batch waits to fill before it is sent, or a negative value for the
+   * configured default.
+   *
+   * @return the batch time
+   */
+  public long getBatchMillis() {
+    return batchMillis;
+  }
+
+  /**
+   * The id of the last event the client received before its connection dropped, sent by the client
+   * when it reconnects, or {@code null} for a new stream.
+   *
+   * @return the last event id
+   */
+  public String getLastEventId() {
+    return lastEventId;
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.solutechconsulting.media.encoding.MediaEncoding;
+import com.solutechconsulting.media.model.Media;
+import io.reactivex.disposables.Disposable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Writes the {@link StreamingArray} results of the synchronous resources as a JSON array or, for
+ * media items, in one of the binary {@link MediaEncoding}s. Items are requested from the flowable
+ * at most {@link ArrayConfiguration#getPrefetch()} at a time and written as they arrive, so the
+ * response starts with the first item and the memory it holds is bounded however many items it
+ * has. A slow client holds back the flowable through the blocked writes.
+ * <p>
+ * JSON items are written with the application's object mapper. Jackson flushes after every value
+ * by default; here the array is flushed after its first item and then every {@link
+ * ArrayConfiguration#getFlushSize()} items, and in between the output is sent as the buffers fill.
+ * A failure before the first item is thrown before anything is written, so it is reported as an
+ * error response. A later failure leaves the array unterminated and aborts the response.
+ */
+@Provider
+@Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+    MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
+public class StreamingArrayWriter implements MessageBodyWriter<StreamingArray<?>> {
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @Inject
+  ArrayConfiguration arrayConfiguration;
+
+  @Override
+  public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations,
+      MediaType mediaType) {
+    if (!StreamingArray.class.isAssignableFrom(type) || itemType(genericType) == null) {
+      return false;
+    }
+    return binaryEncoding(mediaType).map(encoding -> mediaItemType(genericType) != null)
+        .orElse(mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE));
+  }
+
+  @Override
+  public void writeTo(StreamingArray<?> array, Class<?> type, Type genericType,
+      Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream) throws IOException {
+    Iterator<?> items = array.getItems().blockingIterable(arrayConfiguration.getPrefetch())
+        .iterator();
+    try {
+      // Wait for the first item, so that an early failure is thrown before anything is written
+      items.hasNext();
+      Optional<MediaEncoding> encoding = binaryEncoding(mediaType);
+      if (encoding.isPresent()) {
+        writeEncoded(encoding.get(), items, mediaItemType(genericType), entityStream);
+      } else {
+        writeJson(items, itemType(genericType), entityStream);
+      }
+    } finally {
+      if (items instanceof Disposable) {
+        ((Disposable) items).dispose();
+      }
+    }
+  }
+
+  private void writeJson(Iterator<?> items, Type itemType, OutputStream entityStream)
+      throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(entityStream)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    SequenceWriter writer = objectMapper.writerFor(objectMapper.constructType(itemType))
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValuesAsArray(generator);
+    int flushSize = arrayConfiguration.getFlushSize();
+    for (long written = 1; items.hasNext(); written++) {
+      writer.write(items.next());
+      if (written == 1 || written % flushSize == 0) {
+        writer.flush();
+      }
+    }
+    writer.close();
+    generator.close();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void writeEncoded(MediaEncoding encoding, Iterator<?> items,
+      Class<Media> itemType, OutputStream entityStream) throws IOException {
+    Iterator<Media> media = (Iterator<Media>) items;
+    encoding.write(() -> media, itemType, entityStream);
+  }
+
+  private static Optional<MediaEncoding> binaryEncoding(MediaType mediaType) {
+    return MediaEncoding.of(mediaType).filter(encoding -> encoding != MediaEncoding.JSON);
+  }
+
+  private static Type itemType(Type genericType) {
+    if (genericType instanceof ParameterizedType) {
+      Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+      if (arguments.length == 1) {
+        return arguments[0];
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Class<Media> mediaItemType(Type genericType) {
+    Type itemType = itemType(genericType);
+    if (itemType instanceof Class && Media.class.isAssignableFrom((Class<?>) itemType)) {
+      return (Class<Media>) itemType;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import com.solutechconsulting.media.model.Suggestion;
+import com.solutechconsulting.media.service.MediaService;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import org.eclipse.microprofile.metrics.annotation.Timed;
+
+/**
+ * RESTful resource supporting the <b>synchronous</b> suggest method of the media service.
+ * Suggestions are requested as a user types and are bounded by a limit, so they are only offered
+ * as single, synchronous responses.
+ */
+@Path(ResourceDefinitions.Path.Suggestions.PATH)
+public class SuggestionsResource extends AbstractMediaResource<Suggestion> {
+
+  private static final String METRICS_PREFIX = "com.solutechconsulting.media.server.rest.SuggestionsResource";
+
+  /**
+   * Return the most popular completions of a search prefix. See {@link
+   * MediaService#suggest(String, int)}.
+   *
+   * @param prefix the text entered so far
+   * @param limit  the maximum number of suggestions to return
+   * @return a response containing the suggestions, most popular first
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path(ResourceDefinitions.Path.Suggestions.PREFIX_FULL_PATH)
+  @Timed(name = MediaService.MetricsDefinitions.Suggest.TIMER_NAME, displayName =
+      METRICS_PREFIX + '.'
+          + MediaService.MetricsDefinitions.Suggest.TIMER_NAME,
+      description = MediaService.MetricsDefinitions.Suggest.TIMER_DESCRIPTION)
+  public StreamingArray<Suggestion> suggest(
+      @PathParam(ResourceDefinitions.Path.Suggestions.PREFIX_PARAMETER) String prefix,
+      @QueryParam(ResourceDefinitions.Path.Suggestions.LIMIT_PARAMETER)
+      @DefaultValue(ResourceDefinitions.Path.Suggestions.DEFAULT_LIMIT) int limit) {
+    getLogger().debug("Invoking suggest... Prefix: {}, Limit: {}", prefix, limit);
+    return createResponse(getMediaService().suggest(prefix, limit));
+  }
+}
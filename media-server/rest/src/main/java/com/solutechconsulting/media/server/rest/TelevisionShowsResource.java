@@ -22,9 +22,9 @@
 
 package com.solutechconsulting.media.server.rest;
 
+import com.solutechconsulting.media.encoding.MediaEncoding;
 import com.solutechconsulting.media.model.TelevisionShow;
 import com.solutechconsulting.media.service.MediaService;
-import io.smallrye.mutiny.Multi;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -49,13 +49,14 @@ public class TelevisionShowsResource extends AbstractMediaResource<TelevisionSho
    * @return a response containing all television shows in the media library.
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.ALL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetTelevisionShows.TIMER_NAME, displayName =
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.GetTelevisionShows.TIMER_NAME, description =
       "Return all television shows stored in the media library.")
-  public Multi<TelevisionShow> getTelevisionShows() {
+  public StreamingArray<TelevisionShow> getTelevisionShows() {
     getLogger().debug("Invoking getTelevisionShows...");
     return createResponse(getMediaService().getTelevisionShows());
   }
@@ -69,13 +70,14 @@ public class TelevisionShowsResource extends AbstractMediaResource<TelevisionSho
    * @return a response containing television shows matching the search criteria
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.Common.SEARCH_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.SearchTelevisionShows.TIMER_NAME, displayName =
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.SearchTelevisionShows.TIMER_NAME, description =
       "Perform a case insensitive text search of television shows in the media library.")
-  public Multi<TelevisionShow> searchTelevisionShows(
+  public StreamingArray<TelevisionShow> searchTelevisionShows(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText) {
     getLogger().debug("Invoking searchTelevisionShows... Search text: {}", searchText);
     return createResponse(getMediaService().searchTelevisionShows(searchText));
@@ -90,12 +92,13 @@ public class TelevisionShowsResource extends AbstractMediaResource<TelevisionSho
    * @return a response containing the television shows matching the search criteria
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.TelevisionShows.SERIES_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetSeries.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.GetSeries.TIMER_NAME, description =
       "Given a series title, return television show episodes for the entire series from the media library.")
-  public Multi<TelevisionShow> getSeries(
+  public StreamingArray<TelevisionShow> getSeries(
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SERIES_TITLE_PARAMETER) String seriesTitle) {
     getLogger().debug("Invoking getSeries... Series title: {}", seriesTitle);
     return createResponse(getMediaService().getSeries(seriesTitle));
@@ -111,12 +114,13 @@ public class TelevisionShowsResource extends AbstractMediaResource<TelevisionSho
    * @return a response containing the television shows matching the search criteria
    */
   @GET
-  @Produces(MediaType.APPLICATION_JSON)
+  @Produces({MediaType.APPLICATION_JSON, MediaEncoding.APPLICATION_PROTOBUF,
+      MediaEncoding.APPLICATION_SMILE, MediaEncoding.APPLICATION_CBOR})
   @Path(ResourceDefinitions.Path.TelevisionShows.EPISODES_FULL_PATH)
   @Timed(name = MediaService.MetricsDefinitions.GetEpisodes.TIMER_NAME, displayName =
       METRICS_PREFIX + '.' + MediaService.MetricsDefinitions.GetEpisodes.TIMER_NAME, description =
       "Given a series title and season, return the television show episodes from the media library.")
-  public Multi<TelevisionShow> getEpisodes(
+  public StreamingArray<TelevisionShow> getEpisodes(
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SERIES_TITLE_PARAMETER) String seriesTitle,
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SEASON_PARAMETER) int season) {
     getLogger().debug("Invoking getEpisodes... Series title: {}, Season: {}", seriesTitle, season);
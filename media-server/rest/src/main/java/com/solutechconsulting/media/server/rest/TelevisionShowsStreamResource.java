@@ -24,6 +24,7 @@ package com.solutechconsulting.media.server.rest;
 
 import com.solutechconsulting.media.service.MediaService;
 import io.reactivex.Flowable;
+import javax.ws.rs.BeanParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -36,7 +37,8 @@ import org.eclipse.microprofile.metrics.annotation.Timed;
 /**
  * RESTful resource providing result streams from the television show methods of the {@link
  * MediaService}. Result streams are sent using server-sent events. The event format is outlined
- * here: {@link AbstractMediaStreamResource#sendEvents(Flowable, SseEventSink)}.
+ * here: {@link AbstractMediaStreamResource#sendEvents(String, Flowable, StreamParameters,
+ * SseEventSink)}.
  */
 @Path(ResourceDefinitions.Path.TelevisionShows.STREAM_PATH)
 public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
@@ -45,10 +47,12 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
       ".TelevisionShowStreamResource";
 
   /**
-   * Emit all television shows in the media library as server-sent events. See {@link
-   * MediaService#getTelevisionShows()}.
+   * Emit all television shows in the media library, in order of their ids, as server-sent events. A
+   * reconnecting client resumes after its last event id. See {@link
+   * MediaService#getTelevisionShowsAfter(String)}.
    *
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -57,12 +61,13 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
       METRICS_PREFIX + '.'
           + MediaService.MetricsDefinitions.GetTelevisionShows.TIMER_NAME, description =
       MediaService.MetricsDefinitions.GetTelevisionShows.TIMER_DESCRIPTION)
-  public void getTelevisionShowsStream(@Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking getTelevisionShowsStream...");
-      sendEvents(getMediaService().getTelevisionShows(), eventSink);
-      getLogger().debug("getTelevisionShowsStream complete.");
-    }
+  public void getTelevisionShowsStream(@BeanParam StreamParameters streamParameters,
+      @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking getTelevisionShowsStream...");
+    sendEvents("getTelevisionShows",
+        resumeAfter(getMediaService()::getTelevisionShowsAfter, streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getTelevisionShowsStream complete.");
   }
 
   /**
@@ -70,8 +75,9 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
    * results as server-sent events. The service will include the series and shows titles and show
    * summary in its search. See {@link MediaService#searchTelevisionShows(String)}.
    *
-   * @param searchText   the text value used in searching television shows
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param searchText       the text value used in searching television shows
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -82,12 +88,12 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
       MediaService.MetricsDefinitions.SearchTelevisionShows.TIMER_DESCRIPTION)
   public void searchTelevisionShowsStream(
       @PathParam(ResourceDefinitions.SEARCH_TEXT_PARAMETER) String searchText,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking searchTelevisionShowsStream... Search text: {}", searchText);
-      sendEvents(getMediaService().searchTelevisionShows(searchText), eventSink);
-      getLogger().debug("searchTelevisionShowsStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking searchTelevisionShowsStream... Search text: {}", searchText);
+    sendEvents("searchTelevisionShows",
+        resume(getMediaService().searchTelevisionShows(searchText), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("searchTelevisionShowsStream complete.");
   }
 
   /**
@@ -95,8 +101,9 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
    * library as server-sent events. Series title will be a case insensitive search. See {@link
    * MediaService#getSeries(String)}.
    *
-   * @param seriesTitle  the television show series title
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param seriesTitle      the television show series title
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -106,12 +113,11 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
       MediaService.MetricsDefinitions.GetSeries.TIMER_DESCRIPTION)
   public void getSeriesStream(
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SERIES_TITLE_PARAMETER) String seriesTitle,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger().debug("Invoking getSeriesStream... Series title: {}", seriesTitle);
-      sendEvents(getMediaService().getSeries(seriesTitle), eventSink);
-      getLogger().debug("getSeriesStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger().debug("Invoking getSeriesStream... Series title: {}", seriesTitle);
+    sendEvents("getSeries", resume(getMediaService().getSeries(seriesTitle), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getSeriesStream complete.");
   }
 
   /**
@@ -119,9 +125,10 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
    * server-sent events. Series title will be a case insensitive search. See {@link
    * MediaService#getEpisodes(String, int)}
    *
-   * @param seriesTitle  the television show series title
-   * @param season       the television show series season number
-   * @param sseEventSink the server-sent events sink for the current context
+   * @param seriesTitle      the television show series title
+   * @param season           the television show series season number
+   * @param streamParameters the stream parameters of the request
+   * @param sseEventSink     the server-sent events sink for the current context
    */
   @GET
   @Produces(MediaType.SERVER_SENT_EVENTS)
@@ -132,13 +139,13 @@ public class TelevisionShowsStreamResource extends AbstractMediaStreamResource {
   public void getEpisodesStream(
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SERIES_TITLE_PARAMETER) String seriesTitle,
       @PathParam(ResourceDefinitions.Path.TelevisionShows.SEASON_PARAMETER) int season,
-      @Context SseEventSink sseEventSink) {
-    try (SseEventSink eventSink = sseEventSink) {
-      getLogger()
-          .debug("Invoking getEpisodesStream... Series title: {}, Season: {}", seriesTitle, season);
-      sendEvents(getMediaService().getEpisodes(seriesTitle, season), eventSink);
-      getLogger().debug("getEpisodesStream complete.");
-    }
+      @BeanParam StreamParameters streamParameters, @Context SseEventSink sseEventSink) {
+    getLogger()
+        .debug("Invoking getEpisodesStream... Series title: {}, Season: {}", seriesTitle, season);
+    sendEvents("getEpisodes",
+        resume(getMediaService().getEpisodes(seriesTitle, season), streamParameters),
+        streamParameters, sseEventSink);
+    getLogger().debug("getEpisodesStream complete.");
   }
 
   @Override
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.solutechconsulting.media.model.TelevisionShow;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.sse.SseEventSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestBatchedStream extends ResourceTestBase {
+
+  private static final int BATCH_SIZE = 100;
+
+  @Test
+  public void testBatchedShows() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    List<TelevisionShow> shows = new ArrayList<>();
+    List<Integer> batchSizes = new ArrayList<>();
+
+    Client client = ClientBuilder.newClient();
+    try (SseEventSource eventSource = SseEventSource.target(client.target(URL_PREFIX
+        + ResourceDefinitions.Path.TelevisionShows.STREAM_PATH
+        + ResourceDefinitions.Path.Common.ALL_PATH)
+        .queryParam(ResourceDefinitions.BATCH_SIZE_PARAMETER, BATCH_SIZE)
+        .queryParam(ResourceDefinitions.BATCH_MILLIS_PARAMETER, 50)).build()) {
+      eventSource.register(sseEvent -> {
+        try {
+          if (sseEvent.getId().equals(ResourceDefinitions.Stream.END_OF_STREAM_MARKER)) {
+            latch.countDown();
+          } else {
+            List<TelevisionShow> batch = getObjectMapper().readValue(sseEvent.readData(),
+                new TypeReference<List<TelevisionShow>>() {
+                });
+            assertEquals(batch.get(batch.size() - 1).getId(), sseEvent.getId());
+            batchSizes.add(batch.size());
+            shows.addAll(batch);
+          }
+        } catch (IOException e) {
+          fail(e);
+        }
+      }, Assertions::fail);
+
+      eventSource.open();
+      latch.await();
+    }
+    client.close();
+
+    assertEquals(2937, shows.size());
+    assertTrue(batchSizes.size() >= 2937 / BATCH_SIZE);
+    assertTrue(batchSizes.stream().allMatch(size -> size > 0 && size <= BATCH_SIZE));
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.service.ConcurrencyLimiter;
+import com.solutechconsulting.media.service.ConcurrencyLimiters;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestConcurrencyLimit extends ResourceTestBase {
+
+  @Inject
+  ConcurrencyLimiters concurrencyLimiters;
+
+  @Test
+  public void testRejection() throws IOException {
+    Client client = ClientBuilder.newClient();
+    WebTarget target = client.target(URL_PREFIX + ResourceDefinitions.Path.Movies.PATH
+        + ResourceDefinitions.Path.Common.SEARCH_PATH + "/star trek");
+    List<Movie> movies = getResponseResult(target);
+    assertEquals(13, movies.size());
+
+    Map<ConcurrencyLimiter, Integer> acquired = acquireAll("searchMovies");
+    try (Response response = target.request(MediaType.APPLICATION_JSON_TYPE).get()) {
+      assertRejected(response);
+    } finally {
+      releaseAll(acquired);
+    }
+
+    movies = getResponseResult(target);
+    assertEquals(13, movies.size());
+    client.close();
+  }
+
+  @Test
+  public void testStreamRejection() {
+    Client client = ClientBuilder.newClient();
+    WebTarget target = client.target(URL_PREFIX + ResourceDefinitions.Path.Movies.STREAM_PATH
+        + ResourceDefinitions.Path.Common.SEARCH_PATH + "/star trek");
+
+    Map<ConcurrencyLimiter, Integer> acquired = acquireAll("searchMovies");
+    try (Response response = target.request(MediaType.SERVER_SENT_EVENTS_TYPE).get()) {
+      assertRejected(response);
+    } finally {
+      releaseAll(acquired);
+    }
+    client.close();
+  }
+
+  /**
+   * Take every place the limit of the operation allows, as that many slow requests would.
+   */
+  private Map<ConcurrencyLimiter, Integer> acquireAll(String operation) {
+    Map<ConcurrencyLimiter, Integer> acquired = new HashMap<>();
+    concurrencyLimiters.getLimiters().stream()
+        .filter(limiter -> limiter.getOperation().equals(operation)).forEach(limiter -> {
+          int places = 0;
+          while (limiter.tryAcquire()) {
+            places++;
+          }
+          acquired.put(limiter, places);
+        });
+    assertFalse(acquired.isEmpty());
+    return acquired;
+  }
+
+  private static void releaseAll(Map<ConcurrencyLimiter, Integer> acquired) {
+    acquired.forEach((limiter, places) -> {
+      for (int i = 0; i < places; i++) {
+        limiter.release();
+      }
+    });
+  }
+
+  private static void assertRejected(Response response) {
+    assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+    assertEquals(ConcurrencyLimitExceededMapper.RETRY_AFTER_SECONDS,
+        response.getHeaderString(HttpHeaders.RETRY_AFTER));
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.solutechconsulting.media.model.JsonCodecModule;
+import com.solutechconsulting.media.model.TelevisionShow;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.util.List;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestJsonCodecs extends ResourceTestBase {
+
+  private static final String SHOWS_PATH =
+      URL_PREFIX + ResourceDefinitions.Path.TelevisionShows.PATH;
+
+  private static final TypeReference<List<TelevisionShow>> SHOWS = new TypeReference<>() {
+  };
+
+  @Test
+  public void testCodecsRegistered() {
+    assertTrue(getObjectMapper().getRegisteredModuleIds()
+        .contains(JsonCodecModule.class.getName()));
+  }
+
+  @Test
+  public void testReflectiveCompatibility() throws IOException {
+    ObjectMapper reflective = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    Client client = ClientBuilder.newClient();
+    String json;
+    try (Response response = client.target(SHOWS_PATH).request(MediaType.APPLICATION_JSON).get()) {
+      assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+      json = response.readEntity(String.class);
+    }
+    client.close();
+
+    List<TelevisionShow> shows = getObjectMapper().readValue(json, SHOWS);
+    assertEquals(2937, shows.size());
+    assertEquals(reflective.readValue(json, SHOWS), shows);
+    assertEquals(reflective.readTree(reflective.writerFor(SHOWS).writeValueAsString(shows)),
+        reflective.readTree(json));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.service.EncodedLatencyHistogram;
+import com.solutechconsulting.media.service.LatencyHistograms;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestLatencyHistogramsResource extends ResourceTestBase {
+
+  private static final String HISTOGRAMS_PATH =
+      URL_PREFIX + ResourceDefinitions.Path.LatencyHistograms.PATH;
+
+  @Test
+  public void testExport() throws IOException, DataFormatException {
+    Client client = ClientBuilder.newClient();
+    List<Movie> movies = getResponseResult(client.target(URL_PREFIX
+        + ResourceDefinitions.Path.Movies.PATH + ResourceDefinitions.Path.Common.SEARCH_PATH
+        + "/star trek"));
+    assertEquals(13, movies.size());
+
+    List<EncodedLatencyHistogram> histograms;
+    try (Response response = client.target(HISTOGRAMS_PATH)
+        .request(MediaType.APPLICATION_JSON_TYPE).get()) {
+      assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+      histograms = getObjectMapper().readValue(response.readEntity(InputStream.class),
+          new TypeReference<List<EncodedLatencyHistogram>>() {
+          });
+    }
+    client.close();
+
+    EncodedLatencyHistogram searchMovies = histograms.stream()
+        .filter(histogram -> histogram.getOperation().equals("searchMovies")).findFirst()
+        .orElseThrow();
+    Histogram histogram = LatencyHistograms.decode(searchMovies.getHistogram());
+    assertTrue(histogram.getTotalCount() >= 1);
+    assertTrue(searchMovies.getStartTimeStamp() <= searchMovies.getEndTimeStamp());
+  }
+}
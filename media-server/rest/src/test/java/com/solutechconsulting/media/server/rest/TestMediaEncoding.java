@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.solutechconsulting.media.encoding.MediaEncoding;
+import com.solutechconsulting.media.model.Media;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.model.TelevisionShow;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestMediaEncoding extends ResourceTestBase {
+
+  private static final String MOVIES_PATH = URL_PREFIX + ResourceDefinitions.Path.Movies.PATH;
+  private static final String SHOWS_PATH =
+      URL_PREFIX + ResourceDefinitions.Path.TelevisionShows.PATH;
+
+  @Test
+  public void testProtobufMovies() throws IOException {
+    assertEncodedMovies(MediaEncoding.PROTOBUF);
+  }
+
+  @Test
+  public void testSmileMovies() throws IOException {
+    assertEncodedMovies(MediaEncoding.SMILE);
+  }
+
+  @Test
+  public void testCborMovies() throws IOException {
+    assertEncodedMovies(MediaEncoding.CBOR);
+  }
+
+  @Test
+  public void testEncodedSearch() throws IOException {
+    Client client = ClientBuilder.newClient();
+    List<TelevisionShow> shows = getEncodedResult(
+        client.target(SHOWS_PATH + ResourceDefinitions.Path.Common.SEARCH_PATH + "/star trek"),
+        MediaEncoding.PROTOBUF, TelevisionShow.class);
+    client.close();
+
+    assertFalse(shows.isEmpty());
+    assertEquals(shows.size(), shows.stream().filter(show -> (show.getTitle()
+        + show.getSeriesTitle() + show.getSummary()).toLowerCase().contains("star trek")).count());
+  }
+
+  private void assertEncodedMovies(MediaEncoding encoding) throws IOException {
+    Client client = ClientBuilder.newClient();
+    List<Movie> json =
+        getEncodedResult(client.target(MOVIES_PATH), MediaEncoding.JSON, Movie.class);
+    List<Movie> movies = getEncodedResult(client.target(MOVIES_PATH), encoding, Movie.class);
+    client.close();
+
+    assertEquals(269, movies.size());
+    assertEquals(json, movies);
+  }
+
+  private <T extends Media> List<T> getEncodedResult(WebTarget target, MediaEncoding encoding,
+      Class<T> type) throws IOException {
+    try (Response response = target.request(encoding.getMediaType()).get()) {
+      assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+      assertEquals(encoding.getMediaType(),
+          new MediaType(response.getMediaType().getType(), response.getMediaType().getSubtype()));
+      List<T> media = new ArrayList<>();
+      try (InputStream in = response.readEntity(InputStream.class)) {
+        encoding.read(in, type).forEachRemaining(media::add);
+      }
+      return media;
+    }
+  }
+}
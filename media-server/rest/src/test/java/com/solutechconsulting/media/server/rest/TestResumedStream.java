@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.sse.SseEventSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestResumedStream extends ResourceTestBase {
+
+  private static final int RESUME_INDEX = 1000;
+
+  @Test
+  public void testResumedShows() throws InterruptedException {
+    List<String> ids = getShowIds(null);
+    assertEquals(2937, ids.size());
+    List<String> sorted = new ArrayList<>(ids);
+    sorted.sort(null);
+    assertEquals(sorted, ids);
+
+    List<String> resumed = getShowIds(ids.get(RESUME_INDEX));
+    assertEquals(ids.subList(RESUME_INDEX + 1, ids.size()), resumed);
+  }
+
+  @Test
+  public void testEndedStream() throws InterruptedException {
+    assertEquals(List.of(), getShowIds(ResourceDefinitions.Stream.END_OF_STREAM_MARKER));
+  }
+
+  private List<String> getShowIds(String lastEventId) throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    List<String> ids = new ArrayList<>();
+
+    Client client = ClientBuilder.newClient();
+    WebTarget target = client.target(URL_PREFIX
+        + ResourceDefinitions.Path.TelevisionShows.STREAM_PATH
+        + ResourceDefinitions.Path.Common.ALL_PATH);
+    if (lastEventId != null) {
+      target.register((ClientRequestFilter) requestContext -> requestContext.getHeaders()
+          .putSingle(HttpHeaders.LAST_EVENT_ID_HEADER, lastEventId));
+    }
+    try (SseEventSource eventSource = SseEventSource.target(target).build()) {
+      eventSource.register(sseEvent -> {
+        if (sseEvent.getId().equals(ResourceDefinitions.Stream.END_OF_STREAM_MARKER)) {
+          latch.countDown();
+        } else {
+          ids.add(sseEvent.getId());
+        }
+      }, Assertions::fail);
+
+      eventSource.open();
+      latch.await();
+    }
+    client.close();
+
+    return ids;
+  }
+}
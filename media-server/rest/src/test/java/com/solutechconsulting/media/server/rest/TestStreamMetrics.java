@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.solutechconsulting.media.model.Movie;
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.List;
+import javax.inject.Inject;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import org.eclipse.microprofile.metrics.Meter;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestStreamMetrics extends ResourceTestBase {
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  @Test
+  public void testSseStream() throws InterruptedException {
+    Client client = ClientBuilder.newClient();
+    List<Movie> movies = getStreamResult(client.target(URL_PREFIX
+            + ResourceDefinitions.Path.Movies.STREAM_PATH
+            + ResourceDefinitions.Path.Common.SEARCH_PATH + "/star trek"),
+        new TypeReference<Movie>() {
+        });
+    client.close();
+    assertEquals(13, movies.size());
+
+    Meter elements = meter(MediaService.MetricsDefinitions.Stream.ELEMENTS_METER_NAME);
+    Meter bytes = meter(MediaService.MetricsDefinitions.Stream.BYTES_METER_NAME);
+    assertTrue(elements.getCount() >= 13);
+    assertTrue(bytes.getCount() > elements.getCount());
+  }
+
+  private Meter meter(String name) {
+    return metricRegistry.getMeters().get(new MetricID(StreamMetrics.class.getName() + '.' + name,
+        new Tag(MediaService.MetricsDefinitions.Stream.OPERATION_TAG, "searchMovies"),
+        new Tag(MediaService.MetricsDefinitions.Stream.TRANSPORT_TAG,
+            MediaService.MetricsDefinitions.Stream.SSE_TRANSPORT)));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.solutechconsulting.media.model.TelevisionShow;
+import com.solutechconsulting.media.service.MediaService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestStreamingArray extends ResourceTestBase {
+
+  private static final String SHOWS_PATH =
+      URL_PREFIX + ResourceDefinitions.Path.TelevisionShows.PATH;
+
+  private static final TypeReference<List<TelevisionShow>> SHOWS = new TypeReference<>() {
+  };
+
+  @Inject
+  MediaService mediaService;
+
+  @Inject
+  ArrayConfiguration arrayConfiguration;
+
+  /**
+   * Write the full show catalogue, verifying that no more than the prefetch is ever requested
+   * ahead of the writer and that the start of the array is flushed before more than the prefetch
+   * has been produced.
+   */
+  @Test
+  public void testBoundedShowCatalogue() throws Exception {
+    StreamingArrayWriter writer = new StreamingArrayWriter();
+    writer.objectMapper = getObjectMapper();
+    writer.arrayConfiguration = arrayConfiguration;
+    int prefetch = arrayConfiguration.getPrefetch();
+
+    AtomicLong produced = new AtomicLong();
+    AtomicLong largestRequest = new AtomicLong();
+    Flowable<TelevisionShow> shows = mediaService.getTelevisionShows()
+        .doOnNext(show -> produced.incrementAndGet())
+        .doOnRequest(n -> largestRequest.accumulateAndGet(n, Math::max));
+
+    AtomicLong producedAtFirstFlush = new AtomicLong(-1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public void flush() {
+        if (size() > 0) {
+          producedAtFirstFlush.compareAndSet(-1, produced.get());
+        }
+      }
+    };
+    writer.writeTo(new StreamingArray<>(shows), StreamingArray.class,
+        TelevisionShowsResource.class.getMethod("getTelevisionShows").getGenericReturnType(),
+        new Annotation[0], MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<>(), out);
+
+    assertTrue(largestRequest.get() <= prefetch);
+    assertTrue(producedAtFirstFlush.get() > 0 && producedAtFirstFlush.get() <= prefetch);
+    assertEquals(2937, produced.get());
+    assertEquals(mediaService.getTelevisionShows().toList().blockingGet(),
+        getObjectMapper().readValue(out.toByteArray(), SHOWS));
+  }
+
+  @Test
+  public void testChunkedResponse() throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(SHOWS_PATH).openConnection();
+    connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+    try (InputStream in = connection.getInputStream()) {
+      assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+      assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+      assertEquals(2937, getObjectMapper().readValue(in, SHOWS).size());
+    } finally {
+      connection.disconnect();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.solutechconsulting.media.model.Suggestion;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.IOException;
+import java.util.List;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestSuggestionsResource extends ResourceTestBase {
+
+  private static final String SUGGEST_PATH =
+      URL_PREFIX + ResourceDefinitions.Path.Suggestions.PATH;
+
+  @Test
+  public void testSuggest() throws IOException {
+    Client client = ClientBuilder.newClient();
+    WebTarget target = client.target(SUGGEST_PATH + "/star").queryParam(
+        ResourceDefinitions.Path.Suggestions.LIMIT_PARAMETER, 5);
+    List<Suggestion> suggestions = getResponseResult(target);
+    client.close();
+    assertEquals(5, suggestions.size());
+  }
+
+  @Test
+  public void testSuggestDefaultLimit() throws IOException {
+    Client client = ClientBuilder.newClient();
+    WebTarget target = client.target(SUGGEST_PATH + "/s");
+    List<Suggestion> suggestions = getResponseResult(target);
+    client.close();
+    assertEquals(10, suggestions.size());
+  }
+}
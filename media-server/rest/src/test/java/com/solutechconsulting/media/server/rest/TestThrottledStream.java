@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020, Ray Elenteny
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.solutechconsulting.media.server.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solutechconsulting.media.service.MediaService;
+import com.solutechconsulting.media.service.StreamMetrics;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class TestThrottledStream extends ResourceTestBase {
+
+  private static final int LINES_PER_PAUSE = 20;
+
+  @Inject
+  @RegistryType(type = MetricRegistry.Type.APPLICATION)
+  MetricRegistry metricRegistry;
+
+  @Inject
+  StreamConfiguration streamConfiguration;
+
+  @Test
+  public void testThrottledClient() throws IOException, InterruptedException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(URL_PREFIX
+        + ResourceDefinitions.Path.TelevisionShows.STREAM_PATH
+        + ResourceDefinitions.Path.Common.ALL_PATH).openConnection();
+    connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.SERVER_SENT_EVENTS);
+
+    List<String> ids = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      int lines = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("id:")) {
+          ids.add(line.substring(3).trim());
+        }
+        if (++lines % LINES_PER_PAUSE == 0) {
+          Thread.sleep(1);
+        }
+      }
+    } finally {
+      connection.disconnect();
+    }
+
+    assertEquals(2938, ids.size());
+    assertEquals(ResourceDefinitions.Stream.END_OF_STREAM_MARKER, ids.get(ids.size() - 1));
+
+    Histogram bufferDepth = metricRegistry.getHistograms().get(new MetricID(
+        StreamMetrics.class.getName() + '.'
+            + MediaService.MetricsDefinitions.Stream.BUFFER_DEPTH_HISTOGRAM_NAME,
+        new Tag(MediaService.MetricsDefinitions.Stream.OPERATION_TAG, "getTelevisionShows"),
+        new Tag(MediaService.MetricsDefinitions.Stream.TRANSPORT_TAG,
+            MediaService.MetricsDefinitions.Stream.SSE_TRANSPORT)));
+    assertTrue(bufferDepth.getCount() >= ids.size());
+    assertTrue(bufferDepth.getSnapshot().getMax() <= streamConfiguration.getSendWindow());
+  }
+}